@@ -30,6 +30,8 @@ import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
 
 import org.ojalgo.ProgrammingError;
+import org.ojalgo.algebra.NumberSet;
+import org.ojalgo.array.operation.SortAll;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionSet;
 import org.ojalgo.function.NullaryFunction;
@@ -258,6 +260,7 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
 
     }
 
+    public static final Factory<Double> R016 = Array1D.factory(ArrayR016.FACTORY);
     public static final Factory<Double> R032 = Array1D.factory(ArrayR032.FACTORY);
     public static final Factory<Double> R064 = Array1D.factory(ArrayR064.FACTORY);
     public static final Factory<Quadruple> R128 = Array1D.factory(ArrayR128.FACTORY);
@@ -730,6 +733,22 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
 
             ((Mutate1D.Sortable) myDelegate).sortAscending();
 
+        } else if (myDelegate.isPrimitive() && length <= PlainArray.MAX_SIZE && this.isIntegral()) {
+
+            long[] values = this.toLongCopy();
+            SortAll.sort(values);
+            for (int i = 0; i < values.length; i++) {
+                this.set(i, values[i]);
+            }
+
+        } else if (myDelegate.isPrimitive() && length <= PlainArray.MAX_SIZE) {
+
+            double[] values = this.toRawCopy1D();
+            SortAll.sort(values);
+            for (int i = 0; i < values.length; i++) {
+                this.set(i, values[i]);
+            }
+
         } else {
 
             //this.sortAscending(0L, this.count() - 1L);
@@ -749,6 +768,22 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
 
             ((Mutate1D.Sortable) myDelegate).sortDescending();
 
+        } else if (myDelegate.isPrimitive() && length <= PlainArray.MAX_SIZE && this.isIntegral()) {
+
+            long[] values = this.toLongCopy();
+            SortAll.sort(values);
+            for (int i = 0, last = values.length - 1; i < values.length; i++) {
+                this.set(i, values[last - i]);
+            }
+
+        } else if (myDelegate.isPrimitive() && length <= PlainArray.MAX_SIZE) {
+
+            double[] values = this.toRawCopy1D();
+            SortAll.sort(values);
+            for (int i = 0, last = values.length - 1; i < values.length; i++) {
+                this.set(i, values[last - i]);
+            }
+
         } else {
 
             //this.sortDescending(0L, this.count() - 1L);
@@ -807,9 +842,31 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
         return myFirst + myStep * index;
     }
 
+    /**
+     * Integer types are sorted/exchanged as long – not all long values can be represented exactly by a
+     * double.
+     */
+    private boolean isIntegral() {
+        return myDelegate.getMathType().getNumberSet() == NumberSet.Z;
+    }
+
+    private long[] toLongCopy() {
+        long[] retVal = new long[Math.toIntExact(length)];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = this.longValue(i);
+        }
+        return retVal;
+    }
+
     void exchange(final long indexA, final long indexB) {
 
-        if (myDelegate.isPrimitive()) {
+        if (myDelegate.isPrimitive() && this.isIntegral()) {
+
+            long tmpVal = this.longValue(indexA);
+            this.set(indexA, this.longValue(indexB));
+            this.set(indexB, tmpVal);
+
+        } else if (myDelegate.isPrimitive()) {
 
             double tmpVal = this.doubleValue(indexA);
             this.set(indexA, this.doubleValue(indexB));
@@ -285,8 +285,13 @@ public final class Array2D<N extends Comparable<N>> implements Access2D.Visitabl
             return TensorFactory2D.of(this);
         }
 
+        public Array2D<N> wrap(final BasicArray<N> array, final long structure) {
+            return array.wrapInArray2D(structure);
+        }
+
     }
 
+    public static final Factory<Double> R016 = Array2D.factory(ArrayR016.FACTORY);
     public static final Factory<Double> R032 = Array2D.factory(ArrayR032.FACTORY);
     public static final Factory<Double> R064 = Array2D.factory(ArrayR064.FACTORY);
     public static final Factory<Quadruple> R128 = Array2D.factory(ArrayR128.FACTORY);
@@ -117,6 +117,7 @@ public final class ArrayAnyD<N extends Comparable<N>> implements AccessAnyD.Visi
 
     }
 
+    public static final Factory<Double> R016 = ArrayAnyD.factory(ArrayR016.FACTORY);
     public static final Factory<Double> R032 = ArrayAnyD.factory(ArrayR032.FACTORY);
     public static final Factory<Double> R064 = ArrayAnyD.factory(ArrayR064.FACTORY);
     public static final Factory<Quadruple> R128 = ArrayAnyD.factory(ArrayR128.FACTORY);
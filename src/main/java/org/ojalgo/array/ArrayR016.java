@@ -0,0 +1,480 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import static org.ojalgo.function.constant.PrimitiveMath.ZERO;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.operation.AMAX;
+import org.ojalgo.array.operation.FillAll;
+import org.ojalgo.array.operation.OperationBinary;
+import org.ojalgo.array.operation.OperationUnary;
+import org.ojalgo.array.operation.OperationVoid;
+import org.ojalgo.function.BinaryFunction;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.function.aggregator.PrimitiveAggregator;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.NumberDefinition;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * A one- and/or arbitrary-dimensional array of 16 bit floating point numbers – either IEEE 754 half
+ * precision (binary16) or bfloat16. The elements are stored in a short[] and converted to/from float on
+ * access. All arithmetic is done in float (or double). Half the memory of {@link ArrayR032}, for when memory
+ * (bandwidth) matters more than precision:
+ * <ul>
+ * <li>{@link #FACTORY} – binary16: 11 significant bits (about 3 decimal digits) and a max value of 65504.
+ * <li>{@link #BFLOAT16} – bfloat16: 8 significant bits (2 decimal digits) but the same range as float.
+ * </ul>
+ *
+ * @author apete
+ */
+public final class ArrayR016 extends PrimitiveArray {
+
+    static final class Factory extends DenseArray.Factory<Double> {
+
+        private final boolean myBrain;
+
+        Factory(final boolean brain) {
+            super();
+            myBrain = brain;
+        }
+
+        @Override
+        public AggregatorSet<Double> aggregator() {
+            return PrimitiveAggregator.getSet();
+        }
+
+        @Override
+        public FunctionSet<Double> function() {
+            return PrimitiveFunction.getSet();
+        }
+
+        @Override
+        public MathType getMathType() {
+            return MathType.R016;
+        }
+
+        @Override
+        public Scalar.Factory<Double> scalar() {
+            return PrimitiveScalar.FACTORY;
+        }
+
+        @Override
+        PlainArray<Double> makeDenseArray(final long size) {
+            return new ArrayR016(this, new short[(int) size]);
+        }
+
+        boolean isBrain() {
+            return myBrain;
+        }
+
+    }
+
+    /**
+     * bfloat16 ("brain" floating point)
+     */
+    public static final DenseArray.Factory<Double> BFLOAT16 = new Factory(true);
+    /**
+     * IEEE 754 half precision (binary16)
+     */
+    public static final DenseArray.Factory<Double> FACTORY = new Factory(false);
+
+    private static final int HALF_INFINITY = 0x7C00;
+
+    /**
+     * bfloat16 to float – exact.
+     */
+    public static float fromBFloat16(final short bits) {
+        return Float.intBitsToFloat((bits & 0xFFFF) << 16);
+    }
+
+    /**
+     * binary16 to float – exact.
+     */
+    public static float fromFloat16(final short bits) {
+
+        int sign = (bits & 0x8000) << 16;
+        int exponent = bits >>> 10 & 0x1F;
+        int mantissa = bits & 0x3FF;
+
+        if (exponent == 0x1F) {
+            // Infinity or NaN
+            return Float.intBitsToFloat(sign | 0x7F800000 | mantissa << 13);
+        } else if (exponent == 0) {
+            // Zero or subnormal
+            float value = mantissa * 0x1p-24F;
+            return sign != 0 ? -value : value;
+        } else {
+            return Float.intBitsToFloat(sign | exponent + 112 << 23 | mantissa << 13);
+        }
+    }
+
+    public static ArrayR016 make(final int size) {
+        return new ArrayR016((Factory) FACTORY, new short[size]);
+    }
+
+    /**
+     * float to bfloat16 – rounds to nearest even.
+     */
+    public static short toBFloat16(final float value) {
+
+        int bits = Float.floatToRawIntBits(value);
+
+        if ((bits & 0x7FFFFFFF) > 0x7F800000) {
+            // NaN, make sure it stays NaN (quiet) after truncation
+            return (short) (bits >>> 16 | 0x40);
+        }
+
+        return (short) (bits + 0x7FFF + (bits >>> 16 & 1) >>> 16);
+    }
+
+    /**
+     * float to binary16 – rounds to nearest even. Values too large become infinite, and values too small
+     * become (signed) zero.
+     */
+    public static short toFloat16(final float value) {
+
+        int bits = Float.floatToRawIntBits(value);
+        int sign = bits >>> 16 & 0x8000;
+        int magnitude = bits & 0x7FFFFFFF;
+
+        if (magnitude > 0x7F800000) {
+            // NaN
+            return (short) (sign | HALF_INFINITY | 0x200 | magnitude >>> 13 & 0x3FF);
+        } else if (magnitude >= 0x477FF000) {
+            // Infinity, or rounds to infinity (>= 65520)
+            return (short) (sign | HALF_INFINITY);
+        } else if (magnitude < 0x38800000) {
+            // Subnormal (< 2^-14) – scaling by 2^24 is exact, and rint rounds half to even
+            return (short) (sign | (int) Math.rint(Float.intBitsToFloat(magnitude) * 0x1p24F));
+        } else {
+            int rounded = magnitude + 0xFFF + (magnitude >>> 13 & 1);
+            return (short) (sign | rounded - (112 << 23) >>> 13);
+        }
+    }
+
+    /**
+     * Array not copied! No checking! The short values are the binary16 bit patterns.
+     */
+    public static ArrayR016 wrap(final short... data) {
+        return new ArrayR016((Factory) FACTORY, data);
+    }
+
+    /**
+     * Array not copied! No checking! The short values are the bfloat16 bit patterns.
+     */
+    public static ArrayR016 wrapBFloat16(final short... data) {
+        return new ArrayR016((Factory) BFLOAT16, data);
+    }
+
+    /**
+     * The raw bit patterns – use {@link #fromFloat16(short)} or {@link #fromBFloat16(short)} to interpret
+     * them, or simply {@link #floatValue(int)}.
+     */
+    public final short[] data;
+
+    private final boolean myBrain;
+
+    ArrayR016(final Factory factory, final short[] data) {
+
+        super(factory, data.length);
+
+        this.data = data;
+        myBrain = factory.isBrain();
+    }
+
+    @Override
+    public byte byteValue(final int index) {
+        return (byte) Math.round(this.floatValue(index));
+    }
+
+    @Override
+    public double dot(final Access1D<?> vector) {
+
+        double retVal = ZERO;
+
+        for (int i = 0, limit = Math.min(data.length, (int) vector.count()); i < limit; i++) {
+            retVal += this.floatValue(i) * vector.doubleValue(i);
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || !(obj instanceof ArrayR016)) {
+            return false;
+        }
+        ArrayR016 other = (ArrayR016) obj;
+        return myBrain == other.myBrain && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public float floatValue(final int index) {
+        return myBrain ? ArrayR016.fromBFloat16(data[index]) : ArrayR016.fromFloat16(data[index]);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        return prime * result + Arrays.hashCode(data);
+    }
+
+    /**
+     * Is this a bfloat16 (rather than binary16) array?
+     */
+    public boolean isBFloat16() {
+        return myBrain;
+    }
+
+    @Override
+    public int intValue(final int index) {
+        return Math.round(this.floatValue(index));
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(data, (short) 0);
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        this.set(index, (float) value);
+    }
+
+    @Override
+    public void set(final int index, final float value) {
+        data[index] = myBrain ? ArrayR016.toBFloat16(value) : ArrayR016.toFloat16(value);
+    }
+
+    @Override
+    public void set(final int index, final long value) {
+        this.set(index, (float) value);
+    }
+
+    @Override
+    public short shortValue(final int index) {
+        return (short) Math.round(this.floatValue(index));
+    }
+
+    @Override
+    public void sortAscending() {
+        float[] values = this.toFloats();
+        Arrays.parallelSort(values);
+        this.fromFloats(values);
+    }
+
+    @Override
+    public void sortDescending() {
+        float[] values = this.toFloats();
+        Arrays.parallelSort(values);
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            float tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        this.fromFloats(values);
+    }
+
+    @Override
+    public void supplyTo(final Mutate1D receiver) {
+        int limit = Math.min(data.length, receiver.size());
+        for (int i = 0; i < limit; i++) {
+            receiver.set(i, this.floatValue(i));
+        }
+    }
+
+    private void fromFloats(final float[] values) {
+        for (int i = 0; i < values.length; i++) {
+            this.set(i, values[i]);
+        }
+    }
+
+    private float[] toFloats() {
+        float[] retVal = new float[data.length];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = this.floatValue(i);
+        }
+        return retVal;
+    }
+
+    @Override
+    protected void add(final int index, final Comparable<?> addend) {
+        this.set(index, this.floatValue(index) + NumberDefinition.floatValue(addend));
+    }
+
+    @Override
+    protected void add(final int index, final double addend) {
+        this.set(index, this.floatValue(index) + addend);
+    }
+
+    @Override
+    protected void exchange(final int firstA, final int firstB, final int step, final int count) {
+
+        int tmpIndexA = firstA;
+        int tmpIndexB = firstB;
+
+        for (int i = 0; i < count; i++) {
+
+            short tmpVal = data[tmpIndexA];
+            data[tmpIndexA] = data[tmpIndexB];
+            data[tmpIndexB] = tmpVal;
+
+            tmpIndexA += step;
+            tmpIndexB += step;
+        }
+    }
+
+    @Override
+    protected void fill(final int first, final int limit, final int step, final Double value) {
+        short bits = myBrain ? ArrayR016.toBFloat16(value.floatValue()) : ArrayR016.toFloat16(value.floatValue());
+        for (int i = first; i < limit; i += step) {
+            data[i] = bits;
+        }
+    }
+
+    @Override
+    protected void fill(final int first, final int limit, final int step, final NullaryFunction<?> supplier) {
+        FillAll.fill(this, first, limit, step, supplier);
+    }
+
+    @Override
+    protected void fillOne(final int index, final Access1D<?> values, final long valueIndex) {
+        this.set(index, values.floatValue(valueIndex));
+    }
+
+    @Override
+    protected void fillOne(final int index, final Double value) {
+        this.set(index, value.floatValue());
+    }
+
+    @Override
+    protected void fillOne(final int index, final NullaryFunction<?> supplier) {
+        this.set(index, supplier.floatValue());
+    }
+
+    @Override
+    protected Double get(final int index) {
+        return Double.valueOf(this.floatValue(index));
+    }
+
+    @Override
+    protected int indexOfLargest(final int first, final int limit, final int step) {
+        return AMAX.invoke(this, first, limit, step);
+    }
+
+    @Override
+    protected boolean isAbsolute(final int index) {
+        return PrimitiveScalar.isAbsolute(this.floatValue(index));
+    }
+
+    @Override
+    protected boolean isSmall(final int index, final double comparedTo) {
+        return PrimitiveScalar.isSmall(comparedTo, this.floatValue(index));
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final Access1D<Double> left, final BinaryFunction<Double> function) {
+        OperationBinary.invoke(this, first, limit, step, left, function, this);
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final BinaryFunction<Double> function, final Access1D<Double> right) {
+        OperationBinary.invoke(this, first, limit, step, this, function, right);
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final UnaryFunction<Double> function) {
+        OperationUnary.invoke(this, first, limit, step, this, function);
+    }
+
+    @Override
+    protected void modifyOne(final int index, final UnaryFunction<Double> modifier) {
+        this.set(index, modifier.invoke(this.floatValue(index)));
+    }
+
+    @Override
+    protected int searchAscending(final Double number) {
+
+        float key = number.floatValue();
+
+        int low = 0;
+        int high = data.length - 1;
+        while (low <= high) {
+            int mid = low + high >>> 1;
+            int comparison = Float.compare(this.floatValue(mid), key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    protected void set(final int index, final Comparable<?> value) {
+        this.set(index, Scalar.floatValue(value));
+    }
+
+    @Override
+    protected void visit(final int first, final int limit, final int step, final VoidFunction<Double> visitor) {
+        OperationVoid.invoke(this, first, limit, step, visitor);
+    }
+
+    @Override
+    protected void visitOne(final int index, final VoidFunction<Double> visitor) {
+        visitor.invoke(this.floatValue(index));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final Access1D<Double> left, final BinaryFunction<Double> function) {
+        this.set(intIndex, function.invoke(left.doubleValue(extIndex), this.floatValue(intIndex)));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final BinaryFunction<Double> function, final Access1D<Double> right) {
+        this.set(intIndex, function.invoke(this.floatValue(intIndex), right.doubleValue(extIndex)));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final UnaryFunction<Double> function) {
+        this.set(intIndex, function.invoke(this.floatValue(intIndex)));
+    }
+
+}
@@ -176,13 +176,13 @@ public class ArrayR064 extends PrimitiveArray {
 
     @Override
     public void sortAscending() {
-        Arrays.parallelSort(data);
+        SortAll.sort(data);
     }
 
     @Override
     public void sortDescending() {
         CorePrimitiveOperation.negate(data, 0, data.length, 1, data);
-        Arrays.parallelSort(data);
+        SortAll.sort(data);
         CorePrimitiveOperation.negate(data, 0, data.length, 1, data);
     }
 
@@ -30,6 +30,7 @@ import org.ojalgo.array.operation.FillAll;
 import org.ojalgo.array.operation.OperationBinary;
 import org.ojalgo.array.operation.OperationUnary;
 import org.ojalgo.array.operation.OperationVoid;
+import org.ojalgo.array.operation.SortAll;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionSet;
 import org.ojalgo.function.NullaryFunction;
@@ -114,13 +115,13 @@ public class ArrayZ064 extends PrimitiveArray {
 
     @Override
     public void sortAscending() {
-        Arrays.parallelSort(data);
+        SortAll.sort(data);
     }
 
     @Override
     public void sortDescending() {
         CorePrimitiveOperation.negate(data, 0, data.length, 1, data);
-        Arrays.parallelSort(data);
+        SortAll.sort(data);
         CorePrimitiveOperation.negate(data, 0, data.length, 1, data);
     }
 
@@ -45,6 +45,7 @@ import org.ojalgo.function.VoidFunction;
 import org.ojalgo.function.aggregator.AggregatorSet;
 import org.ojalgo.function.aggregator.PrimitiveAggregator;
 import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.function.special.PowerOf2;
 import org.ojalgo.scalar.PrimitiveScalar;
 import org.ojalgo.scalar.Scalar;
 import org.ojalgo.structure.Access1D;
@@ -80,7 +81,21 @@ public abstract class BufferArray extends PlainArray<Double> implements AutoClos
         }
 
         public MappedFileFactory newMapped(final File file) {
-            return new MappedFileFactory(this, file);
+            return new MappedFileFactory(this, file, false);
+        }
+
+        /**
+         * Like {@link #newMapped(File)} but with a new temporary file, created in the specified directory. The
+         * file is deleted when the array mapped to it is closed, or (as a fallback) when the JVM exits.
+         */
+        public MappedFileFactory newTemporary(final File directory) {
+            try {
+                File file = File.createTempFile("ojAlgo", ".mmf", directory);
+                file.deleteOnExit();
+                return new MappedFileFactory(this, file, true);
+            } catch (IOException cause) {
+                throw new RuntimeException(cause);
+            }
         }
 
         @Override
@@ -122,12 +137,14 @@ public abstract class BufferArray extends PlainArray<Double> implements AutoClos
     public static final class MappedFileFactory extends DenseArray.Factory<Double> {
 
         private final File myFile;
+        private final boolean myTemporary;
         private final Factory myTypeFactory;
 
-        MappedFileFactory(final Factory typeFactory, final File file) {
+        MappedFileFactory(final Factory typeFactory, final File file, final boolean temporary) {
             super();
             myTypeFactory = typeFactory;
             myFile = file;
+            myTemporary = temporary;
         }
 
         @Override
@@ -185,6 +202,18 @@ public abstract class BufferArray extends PlainArray<Double> implements AutoClos
             return (BufferArray) super.makeFilled(count, supplier);
         }
 
+        /**
+         * Map the first count elements of the file. Unlike {@link #make(long)} this is not limited by the
+         * capacity of a single {@link BufferArray} – larger files are mapped as several consecutive segments.
+         * Whatever is already in the file is kept (nothing is read or deserialised, it's just mapped), and if
+         * the file is too short it is extended with zeros.
+         * <p>
+         * The returned array is always {@link AutoCloseable} – closing it closes the file (all segments).
+         */
+        public BasicArray<Double> map(final long count) {
+            return this.map(count, PowerOf2.powerOf2Smaller(this.getCapacityLimit()));
+        }
+
         @Override
         public Scalar.Factory<Double> scalar() {
             return myTypeFactory.scalar();
@@ -195,21 +224,72 @@ public abstract class BufferArray extends PlainArray<Double> implements AutoClos
             return myTypeFactory.aggregator();
         }
 
+        @Override
+        long getCapacityLimit() {
+            return myTypeFactory.getCapacityLimit();
+        }
+
+        BasicArray<Double> map(final long count, final int indexBits) {
+
+            long segmentSize = 1L << indexBits;
+
+            if (count <= segmentSize) {
+                return this.makeDenseArray(count);
+            }
+
+            FileChannel fileChannel = this.open();
+            AutoCloseable closeable = this.closeable(fileChannel);
+
+            BufferArray[] segments = new BufferArray[Math.toIntExact((count + segmentSize - 1L) / segmentSize)];
+            for (int s = 0; s < segments.length; s++) {
+                long first = s * segmentSize;
+                segments[s] = this.map(fileChannel, closeable, first, Math.min(segmentSize, count - first));
+            }
+
+            return myTypeFactory.wrapAsSegments(segments);
+        }
+
         @Override
         BufferArray makeDenseArray(final long size) {
+            FileChannel fileChannel = this.open();
+            return this.map(fileChannel, this.closeable(fileChannel), 0L, size);
+        }
+
+        /**
+         * What to do when (the arrays mapped to) the file are closed. The channel is closed, and a temporary
+         * file is deleted – if that fails, because the mapping has not yet been released, it is still deleted
+         * when the JVM exits.
+         */
+        private AutoCloseable closeable(final FileChannel fileChannel) {
+            if (myTemporary) {
+                return () -> {
+                    fileChannel.close();
+                    myFile.delete();
+                };
+            }
+            return fileChannel;
+        }
+
+        private BufferArray map(final FileChannel fileChannel, final AutoCloseable closeable, final long first, final long size) {
 
-            long count = myTypeFactory.getElementSize() * size;
+            long elementSize = myTypeFactory.getElementSize();
 
-            FileChannel fileChannel;
             MappedByteBuffer buffer;
             try {
-                fileChannel = new RandomAccessFile(myFile, "rw").getChannel();
-                buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0L, count);
+                buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, elementSize * first, elementSize * size);
             } catch (IOException cause) {
                 throw new RuntimeException(cause);
             }
 
-            return myTypeFactory.newInstance(myTypeFactory, buffer, fileChannel);
+            return myTypeFactory.newInstance(myTypeFactory, buffer, closeable);
+        }
+
+        private FileChannel open() {
+            try {
+                return new RandomAccessFile(myFile, "rw").getChannel();
+            } catch (IOException cause) {
+                throw new RuntimeException(cause);
+            }
         }
 
         @Override
@@ -226,6 +306,14 @@ public abstract class BufferArray extends PlainArray<Double> implements AutoClos
 
     }
 
+    /**
+     * bfloat16, see {@link ArrayR016}
+     */
+    public static final Factory BFLOAT16 = new Factory(MathType.R016, (factory, buffer, closeable) -> new BufferR016(factory, buffer, closeable, true));
+    /**
+     * IEEE 754 half precision (binary16), see {@link ArrayR016}
+     */
+    public static final Factory R016 = new Factory(MathType.R016, (factory, buffer, closeable) -> new BufferR016(factory, buffer, closeable, false));
     public static final Factory R032 = new Factory(MathType.R032, BufferR032::new);
     public static final Factory R064 = new Factory(MathType.R064, BufferR064::new);
     public static final Factory Z008 = new Factory(MathType.Z008, BufferZ008::new);
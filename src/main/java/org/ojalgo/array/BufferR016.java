@@ -0,0 +1,103 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.NumberDefinition;
+
+/**
+ * 16 bit floating point, binary16 or bfloat16, elements – see {@link ArrayR016}.
+ */
+final class BufferR016 extends BufferArray {
+
+    private final boolean myBrain;
+    private final ShortBuffer myBuffer;
+
+    BufferR016(final BufferArray.Factory factory, final ByteBuffer buffer, final AutoCloseable closeable, final boolean brain) {
+        this(factory, buffer.asShortBuffer(), closeable, brain);
+    }
+
+    BufferR016(final BufferArray.Factory factory, final ShortBuffer buffer, final AutoCloseable closeable, final boolean brain) {
+        super(factory, buffer, closeable);
+        myBuffer = buffer;
+        myBrain = brain;
+    }
+
+    @Override
+    public byte byteValue(final int index) {
+        return (byte) Math.round(this.floatValue(index));
+    }
+
+    @Override
+    public float floatValue(final int index) {
+        short bits = myBuffer.get(index);
+        return myBrain ? ArrayR016.fromBFloat16(bits) : ArrayR016.fromFloat16(bits);
+    }
+
+    @Override
+    public int intValue(final int index) {
+        return Math.round(this.floatValue(index));
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        this.set(index, (float) value);
+    }
+
+    @Override
+    public void set(final int index, final float value) {
+        myBuffer.put(index, myBrain ? ArrayR016.toBFloat16(value) : ArrayR016.toFloat16(value));
+    }
+
+    @Override
+    public void set(final int index, final long value) {
+        this.set(index, (float) value);
+    }
+
+    @Override
+    public short shortValue(final int index) {
+        return (short) Math.round(this.floatValue(index));
+    }
+
+    @Override
+    public void supplyTo(final Mutate1D receiver) {
+        int limit = Math.min(this.size(), receiver.size());
+        for (int i = 0; i < limit; i++) {
+            receiver.set(i, this.floatValue(i));
+        }
+    }
+
+    @Override
+    protected void add(final int index, final Comparable<?> addend) {
+        this.set(index, this.floatValue(index) + NumberDefinition.floatValue(addend));
+    }
+
+    @Override
+    protected void fillOne(final int index, final NullaryFunction<?> supplier) {
+        this.set(index, supplier.floatValue());
+    }
+
+}
@@ -34,6 +34,7 @@ import org.ojalgo.function.aggregator.PrimitiveAggregator;
 import org.ojalgo.scalar.PrimitiveScalar;
 import org.ojalgo.scalar.Scalar;
 import org.ojalgo.structure.Access1D;
+import org.ojalgo.type.NativeMemory;
 import org.ojalgo.type.math.MathType;
 
 /**
@@ -43,10 +44,19 @@ import org.ojalgo.type.math.MathType;
  * When just instantiated these array classes contain uninitialized memory – memory is allocated but not
  * initialized. To initialize call {@link #reset()}. Explicit initialization is only necessary if your code
  * depends on having zeros as the default/initial value.
+ * <p>
+ * The memory is freed when the array is garbage collected, or immediately when {@link #close()} is called.
+ * Closing more than once has no effect, but any other use of a closed array throws an
+ * {@link IllegalStateException}.
+ * <p>
+ * Every access (element wise as well as bulk) checks that the array is not closed, but closing is not
+ * synchronised with ongoing access. An access that already passed the check, in some other thread, may
+ * touch freed memory. Calling {@link #close()} must happen-after all other use of the array – typically
+ * it's the same thread, or the other threads' work has been joined.
  *
  * @author apete
  */
-public abstract class OffHeapArray extends DenseArray<Double> {
+public abstract class OffHeapArray extends DenseArray<Double> implements AutoCloseable {
 
     static final class Factory extends DenseArray.Factory<Double> {
 
@@ -126,6 +136,10 @@ public abstract class OffHeapArray extends DenseArray<Double> {
     }
 
     private final long myCount;
+    /**
+     * Read once (via {@link #pointer()}) per access. Zero when not allocated, or closed.
+     */
+    private volatile long myPointer = 0L;
 
     OffHeapArray(final DenseArray.Factory<Double> factory, final long count) {
 
@@ -164,6 +178,20 @@ public abstract class OffHeapArray extends DenseArray<Double> {
         this.set(index, this.byteValue(index) + addend);
     }
 
+    /**
+     * Free the native memory now rather than when this array is garbage collected.
+     */
+    @Override
+    public final synchronized void close() {
+
+        long pointer = myPointer;
+
+        if (pointer != 0L) {
+            myPointer = 0L;
+            NativeMemory.free(this, pointer);
+        }
+    }
+
     @Override
     public final long count() {
         return myCount;
@@ -223,6 +251,13 @@ public abstract class OffHeapArray extends DenseArray<Double> {
         }
     }
 
+    /**
+     * To be called (once) by the subclass constructors with the pointer to the newly allocated memory.
+     */
+    final void allocated(final long pointer) {
+        myPointer = pointer;
+    }
+
     @Override
     void modify(final long extIndex, final int intIndex, final Access1D<Double> left, final BinaryFunction<Double> function) {
         this.set(intIndex, function.invoke(left.doubleValue(extIndex), this.doubleValue(intIndex)));
@@ -238,4 +273,19 @@ public abstract class OffHeapArray extends DenseArray<Double> {
         this.set(intIndex, function.invoke(this.doubleValue(intIndex)));
     }
 
+    /**
+     * @return The pointer to the native memory
+     * @throws IllegalStateException If the array has been closed
+     */
+    final long pointer() {
+
+        long pointer = myPointer;
+
+        if (pointer == 0L) {
+            throw new IllegalStateException("The off-heap array has been closed!");
+        }
+
+        return pointer;
+    }
+
 }
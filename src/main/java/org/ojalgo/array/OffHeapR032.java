@@ -26,13 +26,11 @@ import org.ojalgo.type.NativeMemory;
 
 final class OffHeapR032 extends OffHeapArray {
 
-    private final long myPointer;
-
     OffHeapR032(final long count) {
 
         super(OffHeapArray.R032, count);
 
-        myPointer = NativeMemory.allocateFloatArray(this, count);
+        this.allocated(NativeMemory.allocateFloatArray(this, count));
     }
 
     @Override
@@ -42,27 +40,27 @@ final class OffHeapR032 extends OffHeapArray {
 
     @Override
     public double doubleValue(final long index) {
-        return NativeMemory.getFloat(myPointer, index);
+        return NativeMemory.getFloat(this.pointer(), index);
     }
 
     @Override
     public double doubleValue(final int index) {
-        return NativeMemory.getFloat(myPointer, index);
+        return NativeMemory.getFloat(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final long index) {
-        return NativeMemory.getFloat(myPointer, index);
+        return NativeMemory.getFloat(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final int index) {
-        return NativeMemory.getFloat(myPointer, index);
+        return NativeMemory.getFloat(this.pointer(), index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseFloatArray(myPointer, this.count());
+        NativeMemory.initialiseFloatArray(this.pointer(), this.count());
     }
 
     @Override
@@ -72,17 +70,17 @@ final class OffHeapR032 extends OffHeapArray {
 
     @Override
     public void set(final long index, final double value) {
-        NativeMemory.setFloat(myPointer, index, (float) value);
+        NativeMemory.setFloat(this.pointer(), index, (float) value);
     }
 
     @Override
     public void set(final long index, final float value) {
-        NativeMemory.setFloat(myPointer, index, value);
+        NativeMemory.setFloat(this.pointer(), index, value);
     }
 
     @Override
     public void set(final int index, final double value) {
-        NativeMemory.setFloat(myPointer, index, (float) value);
+        NativeMemory.setFloat(this.pointer(), index, (float) value);
     }
 
 }
@@ -26,13 +26,11 @@ import org.ojalgo.type.NativeMemory;
 
 final class OffHeapR064 extends OffHeapArray {
 
-    private final long myPointer;
-
     OffHeapR064(final long count) {
 
         super(OffHeapArray.R064, count);
 
-        myPointer = NativeMemory.allocateDoubleArray(this, count);
+        this.allocated(NativeMemory.allocateDoubleArray(this, count));
     }
 
     @Override
@@ -42,27 +40,27 @@ final class OffHeapR064 extends OffHeapArray {
 
     @Override
     public double doubleValue(final long index) {
-        return NativeMemory.getDouble(myPointer, index);
+        return NativeMemory.getDouble(this.pointer(), index);
     }
 
     @Override
     public double doubleValue(final int index) {
-        return NativeMemory.getDouble(myPointer, index);
+        return NativeMemory.getDouble(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final long index) {
-        return (float) NativeMemory.getDouble(myPointer, index);
+        return (float) NativeMemory.getDouble(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final int index) {
-        return (float) NativeMemory.getDouble(myPointer, index);
+        return (float) NativeMemory.getDouble(this.pointer(), index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseDoubleArray(myPointer, this.count());
+        NativeMemory.initialiseDoubleArray(this.pointer(), this.count());
     }
 
     @Override
@@ -72,17 +70,17 @@ final class OffHeapR064 extends OffHeapArray {
 
     @Override
     public void set(final long index, final double value) {
-        NativeMemory.setDouble(myPointer, index, value);
+        NativeMemory.setDouble(this.pointer(), index, value);
     }
 
     @Override
     public void set(final long index, final float value) {
-        NativeMemory.setDouble(myPointer, index, value);
+        NativeMemory.setDouble(this.pointer(), index, value);
     }
 
     @Override
     public void set(final int index, final double value) {
-        NativeMemory.setDouble(myPointer, index, value);
+        NativeMemory.setDouble(this.pointer(), index, value);
     }
 
 }
@@ -26,13 +26,11 @@ import org.ojalgo.type.NativeMemory;
 
 final class OffHeapZ008 extends OffHeapArray {
 
-    private final long myPointer;
-
     OffHeapZ008(final long count) {
 
         super(OffHeapArray.Z008, count);
 
-        myPointer = NativeMemory.allocateByteArray(this, count);
+        this.allocated(NativeMemory.allocateByteArray(this, count));
     }
 
     @Override
@@ -42,32 +40,32 @@ final class OffHeapZ008 extends OffHeapArray {
 
     @Override
     public byte byteValue(final long index) {
-        return NativeMemory.getByte(myPointer, index);
+        return NativeMemory.getByte(this.pointer(), index);
     }
 
     @Override
     public double doubleValue(final long index) {
-        return NativeMemory.getByte(myPointer, index);
+        return NativeMemory.getByte(this.pointer(), index);
     }
 
     @Override
     public byte byteValue(final int index) {
-        return NativeMemory.getByte(myPointer, index);
+        return NativeMemory.getByte(this.pointer(), index);
     }
 
     @Override
     public double doubleValue(final int index) {
-        return NativeMemory.getByte(myPointer, index);
+        return NativeMemory.getByte(this.pointer(), index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseByteArray(myPointer, this.count());
+        NativeMemory.initialiseByteArray(this.pointer(), this.count());
     }
 
     @Override
     public void set(final long index, final byte value) {
-        NativeMemory.setByte(myPointer, index, value);
+        NativeMemory.setByte(this.pointer(), index, value);
     }
 
     @Override
@@ -77,17 +75,17 @@ final class OffHeapZ008 extends OffHeapArray {
 
     @Override
     public void set(final long index, final double value) {
-        NativeMemory.setByte(myPointer, index, (byte) Math.toIntExact(Math.round(value)));
+        NativeMemory.setByte(this.pointer(), index, (byte) Math.toIntExact(Math.round(value)));
     }
 
     @Override
     public void set(final long index, final float value) {
-        NativeMemory.setByte(myPointer, index, (byte) Math.round(value));
+        NativeMemory.setByte(this.pointer(), index, (byte) Math.round(value));
     }
 
     @Override
     public void set(final int index, final double value) {
-        NativeMemory.setByte(myPointer, index, (byte) Math.toIntExact(Math.round(value)));
+        NativeMemory.setByte(this.pointer(), index, (byte) Math.toIntExact(Math.round(value)));
     }
 
 }
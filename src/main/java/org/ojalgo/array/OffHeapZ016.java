@@ -26,13 +26,11 @@ import org.ojalgo.type.NativeMemory;
 
 final class OffHeapZ016 extends OffHeapArray {
 
-    private final long myPointer;
-
     OffHeapZ016(final long count) {
 
         super(OffHeapArray.Z016, count);
 
-        myPointer = NativeMemory.allocateShortArray(this, count);
+        this.allocated(NativeMemory.allocateShortArray(this, count));
     }
 
     @Override
@@ -42,27 +40,27 @@ final class OffHeapZ016 extends OffHeapArray {
 
     @Override
     public double doubleValue(final long index) {
-        return NativeMemory.getShort(myPointer, index);
+        return NativeMemory.getShort(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final long index) {
-        return NativeMemory.getShort(myPointer, index);
+        return NativeMemory.getShort(this.pointer(), index);
     }
 
     @Override
     public double doubleValue(final int index) {
-        return NativeMemory.getShort(myPointer, index);
+        return NativeMemory.getShort(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final int index) {
-        return NativeMemory.getShort(myPointer, index);
+        return NativeMemory.getShort(this.pointer(), index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseShortArray(myPointer, this.count());
+        NativeMemory.initialiseShortArray(this.pointer(), this.count());
     }
 
     @Override
@@ -72,32 +70,32 @@ final class OffHeapZ016 extends OffHeapArray {
 
     @Override
     public void set(final long index, final double value) {
-        NativeMemory.setShort(myPointer, index, (short) Math.toIntExact(Math.round(value)));
+        NativeMemory.setShort(this.pointer(), index, (short) Math.toIntExact(Math.round(value)));
     }
 
     @Override
     public void set(final long index, final float value) {
-        NativeMemory.setShort(myPointer, index, (short) Math.round(value));
+        NativeMemory.setShort(this.pointer(), index, (short) Math.round(value));
     }
 
     @Override
     public void set(final long index, final short value) {
-        NativeMemory.setShort(myPointer, index, value);
+        NativeMemory.setShort(this.pointer(), index, value);
     }
 
     @Override
     public short shortValue(final long index) {
-        return NativeMemory.getShort(myPointer, index);
+        return NativeMemory.getShort(this.pointer(), index);
     }
 
     @Override
     public short shortValue(final int index) {
-        return NativeMemory.getShort(myPointer, index);
+        return NativeMemory.getShort(this.pointer(), index);
     }
 
     @Override
     public void set(final int index, final double value) {
-        NativeMemory.setShort(myPointer, index, (short) Math.toIntExact(Math.round(value)));
+        NativeMemory.setShort(this.pointer(), index, (short) Math.toIntExact(Math.round(value)));
     }
 
 }
@@ -26,13 +26,11 @@ import org.ojalgo.type.NativeMemory;
 
 final class OffHeapZ032 extends OffHeapArray {
 
-    private final long myPointer;
-
     OffHeapZ032(final long count) {
 
         super(OffHeapArray.Z032, count);
 
-        myPointer = NativeMemory.allocateIntArray(this, count);
+        this.allocated(NativeMemory.allocateIntArray(this, count));
     }
 
     @Override
@@ -42,37 +40,37 @@ final class OffHeapZ032 extends OffHeapArray {
 
     @Override
     public double doubleValue(final long index) {
-        return NativeMemory.getInt(myPointer, index);
+        return NativeMemory.getInt(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final long index) {
-        return NativeMemory.getInt(myPointer, index);
+        return NativeMemory.getInt(this.pointer(), index);
     }
 
     @Override
     public double doubleValue(final int index) {
-        return NativeMemory.getInt(myPointer, index);
+        return NativeMemory.getInt(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final int index) {
-        return NativeMemory.getInt(myPointer, index);
+        return NativeMemory.getInt(this.pointer(), index);
     }
 
     @Override
     public int intValue(final long index) {
-        return NativeMemory.getInt(myPointer, index);
+        return NativeMemory.getInt(this.pointer(), index);
     }
 
     @Override
     public int intValue(final int index) {
-        return NativeMemory.getInt(myPointer, index);
+        return NativeMemory.getInt(this.pointer(), index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseIntArray(myPointer, this.count());
+        NativeMemory.initialiseIntArray(this.pointer(), this.count());
     }
 
     @Override
@@ -82,22 +80,22 @@ final class OffHeapZ032 extends OffHeapArray {
 
     @Override
     public void set(final long index, final double value) {
-        NativeMemory.setInt(myPointer, index, Math.toIntExact(Math.round(value)));
+        NativeMemory.setInt(this.pointer(), index, Math.toIntExact(Math.round(value)));
     }
 
     @Override
     public void set(final long index, final float value) {
-        NativeMemory.setInt(myPointer, index, Math.round(value));
+        NativeMemory.setInt(this.pointer(), index, Math.round(value));
     }
 
     @Override
     public void set(final long index, final int value) {
-        NativeMemory.setInt(myPointer, index, value);
+        NativeMemory.setInt(this.pointer(), index, value);
     }
 
     @Override
     public void set(final int index, final double value) {
-        NativeMemory.setInt(myPointer, index, Math.toIntExact(Math.round(value)));
+        NativeMemory.setInt(this.pointer(), index, Math.toIntExact(Math.round(value)));
     }
 
 }
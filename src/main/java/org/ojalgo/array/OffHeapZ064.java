@@ -26,13 +26,11 @@ import org.ojalgo.type.NativeMemory;
 
 final class OffHeapZ064 extends OffHeapArray {
 
-    private final long myPointer;
-
     OffHeapZ064(final long count) {
 
         super(OffHeapArray.Z064, count);
 
-        myPointer = NativeMemory.allocateLongArray(this, count);
+        this.allocated(NativeMemory.allocateLongArray(this, count));
     }
 
     @Override
@@ -42,37 +40,37 @@ final class OffHeapZ064 extends OffHeapArray {
 
     @Override
     public double doubleValue(final long index) {
-        return NativeMemory.getLong(myPointer, index);
+        return NativeMemory.getLong(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final long index) {
-        return NativeMemory.getLong(myPointer, index);
+        return NativeMemory.getLong(this.pointer(), index);
     }
 
     @Override
     public long longValue(final long index) {
-        return NativeMemory.getLong(myPointer, index);
+        return NativeMemory.getLong(this.pointer(), index);
     }
 
     @Override
     public double doubleValue(final int index) {
-        return NativeMemory.getLong(myPointer, index);
+        return NativeMemory.getLong(this.pointer(), index);
     }
 
     @Override
     public float floatValue(final int index) {
-        return NativeMemory.getLong(myPointer, index);
+        return NativeMemory.getLong(this.pointer(), index);
     }
 
     @Override
     public long longValue(final int index) {
-        return NativeMemory.getLong(myPointer, index);
+        return NativeMemory.getLong(this.pointer(), index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseLongArray(myPointer, this.count());
+        NativeMemory.initialiseLongArray(this.pointer(), this.count());
     }
 
     @Override
@@ -82,22 +80,22 @@ final class OffHeapZ064 extends OffHeapArray {
 
     @Override
     public void set(final long index, final double value) {
-        NativeMemory.setLong(myPointer, index, Math.round(value));
+        NativeMemory.setLong(this.pointer(), index, Math.round(value));
     }
 
     @Override
     public void set(final long index, final float value) {
-        NativeMemory.setLong(myPointer, index, Math.round(value));
+        NativeMemory.setLong(this.pointer(), index, Math.round(value));
     }
 
     @Override
     public void set(final long index, final long value) {
-        NativeMemory.setLong(myPointer, index, value);
+        NativeMemory.setLong(this.pointer(), index, value);
     }
 
     @Override
     public void set(final int index, final double value) {
-        NativeMemory.setLong(myPointer, index, Math.round(value));
+        NativeMemory.setLong(this.pointer(), index, Math.round(value));
     }
 
 }
@@ -39,7 +39,7 @@ import org.ojalgo.type.NumberDefinition;
  *
  * @author apete
  */
-final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
+final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> implements AutoCloseable {
 
     private final int myIndexBits;
     private final long myIndexMask;
@@ -121,6 +121,22 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
         mySegments[(int) (index >> myIndexBits)].add(index & myIndexMask, addend);
     }
 
+    /**
+     * Closes all segments that are {@link AutoCloseable} – memory mapped segments close their file.
+     */
+    @Override
+    public void close() {
+        for (BasicArray<N> segment : mySegments) {
+            if (segment instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) segment).close();
+                } catch (Exception cause) {
+                    throw new RuntimeException(cause);
+                }
+            }
+        }
+    }
+
     @Override
     public long count() {
         return mySegments[0].count() * (mySegments.length - 1) + mySegments[mySegments.length - 1].count();
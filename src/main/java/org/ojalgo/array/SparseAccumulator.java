@@ -0,0 +1,302 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.SparseArray.NonzeroView;
+import org.ojalgo.array.operation.SortAll;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.NumberDefinition;
+
+/**
+ * A sparse (double) vector, stored in a primitive open addressing (linear probing) hash table, made for
+ * scatter-heavy workloads – many {@link #add(long, double)} in random order. Each add is O(1), compared to
+ * O(nnz) for a {@link SparseArray} that has to keep its indices sorted.
+ * <p>
+ * When you're done accumulating, {@link #nonzeros()}, {@link #supplyNonZerosTo(Mutate1D)} and
+ * {@link #toSparse()} sort the entries (once) by index. The {@link NonzeroView} is a snapshot – modifying
+ * elements via that view does not change the accumulator.
+ *
+ * @author apete
+ */
+public final class SparseAccumulator implements Access1D<Double>, Mutate1D, Mutate1D.Modifiable<Double> {
+
+    private static final long EMPTY = -1L;
+    private static final double LOAD_FACTOR = 0.5;
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    public static SparseAccumulator make(final long count) {
+        return new SparseAccumulator(count, 16);
+    }
+
+    /**
+     * @param count The structure size (length of the vector)
+     * @param expectedNonzeros Expected number of nonzeros – sizes the hash table to avoid rehashing
+     */
+    public static SparseAccumulator make(final long count, final int expectedNonzeros) {
+        return new SparseAccumulator(count, expectedNonzeros);
+    }
+
+    private static int capacity(final int expectedNonzeros) {
+        int required = (int) Math.min(1L << 30, (long) Math.ceil(Math.max(expectedNonzeros, 8) / LOAD_FACTOR));
+        return Integer.highestOneBit(required - 1) << 1;
+    }
+
+    private final long myCount;
+    private long[] myIndices;
+    private int myMask;
+    private int myShift;
+    private int mySize = 0;
+    private double[] myValues;
+
+    SparseAccumulator(final long count, final int expectedNonzeros) {
+
+        super();
+
+        myCount = count;
+
+        this.allocate(SparseAccumulator.capacity(expectedNonzeros));
+    }
+
+    @Override
+    public void add(final long index, final Comparable<?> addend) {
+        this.add(index, NumberDefinition.doubleValue(addend));
+    }
+
+    @Override
+    public void add(final long index, final double addend) {
+        int slot = this.slot(index);
+        if (myIndices[slot] == EMPTY) {
+            this.insert(slot, index, addend);
+        } else {
+            myValues[slot] += addend;
+        }
+    }
+
+    @Override
+    public void axpy(final double a, final Mutate1D.Modifiable<?> y) {
+        for (int s = 0; s < myIndices.length; s++) {
+            if (myIndices[s] != EMPTY) {
+                y.add(myIndices[s], a * myValues[s]);
+            }
+        }
+    }
+
+    /**
+     * The current capacity of the hash table. It's always at least twice the number of entries.
+     */
+    public int capacity() {
+        return myIndices.length;
+    }
+
+    @Override
+    public long count() {
+        return myCount;
+    }
+
+    /**
+     * The number of stored entries – elements that have been set or added to. Any of those may still be
+     * zero.
+     */
+    public long countNonzeros() {
+        return mySize;
+    }
+
+    @Override
+    public double dot(final Access1D<?> vector) {
+        double retVal = PrimitiveMath.ZERO;
+        for (int s = 0; s < myIndices.length; s++) {
+            if (myIndices[s] != EMPTY) {
+                retVal += myValues[s] * vector.doubleValue(myIndices[s]);
+            }
+        }
+        return retVal;
+    }
+
+    @Override
+    public double doubleValue(final int index) {
+        return this.doubleValue((long) index);
+    }
+
+    @Override
+    public double doubleValue(final long index) {
+        int slot = this.slot(index);
+        return myIndices[slot] == EMPTY ? PrimitiveMath.ZERO : myValues[slot];
+    }
+
+    @Override
+    public Double get(final long index) {
+        return Double.valueOf(this.doubleValue(index));
+    }
+
+    @Override
+    public void modifyOne(final long index, final UnaryFunction<Double> modifier) {
+        this.set(index, modifier.invoke(this.doubleValue(index)));
+    }
+
+    /**
+     * A snapshot of the entries, sorted by index.
+     */
+    @Override
+    public NonzeroView<Double> nonzeros() {
+
+        long[] indices = new long[mySize];
+        double[] values = new double[mySize];
+
+        int size = this.sorted(indices, values);
+
+        return new NonzeroView<>(indices, ArrayR064.wrap(values), size);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(myIndices, EMPTY);
+        Arrays.fill(myValues, PrimitiveMath.ZERO);
+        mySize = 0;
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        this.set((long) index, value);
+    }
+
+    @Override
+    public void set(final long index, final Comparable<?> value) {
+        this.set(index, NumberDefinition.doubleValue(value));
+    }
+
+    @Override
+    public void set(final long index, final double value) {
+        int slot = this.slot(index);
+        if (myIndices[slot] == EMPTY) {
+            this.insert(slot, index, value);
+        } else {
+            myValues[slot] = value;
+        }
+    }
+
+    /**
+     * Sets the entries, in increasing index order, on the consumer.
+     */
+    public void supplyNonZerosTo(final Mutate1D consumer) {
+
+        long[] indices = new long[mySize];
+        double[] values = new double[mySize];
+
+        int size = this.sorted(indices, values);
+
+        for (int n = 0; n < size; n++) {
+            consumer.set(indices[n], values[n]);
+        }
+    }
+
+    /**
+     * Add all entries to the target {@link SparseArray} in one bulk operation.
+     */
+    public void supplyTo(final SparseArray<?> target) {
+
+        long[] indices = new long[mySize];
+        double[] values = new double[mySize];
+
+        int size = this.sorted(indices, values);
+
+        target.addAll(indices, values, size);
+    }
+
+    public SparseArray<Double> toSparse() {
+        SparseArray<Double> retVal = SparseArray.factory(ArrayR064.FACTORY).initial(Math.max(mySize, 1)).make(myCount);
+        this.supplyTo(retVal);
+        return retVal;
+    }
+
+    private void allocate(final int capacity) {
+        myIndices = new long[capacity];
+        Arrays.fill(myIndices, EMPTY);
+        myValues = new double[capacity];
+        myMask = capacity - 1;
+        myShift = Long.numberOfLeadingZeros(capacity - 1L);
+    }
+
+    private void insert(final int slot, final long index, final double value) {
+
+        if (index < 0L || index >= myCount) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+
+        myIndices[slot] = index;
+        myValues[slot] = value;
+        mySize++;
+
+        if (mySize > myIndices.length * LOAD_FACTOR) {
+
+            long[] oldIndices = myIndices;
+            double[] oldValues = myValues;
+
+            this.allocate(2 * oldIndices.length);
+
+            for (int s = 0; s < oldIndices.length; s++) {
+                if (oldIndices[s] != EMPTY) {
+                    int newSlot = this.slot(oldIndices[s]);
+                    myIndices[newSlot] = oldIndices[s];
+                    myValues[newSlot] = oldValues[s];
+                }
+            }
+        }
+    }
+
+    /**
+     * Fibonacci hashing and linear probing. Returns the slot containing the index, or the empty slot where it
+     * should be inserted.
+     */
+    private int slot(final long index) {
+
+        int slot = (int) (index * MIX >>> myShift);
+
+        long existing;
+        while ((existing = myIndices[slot]) != EMPTY && existing != index) {
+            slot = slot + 1 & myMask;
+        }
+
+        return slot;
+    }
+
+    private int sorted(final long[] indices, final double[] values) {
+
+        int n = 0;
+        for (int s = 0; s < myIndices.length; s++) {
+            if (myIndices[s] != EMPTY) {
+                indices[n] = myIndices[s];
+                values[n] = myValues[s];
+                n++;
+            }
+        }
+
+        SortAll.sort(indices, values, 0, n);
+
+        return n;
+    }
+
+}
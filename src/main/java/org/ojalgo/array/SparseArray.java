@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.function.Consumer;
 import java.util.stream.LongStream;
 
+import org.ojalgo.array.operation.SortAll;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
@@ -293,6 +294,82 @@ public final class SparseArray<N extends Comparable<N>> extends BasicArray<N> {
         }
     }
 
+    /**
+     * Bulk version of {@link #add(long, double)}. The (index, value) pairs may be in any order, and the same
+     * index may occur several times – those values are summed. The pairs are sorted once and then merged with
+     * any existing nonzeros, O(n log n) rather than the O(n²) of adding unordered pairs one at a time.
+     * <p>
+     * The first size elements of the input arrays are sorted in-place.
+     */
+    public void addAll(final long[] indices, final double[] values, final int size) {
+
+        if (size <= 0) {
+            return;
+        }
+
+        boolean sorted = true;
+        for (int k = 1; sorted && k < size; k++) {
+            sorted = indices[k - 1] <= indices[k];
+        }
+        if (!sorted) {
+            SortAll.sort(indices, values, 0, size);
+        }
+
+        if (indices[0] < 0L || indices[size - 1] >= myCount) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+
+        int merged = 0;
+        for (int i = 0, k = 0; i < myActualLength || k < size; merged++) {
+            long next = Math.min(i < myActualLength ? myIndices[i] : Long.MAX_VALUE, k < size ? indices[k] : Long.MAX_VALUE);
+            while (i < myActualLength && myIndices[i] == next) {
+                i++;
+            }
+            while (k < size && indices[k] == next) {
+                k++;
+            }
+        }
+
+        int capacity = Math.max(merged, myGrowthStrategy.initial());
+        long[] newIndices = new long[capacity];
+        DenseArray<N> newValues = myDenseFactory.make(capacity);
+        boolean primitive = this.isPrimitive();
+
+        int n = 0;
+        for (int i = 0, k = 0; i < myActualLength || k < size;) {
+
+            long next = Math.min(i < myActualLength ? myIndices[i] : Long.MAX_VALUE, k < size ? indices[k] : Long.MAX_VALUE);
+
+            double sum = PrimitiveMath.ZERO;
+            while (k < size && indices[k] == next) {
+                sum += values[k];
+                k++;
+            }
+
+            if (i < myActualLength && myIndices[i] == next) {
+                // Existing nonzero, always kept
+                newIndices[n] = next;
+                if (primitive) {
+                    newValues.set(n, myValues.doubleValue(i) + sum);
+                } else {
+                    newValues.set(n, myValues.get(i));
+                    newValues.add(n, sum);
+                }
+                i++;
+                n++;
+            } else if (NumberContext.compare(sum, PrimitiveMath.ZERO) != 0) {
+                // New nonzero
+                newIndices[n] = next;
+                newValues.set(n, sum);
+                n++;
+            }
+        }
+
+        myIndices = newIndices;
+        myValues = newValues;
+        myActualLength = n;
+    }
+
     @Override
     public void axpy(final double a, final Mutate1D.Modifiable<?> y) {
         for (int n = 0; n < myActualLength; n++) {
@@ -95,20 +95,10 @@ public abstract class AMAX implements ArrayOperation {
     }
 
     public static int invoke(final double[] data, final int first, final int limit, final int step) {
-
-        int retVal = first;
-        double largest = 0D;
-        double candidate;
-
-        for (int i = first; i < limit; i += step) {
-            candidate = Math.abs(data[i]);
-            if (candidate > largest) {
-                largest = candidate;
-                retVal = i;
-            }
+        if (step == 1) {
+            return SIMD.amax(data, first, limit);
         }
-
-        return retVal;
+        return AMAX.scalar(data, first, limit, step);
     }
 
     public static long invoke(final double[][] data) {
@@ -138,20 +128,10 @@ public abstract class AMAX implements ArrayOperation {
     }
 
     public static int invoke(final float[] data, final int first, final int limit, final int step) {
-
-        int retVal = first;
-        float largest = 0F;
-        float candidate;
-
-        for (int i = first; i < limit; i += step) {
-            candidate = Math.abs(data[i]);
-            if (candidate > largest) {
-                largest = candidate;
-                retVal = i;
-            }
+        if (step == 1) {
+            return SIMD.amax(data, first, limit);
         }
-
-        return retVal;
+        return AMAX.scalar(data, first, limit, step);
     }
 
     public static int invoke(final int[] data, final int first, final int limit, final int step) {
@@ -239,4 +219,38 @@ public abstract class AMAX implements ArrayOperation {
         return retVal;
     }
 
+    static int scalar(final double[] data, final int first, final int limit, final int step) {
+
+        int retVal = first;
+        double largest = 0D;
+        double candidate;
+
+        for (int i = first; i < limit; i += step) {
+            candidate = Math.abs(data[i]);
+            if (candidate > largest) {
+                largest = candidate;
+                retVal = i;
+            }
+        }
+
+        return retVal;
+    }
+
+    static int scalar(final float[] data, final int first, final int limit, final int step) {
+
+        int retVal = first;
+        float largest = 0F;
+        float candidate;
+
+        for (int i = first; i < limit; i += step) {
+            candidate = Math.abs(data[i]);
+            if (candidate > largest) {
+                largest = candidate;
+                retVal = i;
+            }
+        }
+
+        return retVal;
+    }
+
 }
@@ -35,6 +35,13 @@ public abstract class ASUM implements ArrayOperation {
     public static int THRESHOLD = 128;
 
     public static double invoke(final double[] data, final int first, final int limit, final int step) {
+        if (step == 1) {
+            return SIMD.asum(data, first, limit);
+        }
+        return ASUM.scalar(data, first, limit, step);
+    }
+
+    static double scalar(final double[] data, final int first, final int limit, final int step) {
         double retVal = 0D;
         for (int i = first; i < limit; i += step) {
             retVal += PrimitiveMath.ABS.invoke(data[i]);
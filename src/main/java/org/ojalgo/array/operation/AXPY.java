@@ -45,15 +45,11 @@ public abstract class AXPY implements ArrayOperation {
     }
 
     public static void invoke(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
-        for (int i = first; i < limit; i++) {
-            y[basey + i] += a * x[basex + i];
-        }
+        SIMD.axpy(y, basey, a, x, basex, first, limit);
     }
 
     public static void invoke(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
-        for (int i = first; i < limit; i++) {
-            y[basey + i] += a * x[basex + i];
-        }
+        SIMD.axpy(y, basey, a, x, basex, first, limit);
     }
 
     public static void invoke(final Mutate1D.Modifiable<?> y, final double a, final BigDecimal[] x) {
@@ -87,4 +83,16 @@ public abstract class AXPY implements ArrayOperation {
         }
     }
 
+    static void scalar(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            y[basey + i] += a * x[basex + i];
+        }
+    }
+
+    static void scalar(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            y[basey + i] += a * x[basex + i];
+        }
+    }
+
 }
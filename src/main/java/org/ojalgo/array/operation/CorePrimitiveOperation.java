@@ -38,6 +38,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, left.doubleValue(i) + right.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) + right.floatValue(i));
@@ -70,6 +71,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, left.doubleValue(i) + doubleValue);
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(right);
             for (long i = first; i < limit; i += step) {
@@ -105,6 +107,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, doubleValue + right.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(left);
             for (long i = first; i < limit; i += step) {
@@ -247,6 +250,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, left.doubleValue(i) / right.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) / right.floatValue(i));
@@ -279,6 +283,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, left.doubleValue(i) / doubleValue);
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(right);
             for (long i = first; i < limit; i += step) {
@@ -314,6 +319,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, doubleValue / right.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(left);
             for (long i = first; i < limit; i += step) {
@@ -456,6 +462,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, left.doubleValue(i) * right.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) * right.floatValue(i));
@@ -488,6 +495,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, left.doubleValue(i) * doubleValue);
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(right);
             for (long i = first; i < limit; i += step) {
@@ -523,6 +531,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, doubleValue * right.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(left);
             for (long i = first; i < limit; i += step) {
@@ -567,14 +576,22 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void multiply(final double[] data, final int first, final int limit, final int step, final double left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left * right[i];
+        if (step == 1 && data == right) {
+            SCAL.invoke(data, left, first, limit);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left * right[i];
+            }
         }
     }
 
     public static void multiply(final double[] data, final int first, final int limit, final int step, final double[] left, final double right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] * right;
+        if (step == 1 && data == left) {
+            SCAL.invoke(data, right, first, limit);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] * right;
+            }
         }
     }
 
@@ -585,14 +602,22 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void multiply(final float[] data, final int first, final int limit, final int step, final float left, final float[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left * right[i];
+        if (step == 1 && data == right) {
+            SCAL.invoke(data, left, first, limit);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left * right[i];
+            }
         }
     }
 
     public static void multiply(final float[] data, final int first, final int limit, final int step, final float[] left, final float right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] * right;
+        if (step == 1 && data == left) {
+            SCAL.invoke(data, right, first, limit);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] * right;
+            }
         }
     }
 
@@ -665,6 +690,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, -values.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             for (long i = first; i < limit; i += step) {
                 data.set(i, -values.floatValue(i));
@@ -732,6 +758,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, left.doubleValue(i) - right.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) - right.floatValue(i));
@@ -764,6 +791,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, left.doubleValue(i) - doubleValue);
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(right);
             for (long i = first; i < limit; i += step) {
@@ -799,6 +827,7 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
                 data.set(i, doubleValue - right.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(left);
             for (long i = first; i < limit; i += step) {
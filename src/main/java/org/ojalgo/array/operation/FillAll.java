@@ -58,6 +58,7 @@ public abstract class FillAll implements ArrayOperation {
                 data.set(i, doubleValue);
             }
             break;
+        case R016:
         case R032:
             float floatValue = Scalar.floatValue(value);
             for (long i = first; i < limit; i += step) {
@@ -95,6 +96,7 @@ public abstract class FillAll implements ArrayOperation {
                 data.set(i, supplier.doubleValue());
             }
             break;
+        case R016:
         case R032:
             for (long i = first; i < limit; i += step) {
                 data.set(i, supplier.floatValue());
@@ -32,6 +32,10 @@ import static org.ojalgo.function.constant.PrimitiveMath.ZERO;
 public abstract class NRM2 implements ArrayOperation {
 
     public static double invoke(final double[] data, final double scale, final int first, final int limit) {
+        return SIMD.nrm2(data, scale, first, limit);
+    }
+
+    static double scalar(final double[] data, final double scale, final int first, final int limit) {
         double tmpVal;
         double sum2 = ZERO;
         for (int i = first; i < limit; i++) {
@@ -51,6 +51,7 @@ public abstract class OperationBinary implements ArrayOperation {
                 CorePrimitiveOperation.subtract(data, first, limit, step, left, right);
             } else {
                 switch (data.getMathType()) {
+                case R016:
                 case R032:
                     for (long i = first; i < limit; i += step) {
                         data.set(i, function.invoke(left.floatValue(i), right.floatValue(i)));
@@ -96,6 +97,7 @@ public abstract class OperationBinary implements ArrayOperation {
                 CorePrimitiveOperation.subtract(data, first, limit, step, left, right);
             } else {
                 switch (data.getMathType()) {
+                case R016:
                 case R032:
                     float floatValue = Scalar.floatValue(right);
                     for (long i = first; i < limit; i += step) {
@@ -145,6 +147,7 @@ public abstract class OperationBinary implements ArrayOperation {
                 CorePrimitiveOperation.subtract(data, first, limit, step, left, right);
             } else {
                 switch (data.getMathType()) {
+                case R016:
                 case R032:
                     float floatValue = Scalar.floatValue(left);
                     for (long i = first; i < limit; i += step) {
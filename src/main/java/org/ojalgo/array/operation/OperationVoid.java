@@ -44,6 +44,7 @@ public abstract class OperationVoid implements ArrayOperation {
                 visitor.invoke(data.doubleValue(i));
             }
             break;
+        case R016:
         case R032:
             for (long i = first; i < limit; i += step) {
                 visitor.invoke(data.floatValue(i));
@@ -31,4 +31,24 @@ public abstract class SCAL implements ArrayOperation {
 
     public static int THRESHOLD = 128;
 
+    public static void invoke(final double[] data, final double factor, final int first, final int limit) {
+        SIMD.scal(data, factor, first, limit);
+    }
+
+    public static void invoke(final float[] data, final float factor, final int first, final int limit) {
+        SIMD.scal(data, factor, first, limit);
+    }
+
+    static void scalar(final double[] data, final double factor, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            data[i] *= factor;
+        }
+    }
+
+    static void scalar(final float[] data, final float factor, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            data[i] *= factor;
+        }
+    }
+
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+/**
+ * Hook for vectorised versions of the contiguous (unit stride) double[] and float[] kernels in {@link DOT},
+ * {@link AXPY}, {@link SCAL}, {@link NRM2}, {@link ASUM} and {@link AMAX}. Those classes always call this
+ * class for unit stride ranges, and it is up to this class to decide what code to run.
+ * <p>
+ * This is the Java 11 version – nothing is vectorised, {@link #VECTORISED} is false, and every method simply
+ * delegates to the scalar code of the respective operation. The multi-release jar contains a Java 17 version
+ * of this class (src/main/java17) that uses the incubating Vector API when the jdk.incubator.vector module is
+ * present (run with --add-modules jdk.incubator.vector), and the range is long enough.
+ *
+ * @author apete
+ */
+abstract class SIMD {
+
+    static final boolean VECTORISED;
+
+    static {
+        // Assigned here, rather than as a compile-time constant, so that javac does not inline the value in to
+        // the calling classes – the Java 17 version of this class may have another value.
+        VECTORISED = false;
+    }
+
+    static int amax(final double[] data, final int first, final int limit) {
+        return AMAX.scalar(data, first, limit, 1);
+    }
+
+    static int amax(final float[] data, final int first, final int limit) {
+        return AMAX.scalar(data, first, limit, 1);
+    }
+
+    static double asum(final double[] data, final int first, final int limit) {
+        return ASUM.scalar(data, first, limit, 1);
+    }
+
+    static void axpy(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+        AXPY.scalar(y, basey, a, x, basex, first, limit);
+    }
+
+    static void axpy(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
+        AXPY.scalar(y, basey, a, x, basex, first, limit);
+    }
+
+    static double dot(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+        return DOT.unrolled04(array1, offset1, array2, offset2, first, limit);
+    }
+
+    static float dot(final float[] array1, final int offset1, final float[] array2, final int offset2, final int first, final int limit) {
+        return DOT.unrolled04(array1, offset1, array2, offset2, first, limit);
+    }
+
+    static double nrm2(final double[] data, final double scale, final int first, final int limit) {
+        return NRM2.scalar(data, scale, first, limit);
+    }
+
+    static void scal(final double[] data, final double factor, final int first, final int limit) {
+        SCAL.scalar(data, factor, first, limit);
+    }
+
+    static void scal(final float[] data, final float factor, final int first, final int limit) {
+        SCAL.scalar(data, factor, first, limit);
+    }
+
+}
@@ -21,52 +21,550 @@
  */
 package org.ojalgo.array.operation;
 
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+
+/**
+ * Sorts a primary array of keys and permutes one or more secondary arrays the same way.
+ * <p>
+ * Short ranges are sorted in-place with a quicksort (median-of-3 pivot, insertion sort for the shortest
+ * ranges). Longer ranges are LSD radix sorted (8 bits per pass, skipping passes where all keys have the same
+ * digit). Ranges longer than THRESHOLD² are split in PARALLELISM chunks that are radix sorted in parallel and
+ * then merged (also in parallel).
+ * <p>
+ * The argsort methods do not modify the input, but return the permutation that would sort it.
+ *
+ * @author apete
+ */
 public abstract class SortAll implements ArrayOperation {
 
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
     public static int THRESHOLD = 128;
 
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+    private static final int INSERTION = 24;
+    private static final int RADIX = 1024;
+
+    /**
+     * @return The permutation that sorts the values (ascending) – values[order[0]] is the smallest. The input
+     *         is not modified.
+     */
+    public static int[] argsort(final double[] values) {
+
+        int n = values.length;
+
+        long[] keys = new long[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = SortAll.toSortable(values[i]);
+            order[i] = i;
+        }
+
+        SortAll.sort(keys, order, n);
+
+        return order;
+    }
+
+    /**
+     * @return The permutation that sorts the values (ascending) – values[order[0]] is the smallest. The input
+     *         is not modified.
+     */
+    public static int[] argsort(final long[] values) {
+
+        int n = values.length;
+
+        long[] keys = Arrays.copyOf(values, n);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+
+        SortAll.sort(keys, order, n);
+
+        return order;
+    }
+
+    /**
+     * Ascending, with the same total order as {@link Arrays#sort(double[])} (-0.0 before 0.0 and NaN last).
+     */
+    public static void sort(final double[] data) {
+
+        int n = data.length;
+
+        if (n < RADIX) {
+            Arrays.sort(data);
+            return;
+        }
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = SortAll.toSortable(data[i]);
+        }
+
+        SortAll.sort(keys, null, n);
+
+        for (int i = 0; i < n; i++) {
+            data[i] = SortAll.fromSortable(keys[i]);
+        }
+    }
+
+    /**
+     * Ascending
+     */
+    public static void sort(final long[] data) {
+        if (data.length < RADIX) {
+            Arrays.sort(data);
+        } else {
+            SortAll.sort(data, null, data.length);
+        }
+    }
+
+    /**
+     * Sort primary (ascending) and reorder secondary accordingly – typically secondary is an index array.
+     */
+    public static void sort(final double[] primary, final int[] secondary) {
+
+        int n = Math.min(primary.length, secondary.length);
+
+        long[] keys = new long[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = SortAll.toSortable(primary[i]);
+            order[i] = i;
+        }
+
+        SortAll.sort(keys, order, n);
+
+        int[] original = Arrays.copyOf(secondary, n);
+        for (int i = 0; i < n; i++) {
+            primary[i] = SortAll.fromSortable(keys[i]);
+            secondary[i] = original[order[i]];
+        }
+    }
+
     public static void sort(final long[] primary, final double[] secondary) {
+        SortAll.sort(primary, secondary, 0, Math.min(primary.length, secondary.length));
+    }
+
+    /**
+     * Sort the range [first, limit) of primary, and reorder the same range of secondary accordingly.
+     */
+    public static void sort(final long[] primary, final double[] secondary, final int first, final int limit) {
+
+        int n = limit - first;
 
-        boolean tmpSwapped;
-
-        int tmpLimit = Math.min(primary.length, secondary.length) - 1;
-
-        do {
-            tmpSwapped = false;
-            for (int i = 0; i < tmpLimit; i++) {
-                if (primary[i] > primary[i + 1]) {
-                    long tmpPrimVal = primary[i];
-                    primary[i] = primary[i + 1];
-                    primary[i + 1] = tmpPrimVal;
-                    double tmpSecoVal = secondary[i];
-                    secondary[i] = secondary[i + 1];
-                    secondary[i + 1] = tmpSecoVal;
-                    tmpSwapped = true;
+        if (n >= RADIX) {
+
+            long[] keys = Arrays.copyOfRange(primary, first, limit);
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+
+            SortAll.sort(keys, order, n);
+
+            double[] original = Arrays.copyOfRange(secondary, first, limit);
+            for (int i = 0; i < n; i++) {
+                primary[first + i] = keys[i];
+                secondary[first + i] = original[order[i]];
+            }
+
+            return;
+        }
+
+        int low = first;
+        int high = limit - 1;
+
+        while (high - low >= INSERTION) {
+
+            int mid = (low + high) >>> 1;
+            if (primary[mid] < primary[low]) {
+                SortAll.swap(primary, secondary, mid, low);
+            }
+            if (primary[high] < primary[low]) {
+                SortAll.swap(primary, secondary, high, low);
+            }
+            if (primary[high] < primary[mid]) {
+                SortAll.swap(primary, secondary, high, mid);
+            }
+            long pivot = primary[mid];
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (primary[i] < pivot) {
+                    i++;
+                }
+                while (primary[j] > pivot) {
+                    j--;
                 }
+                if (i <= j) {
+                    SortAll.swap(primary, secondary, i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            // Recurse on the smaller part, iterate on the larger
+            if (j - low < high - i) {
+                SortAll.sort(primary, secondary, low, j + 1);
+                low = i;
+            } else {
+                SortAll.sort(primary, secondary, i, high + 1);
+                high = j;
             }
-        } while (tmpSwapped);
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            long key = primary[i];
+            double value = secondary[i];
+            int j = i - 1;
+            while (j >= low && primary[j] > key) {
+                primary[j + 1] = primary[j];
+                secondary[j + 1] = secondary[j];
+                j--;
+            }
+            primary[j + 1] = key;
+            secondary[j + 1] = value;
+        }
     }
 
     public static void sort(final long[] primary, final Object[] secondary) {
+        SortAll.sort(primary, secondary, 0, Math.min(primary.length, secondary.length));
+    }
+
+    /**
+     * Sort the range [first, limit) of primary, and reorder the same range of secondary accordingly.
+     */
+    public static void sort(final long[] primary, final Object[] secondary, final int first, final int limit) {
+
+        int low = first;
+        int high = limit - 1;
+
+        while (high - low >= INSERTION) {
+
+            int mid = (low + high) >>> 1;
+            if (primary[mid] < primary[low]) {
+                SortAll.swap(primary, secondary, mid, low);
+            }
+            if (primary[high] < primary[low]) {
+                SortAll.swap(primary, secondary, high, low);
+            }
+            if (primary[high] < primary[mid]) {
+                SortAll.swap(primary, secondary, high, mid);
+            }
+            long pivot = primary[mid];
 
-        boolean tmpSwapped;
-
-        int tmpLimit = Math.min(primary.length, secondary.length) - 1;
-
-        do {
-            tmpSwapped = false;
-            for (int i = 0; i < tmpLimit; i++) {
-                if (primary[i] > primary[i + 1]) {
-                    long tmpPrimVal = primary[i];
-                    primary[i] = primary[i + 1];
-                    primary[i + 1] = tmpPrimVal;
-                    Object tmpSecoVal = secondary[i];
-                    secondary[i] = secondary[i + 1];
-                    secondary[i + 1] = tmpSecoVal;
-                    tmpSwapped = true;
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (primary[i] < pivot) {
+                    i++;
                 }
+                while (primary[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    SortAll.swap(primary, secondary, i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            if (j - low < high - i) {
+                SortAll.sort(primary, secondary, low, j + 1);
+                low = i;
+            } else {
+                SortAll.sort(primary, secondary, i, high + 1);
+                high = j;
             }
-        } while (tmpSwapped);
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            long key = primary[i];
+            Object value = secondary[i];
+            int j = i - 1;
+            while (j >= low && primary[j] > key) {
+                primary[j + 1] = primary[j];
+                secondary[j + 1] = secondary[j];
+                j--;
+            }
+            primary[j + 1] = key;
+            secondary[j + 1] = value;
+        }
+    }
+
+    private static double fromSortable(final long key) {
+        return Double.longBitsToDouble(key < 0L ? key ^ Long.MAX_VALUE : key);
+    }
+
+    /**
+     * Merge the sorted ranges [first, middle) and [middle, limit) of the source arrays into the destination
+     * arrays.
+     */
+    private static void merge(final long[] sourceKeys, final int[] sourceOrder, final long[] destinationKeys, final int[] destinationOrder,
+            final int first, final int middle, final int limit) {
+
+        int i = first;
+        int j = middle;
+
+        for (int k = first; k < limit; k++) {
+            if (j >= limit || i < middle && sourceKeys[i] <= sourceKeys[j]) {
+                destinationKeys[k] = sourceKeys[i];
+                if (sourceOrder != null) {
+                    destinationOrder[k] = sourceOrder[i];
+                }
+                i++;
+            } else {
+                destinationKeys[k] = sourceKeys[j];
+                if (sourceOrder != null) {
+                    destinationOrder[k] = sourceOrder[j];
+                }
+                j++;
+            }
+        }
+    }
+
+    /**
+     * LSD radix sort of the range [first, limit), co-sorting order (if not null). The buffers are used for
+     * the same range. The result ends up in keys/order.
+     */
+    private static void radix(final long[] keys, final int[] order, final long[] keyBuffer, final int[] orderBuffer, final int first, final int limit) {
+
+        int n = limit - first;
+
+        int[][] counts = new int[8][256];
+        for (int i = first; i < limit; i++) {
+            long key = keys[i] ^ Long.MIN_VALUE;
+            for (int d = 0; d < 8; d++) {
+                counts[d][(int) (key >>> (d << 3) & 0xFF)]++;
+            }
+        }
+
+        long[] sourceKeys = keys;
+        int[] sourceOrder = order;
+        long[] destinationKeys = keyBuffer;
+        int[] destinationOrder = orderBuffer;
+
+        for (int d = 0; d < 8; d++) {
+
+            int[] count = counts[d];
+            int shift = d << 3;
+
+            boolean trivial = false;
+            int offset = first;
+            for (int b = 0; b < 256; b++) {
+                int c = count[b];
+                trivial |= c == n;
+                count[b] = offset;
+                offset += c;
+            }
+            if (trivial) {
+                // All keys have the same digit
+                continue;
+            }
+
+            for (int i = first; i < limit; i++) {
+                long key = sourceKeys[i];
+                int position = count[(int) ((key ^ Long.MIN_VALUE) >>> shift & 0xFF)]++;
+                destinationKeys[position] = key;
+                if (sourceOrder != null) {
+                    destinationOrder[position] = sourceOrder[i];
+                }
+            }
+
+            long[] tmpKeys = sourceKeys;
+            sourceKeys = destinationKeys;
+            destinationKeys = tmpKeys;
+            int[] tmpOrder = sourceOrder;
+            sourceOrder = destinationOrder;
+            destinationOrder = tmpOrder;
+        }
+
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, first, keys, first, n);
+            if (order != null) {
+                System.arraycopy(sourceOrder, first, order, first, n);
+            }
+        }
+    }
+
+    /**
+     * Sort the first n keys (ascending, signed) and reorder the first n order elements (if not null)
+     * accordingly.
+     */
+    private static void sort(final long[] keys, final int[] order, final int n) {
+
+        if (n < RADIX) {
+            SortAll.sort(keys, order, 0, n);
+            return;
+        }
+
+        long[] keyBuffer = new long[n];
+        int[] orderBuffer = order != null ? new int[n] : null;
+
+        int chunks = Math.min(PARALLELISM.getAsInt(), n / Math.max(RADIX, THRESHOLD * THRESHOLD));
+
+        if (chunks <= 1) {
+            SortAll.radix(keys, order, keyBuffer, orderBuffer, 0, n);
+            return;
+        }
+
+        int[] bounds = new int[chunks + 1];
+        for (int c = 0; c <= chunks; c++) {
+            bounds[c] = (int) ((long) n * c / chunks);
+        }
+
+        DIVIDER.parallelism(() -> chunks).threshold(1).divide(0, chunks, (f, l) -> {
+            for (int c = f; c < l; c++) {
+                SortAll.radix(keys, order, keyBuffer, orderBuffer, bounds[c], bounds[c + 1]);
+            }
+        });
+
+        long[] sourceKeys = keys;
+        int[] sourceOrder = order;
+        long[] destinationKeys = keyBuffer;
+        int[] destinationOrder = orderBuffer;
+
+        for (int width = 1; width < chunks; width <<= 1) {
+
+            int half = width;
+            int step = width << 1;
+            int pairs = (chunks + step - 1) / step;
+
+            long[] fromKeys = sourceKeys;
+            int[] fromOrder = sourceOrder;
+            long[] toKeys = destinationKeys;
+            int[] toOrder = destinationOrder;
+
+            DIVIDER.parallelism(() -> pairs).threshold(1).divide(0, pairs, (f, l) -> {
+                for (int p = f; p < l; p++) {
+                    int first = bounds[p * step];
+                    int middle = bounds[Math.min(p * step + half, chunks)];
+                    int limit = bounds[Math.min(p * step + step, chunks)];
+                    SortAll.merge(fromKeys, fromOrder, toKeys, toOrder, first, middle, limit);
+                }
+            });
+
+            sourceKeys = toKeys;
+            sourceOrder = toOrder;
+            destinationKeys = fromKeys;
+            destinationOrder = fromOrder;
+        }
+
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, n);
+            if (order != null) {
+                System.arraycopy(sourceOrder, 0, order, 0, n);
+            }
+        }
+    }
+
+    /**
+     * Quicksort of the range [first, limit), co-sorting order (if not null).
+     */
+    private static void sort(final long[] keys, final int[] order, final int first, final int limit) {
+
+        int low = first;
+        int high = limit - 1;
+
+        while (high - low >= INSERTION) {
+
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < keys[low]) {
+                SortAll.swap(keys, order, mid, low);
+            }
+            if (keys[high] < keys[low]) {
+                SortAll.swap(keys, order, high, low);
+            }
+            if (keys[high] < keys[mid]) {
+                SortAll.swap(keys, order, high, mid);
+            }
+            long pivot = keys[mid];
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    SortAll.swap(keys, order, i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            if (j - low < high - i) {
+                SortAll.sort(keys, order, low, j + 1);
+                low = i;
+            } else {
+                SortAll.sort(keys, order, i, high + 1);
+                high = j;
+            }
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            long key = keys[i];
+            int value = order != null ? order[i] : 0;
+            int j = i - 1;
+            while (j >= low && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                if (order != null) {
+                    order[j + 1] = order[j];
+                }
+                j--;
+            }
+            keys[j + 1] = key;
+            if (order != null) {
+                order[j + 1] = value;
+            }
+        }
+    }
+
+    private static void swap(final long[] primary, final int[] secondary, final int i, final int j) {
+        long tmpPrimVal = primary[i];
+        primary[i] = primary[j];
+        primary[j] = tmpPrimVal;
+        if (secondary != null) {
+            int tmpSecoVal = secondary[i];
+            secondary[i] = secondary[j];
+            secondary[j] = tmpSecoVal;
+        }
+    }
+
+    private static void swap(final long[] primary, final double[] secondary, final int i, final int j) {
+        long tmpPrimVal = primary[i];
+        primary[i] = primary[j];
+        primary[j] = tmpPrimVal;
+        double tmpSecoVal = secondary[i];
+        secondary[i] = secondary[j];
+        secondary[j] = tmpSecoVal;
+    }
+
+    private static void swap(final long[] primary, final Object[] secondary, final int i, final int j) {
+        long tmpPrimVal = primary[i];
+        primary[i] = primary[j];
+        primary[j] = tmpPrimVal;
+        Object tmpSecoVal = secondary[i];
+        secondary[i] = secondary[j];
+        secondary[j] = tmpSecoVal;
+    }
+
+    /**
+     * Maps the double to a long with the same (signed) order – the same total order as
+     * {@link Double#compare(double, double)}.
+     */
+    private static long toSortable(final double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits < 0L ? bits ^ Long.MAX_VALUE : bits;
     }
 
 }
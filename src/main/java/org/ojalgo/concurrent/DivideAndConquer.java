@@ -25,6 +25,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.function.IntSupplier;
+import java.util.function.IntToLongFunction;
 
 import org.ojalgo.OjAlgoUtils;
 
@@ -61,6 +62,19 @@ public abstract class DivideAndConquer {
             DivideAndConquer.call(myExecutor, first, limit, myThreshold, myParallelism.getAsInt(), conquerer);
         }
 
+        /**
+         * Like {@link #divide(int, int, Conquerer)} but the range is split where the accumulated weight is
+         * halved, rather than the number of indices, and the threshold applies to the weight. Use it when the
+         * amount of work per index varies a lot – with sparse matrices the weight is typically the number of
+         * nonzeros per row.
+         *
+         * @param cumulativeWeight Nondecreasing; the weight of the range [a, b) is cumulativeWeight(b) -
+         *        cumulativeWeight(a). The row pointers of a CSR matrix are exactly this.
+         */
+        public void divide(final int first, final int limit, final IntToLongFunction cumulativeWeight, final Conquerer conquerer) {
+            DivideAndConquer.call(myExecutor, first, limit, cumulativeWeight, myThreshold, myParallelism.getAsInt(), conquerer);
+        }
+
         public Divider parallelism(final IntSupplier parallelism) {
             if (parallelism != null) {
                 myParallelism = parallelism;
@@ -101,6 +115,47 @@ public abstract class DivideAndConquer {
         }
     }
 
+    static void call(final ExecutorService executor, final int first, final int limit, final IntToLongFunction cumulativeWeight, final int threshold,
+            final int workers, final DivideAndConquer.Conquerer conquerer) {
+
+        long firstWeight = cumulativeWeight.applyAsLong(first);
+        long limitWeight = cumulativeWeight.applyAsLong(limit);
+
+        if (limit - first > 1 && limitWeight - firstWeight > threshold && workers > 1) {
+
+            // Binary search for the split where the accumulated weight passes the midpoint
+            long middle = firstWeight + (limitWeight - firstWeight) / 2L;
+            int low = first + 1;
+            int high = limit - 1;
+            while (low < high) {
+                int mid = low + (high - low) / 2;
+                if (cumulativeWeight.applyAsLong(mid) < middle) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int split = low;
+            int nextWorkers = workers / 2;
+
+            Future<?> firstPart = executor
+                    .submit(() -> DivideAndConquer.call(executor, first, split, cumulativeWeight, threshold, nextWorkers, conquerer));
+            Future<?> secondPart = executor
+                    .submit(() -> DivideAndConquer.call(executor, split, limit, cumulativeWeight, threshold, nextWorkers, conquerer));
+
+            try {
+                firstPart.get();
+                secondPart.get();
+            } catch (final InterruptedException | ExecutionException cause) {
+                throw new RuntimeException(cause);
+            }
+
+        } else {
+
+            conquerer.conquer(first, limit);
+        }
+    }
+
     public DivideAndConquer() {
         super();
     }
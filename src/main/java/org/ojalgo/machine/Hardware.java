@@ -552,6 +552,25 @@ public final class Hardware extends CommonMachine implements Comparable<Hardware
         return true;
     }
 
+    /**
+     * The size, in bytes, of the L1 (data) cache of one core.
+     */
+    public long getL1CacheSize() {
+        return myLevels[myLevels.length - 1].memory;
+    }
+
+    /**
+     * The size, in bytes, of one L2 cache unit. If the L2 cache is not specified this is the same as the L1
+     * cache size.
+     */
+    public long getL2CacheSize() {
+        if (this.isL2Specified()) {
+            return myLevels[myLevels.length - 2].memory;
+        } else {
+            return this.getL1CacheSize();
+        }
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
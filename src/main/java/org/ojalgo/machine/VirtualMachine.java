@@ -135,6 +135,20 @@ public final class VirtualMachine extends CommonMachine {
         return (tmpMax - tmpTotal) + tmpFree;
     }
 
+    /**
+     * @see Hardware#getL1CacheSize()
+     */
+    public long getL1CacheSize() {
+        return myHardware.getL1CacheSize();
+    }
+
+    /**
+     * @see Hardware#getL2CacheSize()
+     */
+    public long getL2CacheSize() {
+        return myHardware.getL2CacheSize();
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
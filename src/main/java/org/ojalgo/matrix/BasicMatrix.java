@@ -60,6 +60,11 @@ import org.ojalgo.type.context.NumberContext;
  * a lot of complexity, and makes choices, for you. If you want more control, and to be exposed to all the
  * implementation details, then look at the various interfaces/classes in the
  * {@linkplain org.ojalgo.matrix.store} and {@linkplain org.ojalgo.matrix.decomposition} packages.
+ * <p>
+ * With dense matrices the arithmetic operations (add, subtract, multiply, divide, negate...) are deferred.
+ * Chained elementwise operations are fused in to one pass, scalar factors and transposes are folded in to the
+ * matrix multiplication, and nothing is materialised until the elements are actually read. Sparse and other
+ * structured matrices keep their own (structure preserving) implementations of these operations.
  *
  * @author apete
  */
@@ -151,17 +156,23 @@ public abstract class BasicMatrix<N extends Comparable<N>, M extends BasicMatrix
 
     @Override
     public M add(final double scalarAddend) {
-        return this.newInstance(this.store().add(scalarAddend));
+        return this.add(myFactory.scalar().cast(scalarAddend));
     }
 
     @Override
     public M add(final M addend) {
-        ProgrammingError.throwIfNotEqualDimensions(this.store(), addend);
+        ProgrammingError.throwIfNotEqualDimensions(this, addend);
+        if (this.isDeferrable() && addend.isDeferrable()) {
+            return this.newInstance(Expression.matching(myFactory, this.supplier(), myFactory.function().add(), addend.store()));
+        }
         return this.newInstance(this.store().add(addend.store()));
     }
 
     @Override
     public M add(final N scalarAddend) {
+        if (this.isDeferrable()) {
+            return this.newInstance(Expression.onAll(myFactory, this.supplier(), myFactory.function().add().second(scalarAddend)));
+        }
         return this.newInstance(this.store().add(scalarAddend));
     }
 
@@ -266,11 +277,14 @@ public abstract class BasicMatrix<N extends Comparable<N>, M extends BasicMatrix
 
     @Override
     public M divide(final double scalarDivisor) {
-        return this.newInstance(this.store().divide(scalarDivisor));
+        return this.divide(myFactory.scalar().cast(scalarDivisor));
     }
 
     @Override
     public M divide(final N scalarDivisor) {
+        if (this.isDeferrable()) {
+            return this.newInstance(Expression.onAll(myFactory, this.supplier(), myFactory.function().divide().second(scalarDivisor)));
+        }
         return this.newInstance(this.store().divide(scalarDivisor));
     }
 
@@ -511,24 +525,34 @@ public abstract class BasicMatrix<N extends Comparable<N>, M extends BasicMatrix
 
     @Override
     public M multiply(final double scalarMultiplicand) {
-        return this.newInstance(this.store().multiply(scalarMultiplicand));
+        return this.multiply(myFactory.scalar().cast(scalarMultiplicand));
     }
 
     @Override
     public M multiply(final M multiplicand) {
 
-        ProgrammingError.throwIfMultiplicationNotPossible(this.store(), multiplicand);
+        ProgrammingError.throwIfMultiplicationNotPossible(this, multiplicand);
+
+        if (this.isDeferrable() && multiplicand.isDeferrable()) {
+            return this.newInstance(Expression.product(myFactory, this.supplier(), multiplicand.supplier()));
+        }
 
         return this.newInstance(this.store().multiply(multiplicand.store()));
     }
 
     @Override
     public M multiply(final N scalarMultiplicand) {
+        if (this.isDeferrable()) {
+            return this.newInstance(Expression.scale(myFactory, this.supplier(), scalarMultiplicand));
+        }
         return this.newInstance(this.store().multiply(scalarMultiplicand));
     }
 
     @Override
     public M negate() {
+        if (this.isDeferrable()) {
+            return this.newInstance(Expression.scale(myFactory, this.supplier(), myFactory.scalar().cast(PrimitiveMath.NEG)));
+        }
         return this.newInstance(this.store().negate());
     }
 
@@ -672,17 +696,23 @@ public abstract class BasicMatrix<N extends Comparable<N>, M extends BasicMatrix
 
     @Override
     public M subtract(final double scalarSubtrahend) {
-        return this.newInstance(this.store().subtract(scalarSubtrahend));
+        return this.subtract(myFactory.scalar().cast(scalarSubtrahend));
     }
 
     @Override
     public M subtract(final M subtrahend) {
-        ProgrammingError.throwIfNotEqualDimensions(this.store(), subtrahend);
+        ProgrammingError.throwIfNotEqualDimensions(this, subtrahend);
+        if (this.isDeferrable() && subtrahend.isDeferrable()) {
+            return this.newInstance(Expression.matching(myFactory, this.supplier(), myFactory.function().subtract(), subtrahend.store()));
+        }
         return this.newInstance(this.store().subtract(subtrahend.store()));
     }
 
     @Override
     public M subtract(final N scalarSubtrahend) {
+        if (this.isDeferrable()) {
+            return this.newInstance(Expression.onAll(myFactory, this.supplier(), myFactory.function().subtract().second(scalarSubtrahend)));
+        }
         return this.newInstance(this.store().subtract(scalarSubtrahend));
     }
 
@@ -829,6 +859,15 @@ public abstract class BasicMatrix<N extends Comparable<N>, M extends BasicMatrix
         return task.toSolutionProvider(this.supplier(), this::store, rhs);
     }
 
+    /**
+     * Only operations on dense matrices are deferred. Sparse and other structured (logical) stores have
+     * their own, structure preserving, implementations of the arithmetic operations.
+     */
+    final boolean isDeferrable() {
+        ElementsSupplier<N> supplier = this.supplier();
+        return !(supplier instanceof MatrixStore) || supplier instanceof PhysicalStore;
+    }
+
     abstract Cholesky<N> newCholesky(Structure2D typical);
 
     abstract DeterminantTask<N> newDeterminantTask(Structure2D template);
@@ -865,7 +904,11 @@ public abstract class BasicMatrix<N extends Comparable<N>, M extends BasicMatrix
     MatrixStore<N> store() {
 
         if (myStore == null) {
-            myStore = mySupplier.collect(myFactory);
+            if (mySupplier instanceof Expression) {
+                myStore = ((Expression<N>) mySupplier).evaluate();
+            } else {
+                myStore = mySupplier.collect(myFactory);
+            }
         }
 
         return myStore;
@@ -0,0 +1,491 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix;
+
+import java.util.Arrays;
+
+import org.ojalgo.function.BinaryFunction;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.matrix.store.ElementsSupplier;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.TransformableRegion;
+import org.ojalgo.structure.Access2D;
+
+/**
+ * Deferred {@link BasicMatrix} operations. Instead of producing a new dense store for each call, the
+ * operations are recorded, and only evaluated when the elements are supplied to some receiver.
+ * <ul>
+ * <li>Consecutive elementwise operations (scalar or matching) are fused in to one pass over the elements.</li>
+ * <li>Scalar factors are collected and applied together with the next elementwise pass, or once after the
+ * multiplication if there is no such pass.</li>
+ * <li>Transposed, and scaled, operands are passed as logical stores to the multiplication – no
+ * intermediate copies.</li>
+ * </ul>
+ * An evaluated expression keeps its result. Shared (sub)expressions are not recomputed, and an expression
+ * built on top of an already evaluated one starts from that result instead of re-walking its steps. The
+ * matrix product is always evaluated in to a store of its own, and kept.
+ *
+ * @author apete
+ */
+abstract class Expression<N extends Comparable<N>> implements ElementsSupplier<N> {
+
+    /**
+     * A base supplier followed by a single pass of elementwise operations. The (optional) scalar factor is
+     * applied first.
+     */
+    static final class Elementwise<N extends Comparable<N>> extends Expression<N> {
+
+        private final ElementsSupplier<N> myBase;
+        private final N myScale;
+        private final Step<N>[] mySteps;
+
+        Elementwise(final PhysicalStore.Factory<N, ?> factory, final ElementsSupplier<N> base, final N scale, final Step<N>[] steps) {
+            super(factory, base.countRows(), base.countColumns());
+            myBase = base;
+            myScale = scale;
+            mySteps = steps;
+        }
+
+        @Override
+        public ElementsSupplier<N> transpose() {
+
+            if (this.getValue() != null) {
+                return this.getValue().transpose();
+            }
+
+            Step<N>[] steps = Arrays.copyOf(mySteps, mySteps.length);
+
+            for (int s = 0; s < steps.length; s++) {
+                if (!steps[s].isUnary()) {
+                    if (!(steps[s].argument instanceof MatrixStore<?>)) {
+                        return super.transpose();
+                    }
+                    steps[s] = new Step<>(steps[s].binary, ((MatrixStore<N>) steps[s].argument).transpose());
+                }
+            }
+
+            return new Elementwise<>(this.factory(), myBase.transpose(), myScale, steps);
+        }
+
+        @Override
+        void compute(final TransformableRegion<N> receiver) {
+
+            myBase.supplyTo(receiver);
+
+            UnaryFunction<N> unary = myScale != null ? this.functions().multiply().second(myScale) : null;
+            int first = 0;
+            if (mySteps.length > 0 && mySteps[0].isUnary()) {
+                unary = unary != null ? unary.andThen(mySteps[0].unary) : mySteps[0].unary;
+                first = 1;
+            }
+
+            if (first == mySteps.length) {
+                if (unary != null) {
+                    receiver.modifyAll(unary);
+                }
+            } else if (unary == null && mySteps.length == 1) {
+                receiver.modifyMatching(mySteps[0].binary, mySteps[0].argument);
+            } else {
+                this.fused(receiver, unary, first);
+            }
+        }
+
+        private void fused(final TransformableRegion<N> receiver, final UnaryFunction<N> unary, final int first) {
+
+            long nbRows = receiver.countRows();
+            long nbCols = receiver.countColumns();
+
+            if (this.isPrimitive()) {
+                for (long j = 0L; j < nbCols; j++) {
+                    for (long i = 0L; i < nbRows; i++) {
+                        double value = receiver.doubleValue(i, j);
+                        if (unary != null) {
+                            value = unary.invoke(value);
+                        }
+                        for (int s = first; s < mySteps.length; s++) {
+                            value = mySteps[s].invoke(i, j, value);
+                        }
+                        receiver.set(i, j, value);
+                    }
+                }
+            } else {
+                for (long j = 0L; j < nbCols; j++) {
+                    for (long i = 0L; i < nbRows; i++) {
+                        N value = receiver.get(i, j);
+                        if (unary != null) {
+                            value = unary.invoke(value);
+                        }
+                        for (int s = first; s < mySteps.length; s++) {
+                            value = mySteps[s].invoke(i, j, value);
+                        }
+                        receiver.set(i, j, value);
+                    }
+                }
+            }
+        }
+
+        ElementsSupplier<N> getBase() {
+            return myBase;
+        }
+
+        N getScale() {
+            return myScale;
+        }
+
+        boolean isScaleOnly() {
+            return mySteps.length == 0;
+        }
+
+    }
+
+    /**
+     * [left][right], possibly scaled
+     */
+    static final class Product<N extends Comparable<N>> extends Expression<N> {
+
+        private final MatrixStore<N> myLeft;
+        private final MatrixStore<N> myRight;
+        private final N myScale;
+        /**
+         * The same product without the scalar factor – created (once) when some elementwise operation is
+         * appended to this product. Both nodes then share the evaluated matrix product.
+         */
+        private volatile Product<N> myUnscaled = null;
+
+        Product(final PhysicalStore.Factory<N, ?> factory, final MatrixStore<N> left, final MatrixStore<N> right, final N scale) {
+            super(factory, left.countRows(), right.countColumns());
+            myLeft = left;
+            myRight = right;
+            myScale = scale;
+        }
+
+        @Override
+        public ElementsSupplier<N> transpose() {
+
+            if (this.getValue() != null) {
+                return this.getValue().transpose();
+            }
+
+            return new Product<>(this.factory(), myRight.transpose(), myLeft.transpose(), myScale);
+        }
+
+        @Override
+        void compute(final TransformableRegion<N> receiver) {
+
+            Product<N> unscaled = myUnscaled;
+
+            if (unscaled != null) {
+                unscaled.evaluate().supplyTo(receiver);
+            } else {
+                myLeft.multiply(myRight, receiver);
+            }
+
+            if (myScale != null) {
+                receiver.modifyAll(this.functions().multiply().second(myScale));
+            }
+        }
+
+        N getScale() {
+            return myScale;
+        }
+
+        @Override
+        boolean isKept() {
+            return true;
+        }
+
+        Product<N> unscaled() {
+
+            if (myScale == null) {
+                return this;
+            }
+
+            Product<N> retVal = myUnscaled;
+            if (retVal == null) {
+                retVal = new Product<>(this.factory(), myLeft, myRight, null);
+                myUnscaled = retVal;
+            }
+            return retVal;
+        }
+
+    }
+
+    static final class Step<N extends Comparable<N>> {
+
+        final Access2D<N> argument;
+        final BinaryFunction<N> binary;
+        final UnaryFunction<N> unary;
+
+        Step(final BinaryFunction<N> binary, final Access2D<N> argument) {
+            super();
+            this.binary = binary;
+            this.argument = argument;
+            unary = null;
+        }
+
+        Step(final UnaryFunction<N> unary) {
+            super();
+            argument = null;
+            binary = null;
+            this.unary = unary;
+        }
+
+        double invoke(final long row, final long col, final double value) {
+            if (unary != null) {
+                return unary.invoke(value);
+            }
+            return binary.invoke(value, argument.doubleValue(row, col));
+        }
+
+        N invoke(final long row, final long col, final N value) {
+            if (unary != null) {
+                return unary.invoke(value);
+            }
+            return binary.invoke(value, argument.get(row, col));
+        }
+
+        boolean isUnary() {
+            return unary != null;
+        }
+
+    }
+
+    /**
+     * Append an elementwise operation with a matching argument to the expression.
+     */
+    static <N extends Comparable<N>> ElementsSupplier<N> matching(final PhysicalStore.Factory<N, ?> factory, final ElementsSupplier<N> base,
+            final BinaryFunction<N> operator, final Access2D<N> right) {
+        return Expression.append(factory, base, new Step<>(operator, right));
+    }
+
+    /**
+     * Append an elementwise unary operation to the expression.
+     */
+    static <N extends Comparable<N>> ElementsSupplier<N> onAll(final PhysicalStore.Factory<N, ?> factory, final ElementsSupplier<N> base,
+            final UnaryFunction<N> operator) {
+        return Expression.append(factory, base, new Step<>(operator));
+    }
+
+    /**
+     * The matrix product of the two expressions. Operands that are (scaled) stores, including transposed
+     * stores, are used as is – anything else is collected first.
+     */
+    static <N extends Comparable<N>> ElementsSupplier<N> product(final PhysicalStore.Factory<N, ?> factory, final ElementsSupplier<N> left,
+            final ElementsSupplier<N> right) {
+
+        FunctionSet<N> functions = factory.function();
+
+        ElementsSupplier<N> leftSupplier = Expression.resolve(left);
+        ElementsSupplier<N> rightSupplier = Expression.resolve(right);
+
+        N scale = null;
+        MatrixStore<N> leftStore;
+        MatrixStore<N> rightStore;
+
+        if (leftSupplier instanceof Elementwise && ((Elementwise<N>) leftSupplier).isScaleOnly()
+                && ((Elementwise<N>) leftSupplier).getBase() instanceof MatrixStore) {
+            leftStore = (MatrixStore<N>) ((Elementwise<N>) leftSupplier).getBase();
+            scale = ((Elementwise<N>) leftSupplier).getScale();
+        } else if (leftSupplier instanceof MatrixStore) {
+            leftStore = (MatrixStore<N>) leftSupplier;
+        } else {
+            leftStore = leftSupplier.collect(factory);
+        }
+
+        if (rightSupplier instanceof Elementwise && ((Elementwise<N>) rightSupplier).isScaleOnly()
+                && ((Elementwise<N>) rightSupplier).getBase() instanceof MatrixStore) {
+            rightStore = (MatrixStore<N>) ((Elementwise<N>) rightSupplier).getBase();
+            scale = Expression.multiply(functions, scale, ((Elementwise<N>) rightSupplier).getScale());
+        } else if (rightSupplier instanceof MatrixStore) {
+            rightStore = (MatrixStore<N>) rightSupplier;
+        } else {
+            rightStore = rightSupplier.collect(factory);
+        }
+
+        return new Product<>(factory, leftStore, rightStore, scale);
+    }
+
+    /**
+     * Multiply the expression by a scalar. The factor is merged with any pending factor, and when possible
+     * folded in to a multiplication.
+     */
+    static <N extends Comparable<N>> ElementsSupplier<N> scale(final PhysicalStore.Factory<N, ?> factory, final ElementsSupplier<N> base, final N factor) {
+
+        FunctionSet<N> functions = factory.function();
+
+        ElementsSupplier<N> resolved = Expression.resolve(base);
+
+        if (resolved instanceof Product) {
+            Product<N> product = (Product<N>) resolved;
+            return new Product<>(factory, product.myLeft, product.myRight, Expression.multiply(functions, product.getScale(), factor));
+        }
+
+        if (resolved instanceof Elementwise && ((Elementwise<N>) resolved).isScaleOnly()) {
+            Elementwise<N> scaled = (Elementwise<N>) resolved;
+            return new Elementwise<>(factory, scaled.getBase(), Expression.multiply(functions, scaled.getScale(), factor), scaled.mySteps);
+        }
+
+        if (resolved instanceof Elementwise) {
+            return Expression.onAll(factory, resolved, functions.multiply().second(factor));
+        }
+
+        return new Elementwise<>(factory, resolved, factor, Expression.steps());
+    }
+
+    private static <N extends Comparable<N>> ElementsSupplier<N> append(final PhysicalStore.Factory<N, ?> factory, final ElementsSupplier<N> base,
+            final Step<N> step) {
+
+        ElementsSupplier<N> resolved = Expression.resolve(base);
+
+        if (resolved instanceof Elementwise) {
+
+            Elementwise<N> fused = (Elementwise<N>) resolved;
+            Step<N>[] steps = fused.mySteps;
+            int last = steps.length - 1;
+
+            if (step.isUnary() && last >= 0 && steps[last].isUnary()) {
+                steps = Arrays.copyOf(steps, steps.length);
+                steps[last] = new Step<>(steps[last].unary.andThen(step.unary));
+            } else {
+                steps = Arrays.copyOf(steps, steps.length + 1);
+                steps[steps.length - 1] = step;
+            }
+
+            return new Elementwise<>(factory, fused.getBase(), fused.getScale(), steps);
+        }
+
+        if (resolved instanceof Product) {
+            Product<N> product = (Product<N>) resolved;
+            return new Elementwise<>(factory, product.unscaled(), product.getScale(), Expression.steps(step));
+        }
+
+        return new Elementwise<>(factory, resolved, null, Expression.steps(step));
+    }
+
+    private static <N extends Comparable<N>> N multiply(final FunctionSet<N> functions, final N scale, final N factor) {
+        return scale != null ? functions.multiply().invoke(scale, factor) : factor;
+    }
+
+    /**
+     * An already evaluated expression is replaced by its value.
+     */
+    private static <N extends Comparable<N>> ElementsSupplier<N> resolve(final ElementsSupplier<N> supplier) {
+        if (supplier instanceof Expression && ((Expression<N>) supplier).getValue() != null) {
+            return ((Expression<N>) supplier).getValue();
+        }
+        return supplier;
+    }
+
+    @SafeVarargs
+    private static <N extends Comparable<N>> Step<N>[] steps(final Step<N>... steps) {
+        return steps;
+    }
+
+    private final long myColumnsCount;
+    private final PhysicalStore.Factory<N, ?> myFactory;
+    private final long myRowsCount;
+    /**
+     * The expression is immutable, apart from this memoised result. It is set (once) when the expression is
+     * evaluated, and is volatile so that a result evaluated by one thread is fully visible to others. Should
+     * two threads evaluate the same expression at the same time, they'll both compute it – with identical
+     * results.
+     */
+    private transient volatile MatrixStore<N> myValue = null;
+
+    Expression(final PhysicalStore.Factory<N, ?> factory, final long rowsCount, final long columnsCount) {
+        super();
+        myFactory = factory;
+        myRowsCount = rowsCount;
+        myColumnsCount = columnsCount;
+    }
+
+    public final long countColumns() {
+        return myColumnsCount;
+    }
+
+    public final long countRows() {
+        return myRowsCount;
+    }
+
+    @Override
+    public final void supplyTo(final TransformableRegion<N> receiver) {
+
+        MatrixStore<N> value = myValue;
+
+        if (value == null && this.isKept()) {
+            value = this.evaluate();
+        }
+
+        if (value != null) {
+            value.supplyTo(receiver);
+        } else {
+            this.compute(receiver);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return myRowsCount + "x" + myColumnsCount + " " + this.getClass();
+    }
+
+    abstract void compute(TransformableRegion<N> receiver);
+
+    /**
+     * Evaluate (once) and keep the result.
+     */
+    final MatrixStore<N> evaluate() {
+        MatrixStore<N> retVal = myValue;
+        if (retVal == null) {
+            PhysicalStore<N> value = myFactory.make(myRowsCount, myColumnsCount);
+            this.compute(value);
+            myValue = retVal = value;
+        }
+        return retVal;
+    }
+
+    final PhysicalStore.Factory<N, ?> factory() {
+        return myFactory;
+    }
+
+    final FunctionSet<N> functions() {
+        return myFactory.function();
+    }
+
+    final MatrixStore<N> getValue() {
+        return myValue;
+    }
+
+    /**
+     * Should the result always be evaluated to, and kept in, a store of its own – even when supplied to some
+     * other receiver?
+     */
+    boolean isKept() {
+        return false;
+    }
+
+    final boolean isPrimitive() {
+        return myFactory.getMathType().isPrimitive();
+    }
+
+}
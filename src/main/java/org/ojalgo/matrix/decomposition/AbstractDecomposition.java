@@ -76,6 +76,15 @@ abstract class AbstractDecomposition<N extends Comparable<N>> implements MatrixD
         return this.getRowDim() >= this.getColDim();
     }
 
+    /**
+     * To be called when already computed factors have been revised in-place (update/downdate) – the
+     * solvability needs to be re-evaluated.
+     */
+    protected final boolean revised() {
+        mySolvable = null;
+        return myComputed;
+    }
+
     protected abstract Scalar.Factory<N> scalar();
 
     boolean isSolvable() {
@@ -0,0 +1,263 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.Arrays;
+
+/**
+ * Approximate minimum degree (AMD) fill-reducing ordering of a symmetric sparsity pattern. Works on the
+ * quotient graph – eliminated variables become elements (cliques) represented by their member lists rather
+ * than by explicit fill edges – and the degrees are the AMD upper bounds
+ * <p>
+ * d<sub>i</sub> = min( n-k-1, d<sub>i</sub><sup>old</sup> + |L<sub>p</sub>\i|, |A<sub>i</sub>\i| +
+ * |L<sub>p</sub>\i| + Σ<sub>e≠p</sub>|L<sub>e</sub>\L<sub>p</sub>| )
+ * <p>
+ * with element absorption and aggressive absorption, but without supervariable detection (mass
+ * elimination) or special treatment of dense rows.
+ *
+ * @author apete
+ */
+final class ApproximateMinimumDegree {
+
+    private static final int ABSORBED = 2;
+    private static final int ELEMENT = 1;
+    private static final int VARIABLE = 0;
+
+    /**
+     * @param dim The number of variables (rows/columns)
+     * @param pointers Column pointers (dim + 1) of the pattern
+     * @param indices The (row) indices of the pattern. Must be symmetric (both triangles) and without
+     *        duplicates. The diagonal is ignored.
+     * @return The elimination order: the k:th pivot is variable order[k]
+     */
+    static int[] order(final int dim, final int[] pointers, final int[] indices) {
+
+        int[][] variables = new int[dim][];
+        int[] nbVariables = new int[dim];
+        int[][] elements = new int[dim][];
+        int[] nbElements = new int[dim];
+        int[][] members = new int[dim][];
+        int[] nbMembers = new int[dim];
+        int[] state = new int[dim];
+
+        int[] degree = new int[dim];
+        int[] head = new int[dim];
+        int[] next = new int[dim];
+        int[] previous = new int[dim];
+        Arrays.fill(head, -1);
+
+        for (int i = 0; i < dim; i++) {
+            int[] adjacent = new int[pointers[i + 1] - pointers[i]];
+            int count = 0;
+            for (int q = pointers[i]; q < pointers[i + 1]; q++) {
+                if (indices[q] != i) {
+                    adjacent[count++] = indices[q];
+                }
+            }
+            variables[i] = adjacent;
+            nbVariables[i] = count;
+            elements[i] = new int[4];
+            degree[i] = count;
+            ApproximateMinimumDegree.insert(i, degree, head, next, previous);
+        }
+
+        int[] order = new int[dim];
+        int[] mark = new int[dim];
+        int[] external = new int[dim];
+        int[] externalMark = new int[dim];
+        int[] pivotMembers = new int[dim];
+
+        int minDegree = 0;
+
+        for (int k = 0; k < dim; k++) {
+
+            while (head[minDegree] < 0) {
+                minDegree++;
+            }
+
+            int pivot = head[minDegree];
+            ApproximateMinimumDegree.remove(pivot, degree, head, next, previous);
+
+            order[k] = pivot;
+            state[pivot] = ELEMENT;
+
+            int stamp = k + 1;
+            mark[pivot] = stamp;
+
+            // The pivot element members: Lp = (Ap ∪ (∪ Le for e in Ep)) \ p
+
+            int nbPivotMembers = 0;
+
+            int[] pivotVariables = variables[pivot];
+            for (int a = 0; a < nbVariables[pivot]; a++) {
+                int v = pivotVariables[a];
+                if (state[v] == VARIABLE && mark[v] != stamp) {
+                    mark[v] = stamp;
+                    pivotMembers[nbPivotMembers++] = v;
+                }
+            }
+
+            int[] pivotElements = elements[pivot];
+            for (int a = 0; a < nbElements[pivot]; a++) {
+                int e = pivotElements[a];
+                if (state[e] == ELEMENT) {
+                    int[] elementMembers = members[e];
+                    for (int b = 0; b < nbMembers[e]; b++) {
+                        int v = elementMembers[b];
+                        if (state[v] == VARIABLE && mark[v] != stamp) {
+                            mark[v] = stamp;
+                            pivotMembers[nbPivotMembers++] = v;
+                        }
+                    }
+                    state[e] = ABSORBED;
+                    members[e] = null;
+                }
+            }
+
+            members[pivot] = Arrays.copyOf(pivotMembers, nbPivotMembers);
+            nbMembers[pivot] = nbPivotMembers;
+            variables[pivot] = null;
+            elements[pivot] = null;
+
+            for (int a = 0; a < nbPivotMembers; a++) {
+                ApproximateMinimumDegree.remove(pivotMembers[a], degree, head, next, previous);
+            }
+
+            // |Le \ Lp| for all (other) elements adjacent to the pivot members
+
+            for (int a = 0; a < nbPivotMembers; a++) {
+                int v = pivotMembers[a];
+                int[] adjacent = elements[v];
+                for (int b = 0; b < nbElements[v]; b++) {
+                    int e = adjacent[b];
+                    if (state[e] == ELEMENT) {
+                        if (externalMark[e] != stamp) {
+                            externalMark[e] = stamp;
+                            external[e] = ApproximateMinimumDegree.compact(e, members, nbMembers, state);
+                        }
+                        external[e]--;
+                    }
+                }
+            }
+
+            // Update the pivot members' adjacency and (approximate) degree
+
+            int remaining = dim - k - 1;
+
+            for (int a = 0; a < nbPivotMembers; a++) {
+                int v = pivotMembers[a];
+
+                int elementSum = 0;
+                int[] adjacentElements = elements[v];
+                int keep = 0;
+                for (int b = 0; b < nbElements[v]; b++) {
+                    int e = adjacentElements[b];
+                    if (state[e] == ELEMENT) {
+                        if (external[e] == 0) {
+                            // Aggressive absorption: Le is a subset of Lp
+                            state[e] = ABSORBED;
+                            members[e] = null;
+                        } else {
+                            elementSum += external[e];
+                            adjacentElements[keep++] = e;
+                        }
+                    }
+                }
+                if (keep == adjacentElements.length) {
+                    adjacentElements = Arrays.copyOf(adjacentElements, 2 * keep + 2);
+                    elements[v] = adjacentElements;
+                }
+                adjacentElements[keep++] = pivot;
+                nbElements[v] = keep;
+
+                // Variables also members of the pivot element are (now) covered by that element
+                int[] adjacentVariables = variables[v];
+                keep = 0;
+                for (int b = 0; b < nbVariables[v]; b++) {
+                    int u = adjacentVariables[b];
+                    if (state[u] == VARIABLE && mark[u] != stamp) {
+                        adjacentVariables[keep++] = u;
+                    }
+                }
+                nbVariables[v] = keep;
+
+                int approximate = keep + nbPivotMembers - 1 + elementSum;
+                approximate = Math.min(approximate, degree[v] + nbPivotMembers - 1);
+                approximate = Math.max(0, Math.min(approximate, remaining - 1));
+
+                degree[v] = approximate;
+                ApproximateMinimumDegree.insert(v, degree, head, next, previous);
+                minDegree = Math.min(minDegree, approximate);
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * Remove variables (no longer variables) from the member list of the element.
+     *
+     * @return The number of (remaining) members
+     */
+    private static int compact(final int element, final int[][] members, final int[] nbMembers, final int[] state) {
+        int[] list = members[element];
+        int count = 0;
+        for (int b = 0; b < nbMembers[element]; b++) {
+            if (state[list[b]] == VARIABLE) {
+                list[count++] = list[b];
+            }
+        }
+        nbMembers[element] = count;
+        return count;
+    }
+
+    private static void insert(final int variable, final int[] degree, final int[] head, final int[] next, final int[] previous) {
+        int d = degree[variable];
+        int first = head[d];
+        next[variable] = first;
+        previous[variable] = -1;
+        if (first >= 0) {
+            previous[first] = variable;
+        }
+        head[d] = variable;
+    }
+
+    private static void remove(final int variable, final int[] degree, final int[] head, final int[] next, final int[] previous) {
+        int before = previous[variable];
+        int after = next[variable];
+        if (before >= 0) {
+            next[before] = after;
+        } else {
+            head[degree[variable]] = after;
+        }
+        if (after >= 0) {
+            previous[after] = before;
+        }
+        next[variable] = -1;
+        previous[variable] = -1;
+    }
+
+    private ApproximateMinimumDegree() {
+        super();
+    }
+
+}
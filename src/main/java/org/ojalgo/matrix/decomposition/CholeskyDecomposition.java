@@ -27,14 +27,17 @@ import org.ojalgo.RecoverableCondition;
 import org.ojalgo.array.BasicArray;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.aggregator.AggregatorFunction;
+import org.ojalgo.matrix.operation.DecomposeBlocked;
 import org.ojalgo.matrix.store.GenericStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.R064Strided;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
+import org.ojalgo.structure.Access1D;
 import org.ojalgo.structure.Access2D;
 import org.ojalgo.structure.Access2D.Collectable;
 import org.ojalgo.structure.Structure2D;
@@ -65,12 +68,26 @@ abstract class CholeskyDecomposition<N extends Comparable<N>> extends InPlaceDec
 
     }
 
-    static final class R064 extends CholeskyDecomposition<Double> {
+    static final class R064 extends CholeskyDecomposition<Double> implements MatrixDecomposition.Updatable<Double> {
 
         R064() {
             super(Primitive64Store.FACTORY);
         }
 
+        R064(final DecompositionStore.Factory<Double, ? extends DecompositionStore<Double>> factory) {
+            super(factory);
+        }
+
+        @Override
+        public boolean downdate(final Access1D<?> vector) {
+            return this.isSPD() && this.modified(RankOneUpdate.cholesky(this.getInPlace(), vector, true));
+        }
+
+        @Override
+        public boolean update(final Access1D<?> vector) {
+            return this.isSPD() && this.modified(RankOneUpdate.cholesky(this.getInPlace(), vector, false));
+        }
+
     }
 
     static final class R128 extends CholeskyDecomposition<Quadruple> {
@@ -286,6 +303,24 @@ abstract class CholeskyDecomposition<N extends Comparable<N>> extends InPlaceDec
             tmpPositiveDefinite &= tmpInPlace.isHermitian();
         }
 
+        if (tmpPositiveDefinite && tmpMinDim >= DecomposeBlocked.THRESHOLD && tmpInPlace instanceof Primitive64Store) {
+
+            double[] tmpPivots = new double[tmpMinDim];
+
+            tmpPositiveDefinite = DecomposeBlocked.cholesky(R064Strided.of((Primitive64Store) tmpInPlace), tmpPivots);
+
+            for (int ij = 0; ij < tmpMinDim; ij++) {
+                double tmpVal = tmpPivots[ij];
+                myMaxDiag = MAX.invoke(myMaxDiag, tmpVal);
+                myMinDiag = MIN.invoke(myMinDiag, tmpVal);
+                if (tmpVal <= ZERO) {
+                    break;
+                }
+            }
+
+            return this.computed(mySPD = tmpPositiveDefinite);
+        }
+
         UnaryFunction<N> tmpSqrtFunc = this.function().sqrt();
 
         // Main loop - along the diagonal
@@ -315,4 +350,29 @@ abstract class CholeskyDecomposition<N extends Comparable<N>> extends InPlaceDec
         return this.computed(mySPD = tmpPositiveDefinite);
     }
 
+    /**
+     * To be called after the factor was revised in-place by a rank-1 update/downdate.
+     */
+    boolean modified(final boolean successful) {
+
+        if (successful) {
+
+            DecompositionStore<N> tmpInPlace = this.getInPlace();
+
+            myMaxDiag = MACHINE_SMALLEST;
+            myMinDiag = MACHINE_LARGEST;
+
+            for (int ij = 0, limit = this.getMinDim(); ij < limit; ij++) {
+                double tmpVal = tmpInPlace.doubleValue(ij, ij);
+                tmpVal *= tmpVal;
+                myMaxDiag = MAX.invoke(myMaxDiag, tmpVal);
+                myMinDiag = MIN.invoke(myMinDiag, tmpVal);
+            }
+
+            this.revised();
+        }
+
+        return successful;
+    }
+
 }
@@ -0,0 +1,572 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.matrix.Provider2D;
+import org.ojalgo.matrix.decomposition.Eigenvalue.Eigenpair;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * Partial eigenvalue decomposition – a few of the largest, or smallest, eigenvalues and their eigenvectors –
+ * of large (sparse) matrices. Implicitly restarted Lanczos (symmetric matrices) and Arnoldi (general
+ * matrices), with exact shifts, as in ARPACK.
+ * <p>
+ * The matrix is only ever used to multiply vectors, via
+ * {@link MatrixStore#multiply(Access1D, org.ojalgo.matrix.store.TransformableRegion)}, so it can be a {@link org.ojalgo.matrix.store.SparseStore}, any logical store (like a product of factors never
+ * formed explicitly) or your own {@link MatrixStore} implementation. Apart from that the memory needed is
+ * that of a Krylov subspace basis of about max(2k, k+20) vectors, and the work per restart is dominated by
+ * as many matrix-vector multiplications and the (full) reorthogonalisation.
+ * <p>
+ * Which eigenvalues are "largest" or "smallest" depends on the algorithm: with {@link #lanczos(int, Extreme)}
+ * it's algebraically (the eigenvalues are real), with {@link #arnoldi(int, Extreme)} it's by magnitude
+ * (modulus).
+ *
+ * @author apete
+ */
+public final class KrylovEvD implements Provider2D.Eigenpairs {
+
+    public enum Extreme {
+        LARGEST, SMALLEST;
+    }
+
+    /**
+     * The maximum number of restarts
+     */
+    public static int ITERATIONS = 1_000;
+    /**
+     * A Ritz pair (θ, x) is accepted when the residual norm |[A]x - θx| &le; TOLERANCE × max(|θ|,
+     * ε<sup>2/3</sup>)
+     */
+    public static double TOLERANCE = 1.0E-12;
+
+    private static final double EPS23 = Math.pow(MACHINE_EPSILON, TWO / THREE);
+
+    /**
+     * k eigenpairs of a general (square) matrix, using implicitly restarted Arnoldi. If the k:th and (k+1):th
+     * eigenvalues are a complex conjugate pair both are included.
+     */
+    public static KrylovEvD arnoldi(final int count, final Extreme extreme) {
+        return new KrylovEvD(false, count, extreme);
+    }
+
+    /**
+     * k eigenpairs of a symmetric matrix, using implicitly restarted Lanczos.
+     */
+    public static KrylovEvD lanczos(final int count, final Extreme extreme) {
+        return new KrylovEvD(true, count, extreme);
+    }
+
+    private static double dot(final double[] vector1, final double[] vector2) {
+        double retVal = ZERO;
+        for (int i = 0; i < vector1.length; i++) {
+            retVal += vector1[i] * vector2[i];
+        }
+        return retVal;
+    }
+
+    private static double norm(final Access1D<ComplexNumber> vector) {
+        double retVal = ZERO;
+        for (int i = 0, limit = vector.size(); i < limit; i++) {
+            retVal = HYPOT.invoke(retVal, vector.get(i).norm());
+        }
+        return retVal;
+    }
+
+    private static double norm(final double[] vector) {
+        return SQRT.invoke(KrylovEvD.dot(vector, vector));
+    }
+
+    /**
+     * Orthogonalise <code>vector</code> against the first <code>nbVectors</code> basis vectors – twice to
+     * maintain orthogonality to working precision. The projections are added to <code>projections</code>
+     * (if not null).
+     */
+    private static void orthogonalise(final double[][] basis, final int nbVectors, final double[] vector, final double[] projections) {
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < nbVectors; i++) {
+                double[] basisVector = basis[i];
+                double projection = KrylovEvD.dot(basisVector, vector);
+                for (int r = 0; r < vector.length; r++) {
+                    vector[r] -= projection * basisVector[r];
+                }
+                if (projections != null) {
+                    projections[i] += projection;
+                }
+            }
+        }
+    }
+
+    /**
+     * One implicitly shifted QR step on the (upper Hessenberg) [H]. <code>first</code> is the first column
+     * of the shift polynomial evaluated at [H] – 2 elements for a single real shift, 3 for a complex
+     * conjugate pair. The orthogonal similarity transformation is accumulated in [Q].
+     */
+    private static void shift(final double[][] mtrxH, final double[][] mtrxQ, final double[] first) {
+
+        int dim = mtrxH.length;
+
+        // Introduce the bulge
+        for (int i = first.length - 2; i >= 0; i--) {
+            double a = first[i];
+            double b = first[i + 1];
+            if (b != ZERO) {
+                double r = HYPOT.invoke(a, b);
+                KrylovEvD.similarity(mtrxH, mtrxQ, i, a / r, b / r);
+                first[i] = r;
+                first[i + 1] = ZERO;
+            }
+        }
+
+        // Chase it down, restoring Hessenberg form
+        for (int col = 0; col < dim - 2; col++) {
+            for (int i = dim - 1; i >= col + 2; i--) {
+                double b = mtrxH[i][col];
+                if (b != ZERO) {
+                    double a = mtrxH[i - 1][col];
+                    double r = HYPOT.invoke(a, b);
+                    KrylovEvD.similarity(mtrxH, mtrxQ, i - 1, a / r, b / r);
+                    mtrxH[i - 1][col] = r;
+                    mtrxH[i][col] = ZERO;
+                }
+            }
+        }
+    }
+
+    /**
+     * [H] = [G][H][G]<sup>T</sup> and [Q] = [Q][G]<sup>T</sup> where [G] is a Givens rotation in the plane
+     * of <code>index</code> and <code>index + 1</code>.
+     */
+    private static void similarity(final double[][] mtrxH, final double[][] mtrxQ, final int index, final double cos, final double sin) {
+
+        int next = index + 1;
+
+        double[] rowI = mtrxH[index];
+        double[] rowN = mtrxH[next];
+        for (int j = 0; j < rowI.length; j++) {
+            double valI = rowI[j];
+            double valN = rowN[j];
+            rowI[j] = cos * valI + sin * valN;
+            rowN[j] = cos * valN - sin * valI;
+        }
+
+        for (double[] row : mtrxH) {
+            double valI = row[index];
+            double valN = row[next];
+            row[index] = cos * valI + sin * valN;
+            row[next] = cos * valN - sin * valI;
+        }
+
+        for (double[] row : mtrxQ) {
+            double valI = row[index];
+            double valN = row[next];
+            row[index] = cos * valI + sin * valN;
+            row[next] = cos * valN - sin * valI;
+        }
+    }
+
+    private final int myCount;
+    private final Extreme myExtreme;
+    private final boolean myHermitian;
+    private int myIterations = 0;
+    private double[] myValuesIm = null;
+    private double[] myValuesRe = null;
+    private double[][] myVectorsIm = null;
+    private double[][] myVectorsRe = null;
+
+    KrylovEvD(final boolean hermitian, final int count, final Extreme extreme) {
+
+        super();
+
+        if (count < 1) {
+            ProgrammingError.throwWithMessage("Must ask for at least 1 eigenvalue, not {}!", count);
+        }
+
+        myHermitian = hermitian;
+        myCount = count;
+        myExtreme = extreme;
+    }
+
+    /**
+     * @param matrix A square matrix (symmetric when using Lanczos) – only used to multiply vectors
+     * @return true if all the requested eigenpairs converged. If not, the results are the best
+     *         approximations found within {@link #ITERATIONS} restarts.
+     */
+    public boolean compute(final MatrixStore<Double> matrix) {
+
+        ProgrammingError.throwIfNotSquare(matrix);
+
+        int dim = matrix.getRowDim();
+        int count = Math.min(myCount, dim);
+        int subspace = Math.min(dim, Math.max(count + count + 1, count + 20));
+
+        Random random = new Random(dim);
+        double[][] basis = new double[subspace][];
+        double[][] mtrxH = new double[subspace][subspace];
+        double[] residual = new double[dim];
+        double scale = ZERO;
+
+        for (int i = 0; i < dim; i++) {
+            residual[i] = random.nextGaussian();
+        }
+
+        int kept = 0;
+        myIterations = 0;
+
+        while (true) {
+
+            // Extend the Arnoldi/Lanczos factorisation [A][V] = [V][H] + [f][e]^T to full subspace size
+
+            for (int j = kept; j < subspace; j++) {
+
+                double beta = KrylovEvD.norm(residual);
+
+                if (j == 0 || beta <= MACHINE_EPSILON * subspace * scale) {
+                    // Start, or an invariant subspace found – continue with a new random direction
+                    if (j > 0) {
+                        for (int i = 0; i < dim; i++) {
+                            residual[i] = random.nextGaussian();
+                        }
+                        KrylovEvD.orthogonalise(basis, j, residual, null);
+                        beta = ZERO;
+                    }
+                    double length = KrylovEvD.norm(residual);
+                    for (int i = 0; i < dim; i++) {
+                        residual[i] /= length;
+                    }
+                } else {
+                    for (int i = 0; i < dim; i++) {
+                        residual[i] /= beta;
+                    }
+                }
+
+                basis[j] = residual;
+                if (j > 0) {
+                    mtrxH[j][j - 1] = beta;
+                }
+
+                residual = new double[dim];
+                matrix.multiply(Primitive64Store.wrap(basis[j]), Primitive64Store.wrap(residual));
+
+                double[] projections = new double[j + 1];
+                KrylovEvD.orthogonalise(basis, j + 1, residual, projections);
+
+                if (myHermitian) {
+                    mtrxH[j][j] = projections[j];
+                    if (j > 0) {
+                        mtrxH[j - 1][j] = mtrxH[j][j - 1];
+                    }
+                } else {
+                    for (int i = 0; i <= j; i++) {
+                        mtrxH[i][j] = projections[i];
+                    }
+                }
+
+                for (int i = 0; i <= j; i++) {
+                    scale = Math.max(scale, Math.abs(mtrxH[i][j]));
+                }
+            }
+
+            double beta = KrylovEvD.norm(residual);
+
+            // Ritz values and vectors
+
+            Eigenvalue<Double> evd = Eigenvalue.R064.make(subspace, myHermitian);
+            evd.decompose(Primitive64Store.FACTORY.rows(mtrxH));
+
+            List<Eigenpair> ritz = new ArrayList<>(evd.getEigenpairs());
+            ritz.sort(this.comparator());
+
+            int wanted = count;
+            if (!myHermitian) {
+                int balance = 0;
+                for (int i = 0; i < wanted; i++) {
+                    balance += (int) Math.signum(ritz.get(i).value.i);
+                }
+                if (balance != 0 && wanted < subspace) {
+                    wanted++;
+                }
+            }
+
+            boolean converged = true;
+            for (int i = 0; converged && i < wanted; i++) {
+                Eigenpair pair = ritz.get(i);
+                double residualNorm = beta * pair.vector.get(subspace - 1).norm() / KrylovEvD.norm(pair.vector);
+                converged &= residualNorm <= TOLERANCE * Math.max(pair.value.norm(), EPS23);
+            }
+
+            if (converged || wanted >= subspace || myIterations >= ITERATIONS) {
+                this.extract(basis, ritz, wanted, dim);
+                return converged;
+            }
+
+            myIterations++;
+
+            // Implicit restart – the unwanted Ritz values are used as shifts
+
+            double[][] mtrxQ = new double[subspace][subspace];
+            for (int ij = 0; ij < subspace; ij++) {
+                mtrxQ[ij][ij] = ONE;
+            }
+
+            for (int u = wanted; u < subspace; u++) {
+                ComplexNumber value = ritz.get(u).value;
+                if (value.i == ZERO || myHermitian) {
+                    KrylovEvD.shift(mtrxH, mtrxQ, new double[] { mtrxH[0][0] - value.getReal(), mtrxH[1][0] });
+                } else if (value.i > ZERO) {
+                    double s = value.getReal() + value.getReal();
+                    double t = value.getReal() * value.getReal() + value.i * value.i;
+                    double[] first = new double[Math.min(3, subspace)];
+                    first[0] = mtrxH[0][0] * mtrxH[0][0] + mtrxH[0][1] * mtrxH[1][0] - s * mtrxH[0][0] + t;
+                    first[1] = mtrxH[1][0] * (mtrxH[0][0] + mtrxH[1][1] - s);
+                    if (subspace > 2) {
+                        first[2] = mtrxH[1][0] * mtrxH[2][1];
+                    }
+                    KrylovEvD.shift(mtrxH, mtrxQ, first);
+                }
+            }
+
+            // The first "wanted" columns of [V][Q] span the restarted subspace
+
+            double[] next = new double[dim];
+            double[][] restarted = new double[subspace][];
+            for (int j = 0; j <= wanted; j++) {
+                double[] combination = j < wanted ? new double[dim] : next;
+                for (int i = 0; i < subspace; i++) {
+                    double factor = mtrxQ[i][j];
+                    if (factor != ZERO) {
+                        double[] basisVector = basis[i];
+                        for (int r = 0; r < dim; r++) {
+                            combination[r] += factor * basisVector[r];
+                        }
+                    }
+                }
+                if (j < wanted) {
+                    restarted[j] = combination;
+                }
+            }
+
+            double factorNext = mtrxH[wanted][wanted - 1];
+            double factorResidual = mtrxQ[subspace - 1][wanted - 1];
+            for (int r = 0; r < dim; r++) {
+                next[r] = factorNext * next[r] + factorResidual * residual[r];
+            }
+
+            basis = restarted;
+            residual = next;
+
+            for (int i = 0; i < subspace; i++) {
+                for (int j = 0; j < subspace; j++) {
+                    if (i >= wanted || j >= wanted || myHermitian && Math.abs(i - j) > 1) {
+                        mtrxH[i][j] = ZERO;
+                    }
+                }
+            }
+            if (myHermitian) {
+                for (int i = 1; i < wanted; i++) {
+                    mtrxH[i][i - 1] = mtrxH[i - 1][i] = (mtrxH[i][i - 1] + mtrxH[i - 1][i]) / TWO;
+                }
+            }
+
+            kept = wanted;
+        }
+    }
+
+    /**
+     * The block diagonal eigenvalue matrix, with the same conventions as {@link Eigenvalue#getD()}
+     */
+    public MatrixStore<Double> getD() {
+
+        int nbPairs = myValuesRe.length;
+
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(nbPairs, nbPairs);
+
+        for (int ij = 0; ij < nbPairs; ij++) {
+            retVal.set(ij, ij, myValuesRe[ij]);
+            if (myValuesIm[ij] > ZERO) {
+                retVal.set(ij, ij + 1, myValuesIm[ij]);
+                retVal.set(ij + 1, ij, -myValuesIm[ij]);
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return The computed eigenpairs, ordered with the most extreme first (largest first when asking for
+     *         the largest, and smallest first when asking for the smallest)
+     */
+    public List<Eigenpair> getEigenpairs() {
+
+        int nbPairs = myValuesRe.length;
+        int dim = myVectorsRe[0].length;
+
+        List<Eigenpair> retVal = new ArrayList<>(nbPairs);
+
+        for (int p = 0; p < nbPairs; p++) {
+            Array1D<ComplexNumber> vector = Array1D.C128.make(dim);
+            double[] im = myVectorsIm[p];
+            for (int i = 0; i < dim; i++) {
+                vector.set(i, ComplexNumber.of(myVectorsRe[p][i], im != null ? im[i] : ZERO));
+            }
+            retVal.add(new Eigenpair(ComplexNumber.of(myValuesRe[p], myValuesIm[p]), vector));
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return The computed eigenvalues, in the same order as {@link #getEigenpairs()}
+     */
+    public Array1D<ComplexNumber> getEigenvalues() {
+
+        int nbPairs = myValuesRe.length;
+
+        Array1D<ComplexNumber> retVal = Array1D.C128.make(nbPairs);
+        for (int p = 0; p < nbPairs; p++) {
+            retVal.set(p, ComplexNumber.of(myValuesRe[p], myValuesIm[p]));
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return The number of restarts used by the latest {@link #compute(MatrixStore)}
+     */
+    public int getIterations() {
+        return myIterations;
+    }
+
+    /**
+     * The (real) eigenvector matrix, with the same conventions as {@link Eigenvalue#getV()} – a complex
+     * conjugate pair of eigenvectors is stored as its real and imaginary parts in two consecutive columns.
+     */
+    public MatrixStore<Double> getV() {
+
+        int nbPairs = myValuesRe.length;
+        int dim = myVectorsRe[0].length;
+
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(dim, nbPairs);
+
+        for (int p = 0; p < nbPairs; p++) {
+            double[] source = myValuesIm[p] < ZERO ? myVectorsIm[p - 1] : myVectorsRe[p];
+            for (int i = 0; i < dim; i++) {
+                retVal.set(i, p, source[i]);
+            }
+        }
+
+        return retVal;
+    }
+
+    public boolean isHermitian() {
+        return myHermitian;
+    }
+
+    private Comparator<Eigenpair> comparator() {
+
+        double sign = myExtreme == Extreme.LARGEST ? NEG : ONE;
+
+        if (myHermitian) {
+            return Comparator.comparingDouble(pair -> sign * pair.value.getReal());
+        }
+
+        // Complex conjugate pairs next to each other, positive imaginary part first
+        return Comparator.<Eigenpair> comparingDouble(pair -> sign * pair.value.norm()).thenComparingDouble(pair -> -pair.value.i);
+    }
+
+    /**
+     * [x] = [V][y] for each of the wanted Ritz pairs. A complex conjugate pair is stored with the positive
+     * imaginary part first, and the vector of the second derived from the first.
+     */
+    private void extract(final double[][] basis, final List<Eigenpair> ritz, final int wanted, final int dim) {
+
+        myValuesRe = new double[wanted];
+        myValuesIm = new double[wanted];
+        myVectorsRe = new double[wanted][];
+        myVectorsIm = new double[wanted][];
+
+        int subspace = basis.length;
+
+        int p = 0;
+        for (int w = 0; w < wanted && p < wanted; w++) {
+
+            Eigenpair pair = ritz.get(w);
+            ComplexNumber value = pair.value;
+
+            if (!myHermitian && value.i < ZERO) {
+                continue;
+            }
+
+            Access1D<ComplexNumber> coordinates = pair.vector;
+            double length = KrylovEvD.norm(coordinates);
+
+            boolean complex = !myHermitian && value.i > ZERO;
+
+            double[] re = new double[dim];
+            double[] im = complex ? new double[dim] : null;
+            for (int i = 0; i < subspace; i++) {
+                ComplexNumber coordinate = coordinates.get(i);
+                double[] basisVector = basis[i];
+                double factorRe = coordinate.getReal() / length;
+                double factorIm = coordinate.i / length;
+                for (int r = 0; r < dim; r++) {
+                    re[r] += factorRe * basisVector[r];
+                }
+                if (complex) {
+                    for (int r = 0; r < dim; r++) {
+                        im[r] += factorIm * basisVector[r];
+                    }
+                }
+            }
+
+            myValuesRe[p] = value.getReal();
+            myValuesIm[p] = complex ? value.i : ZERO;
+            myVectorsRe[p] = re;
+            myVectorsIm[p] = im;
+            p++;
+
+            if (complex && p < wanted) {
+                double[] conjugate = new double[dim];
+                for (int r = 0; r < dim; r++) {
+                    conjugate[r] = -im[r];
+                }
+                myValuesRe[p] = value.getReal();
+                myValuesIm[p] = -value.i;
+                myVectorsRe[p] = re;
+                myVectorsIm[p] = conjugate;
+                p++;
+            }
+        }
+    }
+
+}
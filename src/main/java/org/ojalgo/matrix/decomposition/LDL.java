@@ -22,6 +22,7 @@
 package org.ojalgo.matrix.decomposition;
 
 import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
 import org.ojalgo.scalar.Quaternion;
@@ -141,6 +142,15 @@ public interface LDL<N extends Comparable<N>> extends LDU<N>, MatrixDecompositio
         return new ModifiedFactory<>(delegate, threshold);
     }
 
+    /**
+     * A {@link LDL} factory that creates decompositions working in-place on stores from the supplied
+     * factory (instead of on {@link org.ojalgo.matrix.store.Primitive64Store}). Use it with for instance
+     * {@link org.ojalgo.matrix.store.OffHeapStore#FACTORY} to decompose matrices kept off heap.
+     */
+    static Factory<Double> newR064(final PhysicalStore.Factory<Double, ? extends DecompositionStore<Double>> storeFactory) {
+        return typical -> new LDLDecomposition.R064(storeFactory);
+    }
+
     MatrixStore<N> getD();
 
     /**
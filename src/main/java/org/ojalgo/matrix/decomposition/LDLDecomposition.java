@@ -37,6 +37,7 @@ import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
+import org.ojalgo.structure.Access1D;
 import org.ojalgo.structure.Access2D;
 import org.ojalgo.structure.Access2D.Collectable;
 import org.ojalgo.structure.Structure2D;
@@ -69,12 +70,26 @@ abstract class LDLDecomposition<N extends Comparable<N>> extends InPlaceDecompos
 
     }
 
-    static final class R064 extends LDLDecomposition<Double> {
+    static final class R064 extends LDLDecomposition<Double> implements MatrixDecomposition.Updatable<Double> {
 
         R064() {
             super(Primitive64Store.FACTORY);
         }
 
+        R064(final DecompositionStore.Factory<Double, ? extends DecompositionStore<Double>> factory) {
+            super(factory);
+        }
+
+        @Override
+        public boolean downdate(final Access1D<?> vector) {
+            return this.isComputed() && RankOneUpdate.ldl(this.getInPlace(), this.getPivotOrder(), vector, true) && this.revised();
+        }
+
+        @Override
+        public boolean update(final Access1D<?> vector) {
+            return this.isComputed() && RankOneUpdate.ldl(this.getInPlace(), this.getPivotOrder(), vector, false) && this.revised();
+        }
+
     }
 
     static final class R128 extends LDLDecomposition<Quadruple> {
@@ -23,6 +23,7 @@ package org.ojalgo.matrix.decomposition;
 
 import org.ojalgo.array.PlainArray;
 import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
 import org.ojalgo.scalar.Quaternion;
@@ -113,6 +114,15 @@ public interface LU<N extends Comparable<N>> extends LDU<N>, MatrixDecomposition
         return Access2D.equals(matrix.rows(tmpPivotOrder), tmpL.multiply(tmpU), context);
     }
 
+    /**
+     * A {@link LU} factory that creates decompositions working in-place on stores from the supplied
+     * factory (instead of on {@link org.ojalgo.matrix.store.Primitive64Store}). Use it with for instance
+     * {@link org.ojalgo.matrix.store.OffHeapStore#FACTORY} to decompose matrices kept off heap.
+     */
+    static Factory<Double> newR064(final PhysicalStore.Factory<Double, ? extends DecompositionStore<Double>> storeFactory) {
+        return typical -> new LUDecomposition.R064(storeFactory);
+    }
+
     MatrixStore<N> getL();
 
     /**
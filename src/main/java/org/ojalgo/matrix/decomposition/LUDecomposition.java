@@ -28,10 +28,12 @@ import org.ojalgo.array.BasicArray;
 import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.matrix.operation.DecomposeBlocked;
 import org.ojalgo.matrix.store.GenericStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.R064Strided;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
 import org.ojalgo.scalar.Quaternion;
@@ -74,6 +76,10 @@ abstract class LUDecomposition<N extends Comparable<N>> extends InPlaceDecomposi
             super(Primitive64Store.FACTORY);
         }
 
+        R064(final DecompositionStore.Factory<Double, ? extends DecompositionStore<Double>> factory) {
+            super(factory);
+        }
+
     }
 
     static final class R128 extends LUDecomposition<Quadruple> {
@@ -310,6 +316,21 @@ abstract class LUDecomposition<N extends Comparable<N>> extends InPlaceDecomposi
 
         myPivot.reset(tmpRowDim);
 
+        if (pivoting && tmpMinDim >= DecomposeBlocked.THRESHOLD && tmpInPlace instanceof Primitive64Store) {
+
+            int[] tmpPivots = new int[tmpMinDim];
+
+            DecomposeBlocked.lu(R064Strided.of((Primitive64Store) tmpInPlace), tmpPivots);
+
+            for (int ij = 0; ij < tmpMinDim; ij++) {
+                if (tmpPivots[ij] != ij) {
+                    myPivot.change(tmpPivots[ij], ij);
+                }
+            }
+
+            return this.computed(true);
+        }
+
         BasicArray<N> tmpMultipliers = this.makeArray(tmpRowDim);
 
         // Main loop - along the diagonal
@@ -33,6 +33,7 @@ import org.ojalgo.matrix.task.DeterminantTask;
 import org.ojalgo.matrix.task.InverterTask;
 import org.ojalgo.matrix.task.SolverTask;
 import org.ojalgo.matrix.transformation.InvertibleFactor;
+import org.ojalgo.structure.Access1D;
 import org.ojalgo.structure.Access2D;
 import org.ojalgo.structure.Access2D.Collectable;
 import org.ojalgo.structure.Structure2D;
@@ -276,9 +277,25 @@ public interface MatrixDecomposition<N extends Comparable<N>> extends Structure2
             return this.decompose(matrix) && this.isSolvable();
         }
 
+        /**
+         * Same as {@link #getSolution(Collectable, PhysicalStore)} but it is guaranteed the solution ends up
+         * in <code>solution</code> – in the top left corner if <code>solution</code> is larger than the
+         * actual solution (it needs to be shaped as <code>rhs</code> for a least squares solution). Nothing
+         * (apart from what {@link #getSolution(Collectable, PhysicalStore)} may allocate) is allocated when
+         * the decomposition solves in-place (most do), or when the solution is returned in some other store
+         * of the same shape. Only when <code>solution</code> is larger than that is a small region view of
+         * its top left corner created.
+         */
         @Override
         default void ftran(final Collectable<N, ? super PhysicalStore<N>> rhs, final PhysicalStore<N> solution) {
-            this.getSolution(rhs, solution);
+            MatrixStore<N> retVal = this.getSolution(rhs, solution);
+            if (retVal != solution) {
+                if (retVal.countRows() == solution.countRows() && retVal.countColumns() == solution.countColumns()) {
+                    solution.fillMatching(retVal);
+                } else {
+                    solution.regionByLimits(Math.toIntExact(retVal.countRows()), Math.toIntExact(retVal.countColumns())).fillMatching(retVal);
+                }
+            }
         }
 
         @Override
@@ -308,7 +325,6 @@ public interface MatrixDecomposition<N extends Comparable<N>> extends Structure2
          *        solution. Use {@link #preallocate(int, int)} or {@link #preallocate(Structure2D)} to get a
          *        suitable instance.
          * @return The inverse, this is where you get the solution
-         * @throws UnsupportedOperationException When/if this feature is not implemented
          */
         MatrixStore<N> getInverse(PhysicalStore<N> preallocated);
 
@@ -335,7 +351,6 @@ public interface MatrixDecomposition<N extends Comparable<N>> extends Structure2
          *        solution. Use {@link #preallocate(int, int, int)} or
          *        {@link #preallocate(Structure2D, Structure2D)} to get a suitable instance.
          * @return The solution
-         * @throws UnsupportedOperationException When/if this feature is not implemented
          */
         MatrixStore<N> getSolution(Collectable<N, ? super PhysicalStore<N>> rhs, PhysicalStore<N> preallocated);
 
@@ -392,6 +407,40 @@ public interface MatrixDecomposition<N extends Comparable<N>> extends Structure2
 
     }
 
+    /**
+     * Decompositions of symmetric matrices that can revise the factors they already hold to reflect a
+     * symmetric rank-1 modification of the decomposed matrix, [A] ± [x][x]<sup>T</sup>, in O(n<sup>2</sup>)
+     * rather than re-decomposing in O(n<sup>3</sup>). Typical use is a rolling window covariance matrix where
+     * one observation is added and another dropped.
+     * <p>
+     * Implemented by the {@link Cholesky#R064} and {@link LDL#R064} decompositions (not by the other element
+     * types, or by the sparse LDL). Check with instanceof before using it.
+     *
+     * @author apete
+     */
+    interface Updatable<N extends Comparable<N>> extends MatrixDecomposition<N> {
+
+        /**
+         * [A] - [x][x]<sup>T</sup>
+         *
+         * @param vector [x]
+         * @return true if the factors were revised, false if that was not possible (nothing decomposed, or
+         *         the downdated matrix would no longer be decomposable with this algorithm). In that case
+         *         the decomposition is left unchanged.
+         */
+        boolean downdate(Access1D<?> vector);
+
+        /**
+         * [A] + [x][x]<sup>T</sup>
+         *
+         * @param vector [x]
+         * @return true if the factors were revised, false if that was not possible. In that case the
+         *         decomposition is left unchanged.
+         */
+        boolean update(Access1D<?> vector);
+
+    }
+
     /**
      * Eigenvalue and Singular Value decompositions can calculate the "values" only.
      *
@@ -0,0 +1,558 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.Access2D.Collectable;
+import org.ojalgo.structure.Structure2D;
+
+/**
+ * Mixed-precision LU or Cholesky solver. The (O(n³)) factorisation is done in single precision, on a float[]
+ * copy of the matrix, while the (O(n²)) solves are iteratively refined in double precision:
+ * <ol>
+ * <li>Solve [A][x] = [b] using the single precision factors
+ * <li>Calculate the residual [r] = [b] - [A][x] in double precision (using the original matrix)
+ * <li>Solve [A][d] = [r] using the single precision factors, update [x] += [d], and repeat from 2
+ * </ol>
+ * As long as the matrix is not too ill-conditioned (roughly κ(A) &lt; 1/√ε<sub>float</sub>) this converges
+ * to a solution as accurate as one from a double precision factorisation, in a few iterations. If the
+ * single precision factorisation breaks down, or the refinement does not converge, the solver falls back to
+ * a double precision factorisation ({@link LU#R064} or {@link Cholesky#R064}) – the results are always
+ * double precision results.
+ *
+ * @author apete
+ */
+public final class MixedPrecisionSolver extends AbstractDecomposition<Double> implements MatrixDecomposition.Solver<Double> {
+
+    /**
+     * Single precision Cholesky factorisation. Only the lower triangle of the matrix is referenced – it is
+     * assumed to be symmetric positive definite.
+     */
+    public static final MatrixDecomposition.Factory<MixedPrecisionSolver> CHOLESKY = typical -> new MixedPrecisionSolver(true);
+    /**
+     * Single precision LU factorisation with partial (row) pivoting.
+     */
+    public static final MatrixDecomposition.Factory<MixedPrecisionSolver> LU = typical -> new MixedPrecisionSolver(false);
+
+    /**
+     * The maximum number of refinement iterations per solve
+     */
+    public static int ITERATIONS = 10;
+
+    private static final double FLOAT_EPSILON = Math.ulp(1F);
+
+    /**
+     * Right-looking single precision Cholesky factorisation, [A] = [L][L]<sup>T</sup>, in place (lower
+     * triangle) in column-major data.
+     *
+     * @return false if the matrix is not (numerically, in single precision) positive definite
+     */
+    static boolean cholesky(final float[] data, final int dim) {
+
+        float largest = 0F;
+        for (int ij = 0; ij < dim; ij++) {
+            largest = Math.max(largest, data[ij + ij * dim]);
+        }
+        float threshold = dim * (float) FLOAT_EPSILON * largest;
+
+        for (int k = 0; k < dim; k++) {
+
+            int baseK = k * dim;
+
+            float diag = data[baseK + k];
+            if (!(diag > threshold)) {
+                return false;
+            }
+            float lkk = (float) Math.sqrt(diag);
+            data[baseK + k] = lkk;
+            for (int i = k + 1; i < dim; i++) {
+                data[baseK + i] /= lkk;
+            }
+
+            for (int j = k + 1; j < dim; j++) {
+                float ljk = data[baseK + j];
+                if (ljk != 0F) {
+                    int baseJ = j * dim;
+                    for (int i = j; i < dim; i++) {
+                        data[baseJ + i] -= data[baseK + i] * ljk;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Right-looking single precision LU factorisation with partial pivoting, [P][A] = [L][U], in place in
+     * column-major data. The row swaps are recorded LAPACK-style: at step k rows k and pivots[k] were
+     * swapped.
+     *
+     * @return false if the matrix is (numerically, in single precision) singular
+     */
+    static boolean lu(final float[] data, final int dim, final int[] pivots) {
+
+        float largest = 0F;
+        for (int ij = 0; ij < data.length; ij++) {
+            largest = Math.max(largest, Math.abs(data[ij]));
+        }
+        float threshold = dim * (float) FLOAT_EPSILON * largest;
+
+        for (int k = 0; k < dim; k++) {
+
+            int baseK = k * dim;
+
+            int p = k;
+            float max = Math.abs(data[baseK + k]);
+            for (int i = k + 1; i < dim; i++) {
+                float val = Math.abs(data[baseK + i]);
+                if (val > max) {
+                    max = val;
+                    p = i;
+                }
+            }
+            pivots[k] = p;
+
+            if (!(max > threshold)) {
+                return false;
+            }
+
+            if (p != k) {
+                for (int j = 0; j < dim; j++) {
+                    int base = j * dim;
+                    float tmp = data[base + k];
+                    data[base + k] = data[base + p];
+                    data[base + p] = tmp;
+                }
+            }
+
+            float pivot = data[baseK + k];
+            for (int i = k + 1; i < dim; i++) {
+                data[baseK + i] /= pivot;
+            }
+
+            for (int j = k + 1; j < dim; j++) {
+                int baseJ = j * dim;
+                float ukj = data[baseJ + k];
+                if (ukj != 0F) {
+                    for (int i = k + 1; i < dim; i++) {
+                        data[baseJ + i] -= data[baseK + i] * ukj;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    static double norm(final double[] vector) {
+        double retVal = ZERO;
+        for (int i = 0; i < vector.length; i++) {
+            retVal = Math.max(retVal, Math.abs(vector[i]));
+        }
+        return retVal;
+    }
+
+    static void residual(final double[] matrix, final int dim, final double[] b, final double[] x, final double[] r, final boolean transpose) {
+        if (transpose) {
+            for (int i = 0; i < dim; i++) {
+                int base = i * dim;
+                double sum = b[i];
+                for (int k = 0; k < dim; k++) {
+                    sum -= matrix[base + k] * x[k];
+                }
+                r[i] = sum;
+            }
+        } else {
+            System.arraycopy(b, 0, r, 0, dim);
+            for (int j = 0; j < dim; j++) {
+                int base = j * dim;
+                double xj = x[j];
+                if (xj != ZERO) {
+                    for (int i = 0; i < dim; i++) {
+                        r[i] -= matrix[base + i] * xj;
+                    }
+                }
+            }
+        }
+    }
+
+    private final boolean myCholesky;
+    private int myDim = 0;
+    private float[] myFactors = null;
+    private MatrixDecomposition.Solver<Double> myFallback = null;
+    private int myIterations = 0;
+    private double myNorm = ZERO;
+    private Primitive64Store myOriginal = null;
+    private int[] myPivots = null;
+
+    MixedPrecisionSolver(final boolean cholesky) {
+        super();
+        myCholesky = cholesky;
+    }
+
+    public void btran(final PhysicalStore<Double> arg) {
+        if (myFallback != null) {
+            myFallback.btran(arg);
+        } else {
+            this.doSolve(arg, !myCholesky);
+        }
+    }
+
+    public boolean decompose(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+
+        this.reset();
+
+        int nbRows = Math.toIntExact(matrix.countRows());
+        int nbCols = Math.toIntExact(matrix.countColumns());
+
+        if (nbRows != nbCols) {
+            return this.computed(false);
+        }
+
+        if (myOriginal == null || myDim != nbRows) {
+            myDim = nbRows;
+            myOriginal = this.allocate(nbRows, nbCols);
+            myFactors = new float[nbRows * nbCols];
+            myPivots = new int[nbRows];
+        }
+
+        matrix.supplyTo(myOriginal);
+
+        double[] data = myOriginal.data;
+        double norm = ZERO;
+        for (int i = 0; i < myDim; i++) {
+            double rowSum = ZERO;
+            for (int j = 0; j < myDim; j++) {
+                rowSum += Math.abs(data[i + j * myDim]);
+            }
+            norm = Math.max(norm, rowSum);
+        }
+        myNorm = norm;
+
+        for (int ij = 0; ij < data.length; ij++) {
+            myFactors[ij] = (float) data[ij];
+        }
+
+        boolean factorised = myCholesky ? MixedPrecisionSolver.cholesky(myFactors, myDim) : MixedPrecisionSolver.lu(myFactors, myDim, myPivots);
+
+        if (!factorised) {
+            return this.computed(this.fallback());
+        }
+
+        return this.computed(true);
+    }
+
+    @Override
+    public int getColDim() {
+        return myDim;
+    }
+
+    public MatrixStore<Double> getInverse() {
+        return this.getInverse(this.allocate(myDim, myDim));
+    }
+
+    public MatrixStore<Double> getInverse(final PhysicalStore<Double> preallocated) {
+        preallocated.fillAll(ZERO);
+        preallocated.fillDiagonal(ONE);
+        return this.getSolution(preallocated, preallocated);
+    }
+
+    /**
+     * @return The maximum number of refinement iterations needed for any of the columns in the most recent
+     *         solve, or -1 if the double precision fallback was used.
+     */
+    public int getIterations() {
+        return myFallback != null ? -1 : myIterations;
+    }
+
+    @Override
+    public int getRowDim() {
+        return myDim;
+    }
+
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs) {
+        return this.getSolution(rhs, this.preallocate(this, rhs));
+    }
+
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs, final PhysicalStore<Double> preallocated) {
+        if (myFallback != null) {
+            return myFallback.getSolution(rhs, preallocated);
+        }
+        if (rhs != preallocated) {
+            rhs.supplyTo(preallocated);
+        }
+        return this.doSolve(preallocated, false);
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(Primitive64Store.FACTORY.makeWrapper(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        }
+        throw RecoverableCondition.newMatrixNotInvertible();
+    }
+
+    @Override
+    public boolean isSolvable() {
+        return super.isSolvable();
+    }
+
+    /**
+     * @return true if the double precision fallback is used, and the single precision factorisation was
+     *         abandoned
+     */
+    public boolean isUsingFallback() {
+        return myFallback != null;
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countRows(), template.countRows());
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateBody.countRows(), templateRHS.countColumns());
+    }
+
+    public MatrixStore<Double> reconstruct() {
+        return myOriginal;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        myFallback = null;
+        myIterations = 0;
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(Primitive64Store.FACTORY.makeWrapper(body));
+
+        if (this.isSolvable()) {
+            preallocated.fillMatching(rhs);
+            return this.getSolution(preallocated, preallocated);
+        }
+        throw RecoverableCondition.newEquationSystemNotSolvable();
+    }
+
+    private MatrixStore<Double> doSolve(final PhysicalStore<Double> solution, final boolean transpose) {
+
+        double[] original = myOriginal.data;
+        int dim = myDim;
+
+        double[] b = new double[dim];
+        double[] x = new double[dim];
+        double[] r = new double[dim];
+
+        int maxIterations = 0;
+
+        for (int j = 0, limit = solution.getColDim(); j < limit; j++) {
+
+            for (int i = 0; i < dim; i++) {
+                b[i] = x[i] = solution.doubleValue(i, j);
+            }
+            double normB = MixedPrecisionSolver.norm(b);
+
+            this.substitute(x, transpose);
+
+            boolean converged = false;
+            double latest = Double.POSITIVE_INFINITY;
+            int iteration = 0;
+
+            while (!converged && iteration < ITERATIONS) {
+
+                double previous = latest;
+
+                MixedPrecisionSolver.residual(original, dim, b, x, r, transpose);
+                latest = MixedPrecisionSolver.norm(r);
+
+                if (!Double.isFinite(latest) || latest > previous / TWO) {
+                    break; // Diverging or stagnating
+                }
+
+                converged = latest <= this.getDimensionalEpsilon() * (myNorm * MixedPrecisionSolver.norm(x) + normB);
+
+                if (!converged) {
+                    this.substitute(r, transpose);
+                    for (int i = 0; i < dim; i++) {
+                        x[i] += r[i];
+                    }
+                    iteration++;
+                }
+            }
+
+            if (!converged && !(latest <= Math.sqrt(this.getDimensionalEpsilon()) * (myNorm * MixedPrecisionSolver.norm(x) + normB))) {
+                // The matrix is too ill-conditioned for the single precision factors
+                if (this.fallback()) {
+                    return this.fallbackSolve(solution, j, transpose);
+                }
+            }
+
+            for (int i = 0; i < dim; i++) {
+                solution.set(i, j, x[i]);
+            }
+            maxIterations = Math.max(maxIterations, iteration);
+        }
+
+        myIterations = maxIterations;
+
+        return solution;
+    }
+
+    private boolean fallback() {
+        myFallback = myCholesky ? Cholesky.R064.make(myOriginal) : org.ojalgo.matrix.decomposition.LU.R064.make(myOriginal);
+        return myFallback.compute(myOriginal);
+    }
+
+    /**
+     * The columns before firstColumn are already solved – solve the remaining ones using the double precision
+     * fallback.
+     */
+    private MatrixStore<Double> fallbackSolve(final PhysicalStore<Double> solution, final int firstColumn, final boolean transpose) {
+
+        int nbColumns = solution.getColDim() - firstColumn;
+
+        PhysicalStore<Double> remaining = this.allocate(myDim, nbColumns);
+        remaining.fillMatching(solution.regionByOffsets(0, firstColumn));
+
+        if (transpose) {
+            myFallback.btran(remaining);
+        } else {
+            myFallback.ftran(remaining);
+        }
+
+        solution.regionByOffsets(0, firstColumn).fillMatching(remaining);
+
+        return solution;
+    }
+
+    private void substitute(final double[] vector, final boolean transpose) {
+
+        float[] factors = myFactors;
+        int dim = myDim;
+
+        if (myCholesky) {
+
+            for (int j = 0; j < dim; j++) {
+                int base = j * dim;
+                double xj = vector[j] /= factors[base + j];
+                for (int i = j + 1; i < dim; i++) {
+                    vector[i] -= factors[base + i] * xj;
+                }
+            }
+            for (int i = dim - 1; i >= 0; i--) {
+                int base = i * dim;
+                double sum = vector[i];
+                for (int k = i + 1; k < dim; k++) {
+                    sum -= factors[base + k] * vector[k];
+                }
+                vector[i] = sum / factors[base + i];
+            }
+
+        } else if (transpose) {
+
+            for (int i = 0; i < dim; i++) {
+                int base = i * dim;
+                double sum = vector[i];
+                for (int k = 0; k < i; k++) {
+                    sum -= factors[base + k] * vector[k];
+                }
+                vector[i] = sum / factors[base + i];
+            }
+            for (int i = dim - 1; i >= 0; i--) {
+                int base = i * dim;
+                double sum = vector[i];
+                for (int k = i + 1; k < dim; k++) {
+                    sum -= factors[base + k] * vector[k];
+                }
+                vector[i] = sum;
+            }
+            for (int k = dim - 1; k >= 0; k--) {
+                int p = myPivots[k];
+                if (p != k) {
+                    double tmp = vector[k];
+                    vector[k] = vector[p];
+                    vector[p] = tmp;
+                }
+            }
+
+        } else {
+
+            for (int k = 0; k < dim; k++) {
+                int p = myPivots[k];
+                if (p != k) {
+                    double tmp = vector[k];
+                    vector[k] = vector[p];
+                    vector[p] = tmp;
+                }
+            }
+            for (int j = 0; j < dim; j++) {
+                int base = j * dim;
+                double xj = vector[j];
+                for (int i = j + 1; i < dim; i++) {
+                    vector[i] -= factors[base + i] * xj;
+                }
+            }
+            for (int j = dim - 1; j >= 0; j--) {
+                int base = j * dim;
+                double xj = vector[j] /= factors[base + j];
+                for (int i = 0; i < j; i++) {
+                    vector[i] -= factors[base + i] * xj;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Primitive64Store allocate(final long numberOfRows, final long numberOfColumns) {
+        return Primitive64Store.FACTORY.make(numberOfRows, numberOfColumns);
+    }
+
+    @Override
+    protected boolean checkSolvability() {
+        return myFallback != null ? myFallback.isSolvable() : true;
+    }
+
+    @Override
+    protected FunctionSet<Double> function() {
+        return PrimitiveFunction.getSet();
+    }
+
+    @Override
+    protected Scalar.Factory<Double> scalar() {
+        return PrimitiveScalar.FACTORY;
+    }
+
+}
@@ -23,6 +23,7 @@ package org.ojalgo.matrix.decomposition;
 
 import org.ojalgo.array.PlainArray;
 import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
 import org.ojalgo.scalar.Quaternion;
@@ -124,6 +125,15 @@ public interface QR<N extends Comparable<N>> extends MatrixDecomposition<N>, Mat
         return Access2D.equals(tmpStore, matrix, context);
     }
 
+    /**
+     * A {@link QR} factory that creates decompositions working in-place on stores from the supplied
+     * factory (instead of on {@link org.ojalgo.matrix.store.Primitive64Store}). Use it with for instance
+     * {@link org.ojalgo.matrix.store.OffHeapStore#FACTORY} to decompose matrices kept off heap.
+     */
+    static Factory<Double> newR064(final PhysicalStore.Factory<Double, ? extends DecompositionStore<Double>> storeFactory) {
+        return (typical, fullSize) -> new QRDecomposition.R064(storeFactory, fullSize);
+    }
+
     MatrixStore<N> getQ();
 
     MatrixStore<N> getR();
@@ -89,6 +89,10 @@ abstract class QRDecomposition<N extends Comparable<N>> extends InPlaceDecomposi
             super(Primitive64Store.FACTORY, fullSize);
         }
 
+        R064(final DecompositionStore.Factory<Double, ? extends DecompositionStore<Double>> factory, final boolean fullSize) {
+            super(factory, fullSize);
+        }
+
     }
 
     static final class R128 extends QRDecomposition<Quadruple> {
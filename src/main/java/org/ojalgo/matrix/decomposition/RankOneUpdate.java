@@ -0,0 +1,168 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * O(n<sup>2</sup>) symmetric rank-1 modifications, [A] ± [x][x]<sup>T</sup>, of existing (in-place, double
+ * precision) Cholesky and LDL factors. Both methods first verify that the modification is possible, and
+ * leave the factors untouched if it is not.
+ *
+ * @author apete
+ */
+final class RankOneUpdate {
+
+    /**
+     * [L][L]<sup>T</sup> ± [x][x]<sup>T</sup> using (hyperbolic, when downdating) rotations.
+     *
+     * @param factor [L] in the lower triangle, including the diagonal
+     * @param vector [x]
+     * @param downdate Subtract rather than add
+     * @return false if the downdated matrix would not be positive definite
+     */
+    static boolean cholesky(final PhysicalStore<Double> factor, final Access1D<?> vector, final boolean downdate) {
+
+        ProgrammingError.throwIfNotEqualRowDimensions(factor, vector);
+
+        int dim = factor.getRowDim();
+
+        double[] work = new double[dim];
+        for (int i = 0; i < dim; i++) {
+            work[i] = vector.doubleValue(i);
+        }
+
+        if (downdate) {
+            // [L][p] = [x] must have |p| < 1
+            double norm2 = ZERO;
+            double[] p = work.clone();
+            for (int i = 0; i < dim; i++) {
+                double val = p[i];
+                for (int k = 0; k < i; k++) {
+                    val -= factor.doubleValue(i, k) * p[k];
+                }
+                p[i] = val /= factor.doubleValue(i, i);
+                norm2 += val * val;
+            }
+            if (!(norm2 < ONE - MACHINE_EPSILON * dim)) {
+                return false;
+            }
+        }
+
+        for (int k = 0; k < dim; k++) {
+
+            double diag = factor.doubleValue(k, k);
+            double xk = work[k];
+
+            double revised = downdate ? SQRT.invoke((diag - xk) * (diag + xk)) : HYPOT.invoke(diag, xk);
+            double c = revised / diag;
+            double s = xk / diag;
+            double sign = downdate ? NEG : ONE;
+
+            factor.set(k, k, revised);
+
+            for (int i = k + 1; i < dim; i++) {
+                double lik = (factor.doubleValue(i, k) + sign * s * work[i]) / c;
+                factor.set(i, k, lik);
+                work[i] = c * work[i] - s * lik;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * [P][A][P]<sup>T</sup> = [L][D][L]<sup>T</sup> ± [P][x][x]<sup>T</sup>[P]<sup>T</sup> using method C1
+     * of Gill, Golub, Murray and Saunders (1974). Works for indefinite [D] as well.
+     *
+     * @param factor [L] (unit diagonal implied) below, and [D] on, the diagonal
+     * @param order The row/column order of [P]
+     * @param vector [x]
+     * @param downdate Subtract rather than add
+     * @return false if a zero pivot would be encountered
+     */
+    static boolean ldl(final PhysicalStore<Double> factor, final int[] order, final Access1D<?> vector, final boolean downdate) {
+
+        ProgrammingError.throwIfNotEqualRowDimensions(factor, vector);
+
+        int dim = factor.getRowDim();
+
+        double[] work = new double[dim];
+        for (int i = 0; i < dim; i++) {
+            work[i] = vector.doubleValue(order[i]);
+        }
+
+        // [L][p] = [P][x] and then verify the sequence of revised pivots
+        double[] p = work.clone();
+        for (int i = 0; i < dim; i++) {
+            double val = p[i];
+            for (int k = 0; k < i; k++) {
+                val -= factor.doubleValue(i, k) * p[k];
+            }
+            p[i] = val;
+        }
+        double alpha = downdate ? NEG : ONE;
+        double largest = ZERO;
+        for (int j = 0; j < dim; j++) {
+            largest = Math.max(largest, Math.abs(factor.doubleValue(j, j)));
+        }
+        double threshold = MACHINE_EPSILON * dim * Math.max(largest, MACHINE_SMALLEST);
+        for (int j = 0; alpha != ZERO && j < dim; j++) {
+            double d = factor.doubleValue(j, j);
+            double revised = d + alpha * p[j] * p[j];
+            if (Math.abs(revised) <= threshold) {
+                return false;
+            }
+            alpha *= d / revised;
+        }
+
+        alpha = downdate ? NEG : ONE;
+
+        for (int j = 0; alpha != ZERO && j < dim; j++) {
+
+            double pj = work[j];
+            double d = factor.doubleValue(j, j);
+            double revised = d + alpha * pj * pj;
+            double beta = pj * alpha / revised;
+            alpha *= d / revised;
+
+            factor.set(j, j, revised);
+
+            for (int r = j + 1; r < dim; r++) {
+                double lrj = factor.doubleValue(r, j);
+                work[r] -= pj * lrj;
+                factor.set(r, j, lrj + beta * work[r]);
+            }
+        }
+
+        return true;
+    }
+
+    private RankOneUpdate() {
+        super();
+    }
+
+}
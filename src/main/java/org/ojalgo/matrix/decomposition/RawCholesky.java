@@ -28,11 +28,12 @@ import org.ojalgo.array.operation.DOT;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.RawStore;
+import org.ojalgo.structure.Access1D;
 import org.ojalgo.structure.Access2D;
 import org.ojalgo.structure.Access2D.Collectable;
 import org.ojalgo.structure.Structure2D;
 
-final class RawCholesky extends RawDecomposition implements Cholesky<Double> {
+final class RawCholesky extends RawDecomposition implements Cholesky<Double>, MatrixDecomposition.Updatable<Double> {
 
     private double myMaxDiag = ONE;
     private double myMinDiag = ZERO;
@@ -100,6 +101,10 @@ final class RawCholesky extends RawDecomposition implements Cholesky<Double> {
         return this.doDecompose(retVal, tmpRawInPlaceStore);
     }
 
+    public boolean downdate(final Access1D<?> vector) {
+        return mySPD && this.modified(RankOneUpdate.cholesky(this.getInternalStore(), vector, true));
+    }
+
     public Double getDeterminant() {
 
         double[][] tmpData = this.getInternalData();
@@ -193,6 +198,10 @@ final class RawCholesky extends RawDecomposition implements Cholesky<Double> {
         throw RecoverableCondition.newEquationSystemNotSolvable();
     }
 
+    public boolean update(final Access1D<?> vector) {
+        return mySPD && this.modified(RankOneUpdate.cholesky(this.getInternalStore(), vector, false));
+    }
+
     private boolean doDecompose(final double[][] data, final Access2D<?> input) {
 
         int tmpDiagDim = this.getRowDim();
@@ -244,6 +253,27 @@ final class RawCholesky extends RawDecomposition implements Cholesky<Double> {
         return preallocated;
     }
 
+    private boolean modified(final boolean successful) {
+
+        if (successful) {
+
+            double[][] data = this.getInternalData();
+
+            myMaxDiag = MACHINE_SMALLEST;
+            myMinDiag = MACHINE_LARGEST;
+
+            for (int ij = 0, limit = this.getRowDim(); ij < limit; ij++) {
+                double tmpVal = data[ij][ij] * data[ij][ij];
+                myMaxDiag = MAX.invoke(myMaxDiag, tmpVal);
+                myMinDiag = MIN.invoke(myMinDiag, tmpVal);
+            }
+
+            this.revised();
+        }
+
+        return successful;
+    }
+
     @Override
     protected boolean checkSolvability() {
         return mySPD && myMinDiag > this.getRankThreshold();
@@ -0,0 +1,733 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.Access2D.Collectable;
+import org.ojalgo.structure.ElementView2D;
+import org.ojalgo.structure.Structure2D;
+
+/**
+ * Sparse LDL: [P][A][P]<sup>T</sup> = [L][D][L]<sup>T</sup> where [A] is symmetric (only the lower
+ * triangle is referenced), [P] is a fill-reducing (approximate minimum degree) symmetric permutation, [L] is
+ * sparse unit lower triangular and [D] diagonal.
+ * <p>
+ * The factorisation is done in two phases:
+ * <ol>
+ * <li>The {@link Symbolic} analysis – ordering, elimination tree and the nonzero pattern (column counts) of
+ * [L] – depends only on the sparsity pattern.
+ * <li>The numeric factorisation is up-looking: row k of [L] is a sparse triangular solve along the
+ * elimination tree, and only the (structurally) nonzero elements are ever touched.
+ * </ol>
+ * The symbolic analysis is kept, and reused by subsequent {@link #decompose(Collectable)} calls, as long as
+ * the (lower triangular) pattern of the new matrix is contained in the analysed pattern. Typically
+ * refactorising matrices with the same pattern but different values, as in interior point or Newton
+ * iterations, only redoes the numeric phase.
+ * <p>
+ * There is no numerical pivoting (the ordering is fixed before any values are looked at). That's fine for
+ * positive definite matrices and for quasi-definite ones like regularised KKT systems. For a positive
+ * definite matrix [L][D]<sup>½</sup> is the Cholesky factor – use {@link #isSPD()} to check. The
+ * factorisation fails, is not solvable, if a zero pivot is encountered.
+ * <p>
+ * Use it with a {@link SparseStore} (or any other {@link MatrixStore} with a sparse structure); a dense input
+ * works, but there is no point.
+ *
+ * @author apete
+ */
+public final class SparseLDL extends AbstractDecomposition<Double> implements LDL<Double> {
+
+    /**
+     * The ordering and symbolic analysis of a sparsity pattern. Immutable and can be shared among several
+     * {@link SparseLDL} instances (threads).
+     */
+    public static final class Symbolic {
+
+        private final int[] myColumnPointers;
+        private final int myDim;
+        private final int[] myIndices;
+        private final int[] myOrder;
+        private final boolean myOrdering;
+        private final int[] myParents;
+        private final int[] myPointers;
+        private final int[] myPositions;
+        private final int[] myReverseOrder;
+        private final int[] myUpperIndices;
+        private final int[] myUpperPointers;
+
+        Symbolic(final LowerTriangle pattern, final boolean ordering) {
+
+            super();
+
+            int dim = pattern.dim;
+            int[] pointers = pattern.pointers;
+            int[] indices = pattern.indices;
+
+            myDim = dim;
+            myOrdering = ordering;
+            myPointers = pointers;
+            myIndices = indices;
+
+            // Fill-reducing ordering, of the full symmetric pattern
+
+            if (ordering) {
+
+                int[] fullPointers = new int[dim + 1];
+                for (int j = 0; j < dim; j++) {
+                    for (int q = pointers[j]; q < pointers[j + 1]; q++) {
+                        int i = indices[q];
+                        if (i != j) {
+                            fullPointers[i + 1]++;
+                            fullPointers[j + 1]++;
+                        }
+                    }
+                }
+                for (int j = 0; j < dim; j++) {
+                    fullPointers[j + 1] += fullPointers[j];
+                }
+                int[] fullIndices = new int[fullPointers[dim]];
+                int[] next = Arrays.copyOf(fullPointers, dim);
+                for (int j = 0; j < dim; j++) {
+                    for (int q = pointers[j]; q < pointers[j + 1]; q++) {
+                        int i = indices[q];
+                        if (i != j) {
+                            fullIndices[next[j]++] = i;
+                            fullIndices[next[i]++] = j;
+                        }
+                    }
+                }
+
+                myOrder = ApproximateMinimumDegree.order(dim, fullPointers, fullIndices);
+
+            } else {
+
+                myOrder = new int[dim];
+                for (int i = 0; i < dim; i++) {
+                    myOrder[i] = i;
+                }
+            }
+
+            myReverseOrder = new int[dim];
+            for (int i = 0; i < dim; i++) {
+                myReverseOrder[myOrder[i]] = i;
+            }
+
+            // The upper triangle of the permuted matrix, column compressed, and where each input element goes
+
+            int nnz = pointers[dim];
+
+            myUpperPointers = new int[dim + 1];
+            for (int j = 0; j < dim; j++) {
+                for (int q = pointers[j]; q < pointers[j + 1]; q++) {
+                    myUpperPointers[Math.max(myReverseOrder[indices[q]], myReverseOrder[j]) + 1]++;
+                }
+            }
+            for (int j = 0; j < dim; j++) {
+                myUpperPointers[j + 1] += myUpperPointers[j];
+            }
+            myUpperIndices = new int[nnz];
+            myPositions = new int[nnz];
+            int[] next = Arrays.copyOf(myUpperPointers, dim);
+            for (int j = 0; j < dim; j++) {
+                for (int q = pointers[j]; q < pointers[j + 1]; q++) {
+                    int row = myReverseOrder[indices[q]];
+                    int col = myReverseOrder[j];
+                    int position = next[Math.max(row, col)]++;
+                    myUpperIndices[position] = Math.min(row, col);
+                    myPositions[q] = position;
+                }
+            }
+
+            // Elimination tree and column counts of [L]
+
+            myParents = new int[dim];
+            int[] flags = new int[dim];
+            int[] counts = new int[dim];
+
+            for (int k = 0; k < dim; k++) {
+                myParents[k] = -1;
+                flags[k] = k;
+                for (int q = myUpperPointers[k]; q < myUpperPointers[k + 1]; q++) {
+                    for (int i = myUpperIndices[q]; flags[i] != k; i = myParents[i]) {
+                        if (myParents[i] == -1) {
+                            myParents[i] = k;
+                        }
+                        counts[i]++;
+                        flags[i] = k;
+                    }
+                }
+            }
+
+            myColumnPointers = new int[dim + 1];
+            for (int k = 0; k < dim; k++) {
+                myColumnPointers[k + 1] = myColumnPointers[k] + counts[k];
+            }
+        }
+
+        /**
+         * @return The number of (structurally) nonzero elements in [L], excluding the unit diagonal
+         */
+        public int countNonzeros() {
+            return myColumnPointers[myDim];
+        }
+
+        public int getDim() {
+            return myDim;
+        }
+
+        /**
+         * @return The elimination tree – the parent of each (permuted) column, or -1 for a root
+         */
+        public int[] getEliminationTree() {
+            return myParents.clone();
+        }
+
+        /**
+         * @return The fill-reducing ordering – the k:th pivot is row/column order[k] of the input matrix
+         */
+        public int[] getOrder() {
+            return myOrder.clone();
+        }
+
+        boolean isPermuted() {
+            for (int i = 0; i < myDim; i++) {
+                if (myOrder[i] != i) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return Where, in the permuted upper triangle, each of the pattern's elements go – null if the
+         *         pattern is not contained in the analysed pattern.
+         */
+        int[] locate(final LowerTriangle pattern) {
+
+            if (pattern.dim != myDim) {
+                return null;
+            }
+
+            int[] pointers = pattern.pointers;
+            int[] indices = pattern.indices;
+
+            if (Arrays.equals(pointers, myPointers) && Arrays.equals(indices, myIndices)) {
+                return myPositions;
+            }
+
+            int[] retVal = new int[pointers[myDim]];
+
+            for (int j = 0; j < myDim; j++) {
+                int a = myPointers[j];
+                int limit = myPointers[j + 1];
+                for (int q = pointers[j]; q < pointers[j + 1]; q++) {
+                    int row = indices[q];
+                    while (a < limit && myIndices[a] < row) {
+                        a++;
+                    }
+                    if (a == limit || myIndices[a] != row) {
+                        return null;
+                    }
+                    retVal[q] = myPositions[a];
+                }
+            }
+
+            return retVal;
+        }
+
+    }
+
+    /**
+     * The lower triangle (incl. the diagonal) of a matrix, column compressed with increasing row indices.
+     */
+    static final class LowerTriangle {
+
+        static LowerTriangle of(final Access2D<?> matrix) {
+
+            int dim = Math.toIntExact(matrix.countRows());
+
+            int[] pointers = new int[dim + 1];
+            int capacity = 4 * dim;
+            int[] indices = new int[capacity];
+            double[] values = new double[capacity];
+            int nnz = 0;
+
+            if (matrix instanceof SparseStore<?>) {
+
+                for (ElementView2D<?, ?> element : ((SparseStore<?>) matrix).nonzeros()) {
+                    int i = Math.toIntExact(element.row());
+                    int j = Math.toIntExact(element.column());
+                    if (i >= j) {
+                        if (nnz == capacity) {
+                            capacity *= 2;
+                            indices = Arrays.copyOf(indices, capacity);
+                            values = Arrays.copyOf(values, capacity);
+                        }
+                        indices[nnz] = i;
+                        values[nnz] = element.doubleValue();
+                        pointers[j + 1]++;
+                        nnz++;
+                    }
+                }
+                for (int j = 0; j < dim; j++) {
+                    pointers[j + 1] += pointers[j];
+                }
+
+            } else {
+
+                MatrixStore<?> store = matrix instanceof MatrixStore<?> ? (MatrixStore<?>) matrix : null;
+
+                for (int j = 0; j < dim; j++) {
+                    int first = store != null ? Math.max(j, store.firstInColumn(j)) : j;
+                    int limit = store != null ? Math.min(dim, store.limitOfColumn(j)) : dim;
+                    for (int i = first; i < limit; i++) {
+                        double value = matrix.doubleValue(i, j);
+                        if (value != ZERO) {
+                            if (nnz == capacity) {
+                                capacity *= 2;
+                                indices = Arrays.copyOf(indices, capacity);
+                                values = Arrays.copyOf(values, capacity);
+                            }
+                            indices[nnz] = i;
+                            values[nnz] = value;
+                            nnz++;
+                        }
+                    }
+                    pointers[j + 1] = nnz;
+                }
+            }
+
+            return new LowerTriangle(dim, pointers, Arrays.copyOf(indices, nnz), Arrays.copyOf(values, nnz));
+        }
+
+        final int dim;
+        final int[] indices;
+        final int[] pointers;
+        final double[] values;
+
+        LowerTriangle(final int dim, final int[] pointers, final int[] indices, final double[] values) {
+            super();
+            this.dim = dim;
+            this.pointers = pointers;
+            this.indices = indices;
+            this.values = values;
+        }
+
+    }
+
+    public static final MatrixDecomposition.Factory<SparseLDL> FACTORY = typical -> new SparseLDL();
+
+    /**
+     * Order and analyse the sparsity pattern of the lower triangle of a symmetric matrix.
+     */
+    public static Symbolic analyse(final Access2D<?> matrix) {
+        return new Symbolic(LowerTriangle.of(matrix), true);
+    }
+
+    /**
+     * A new instance that will (first try to) use the supplied symbolic analysis.
+     */
+    public static SparseLDL of(final Symbolic symbolic) {
+        SparseLDL retVal = new SparseLDL();
+        retVal.mySymbolic = symbolic;
+        return retVal;
+    }
+
+    private double[] myD = null;
+    private int myDim = 0;
+    private int[] myL = null;
+    private double[] myLx = null;
+    private Symbolic mySymbolic = null;
+
+    SparseLDL() {
+        super();
+    }
+
+    public void btran(final PhysicalStore<Double> arg) {
+        this.solveInPlace(arg);
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+        this.decompose(this.wrap(matrix));
+        return this.getDeterminant();
+    }
+
+    public int countSignificant(final double threshold) {
+        int significant = 0;
+        for (int ij = 0; ij < myDim; ij++) {
+            if (Math.abs(myD[ij]) > threshold) {
+                significant++;
+            }
+        }
+        return significant;
+    }
+
+    public boolean decompose(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+        return this.doDecompose(matrix, true);
+    }
+
+    public boolean decomposeWithoutPivoting(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+        return this.doDecompose(matrix, false);
+    }
+
+    @Override
+    public int getColDim() {
+        return myDim;
+    }
+
+    public MatrixStore<Double> getD() {
+        return Primitive64Store.FACTORY.makeDiagonal(ArrayR064.wrap(Arrays.copyOf(myD, myDim))).get();
+    }
+
+    public Double getDeterminant() {
+        double retVal = ONE;
+        for (int ij = 0; ij < myDim; ij++) {
+            retVal *= myD[ij];
+        }
+        return Double.valueOf(retVal);
+    }
+
+    public MatrixStore<Double> getInverse() {
+        return this.getInverse(this.allocate(myDim, myDim));
+    }
+
+    public MatrixStore<Double> getInverse(final PhysicalStore<Double> preallocated) {
+        preallocated.fillAll(ZERO);
+        preallocated.fillDiagonal(ONE);
+        this.solveInPlace(preallocated);
+        return preallocated;
+    }
+
+    /**
+     * @return [L] (sparse, unit lower triangular) of the permuted matrix
+     */
+    public MatrixStore<Double> getL() {
+
+        SparseStore<Double> retVal = SparseStore.R064.make(myDim, myDim);
+
+        int[] pointers = mySymbolic.myColumnPointers;
+        for (int j = 0; j < myDim; j++) {
+            retVal.set(j, j, ONE);
+            for (int q = pointers[j]; q < pointers[j + 1]; q++) {
+                retVal.set(myL[q], j, myLx[q]);
+            }
+        }
+
+        return retVal;
+    }
+
+    public int[] getPivotOrder() {
+        return mySymbolic.getOrder();
+    }
+
+    public double getRankThreshold() {
+
+        double largest = ZERO;
+        for (int ij = 0; ij < myDim; ij++) {
+            largest = Math.max(largest, Math.abs(myD[ij]));
+        }
+
+        return this.getDimensionalEpsilon() * Math.max(MACHINE_SMALLEST, largest);
+    }
+
+    public int[] getReversePivotOrder() {
+        return mySymbolic.myReverseOrder.clone();
+    }
+
+    @Override
+    public int getRowDim() {
+        return myDim;
+    }
+
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs) {
+        return this.getSolution(rhs, this.preallocate(this, rhs));
+    }
+
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs, final PhysicalStore<Double> preallocated) {
+        if (rhs != preallocated) {
+            rhs.supplyTo(preallocated);
+        }
+        this.solveInPlace(preallocated);
+        return preallocated;
+    }
+
+    /**
+     * @return The symbolic analysis currently used, or null if nothing is decomposed yet
+     */
+    public Symbolic getSymbolic() {
+        return mySymbolic;
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(this.wrap(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        }
+        throw RecoverableCondition.newMatrixNotInvertible();
+    }
+
+    public boolean isPivoted() {
+        return mySymbolic != null && mySymbolic.isPermuted();
+    }
+
+    @Override
+    public boolean isSolvable() {
+        return super.isSolvable();
+    }
+
+    /**
+     * @return true if all the elements of [D] are positive – the matrix is symmetric positive definite
+     */
+    public boolean isSPD() {
+        if (!this.isComputed()) {
+            return false;
+        }
+        for (int ij = 0; ij < myDim; ij++) {
+            if (myD[ij] <= ZERO) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countRows(), template.countRows());
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateBody.countRows(), templateRHS.countColumns());
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(this.wrap(body));
+
+        if (this.isSolvable()) {
+            preallocated.fillMatching(rhs);
+            return this.getSolution(preallocated, preallocated);
+        }
+        throw RecoverableCondition.newEquationSystemNotSolvable();
+    }
+
+    private boolean doDecompose(final Collectable<Double, ? super PhysicalStore<Double>> matrix, final boolean ordering) {
+
+        this.reset();
+
+        if (matrix.countRows() != matrix.countColumns()) {
+            return this.computed(false);
+        }
+
+        Access2D<?> access;
+        if (matrix instanceof Access2D<?>) {
+            access = (Access2D<?>) matrix;
+        } else {
+            Primitive64Store collected = this.allocate(matrix.countRows(), matrix.countColumns());
+            matrix.supplyTo(collected);
+            access = collected;
+        }
+
+        LowerTriangle lower = LowerTriangle.of(access);
+
+        int[] positions = null;
+        if (mySymbolic != null && mySymbolic.myOrdering == ordering) {
+            positions = mySymbolic.locate(lower);
+        }
+        if (positions == null) {
+            mySymbolic = new Symbolic(lower, ordering);
+            positions = mySymbolic.myPositions;
+        }
+
+        return this.computed(this.factorise(lower.values, positions));
+    }
+
+    /**
+     * Up-looking numeric factorisation
+     *
+     * @return false if a zero pivot was encountered
+     */
+    private boolean factorise(final double[] values, final int[] positions) {
+
+        Symbolic symbolic = mySymbolic;
+        int dim = symbolic.myDim;
+        int[] upperPointers = symbolic.myUpperPointers;
+        int[] upperIndices = symbolic.myUpperIndices;
+        int[] parents = symbolic.myParents;
+        int[] columnPointers = symbolic.myColumnPointers;
+
+        double[] upperValues = new double[upperIndices.length];
+        for (int q = 0; q < values.length; q++) {
+            upperValues[positions[q]] += values[q];
+        }
+
+        if (myL == null || myL.length < columnPointers[dim]) {
+            myL = new int[columnPointers[dim]];
+            myLx = new double[columnPointers[dim]];
+        }
+        if (myD == null || myD.length < dim) {
+            myD = new double[dim];
+        }
+        myDim = dim;
+
+        int[] indices = myL;
+        double[] factors = myLx;
+        double[] diagonal = myD;
+
+        double[] work = new double[dim];
+        int[] pattern = new int[dim];
+        int[] flags = new int[dim];
+        int[] counts = new int[dim];
+
+        for (int k = 0; k < dim; k++) {
+
+            int top = dim;
+            flags[k] = k;
+            counts[k] = 0;
+
+            for (int q = upperPointers[k]; q < upperPointers[k + 1]; q++) {
+                int i = upperIndices[q];
+                work[i] += upperValues[q];
+                int length = 0;
+                for (; flags[i] != k; i = parents[i]) {
+                    pattern[length++] = i;
+                    flags[i] = k;
+                }
+                while (length > 0) {
+                    pattern[--top] = pattern[--length];
+                }
+            }
+
+            double dk = work[k];
+            work[k] = ZERO;
+
+            for (; top < dim; top++) {
+                int i = pattern[top];
+                double yi = work[i];
+                work[i] = ZERO;
+                int limit = columnPointers[i] + counts[i];
+                for (int q = columnPointers[i]; q < limit; q++) {
+                    work[indices[q]] -= factors[q] * yi;
+                }
+                double lki = yi / diagonal[i];
+                dk -= lki * yi;
+                indices[limit] = k;
+                factors[limit] = lki;
+                counts[i]++;
+            }
+
+            diagonal[k] = dk;
+
+            if (dk == ZERO || Double.isNaN(dk)) {
+                Arrays.fill(diagonal, k + 1, dim, ZERO);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void solveInPlace(final PhysicalStore<Double> arg) {
+
+        int dim = myDim;
+        int[] order = mySymbolic.myOrder;
+        int[] pointers = mySymbolic.myColumnPointers;
+        int[] indices = myL;
+        double[] factors = myLx;
+
+        double[] x = new double[dim];
+
+        for (int c = 0, nbCols = Math.toIntExact(arg.countColumns()); c < nbCols; c++) {
+
+            for (int i = 0; i < dim; i++) {
+                x[i] = arg.doubleValue(order[i], c);
+            }
+
+            for (int j = 0; j < dim; j++) {
+                double xj = x[j];
+                if (xj != ZERO) {
+                    for (int q = pointers[j]; q < pointers[j + 1]; q++) {
+                        x[indices[q]] -= factors[q] * xj;
+                    }
+                }
+            }
+
+            for (int j = 0; j < dim; j++) {
+                x[j] /= myD[j];
+            }
+
+            for (int j = dim - 1; j >= 0; j--) {
+                double xj = x[j];
+                for (int q = pointers[j]; q < pointers[j + 1]; q++) {
+                    xj -= factors[q] * x[indices[q]];
+                }
+                x[j] = xj;
+            }
+
+            for (int i = 0; i < dim; i++) {
+                arg.set(order[i], c, x[i]);
+            }
+        }
+    }
+
+    @Override
+    protected Primitive64Store allocate(final long numberOfRows, final long numberOfColumns) {
+        return Primitive64Store.FACTORY.make(numberOfRows, numberOfColumns);
+    }
+
+    @Override
+    protected boolean checkSolvability() {
+        return this.isFullRank();
+    }
+
+    @Override
+    protected FunctionSet<Double> function() {
+        return PrimitiveFunction.getSet();
+    }
+
+    @Override
+    protected Scalar.Factory<Double> scalar() {
+        return PrimitiveScalar.FACTORY;
+    }
+
+    @SuppressWarnings("unchecked")
+    MatrixStore<Double> wrap(final Access2D<?> source) {
+        if (source instanceof MatrixStore<?>) {
+            return (MatrixStore<Double>) source;
+        }
+        return Primitive64Store.FACTORY.makeWrapper(source);
+    }
+
+}
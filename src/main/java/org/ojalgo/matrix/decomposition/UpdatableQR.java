@@ -0,0 +1,545 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.RawStore;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.Access2D.Collectable;
+import org.ojalgo.structure.Structure2D;
+
+/**
+ * A (full size) QR decomposition, [A] = [Q][R], that keeps [Q] explicitly so that the factors can be revised
+ * rather than recomputed when [A] is modified:
+ * <ul>
+ * <li>{@link #update(Access1D, Access1D)} a rank-1 modification [A] + [u][v]<sup>T</sup>. Replacing a row of
+ * [A], as in a rolling window of observations, is such a modification.</li>
+ * <li>{@link #insertColumn(int, Access1D)} and {@link #deleteColumn(int)} as in active-set methods.</li>
+ * </ul>
+ * Each of these is O(m<sup>2</sup> + mn) using Givens rotations, compared to O(mn<sup>2</sup>) for a new
+ * decomposition. The initial decomposition is Householder based, and is what {@link QR#R064} would produce
+ * (possibly with different signs).
+ * <p>
+ * Least squares solutions require at least as many rows as columns.
+ *
+ * @author apete
+ */
+public final class UpdatableQR extends AbstractDecomposition<Double> implements QR<Double> {
+
+    public static final MatrixDecomposition.Factory<UpdatableQR> FACTORY = typical -> new UpdatableQR();
+
+    /**
+     * [H] = [I] - beta [v][v]<sup>T</sup> applied to the rows <code>firstRow</code> to <code>limitRow</code>
+     * (and columns <code>firstCol</code> to <code>limitCol</code>) of <code>target</code>.
+     */
+    private static void reflect(final double[][] target, final int firstRow, final int limitRow, final int firstCol, final int limitCol,
+            final double[] vector, final double beta, final double[] sums) {
+
+        Arrays.fill(sums, firstCol, limitCol, ZERO);
+
+        for (int i = firstRow; i < limitRow; i++) {
+            double[] row = target[i];
+            double factor = vector[i];
+            for (int j = firstCol; j < limitCol; j++) {
+                sums[j] += factor * row[j];
+            }
+        }
+
+        for (int i = firstRow; i < limitRow; i++) {
+            double[] row = target[i];
+            double factor = beta * vector[i];
+            for (int j = firstCol; j < limitCol; j++) {
+                row[j] -= factor * sums[j];
+            }
+        }
+    }
+
+    private static void rotate(final double[] row1, final double[] row2, final int first, final double cos, final double sin) {
+        for (int j = first; j < row1.length; j++) {
+            double val1 = row1[j];
+            double val2 = row2[j];
+            row1[j] = cos * val1 + sin * val2;
+            row2[j] = cos * val2 - sin * val1;
+        }
+    }
+
+    private int myColDim = 0;
+    /**
+     * [Q]<sup>T</sup>, row i is column i of [Q]
+     */
+    private double[][] myQt = null;
+    private double[][] myR = null;
+    private int myReflections = 0;
+    private int myRowDim = 0;
+
+    UpdatableQR() {
+        super();
+    }
+
+    /**
+     * Solves [A]<sup>T</sup>[X] = [B] (square [A] only), overwriting [B] with [X].
+     */
+    public void btran(final PhysicalStore<Double> arg) {
+
+        int m = myRowDim;
+        double[] work = new double[m];
+
+        for (int c = 0, limit = arg.getColDim(); c < limit; c++) {
+
+            // [R]^T[Y] = [B]
+            for (int i = 0; i < m; i++) {
+                double val = arg.doubleValue(i, c);
+                for (int j = 0; j < i; j++) {
+                    val -= myR[j][i] * work[j];
+                }
+                work[i] = val / myR[i][i];
+            }
+
+            // [X] = [Q][Y]
+            for (int j = 0; j < m; j++) {
+                double val = ZERO;
+                for (int i = 0; i < m; i++) {
+                    val += myQt[i][j] * work[i];
+                }
+                arg.set(j, c, val);
+            }
+        }
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+        this.decompose(this.wrap(matrix));
+        return this.getDeterminant();
+    }
+
+    public int countSignificant(final double threshold) {
+        int significant = 0;
+        for (int ij = 0, limit = this.getMinDim(); ij < limit; ij++) {
+            if (Math.abs(myR[ij][ij]) > threshold) {
+                significant++;
+            }
+        }
+        return significant;
+    }
+
+    public boolean decompose(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+
+        this.reset();
+
+        int m = myRowDim = (int) matrix.countRows();
+        int n = myColDim = (int) matrix.countColumns();
+
+        RawStore body = RawStore.FACTORY.make(m, n);
+        matrix.supplyTo(body);
+        myR = body.data;
+
+        myQt = new double[m][m];
+        for (int ij = 0; ij < m; ij++) {
+            myQt[ij][ij] = ONE;
+        }
+
+        double[] vector = new double[m];
+        double[] sums = new double[Math.max(m, n)];
+
+        for (int k = 0, limit = Math.min(m - 1, n); k < limit; k++) {
+
+            double below = ZERO;
+            for (int i = k + 1; i < m; i++) {
+                below = HYPOT.invoke(below, myR[i][k]);
+            }
+
+            if (below != ZERO) {
+
+                double diag = myR[k][k];
+                double norm = HYPOT.invoke(diag, below);
+                double alpha = diag > ZERO ? -norm : norm;
+
+                vector[k] = diag - alpha;
+                double squared = vector[k] * vector[k];
+                for (int i = k + 1; i < m; i++) {
+                    double val = vector[i] = myR[i][k];
+                    squared += val * val;
+                }
+                double beta = TWO / squared;
+
+                UpdatableQR.reflect(myR, k, m, k + 1, n, vector, beta, sums);
+                UpdatableQR.reflect(myQt, k, m, 0, m, vector, beta, sums);
+
+                myR[k][k] = alpha;
+                for (int i = k + 1; i < m; i++) {
+                    myR[i][k] = ZERO;
+                }
+
+                myReflections++;
+            }
+        }
+
+        return this.computed(true);
+    }
+
+    /**
+     * Revise the decomposition to that of [A] with column <code>index</code> removed.
+     *
+     * @return false if nothing is decomposed
+     */
+    public boolean deleteColumn(final int index) {
+
+        if (!this.isComputed()) {
+            return false;
+        }
+
+        int m = myRowDim;
+        int n = --myColDim;
+
+        for (int i = 0; i < m; i++) {
+            double[] row = myR[i];
+            double[] shorter = new double[n];
+            System.arraycopy(row, 0, shorter, 0, index);
+            System.arraycopy(row, index + 1, shorter, index, n - index);
+            myR[i] = shorter;
+        }
+
+        // Upper Hessenberg from column index
+        for (int k = index, limit = Math.min(m - 1, n); k < limit; k++) {
+            this.eliminate(k, k + 1, k);
+        }
+
+        return this.computed(true);
+    }
+
+    @Override
+    public int getColDim() {
+        return myColDim;
+    }
+
+    public Double getDeterminant() {
+        double retVal = myReflections % 2 == 0 ? ONE : NEG;
+        for (int ij = 0, limit = this.getMinDim(); ij < limit; ij++) {
+            retVal *= myR[ij][ij];
+        }
+        return Double.valueOf(retVal);
+    }
+
+    public MatrixStore<Double> getInverse() {
+        return this.getInverse(this.allocate(myRowDim, myRowDim));
+    }
+
+    public MatrixStore<Double> getInverse(final PhysicalStore<Double> preallocated) {
+        preallocated.fillAll(ZERO);
+        preallocated.fillDiagonal(ONE);
+        return this.getSolution(preallocated, preallocated);
+    }
+
+    /**
+     * @return A copy of the full size (square) [Q]
+     */
+    public MatrixStore<Double> getQ() {
+        return Primitive64Store.FACTORY.rows(myQt).transpose();
+    }
+
+    /**
+     * @return A copy of the full size [R] (same shape as [A])
+     */
+    public MatrixStore<Double> getR() {
+        return Primitive64Store.FACTORY.rows(myR);
+    }
+
+    public double getRankThreshold() {
+
+        double largest = ZERO;
+        for (int ij = 0, limit = this.getMinDim(); ij < limit; ij++) {
+            largest = Math.max(largest, Math.abs(myR[ij][ij]));
+        }
+
+        return this.getDimensionalEpsilon() * Math.max(MACHINE_SMALLEST, largest);
+    }
+
+    @Override
+    public int getRowDim() {
+        return myRowDim;
+    }
+
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs) {
+        return this.getSolution(rhs, this.preallocate(this, rhs));
+    }
+
+    /**
+     * The least squares solution. "preallocated" must have as many rows as [A], and the solution ends up in
+     * its first n rows (n being the number of columns of [A]).
+     */
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs, final PhysicalStore<Double> preallocated) {
+
+        if (rhs != preallocated) {
+            rhs.supplyTo(preallocated);
+        }
+
+        int m = myRowDim;
+        int n = myColDim;
+        double[] work = new double[m];
+
+        for (int c = 0, limit = preallocated.getColDim(); c < limit; c++) {
+
+            // [Y] = [Q]^T[B]
+            for (int i = 0; i < n; i++) {
+                double[] rowQt = myQt[i];
+                double val = ZERO;
+                for (int j = 0; j < m; j++) {
+                    val += rowQt[j] * preallocated.doubleValue(j, c);
+                }
+                work[i] = val;
+            }
+
+            // [R][X] = [Y]
+            for (int i = n - 1; i >= 0; i--) {
+                double[] rowR = myR[i];
+                double val = work[i];
+                for (int j = i + 1; j < n; j++) {
+                    val -= rowR[j] * work[j];
+                }
+                work[i] = val / rowR[i];
+            }
+
+            for (int i = 0; i < n; i++) {
+                preallocated.set(i, c, work[i]);
+            }
+        }
+
+        if (n < m) {
+            return preallocated.limits(n, preallocated.getColDim());
+        }
+        return preallocated;
+    }
+
+    /**
+     * Revise the decomposition to that of [A] with <code>column</code> inserted at <code>index</code>
+     * (existing columns from there on are shifted right).
+     *
+     * @return false if nothing is decomposed
+     */
+    public boolean insertColumn(final int index, final Access1D<?> column) {
+
+        if (!this.isComputed()) {
+            return false;
+        }
+
+        ProgrammingError.throwIfNotEqualRowDimensions(this, column);
+
+        int m = myRowDim;
+        int n = ++myColDim;
+
+        double[] work = this.multiplyQt(column);
+
+        for (int i = 0; i < m; i++) {
+            double[] row = myR[i];
+            double[] longer = new double[n];
+            System.arraycopy(row, 0, longer, 0, index);
+            longer[index] = work[i];
+            System.arraycopy(row, index, longer, index + 1, n - 1 - index);
+            myR[i] = longer;
+        }
+
+        // Zero the new column below the diagonal, from the bottom up
+        for (int k = m - 2; k >= index; k--) {
+            this.eliminate(k, k + 1, index);
+        }
+
+        return this.computed(true);
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(this.wrap(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        }
+        throw RecoverableCondition.newMatrixNotInvertible();
+    }
+
+    public boolean isFullSize() {
+        return true;
+    }
+
+    @Override
+    public boolean isSolvable() {
+        return super.isSolvable();
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countRows(), template.countRows());
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateBody.countRows(), templateRHS.countColumns());
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myReflections = 0;
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(this.wrap(body));
+
+        if (this.isSolvable()) {
+            preallocated.fillMatching(rhs);
+            return this.getSolution(preallocated, preallocated);
+        }
+        throw RecoverableCondition.newEquationSystemNotSolvable();
+    }
+
+    /**
+     * Revise the decomposition to that of [A] + [u][v]<sup>T</sup>.
+     *
+     * @param left [u] with as many elements as [A] has rows
+     * @param right [v] with as many elements as [A] has columns
+     * @return false if nothing is decomposed
+     */
+    public boolean update(final Access1D<?> left, final Access1D<?> right) {
+
+        if (!this.isComputed()) {
+            return false;
+        }
+
+        ProgrammingError.throwIfNotEqualRowDimensions(this, left);
+        if (right.count() != myColDim) {
+            ProgrammingError.throwWithMessage("Expected {} elements, got {}!", myColDim, right.count());
+        }
+
+        int m = myRowDim;
+        int n = myColDim;
+
+        double[] work = this.multiplyQt(left);
+
+        // Rotate [Q]^T[u] to a multiple of e1 – [R] becomes upper Hessenberg
+        for (int k = m - 2; k >= 0; k--) {
+            double a = work[k];
+            double b = work[k + 1];
+            if (b != ZERO) {
+                double r = HYPOT.invoke(a, b);
+                double cos = a / r;
+                double sin = b / r;
+                UpdatableQR.rotate(myR[k], myR[k + 1], Math.min(k, n), cos, sin);
+                UpdatableQR.rotate(myQt[k], myQt[k + 1], 0, cos, sin);
+                work[k] = r;
+                work[k + 1] = ZERO;
+            }
+        }
+
+        double[] first = myR[0];
+        for (int j = 0; j < n; j++) {
+            first[j] += work[0] * right.doubleValue(j);
+        }
+
+        // Back to upper triangular
+        for (int k = 0, limit = Math.min(m - 1, n); k < limit; k++) {
+            this.eliminate(k, k + 1, k);
+        }
+
+        return this.computed(true);
+    }
+
+    /**
+     * Rotate rows <code>keep</code> and <code>zero</code> of [R] and [Q]<sup>T</sup> so that
+     * [R]<sub>zero,col</sub> becomes zero. Both rows of [R] must be zero to the left of <code>col</code>.
+     */
+    private void eliminate(final int keep, final int zero, final int col) {
+
+        double a = myR[keep][col];
+        double b = myR[zero][col];
+
+        if (b != ZERO) {
+
+            double r = HYPOT.invoke(a, b);
+            double cos = a / r;
+            double sin = b / r;
+
+            UpdatableQR.rotate(myR[keep], myR[zero], col, cos, sin);
+            UpdatableQR.rotate(myQt[keep], myQt[zero], 0, cos, sin);
+
+            myR[keep][col] = r;
+            myR[zero][col] = ZERO;
+        }
+    }
+
+    private double[] multiplyQt(final Access1D<?> vector) {
+
+        int m = myRowDim;
+
+        double[] retVal = new double[m];
+        for (int i = 0; i < m; i++) {
+            double[] rowQt = myQt[i];
+            double val = ZERO;
+            for (int j = 0; j < m; j++) {
+                val += rowQt[j] * vector.doubleValue(j);
+            }
+            retVal[i] = val;
+        }
+
+        return retVal;
+    }
+
+    @Override
+    protected Primitive64Store allocate(final long numberOfRows, final long numberOfColumns) {
+        return Primitive64Store.FACTORY.make(numberOfRows, numberOfColumns);
+    }
+
+    @Override
+    protected boolean checkSolvability() {
+        return myRowDim >= myColDim && this.isFullRank();
+    }
+
+    @Override
+    protected FunctionSet<Double> function() {
+        return PrimitiveFunction.getSet();
+    }
+
+    @Override
+    protected Scalar.Factory<Double> scalar() {
+        return PrimitiveScalar.FACTORY;
+    }
+
+    @SuppressWarnings("unchecked")
+    MatrixStore<Double> wrap(final Access2D<?> source) {
+        if (source instanceof MatrixStore<?>) {
+            return (MatrixStore<Double>) source;
+        }
+        return Primitive64Store.FACTORY.makeWrapper(source);
+    }
+
+}
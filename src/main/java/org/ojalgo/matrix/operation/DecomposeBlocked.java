@@ -0,0 +1,379 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import java.util.function.IntSupplier;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.matrix.store.R064Strided;
+
+/**
+ * Blocked, right-looking, LU (with partial pivoting) and Cholesky factorisations – the equivalents of
+ * LAPACK's xGETRF and xPOTRF. A panel of {@link #BLOCK} columns is factorised column-by-column, and then the
+ * trailing matrix is updated with a single matrix-matrix multiplication (on the strided, zero-copy, views of
+ * {@link R064Strided}) rather than by {@link #BLOCK} rank-1 updates. Most of the work is in those
+ * multiplications, and they are done in parallel.
+ * <p>
+ * With one step lookahead: the columns of the next panel are updated first, and then the factorisation of
+ * that next panel runs concurrently with the update of the rest of the trailing matrix.
+ * <p>
+ * The results are those of the unblocked algorithms (in-place, the same layout). The multiplications
+ * accumulate each element one term at a time, in the same order as the unblocked rank-1 updates, so even the
+ * rounding is (essentially) the same. The double precision (Primitive64Store based) LU and Cholesky
+ * decompositions use these, for matrices larger than {@link #THRESHOLD}, only if asked to – by default they
+ * don't.
+ *
+ * @author apete
+ */
+public final class DecomposeBlocked implements MatrixOperation {
+
+    /**
+     * The panel width
+     */
+    public static int BLOCK = 64;
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    /**
+     * The (Primitive64Store based) LU and Cholesky decompositions switch to the blocked algorithms when the
+     * (smaller) matrix dimension is at least this. The default, {@link Integer#MAX_VALUE}, means never – set it
+     * (for instance to 256) to opt in.
+     */
+    public static int THRESHOLD = Integer.MAX_VALUE;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    /**
+     * In-place Cholesky factorisation, [A] = [L][L]<sup>T</sup>, of a symmetric positive definite matrix. Only
+     * the lower triangle (incl. the diagonal) is referenced, and it is replaced by [L]. The strictly upper
+     * triangle is not touched.
+     *
+     * @param matrix The (square) matrix to decompose
+     * @param diagonal The diagonal elements, of the successive Schur complements, that where square rooted to
+     *        form the diagonal of [L] – the pivots (must have at least matrix dimension length)
+     * @return true if the matrix was positive definite and the factorisation completed
+     */
+    public static boolean cholesky(final R064Strided matrix, final double[] diagonal) {
+
+        int dim = matrix.getRowDim();
+        int block = Math.max(1, BLOCK);
+
+        if (!DecomposeBlocked.panelCholesky(matrix, 0, Math.min(block, dim), diagonal)) {
+            return false;
+        }
+
+        for (int k = 0; k < dim; k += block) {
+
+            int current = k;
+            int kb = Math.min(block, dim - current);
+            int next = current + kb;
+            if (next >= dim) {
+                break;
+            }
+            int nextb = Math.min(block, dim - next);
+            int rest = next + nextb;
+
+            DecomposeBlocked.updateCholesky(matrix, current, kb, next, rest);
+
+            if (rest < dim) {
+                boolean[] factorised = { false };
+                DIVIDER.parallelism(PARALLELISM).threshold(1).divide(0, 2, (first, limit) -> {
+                    for (int task = first; task < limit; task++) {
+                        if (task == 0) {
+                            factorised[0] = DecomposeBlocked.panelCholesky(matrix, next, nextb, diagonal);
+                        } else {
+                            DecomposeBlocked.updateCholesky(matrix, current, kb, rest, dim);
+                        }
+                    }
+                });
+                if (!factorised[0]) {
+                    return false;
+                }
+            } else if (!DecomposeBlocked.panelCholesky(matrix, next, nextb, diagonal)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * In-place LU factorisation, with partial (row) pivoting, [P][A] = [L][U]. The unit lower triangular [L]
+     * (excl. the diagonal) and the upper triangular/trapezoidal [U] replace [A]. A zero pivot (the entire
+     * column, below the diagonal, is zero) is skipped.
+     *
+     * @param matrix The matrix to decompose
+     * @param pivots The row exchanges (LAPACK style): at step i rows i and pivots[i] were exchanged (must have
+     *        at least min(rows,columns) length)
+     */
+    public static void lu(final R064Strided matrix, final int[] pivots) {
+
+        int nbRows = matrix.getRowDim();
+        int nbCols = matrix.getColDim();
+        int minDim = Math.min(nbRows, nbCols);
+        int block = Math.max(1, BLOCK);
+
+        DecomposeBlocked.panelLU(matrix, 0, Math.min(block, minDim), pivots);
+
+        for (int k = 0; k < minDim; k += block) {
+
+            int current = k;
+            int kb = Math.min(block, minDim - current);
+            int next = current + kb;
+
+            DecomposeBlocked.exchangeRows(matrix, current, kb, pivots, 0, current);
+
+            if (next >= nbCols) {
+                break;
+            }
+            int nextb = next < minDim ? Math.min(block, minDim - next) : 0;
+            int rest = next + nextb;
+
+            DecomposeBlocked.updateLU(matrix, current, kb, pivots, next, rest);
+
+            if (rest < nbCols && nextb > 0) {
+                DIVIDER.parallelism(PARALLELISM).threshold(1).divide(0, 2, (first, limit) -> {
+                    for (int task = first; task < limit; task++) {
+                        if (task == 0) {
+                            DecomposeBlocked.panelLU(matrix, next, nextb, pivots);
+                        } else {
+                            DecomposeBlocked.updateLU(matrix, current, kb, pivots, rest, nbCols);
+                        }
+                    }
+                });
+            } else if (rest < nbCols) {
+                DecomposeBlocked.updateLU(matrix, current, kb, pivots, rest, nbCols);
+            } else if (nextb > 0) {
+                DecomposeBlocked.panelLU(matrix, next, nextb, pivots);
+            }
+        }
+    }
+
+    private static void exchangeRows(final R064Strided matrix, final int k, final int kb, final int[] pivots, final int firstColumn,
+            final int limitColumn) {
+        if (limitColumn > firstColumn) {
+            R064Strided columns = matrix.block(0, firstColumn, matrix.getRowDim(), limitColumn - firstColumn);
+            for (int i = k; i < k + kb; i++) {
+                columns.exchangeRows(i, pivots[i]);
+            }
+        }
+    }
+
+    /**
+     * Unblocked (right-looking) Cholesky factorisation of the panel columns [k,k+kb), all rows below (and
+     * including) the diagonal.
+     */
+    private static boolean panelCholesky(final R064Strided matrix, final int k, final int kb, final double[] diagonal) {
+
+        double[] data = matrix.data;
+        int offset = matrix.getOffset();
+        int rs = matrix.getRowStride();
+        int cs = matrix.getColumnStride();
+        int dim = matrix.getRowDim();
+
+        for (int c = k; c < k + kb; c++) {
+
+            int colC = offset + c * cs;
+
+            double pivot = data[colC + c * rs];
+            diagonal[c] = pivot;
+            if (!(pivot > 0.0)) {
+                return false;
+            }
+
+            double lcc = Math.sqrt(pivot);
+            data[colC + c * rs] = lcc;
+            for (int i = c + 1; i < dim; i++) {
+                data[colC + i * rs] /= lcc;
+            }
+
+            for (int j = c + 1; j < k + kb; j++) {
+                int colJ = offset + j * cs;
+                double ljc = data[colC + j * rs];
+                if (ljc != 0.0) {
+                    for (int i = j; i < dim; i++) {
+                        data[colJ + i * rs] -= data[colC + i * rs] * ljc;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Unblocked (right-looking) LU factorisation, with partial pivoting, of the panel columns [k,k+kb). Rows
+     * are only exchanged within the panel.
+     */
+    private static void panelLU(final R064Strided matrix, final int k, final int kb, final int[] pivots) {
+
+        double[] data = matrix.data;
+        int offset = matrix.getOffset();
+        int rs = matrix.getRowStride();
+        int cs = matrix.getColumnStride();
+        int nbRows = matrix.getRowDim();
+
+        for (int c = k; c < k + kb; c++) {
+
+            int colC = offset + c * cs;
+
+            int p = c;
+            double largest = Math.abs(data[colC + c * rs]);
+            for (int i = c + 1; i < nbRows; i++) {
+                double value = Math.abs(data[colC + i * rs]);
+                if (value > largest) {
+                    largest = value;
+                    p = i;
+                }
+            }
+            pivots[c] = p;
+
+            if (p != c) {
+                for (int j = k; j < k + kb; j++) {
+                    int colJ = offset + j * cs;
+                    double tmp = data[colJ + c * rs];
+                    data[colJ + c * rs] = data[colJ + p * rs];
+                    data[colJ + p * rs] = tmp;
+                }
+            }
+
+            double pivot = data[colC + c * rs];
+            if (pivot != 0.0) {
+
+                for (int i = c + 1; i < nbRows; i++) {
+                    data[colC + i * rs] /= pivot;
+                }
+
+                for (int j = c + 1; j < k + kb; j++) {
+                    int colJ = offset + j * cs;
+                    double ucj = data[colJ + c * rs];
+                    if (ucj != 0.0) {
+                        for (int i = c + 1; i < nbRows; i++) {
+                            data[colJ + i * rs] -= data[colC + i * rs] * ucj;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the lower triangle of the columns [first,limit) with the factorised panel [k,k+kb):
+     * [A22] -= [L21][L21]<sup>T</sup>. Done in column tiles – each tile is a triangular diagonal block and a
+     * rectangular (matrix-matrix multiplication) block below it.
+     */
+    private static void updateCholesky(final R064Strided matrix, final int k, final int kb, final int first, final int limit) {
+
+        int dim = matrix.getRowDim();
+        int block = Math.max(1, BLOCK);
+        int nbTiles = (limit - first + block - 1) / block;
+
+        DivideAndConquer.Conquerer conquerer = (firstTile, limitTile) -> {
+
+            double[] data = matrix.data;
+            int offset = matrix.getOffset();
+            int rs = matrix.getRowStride();
+            int cs = matrix.getColumnStride();
+
+            for (int t = firstTile; t < limitTile; t++) {
+
+                int j0 = first + t * block;
+                int j1 = Math.min(limit, j0 + block);
+
+                // Diagonal block, lower triangle only
+                for (int j = j0; j < j1; j++) {
+                    int colJ = offset + j * cs;
+                    for (int p = k; p < k + kb; p++) {
+                        int colP = offset + p * cs;
+                        double ljp = data[colP + j * rs];
+                        if (ljp != 0.0) {
+                            for (int i = j; i < j1; i++) {
+                                data[colJ + i * rs] -= data[colP + i * rs] * ljp;
+                            }
+                        }
+                    }
+                }
+
+                // Below the diagonal block
+                if (j1 < dim) {
+                    R064Strided below = matrix.block(j1, j0, dim - j1, j1 - j0);
+                    below.addProduct(-1.0, matrix.block(j1, k, dim - j1, kb), matrix.block(j0, k, j1 - j0, kb).transpose());
+                }
+            }
+        };
+
+        if (nbTiles > 1) {
+            DIVIDER.parallelism(PARALLELISM).threshold(1).divide(0, nbTiles, conquerer);
+        } else {
+            conquerer.conquer(0, nbTiles);
+        }
+    }
+
+    /**
+     * Update the columns [first,limit) with the factorised panel [k,k+kb): exchange rows, [A12] =
+     * [L11]<sup>-1</sup>[A12] and [A22] -= [L21][A12].
+     */
+    private static void updateLU(final R064Strided matrix, final int k, final int kb, final int[] pivots, final int first, final int limit) {
+
+        if (limit <= first) {
+            return;
+        }
+
+        int nbRows = matrix.getRowDim();
+
+        DecomposeBlocked.exchangeRows(matrix, k, kb, pivots, first, limit);
+
+        DivideAndConquer.Conquerer conquerer = (firstColumn, limitColumn) -> {
+
+            double[] data = matrix.data;
+            int offset = matrix.getOffset();
+            int rs = matrix.getRowStride();
+            int cs = matrix.getColumnStride();
+
+            for (int j = firstColumn; j < limitColumn; j++) {
+                int colJ = offset + j * cs;
+                for (int c = k; c < k + kb; c++) {
+                    int colC = offset + c * cs;
+                    double ucj = data[colJ + c * rs];
+                    if (ucj != 0.0) {
+                        for (int i = c + 1; i < k + kb; i++) {
+                            data[colJ + i * rs] -= data[colC + i * rs] * ucj;
+                        }
+                    }
+                }
+            }
+        };
+
+        if ((long) kb * kb * (limit - first) > R064Strided.THRESHOLD) {
+            DIVIDER.parallelism(PARALLELISM).threshold(Math.max(1, BLOCK)).divide(first, limit, conquerer);
+        } else {
+            conquerer.conquer(first, limit);
+        }
+
+        int below = k + kb;
+        if (below < nbRows) {
+            R064Strided trailing = matrix.block(below, first, nbRows - below, limit - first);
+            trailing.addProduct(-1.0, matrix.block(below, k, nbRows - below, kb), matrix.block(k, first, kb, limit - first));
+        }
+    }
+
+}
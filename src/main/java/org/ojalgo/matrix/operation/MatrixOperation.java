@@ -108,6 +108,7 @@ public interface MatrixOperation extends ArrayOperation {
         HouseholderRight.THRESHOLD = Math.min(max, HouseholderRight.THRESHOLD);
         IndexOf.THRESHOLD = Math.min(max, IndexOf.THRESHOLD);
         ModifyAll.THRESHOLD = Math.min(max, ModifyAll.THRESHOLD);
+        MultiplyBlocked.THRESHOLD = Math.min(max, MultiplyBlocked.THRESHOLD);
         MultiplyBoth.THRESHOLD = Math.min(max, MultiplyBoth.THRESHOLD);
         MultiplyHermitianAndVector.THRESHOLD = Math.min(max, MultiplyHermitianAndVector.THRESHOLD);
         MultiplyLeft.THRESHOLD = Math.min(max, MultiplyLeft.THRESHOLD);
@@ -163,6 +164,7 @@ public interface MatrixOperation extends ArrayOperation {
         HouseholderRight.THRESHOLD = Math.max(min, HouseholderRight.THRESHOLD);
         IndexOf.THRESHOLD = Math.max(min, IndexOf.THRESHOLD);
         ModifyAll.THRESHOLD = Math.max(min, ModifyAll.THRESHOLD);
+        MultiplyBlocked.THRESHOLD = Math.max(min, MultiplyBlocked.THRESHOLD);
         MultiplyBoth.THRESHOLD = Math.max(min, MultiplyBoth.THRESHOLD);
         MultiplyHermitianAndVector.THRESHOLD = Math.max(min, MultiplyHermitianAndVector.THRESHOLD);
         MultiplyLeft.THRESHOLD = Math.max(min, MultiplyLeft.THRESHOLD);
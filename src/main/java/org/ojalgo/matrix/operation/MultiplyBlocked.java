@@ -0,0 +1,582 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.DivideAndConquer.Conquerer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.matrix.store.TransformableRegion;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * Cache-blocked (packed and register-tiled) general matrix multiplication. This is the implementation used by
+ * {@link MultiplyBoth}, {@link MultiplyLeft}, {@link MultiplyRight} and {@link MultiplyNeither} when both the
+ * number of rows and columns of the product exceeds {@link #THRESHOLD}.
+ * <p>
+ * The algorithm is the usual 3-level blocking: Panels of the right matrix (KC x NC) are packed to fit in
+ * the top level cache, blocks of the left matrix (MC x KC) are packed to fit in L2, and the inner kernel
+ * computes MR x NR sub-blocks of the product keeping the accumulators in registers. The block sizes are
+ * derived from the cache sizes of {@link OjAlgoUtils#ENVIRONMENT}. Work is divided between threads by
+ * column ranges of the product.
+ *
+ * @author apete
+ */
+public final class MultiplyBlocked implements MatrixOperation {
+
+    /**
+     * Packs a (count x depth) sub-block of one of the factors, in the order the inner kernel will read it.
+     */
+    @FunctionalInterface
+    interface Packer {
+
+        void pack(double[] buffer, int first, int count, int depthFirst, int depthCount);
+
+    }
+
+    public static IntSupplier PARALLELISM = Parallelism.THREADS;
+    public static int THRESHOLD = 256;
+
+    static final int KC;
+    static final int MC;
+    static final int MR = 4;
+    static final int NC;
+    static final int NR = 4;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+    private static final long ELEMENT_SIZE = 8L;
+
+    static {
+
+        long l1 = OjAlgoUtils.ENVIRONMENT.getL1CacheSize();
+        long l2 = OjAlgoUtils.ENVIRONMENT.getL2CacheSize();
+        long l3 = OjAlgoUtils.ENVIRONMENT.cache;
+
+        // An MR x KC sliver of left and a KC x NR sliver of right should fit in half of L1
+        KC = MultiplyBlocked.size(l1 / (2L * ELEMENT_SIZE * (MR + NR)), 8, 32, 512);
+        // An MC x KC block of left should fit in half of L2
+        MC = MultiplyBlocked.size(l2 / (2L * ELEMENT_SIZE * KC), MR, 4 * MR, 1024);
+        // A KC x NC panel of right should fit in half of the top level cache
+        NC = MultiplyBlocked.size(l3 / (2L * ELEMENT_SIZE * KC), NR, 16 * NR, 4096);
+    }
+
+    /**
+     * [product] += alpha * [left][right] where all three matrices are strided sub-matrices of (possibly the
+     * same) arrays – element (i,j) of [left] is left[leftOffset + i * leftRowStride + j * leftColumnStride],
+     * and similarly for [right]. The product must be column-contiguous with the specified column stride
+     * (leading dimension). Nothing is copied apart from the packing into the cache sized buffers, and the
+     * calculation is done in the calling thread.
+     * <p>
+     * The product elements are accumulated in place, one term at a time in order, so the result is rounded
+     * exactly as the corresponding sequence of rank-1 (AXPY) updates would be.
+     */
+    public static void addMxN(final double[] product, final int productOffset, final int productColumnStride, final int nbRows, final int nbCols,
+            final double alpha, final double[] left, final int leftOffset, final int leftRowStride, final int leftColumnStride, final int complexity,
+            final double[] right, final int rightOffset, final int rightRowStride, final int rightColumnStride) {
+
+        if (nbRows == 0 || nbCols == 0 || complexity == 0) {
+            return;
+        }
+
+        int maxK = Math.min(KC, complexity);
+        int maxM = MultiplyBlocked.roundUp(Math.min(MC, nbRows), MR);
+        int maxN = MultiplyBlocked.roundUp(Math.min(NC, nbCols), NR);
+
+        double[] packedL = new double[maxM * maxK];
+        double[] packedR = new double[maxN * maxK];
+
+        for (int jc = 0; jc < nbCols; jc += NC) {
+            int nc = Math.min(NC, nbCols - jc);
+
+            for (int pc = 0; pc < complexity; pc += KC) {
+                int kc = Math.min(KC, complexity - pc);
+
+                int index = 0;
+                for (int jr = 0; jr < nc; jr += NR) {
+                    int nr = Math.min(NR, nc - jr);
+                    for (int p = 0; p < kc; p++) {
+                        int base = rightOffset + (pc + p) * rightRowStride + (jc + jr) * rightColumnStride;
+                        int j = 0;
+                        for (; j < nr; j++) {
+                            packedR[index++] = right[base + j * rightColumnStride];
+                        }
+                        for (; j < NR; j++) {
+                            packedR[index++] = PrimitiveMath.ZERO;
+                        }
+                    }
+                }
+
+                for (int ic = 0; ic < nbRows; ic += MC) {
+                    int mc = Math.min(MC, nbRows - ic);
+
+                    index = 0;
+                    for (int ir = 0; ir < mc; ir += MR) {
+                        int mr = Math.min(MR, mc - ir);
+                        for (int p = 0; p < kc; p++) {
+                            int base = leftOffset + (ic + ir) * leftRowStride + (pc + p) * leftColumnStride;
+                            int i = 0;
+                            for (; i < mr; i++) {
+                                packedL[index++] = alpha * left[base + i * leftRowStride];
+                            }
+                            for (; i < MR; i++) {
+                                packedL[index++] = PrimitiveMath.ZERO;
+                            }
+                        }
+                    }
+
+                    // The micro kernel's (row + col * nbRows) indexing works with an offset row
+                    for (int jr = 0; jr < nc; jr += NR) {
+                        int nr = Math.min(NR, nc - jr);
+                        for (int ir = 0; ir < mc; ir += MR) {
+                            int mr = Math.min(MR, mc - ir);
+                            MultiplyBlocked.microInPlace(product, productColumnStride, productOffset + ic + ir, mr, jc + jr, nr, packedL, ir * kc, kc,
+                                    packedR, jr * kc);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static void divide(final int first, final int limit, final Conquerer conquerer) {
+        DIVIDER.parallelism(PARALLELISM).threshold(4 * NR).divide(first, limit, conquerer);
+    }
+
+    static void fillMxN(final double[] product, final Access1D<?> left, final int complexity, final double[] right) {
+
+        int nbRows = Math.toIntExact(left.count() / complexity);
+        int nbCols = right.length / complexity;
+
+        Packer packerL = (buffer, first, count, depthFirst, depthCount) -> MultiplyBlocked.packLeft(buffer, left, nbRows, first, count, depthFirst,
+                depthCount);
+        Packer packerR = (buffer, first, count, depthFirst, depthCount) -> MultiplyBlocked.packRight(buffer, right, complexity, first, count, depthFirst,
+                depthCount);
+
+        MultiplyBlocked.divide(0, nbCols, (f, l) -> MultiplyBlocked.fillColumns(product, nbRows, 0, f, l, packerL, complexity, packerR));
+    }
+
+    static void fillMxN(final double[] product, final double[] left, final int complexity, final Access1D<?> right) {
+
+        int nbRows = left.length / complexity;
+        int nbCols = Math.toIntExact(right.count() / complexity);
+
+        Packer packerL = (buffer, first, count, depthFirst, depthCount) -> MultiplyBlocked.packLeft(buffer, left, nbRows, first, count, depthFirst,
+                depthCount);
+        Packer packerR = (buffer, first, count, depthFirst, depthCount) -> MultiplyBlocked.packRight(buffer, right, complexity, first, count, depthFirst,
+                depthCount);
+
+        MultiplyBlocked.divide(0, nbCols, (f, l) -> MultiplyBlocked.fillColumns(product, nbRows, 0, f, l, packerL, complexity, packerR));
+    }
+
+    static void fillMxN(final double[] product, final double[] left, final int complexity, final double[] right) {
+
+        int nbRows = left.length / complexity;
+        int nbCols = right.length / complexity;
+
+        Packer packerL = (buffer, first, count, depthFirst, depthCount) -> MultiplyBlocked.packLeft(buffer, left, nbRows, first, count, depthFirst,
+                depthCount);
+        Packer packerR = (buffer, first, count, depthFirst, depthCount) -> MultiplyBlocked.packRight(buffer, right, complexity, first, count, depthFirst,
+                depthCount);
+
+        MultiplyBlocked.divide(0, nbCols, (f, l) -> MultiplyBlocked.fillColumns(product, nbRows, 0, f, l, packerL, complexity, packerR));
+    }
+
+    static void fillMxN(final TransformableRegion<Double> product, final Access1D<?> left, final int complexity, final Access1D<?> right) {
+
+        int nbRows = product.getRowDim();
+        int nbCols = product.getColDim();
+
+        Packer packerL = (buffer, first, count, depthFirst, depthCount) -> MultiplyBlocked.packLeft(buffer, left, nbRows, first, count, depthFirst,
+                depthCount);
+        Packer packerR = (buffer, first, count, depthFirst, depthCount) -> MultiplyBlocked.packRight(buffer, right, complexity, first, count, depthFirst,
+                depthCount);
+
+        // Compute panels of columns in a (heap) buffer of bounded size, then copy to the product
+        int width = Math.max(NR, Math.min(NC, MC * NC / Math.max(1, nbRows)));
+
+        MultiplyBlocked.divide(0, nbCols, (f, l) -> {
+
+            double[] columns = new double[nbRows * Math.min(width, l - f)];
+
+            for (int jp = f; jp < l; jp += width) {
+                int lp = Math.min(jp + width, l);
+
+                MultiplyBlocked.fillColumns(columns, nbRows, jp, jp, lp, packerL, complexity, packerR);
+
+                for (int j = jp; j < lp; j++) {
+                    int base = (j - jp) * nbRows;
+                    for (int i = 0; i < nbRows; i++) {
+                        product.set(i, j, columns[base + i]);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Compute the product columns [firstColumn, columnLimit) and store them in target, column-major with
+     * the specified number of rows, where column j is stored at offset (j - columnOffset) * nbRows.
+     */
+    static void fillColumns(final double[] target, final int nbRows, final int columnOffset, final int firstColumn, final int columnLimit,
+            final Packer left, final int complexity, final Packer right) {
+
+        Arrays.fill(target, (firstColumn - columnOffset) * nbRows, (columnLimit - columnOffset) * nbRows, PrimitiveMath.ZERO);
+
+        if (nbRows == 0 || complexity == 0) {
+            return;
+        }
+
+        int maxK = Math.min(KC, complexity);
+        int maxM = MultiplyBlocked.roundUp(Math.min(MC, nbRows), MR);
+        int maxN = MultiplyBlocked.roundUp(Math.min(NC, columnLimit - firstColumn), NR);
+
+        double[] packedL = new double[maxM * maxK];
+        double[] packedR = new double[maxN * maxK];
+
+        for (int jc = firstColumn; jc < columnLimit; jc += NC) {
+            int nc = Math.min(NC, columnLimit - jc);
+
+            for (int pc = 0; pc < complexity; pc += KC) {
+                int kc = Math.min(KC, complexity - pc);
+
+                right.pack(packedR, jc, nc, pc, kc);
+
+                for (int ic = 0; ic < nbRows; ic += MC) {
+                    int mc = Math.min(MC, nbRows - ic);
+
+                    left.pack(packedL, ic, mc, pc, kc);
+
+                    MultiplyBlocked.macro(target, nbRows, ic, mc, jc - columnOffset, nc, packedL, kc, packedR);
+                }
+            }
+        }
+    }
+
+    /**
+     * The inner kernel: target[MR x NR] += packedL[MR x kc] * packedR[kc x NR]
+     */
+    static void micro(final double[] target, final int nbRows, final int row, final int mr, final int col, final int nr, final double[] packedL,
+            final int offsetL, final int kc, final double[] packedR, final int offsetR) {
+
+        double c00 = PrimitiveMath.ZERO;
+        double c10 = PrimitiveMath.ZERO;
+        double c20 = PrimitiveMath.ZERO;
+        double c30 = PrimitiveMath.ZERO;
+        double c01 = PrimitiveMath.ZERO;
+        double c11 = PrimitiveMath.ZERO;
+        double c21 = PrimitiveMath.ZERO;
+        double c31 = PrimitiveMath.ZERO;
+        double c02 = PrimitiveMath.ZERO;
+        double c12 = PrimitiveMath.ZERO;
+        double c22 = PrimitiveMath.ZERO;
+        double c32 = PrimitiveMath.ZERO;
+        double c03 = PrimitiveMath.ZERO;
+        double c13 = PrimitiveMath.ZERO;
+        double c23 = PrimitiveMath.ZERO;
+        double c33 = PrimitiveMath.ZERO;
+
+        int indexL = offsetL;
+        int indexR = offsetR;
+
+        for (int p = 0; p < kc; p++) {
+
+            double l0 = packedL[indexL];
+            double l1 = packedL[indexL + 1];
+            double l2 = packedL[indexL + 2];
+            double l3 = packedL[indexL + 3];
+
+            double r0 = packedR[indexR];
+            c00 += l0 * r0;
+            c10 += l1 * r0;
+            c20 += l2 * r0;
+            c30 += l3 * r0;
+
+            double r1 = packedR[indexR + 1];
+            c01 += l0 * r1;
+            c11 += l1 * r1;
+            c21 += l2 * r1;
+            c31 += l3 * r1;
+
+            double r2 = packedR[indexR + 2];
+            c02 += l0 * r2;
+            c12 += l1 * r2;
+            c22 += l2 * r2;
+            c32 += l3 * r2;
+
+            double r3 = packedR[indexR + 3];
+            c03 += l0 * r3;
+            c13 += l1 * r3;
+            c23 += l2 * r3;
+            c33 += l3 * r3;
+
+            indexL += MR;
+            indexR += NR;
+        }
+
+        if (mr == MR && nr == NR) {
+
+            int index = row + col * nbRows;
+            target[index] += c00;
+            target[index + 1] += c10;
+            target[index + 2] += c20;
+            target[index + 3] += c30;
+
+            index += nbRows;
+            target[index] += c01;
+            target[index + 1] += c11;
+            target[index + 2] += c21;
+            target[index + 3] += c31;
+
+            index += nbRows;
+            target[index] += c02;
+            target[index + 1] += c12;
+            target[index + 2] += c22;
+            target[index + 3] += c32;
+
+            index += nbRows;
+            target[index] += c03;
+            target[index + 1] += c13;
+            target[index + 2] += c23;
+            target[index + 3] += c33;
+
+        } else {
+
+            double[] block = { c00, c10, c20, c30, c01, c11, c21, c31, c02, c12, c22, c32, c03, c13, c23, c33 };
+
+            for (int j = 0; j < nr; j++) {
+                int index = row + (col + j) * nbRows;
+                for (int i = 0; i < mr; i++) {
+                    target[index + i] += block[i + j * MR];
+                }
+            }
+        }
+    }
+
+    /**
+     * The inner kernel: target[MR x NR] = target[MR x NR] + packedL[MR x kc] * packedR[kc x NR] with the
+     * target elements loaded first and then updated one term at a time.
+     */
+    static void microInPlace(final double[] target, final int nbRows, final int row, final int mr, final int col, final int nr, final double[] packedL,
+            final int offsetL, final int kc, final double[] packedR, final int offsetR) {
+
+        double[] block = new double[MR * NR];
+        for (int j = 0; j < nr; j++) {
+            int index = row + (col + j) * nbRows;
+            for (int i = 0; i < mr; i++) {
+                block[i + j * MR] = target[index + i];
+            }
+        }
+
+        double c00 = block[0];
+        double c10 = block[1];
+        double c20 = block[2];
+        double c30 = block[3];
+        double c01 = block[4];
+        double c11 = block[5];
+        double c21 = block[6];
+        double c31 = block[7];
+        double c02 = block[8];
+        double c12 = block[9];
+        double c22 = block[10];
+        double c32 = block[11];
+        double c03 = block[12];
+        double c13 = block[13];
+        double c23 = block[14];
+        double c33 = block[15];
+
+        int indexL = offsetL;
+        int indexR = offsetR;
+
+        for (int p = 0; p < kc; p++) {
+
+            double l0 = packedL[indexL];
+            double l1 = packedL[indexL + 1];
+            double l2 = packedL[indexL + 2];
+            double l3 = packedL[indexL + 3];
+
+            double r0 = packedR[indexR];
+            c00 += l0 * r0;
+            c10 += l1 * r0;
+            c20 += l2 * r0;
+            c30 += l3 * r0;
+
+            double r1 = packedR[indexR + 1];
+            c01 += l0 * r1;
+            c11 += l1 * r1;
+            c21 += l2 * r1;
+            c31 += l3 * r1;
+
+            double r2 = packedR[indexR + 2];
+            c02 += l0 * r2;
+            c12 += l1 * r2;
+            c22 += l2 * r2;
+            c32 += l3 * r2;
+
+            double r3 = packedR[indexR + 3];
+            c03 += l0 * r3;
+            c13 += l1 * r3;
+            c23 += l2 * r3;
+            c33 += l3 * r3;
+
+            indexL += MR;
+            indexR += NR;
+        }
+
+        block[0] = c00;
+        block[1] = c10;
+        block[2] = c20;
+        block[3] = c30;
+        block[4] = c01;
+        block[5] = c11;
+        block[6] = c21;
+        block[7] = c31;
+        block[8] = c02;
+        block[9] = c12;
+        block[10] = c22;
+        block[11] = c32;
+        block[12] = c03;
+        block[13] = c13;
+        block[14] = c23;
+        block[15] = c33;
+
+        for (int j = 0; j < nr; j++) {
+            int index = row + (col + j) * nbRows;
+            for (int i = 0; i < mr; i++) {
+                target[index + i] = block[i + j * MR];
+            }
+        }
+    }
+
+    /**
+     * Left sub-block rows [first, first+count) and columns [depthFirst, depthFirst+depthCount) is packed as
+     * consecutive MR-row slivers, each stored column by column, zero-padded to a multiple of MR rows.
+     */
+    static void packLeft(final double[] buffer, final Access1D<?> left, final int nbRows, final int first, final int count, final int depthFirst,
+            final int depthCount) {
+
+        int index = 0;
+        for (int ir = 0; ir < count; ir += MR) {
+            int mr = Math.min(MR, count - ir);
+            for (int p = 0; p < depthCount; p++) {
+                long base = first + ir + (depthFirst + p) * (long) nbRows;
+                int i = 0;
+                for (; i < mr; i++) {
+                    buffer[index++] = left.doubleValue(base + i);
+                }
+                for (; i < MR; i++) {
+                    buffer[index++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    static void packLeft(final double[] buffer, final double[] left, final int nbRows, final int first, final int count, final int depthFirst,
+            final int depthCount) {
+
+        int index = 0;
+        for (int ir = 0; ir < count; ir += MR) {
+            int mr = Math.min(MR, count - ir);
+            for (int p = 0; p < depthCount; p++) {
+                int base = first + ir + (depthFirst + p) * nbRows;
+                int i = 0;
+                for (; i < mr; i++) {
+                    buffer[index++] = left[base + i];
+                }
+                for (; i < MR; i++) {
+                    buffer[index++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    /**
+     * Right sub-block rows [depthFirst, depthFirst+depthCount) and columns [first, first+count) is packed as
+     * consecutive NR-column slivers, each stored row by row, zero-padded to a multiple of NR columns.
+     */
+    static void packRight(final double[] buffer, final Access1D<?> right, final int complexity, final int first, final int count, final int depthFirst,
+            final int depthCount) {
+
+        int index = 0;
+        for (int jr = 0; jr < count; jr += NR) {
+            int nr = Math.min(NR, count - jr);
+            for (int p = 0; p < depthCount; p++) {
+                long base = depthFirst + p + (first + jr) * (long) complexity;
+                int j = 0;
+                for (; j < nr; j++) {
+                    buffer[index++] = right.doubleValue(base + j * (long) complexity);
+                }
+                for (; j < NR; j++) {
+                    buffer[index++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    static void packRight(final double[] buffer, final double[] right, final int complexity, final int first, final int count, final int depthFirst,
+            final int depthCount) {
+
+        int index = 0;
+        for (int jr = 0; jr < count; jr += NR) {
+            int nr = Math.min(NR, count - jr);
+            for (int p = 0; p < depthCount; p++) {
+                int base = depthFirst + p + (first + jr) * complexity;
+                int j = 0;
+                for (; j < nr; j++) {
+                    buffer[index++] = right[base + j * complexity];
+                }
+                for (; j < NR; j++) {
+                    buffer[index++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    private static void macro(final double[] target, final int nbRows, final int firstRow, final int rowCount, final int firstCol, final int colCount,
+            final double[] packedL, final int kc, final double[] packedR) {
+        for (int jr = 0; jr < colCount; jr += NR) {
+            int nr = Math.min(NR, colCount - jr);
+            for (int ir = 0; ir < rowCount; ir += MR) {
+                int mr = Math.min(MR, rowCount - ir);
+                MultiplyBlocked.micro(target, nbRows, firstRow + ir, mr, firstCol + jr, nr, packedL, ir * kc, kc, packedR, jr * kc);
+            }
+        }
+    }
+
+    private static int roundUp(final int value, final int multiple) {
+        return ((value + multiple - 1) / multiple) * multiple;
+    }
+
+    private static int size(final long estimate, final int multiple, final int min, final int max) {
+        int size = (int) Math.max(min, Math.min(max, estimate));
+        return Math.max(min, (size / multiple) * multiple);
+    }
+
+    private MultiplyBlocked() {
+        super();
+    }
+
+}
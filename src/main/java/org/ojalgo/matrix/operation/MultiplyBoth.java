@@ -71,6 +71,9 @@ public class MultiplyBoth implements MatrixOperation {
     }
 
     public static MultiplyBoth.Primitive newPrimitive64(final int rows, final int columns) {
+        if (rows > MultiplyBlocked.THRESHOLD && columns > MultiplyBlocked.THRESHOLD) {
+            return MultiplyBlocked::fillMxN;
+        }
         if (rows > THRESHOLD && columns > THRESHOLD) {
             return MultiplyBoth::fillMxN_MT_P64;
         }
@@ -91,6 +91,9 @@ public class MultiplyLeft implements MatrixOperation {
     }
 
     public static MultiplyLeft.Primitive64 newPrimitive64(final long rows, final long columns) {
+        if (rows > MultiplyBlocked.THRESHOLD && columns > MultiplyBlocked.THRESHOLD) {
+            return MultiplyBlocked::fillMxN;
+        }
         if (rows > THRESHOLD && columns > THRESHOLD) {
             return MultiplyLeft::fillMxN_MT;
         }
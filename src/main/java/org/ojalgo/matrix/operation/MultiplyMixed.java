@@ -0,0 +1,81 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+
+/**
+ * Mixed-precision matrix multiplication: the factors are stored in single precision (float[] as in
+ * {@link org.ojalgo.matrix.store.Primitive32Store}) while the products are accumulated, and stored, in double
+ * precision. Compared to a fully double precision multiplication the factors take up half the memory (and
+ * memory bandwidth), and compared to a fully single precision multiplication there is no accumulated
+ * rounding error – each element of the product is the exact (double precision) dot product of the float
+ * inputs, to within double precision rounding.
+ *
+ * @author apete
+ */
+public final class MultiplyMixed implements MatrixOperation {
+
+    public static IntSupplier PARALLELISM = Parallelism.THREADS;
+    public static int THRESHOLD = 32;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    public static void invoke(final double[] product, final float[] left, final int complexity, final float[] right) {
+
+        int nbRows = left.length / complexity;
+        int nbCols = right.length / complexity;
+
+        if (nbRows > THRESHOLD && nbCols > THRESHOLD) {
+            DIVIDER.parallelism(PARALLELISM).threshold(THRESHOLD).divide(0, nbCols,
+                    (f, l) -> MultiplyMixed.fillColumns(product, nbRows, f, l, left, complexity, right));
+        } else {
+            MultiplyMixed.fillColumns(product, nbRows, 0, nbCols, left, complexity, right);
+        }
+    }
+
+    static void fillColumns(final double[] product, final int nbRows, final int firstColumn, final int limitColumn, final float[] left,
+            final int complexity, final float[] right) {
+
+        for (int j = firstColumn; j < limitColumn; j++) {
+
+            int base = j * nbRows;
+            Arrays.fill(product, base, base + nbRows, 0.0);
+
+            for (int c = 0; c < complexity; c++) {
+                double r = right[c + j * complexity];
+                if (r != 0.0) {
+                    int offset = c * nbRows;
+                    for (int i = 0; i < nbRows; i++) {
+                        product[base + i] += left[offset + i] * r;
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -89,6 +89,12 @@ public class MultiplyNeither implements MatrixOperation {
     }
 
     public static MultiplyNeither.Primitive64 newPrimitive64(final long rows, final long columns) {
+        if (rows >= MultiplyStrassen.THRESHOLD && columns >= MultiplyStrassen.THRESHOLD) {
+            return MultiplyStrassen::invoke;
+        }
+        if (rows > MultiplyBlocked.THRESHOLD && columns > MultiplyBlocked.THRESHOLD) {
+            return MultiplyBlocked::fillMxN;
+        }
         if (rows > THRESHOLD && columns > THRESHOLD) {
             return MultiplyNeither::fillMxN_MT;
         }
@@ -91,6 +91,9 @@ public class MultiplyRight implements MatrixOperation {
     }
 
     public static MultiplyRight.Primitive64 newPrimitive64(final long rows, final long columns) {
+        if (rows > MultiplyBlocked.THRESHOLD && columns > MultiplyBlocked.THRESHOLD) {
+            return MultiplyBlocked::fillMxN;
+        }
         if (rows > THRESHOLD && columns > THRESHOLD) {
             return MultiplyRight::fillMxN_MT;
         }
@@ -154,7 +157,7 @@ public class MultiplyRight implements MatrixOperation {
 
         for (int j = 0, nbCols = product.length; j < nbCols; j++) {
             int firstInCol = Structure2D.firstInColumn(right, j, 0);
-            int limitOfCol = Structure2D.firstInColumn(right, j, complexity);
+            int limitOfCol = Structure2D.limitOfColumn(right, j, complexity);
             product[j] += DOT.invoke(left, 0, right, j * complexity, firstInCol, limitOfCol);
         }
     }
@@ -163,7 +166,7 @@ public class MultiplyRight implements MatrixOperation {
 
         for (int j = 0, nbCols = product.length; j < nbCols; j++) {
             int firstInCol = Structure2D.firstInColumn(right, j, 0);
-            int limitOfCol = Structure2D.firstInColumn(right, j, complexity);
+            int limitOfCol = Structure2D.limitOfColumn(right, j, complexity);
             product[j] += DOT.invoke(left, 0, right, j * complexity, firstInCol, limitOfCol);
         }
     }
@@ -315,7 +318,7 @@ public class MultiplyRight implements MatrixOperation {
 
         for (int j = 0, nbCols = product.length; j < nbCols; j++) {
             int firstInCol = Structure2D.firstInColumn(right, j, 0);
-            int limitOfCol = Structure2D.firstInColumn(right, j, complexity);
+            int limitOfCol = Structure2D.limitOfColumn(right, j, complexity);
             product[j] = DOT.invoke(left, 0, right, j * complexity, firstInCol, limitOfCol);
         }
     }
@@ -324,7 +327,7 @@ public class MultiplyRight implements MatrixOperation {
 
         for (int j = 0, nbCols = product.length; j < nbCols; j++) {
             int firstInCol = Structure2D.firstInColumn(right, j, 0);
-            int limitOfCol = Structure2D.firstInColumn(right, j, complexity);
+            int limitOfCol = Structure2D.limitOfColumn(right, j, complexity);
             product[j] = DOT.invoke(left, 0, right, j * complexity, firstInCol, limitOfCol);
         }
     }
@@ -333,7 +336,7 @@ public class MultiplyRight implements MatrixOperation {
 
         for (int j = 0, nbCols = product.length; j < nbCols; j++) {
             int firstInCol = Structure2D.firstInColumn(right, j, 0);
-            int limitOfCol = Structure2D.firstInColumn(right, j, complexity);
+            int limitOfCol = Structure2D.limitOfColumn(right, j, complexity);
             product[j] = DOT.invoke(left, 0, right, j * complexity, firstInCol, limitOfCol, scalar);
         }
     }
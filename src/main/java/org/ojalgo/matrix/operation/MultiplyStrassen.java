@@ -0,0 +1,194 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import java.util.function.IntSupplier;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+
+/**
+ * Strassen-Winograd matrix multiplication – 7 (instead of 8) half-size sub-products and 15 additions per
+ * level of recursion, O(n<sup>2.81</sup>). Below {@link #CUTOFF}, or when {@link #DEPTH} levels have been
+ * used, the sub-products are calculated by the cache-blocked kernel, {@link MultiplyBlocked}. Odd
+ * dimensions are handled by zero-padding the quadrants. The 7 top level sub-products are calculated in
+ * parallel.
+ * <p>
+ * The (normwise) error bound is weaker than for the classical algorithm, and grows with each level of
+ * recursion. That is why this is not used unless asked for: Either call {@link #invoke(double[], double[],
+ * int, double[])} directly, or set {@link #THRESHOLD} (it is a global policy next to
+ * {@link MultiplyBlocked#THRESHOLD} for dense {@link org.ojalgo.matrix.store.Primitive64Store} products).
+ * {@link #DEPTH} limits the accuracy loss.
+ *
+ * @author apete
+ */
+public final class MultiplyStrassen implements MatrixOperation {
+
+    /**
+     * Sub-products where any of the dimensions is smaller than this are not divided further.
+     */
+    public static int CUTOFF = 1024;
+    /**
+     * The maximum number of levels of recursion.
+     */
+    public static int DEPTH = 2;
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    /**
+     * Dense products, with both the number of rows and columns at least this, are calculated using this
+     * algorithm. The default, {@link Integer#MAX_VALUE}, means never – it has to be called explicitly.
+     */
+    public static int THRESHOLD = Integer.MAX_VALUE;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    /**
+     * [product] = [left][right], all column-major, with the product and left having the same number of
+     * rows.
+     */
+    public static void invoke(final double[] product, final double[] left, final int complexity, final double[] right) {
+
+        int nbRows = left.length / complexity;
+        int nbCols = right.length / complexity;
+
+        MultiplyStrassen.multiply(product, left, nbRows, complexity, right, nbCols, DEPTH, true);
+    }
+
+    private static double[] add(final double[] a, final double[] b) {
+        double[] retVal = new double[a.length];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = a[i] + b[i];
+        }
+        return retVal;
+    }
+
+    /**
+     * Copies a (possibly partial) quadrant, zero-padding it to nbRows x nbCols.
+     */
+    private static double[] copy(final double[] source, final int sourceRows, final int sourceCols, final int firstRow, final int firstCol,
+            final int nbRows, final int nbCols) {
+
+        double[] retVal = new double[nbRows * nbCols];
+
+        int rows = Math.min(nbRows, sourceRows - firstRow);
+        int cols = Math.min(nbCols, sourceCols - firstCol);
+
+        for (int j = 0; j < cols; j++) {
+            System.arraycopy(source, firstRow + (firstCol + j) * sourceRows, retVal, j * nbRows, rows);
+        }
+
+        return retVal;
+    }
+
+    private static void multiply(final double[] product, final double[] left, final int m, final int k, final double[] right, final int n, final int depth,
+            final boolean parallel) {
+
+        if (depth <= 0 || m < CUTOFF || k < CUTOFF || n < CUTOFF) {
+            MultiplyBlocked.fillMxN(product, left, k, right);
+            return;
+        }
+
+        int mh = (m + 1) / 2;
+        int kh = (k + 1) / 2;
+        int nh = (n + 1) / 2;
+
+        double[] a11 = MultiplyStrassen.copy(left, m, k, 0, 0, mh, kh);
+        double[] a12 = MultiplyStrassen.copy(left, m, k, 0, kh, mh, kh);
+        double[] a21 = MultiplyStrassen.copy(left, m, k, mh, 0, mh, kh);
+        double[] a22 = MultiplyStrassen.copy(left, m, k, mh, kh, mh, kh);
+
+        double[] b11 = MultiplyStrassen.copy(right, k, n, 0, 0, kh, nh);
+        double[] b12 = MultiplyStrassen.copy(right, k, n, 0, nh, kh, nh);
+        double[] b21 = MultiplyStrassen.copy(right, k, n, kh, 0, kh, nh);
+        double[] b22 = MultiplyStrassen.copy(right, k, n, kh, nh, kh, nh);
+
+        double[] s1 = MultiplyStrassen.add(a21, a22);
+        double[] s2 = MultiplyStrassen.subtract(s1, a11);
+        double[] s3 = MultiplyStrassen.subtract(a11, a21);
+        double[] s4 = MultiplyStrassen.subtract(a12, s2);
+
+        double[] t1 = MultiplyStrassen.subtract(b12, b11);
+        double[] t2 = MultiplyStrassen.subtract(b22, t1);
+        double[] t3 = MultiplyStrassen.subtract(b22, b12);
+        double[] t4 = MultiplyStrassen.subtract(t2, b21);
+
+        double[][] lefts = { a11, a12, s4, a22, s1, s2, s3 };
+        double[][] rights = { b11, b21, b22, t4, t1, t2, t3 };
+        double[][] products = new double[7][mh * nh];
+
+        DivideAndConquer.Conquerer conquerer = (first, limit) -> {
+            for (int p = first; p < limit; p++) {
+                MultiplyStrassen.multiply(products[p], lefts[p], mh, kh, rights[p], nh, depth - 1, false);
+            }
+        };
+
+        if (parallel) {
+            DIVIDER.parallelism(PARALLELISM).threshold(1).divide(0, 7, conquerer);
+        } else {
+            conquerer.conquer(0, 7);
+        }
+
+        double[] p1 = products[0];
+        double[] p2 = products[1];
+        double[] p3 = products[2];
+        double[] p4 = products[3];
+        double[] p5 = products[4];
+        double[] p6 = products[5];
+        double[] p7 = products[6];
+
+        for (int j = 0; j < nh; j++) {
+            for (int i = 0; i < mh; i++) {
+
+                int q = i + j * mh;
+
+                double u2 = p1[q] + p6[q];
+                double u3 = u2 + p7[q];
+                double u4 = u2 + p5[q];
+
+                double c11 = p1[q] + p2[q];
+                double c12 = u4 + p3[q];
+                double c21 = u3 - p4[q];
+                double c22 = u3 + p5[q];
+
+                product[i + j * m] = c11;
+                if (j + nh < n) {
+                    product[i + (j + nh) * m] = c12;
+                }
+                if (i + mh < m) {
+                    product[i + mh + j * m] = c21;
+                    if (j + nh < n) {
+                        product[i + mh + (j + nh) * m] = c22;
+                    }
+                }
+            }
+        }
+    }
+
+    private static double[] subtract(final double[] a, final double[] b) {
+        double[] retVal = new double[a.length];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = a[i] - b[i];
+        }
+        return retVal;
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.array.operation.AXPY;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Structure2D;
+
+/**
+ * Structure-aware matrix multiplication. Only used when (at least) one of the factors declares structure –
+ * a logical (not physical) store, such as triangular, Hessenberg, diagonal, bi/tri-diagonal or banded, that
+ * reports, via {@link Structure2D#firstInColumn(int)} and {@link Structure2D#limitOfColumn(int)}, that its
+ * first or last column is not full. Then the nonzero range of each column of that factor (its profile) is
+ * determined. Physical stores, such as {@link Primitive64Store}, are always treated as dense – they are
+ * never scanned – so the general kernels get plain dense products without any overhead here.
+ * <p>
+ * When the product of the two fill ratios is at most {@link #DENSITY} the product is computed by a kernel
+ * that only visits the nonzero ranges – column by column AXPY:s over the profile of the left factor –
+ * otherwise the general implementations are used. This turns a diagonal-times-dense product into an O(n²)
+ * scaling, a triangular product (TRMM) into half the work of a general one, and a banded product into
+ * O(n²·bandwidth).
+ *
+ * @author apete
+ */
+public final class MultiplyStructured implements MatrixOperation {
+
+    /**
+     * The structure-aware kernel is used when the product of the operands' fill ratios (the fraction of
+     * elements within the column profiles) is at most this.
+     */
+    public static double DENSITY = 0.5;
+    public static IntSupplier PARALLELISM = Parallelism.THREADS;
+    public static int THRESHOLD = 32;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    /**
+     * @return true if the operands had enough structure and the product was calculated, false if nothing was
+     *         done and the general implementations should be used instead.
+     */
+    public static boolean invoke(final double[] product, final Access1D<?> left, final int complexity, final Access1D<?> right) {
+
+        if (complexity < THRESHOLD) {
+            return false;
+        }
+
+        int nbRows = Math.toIntExact(left.count() / complexity);
+        int nbCols = Math.toIntExact(right.count() / complexity);
+
+        boolean leftStructured = MultiplyStructured.isStructured(left, nbRows, complexity);
+        boolean rightStructured = MultiplyStructured.isStructured(right, complexity, nbCols);
+
+        if (!leftStructured && !rightStructured) {
+            return false;
+        }
+
+        double[] leftData = left instanceof Primitive64Store ? ((Primitive64Store) left).data : null;
+        double[] rightData = right instanceof Primitive64Store ? ((Primitive64Store) right).data : null;
+
+        int[] leftFirst = new int[complexity];
+        int[] leftLimit = new int[complexity];
+        double leftFill = MultiplyStructured.profile(left, leftStructured, nbRows, complexity, leftFirst, leftLimit);
+
+        int[] rightFirst = new int[nbCols];
+        int[] rightLimit = new int[nbCols];
+        double rightFill = MultiplyStructured.profile(right, rightStructured, complexity, nbCols, rightFirst, rightLimit);
+
+        if (leftFill * rightFill > DENSITY) {
+            return false;
+        }
+
+        if (nbRows > THRESHOLD && nbCols > THRESHOLD) {
+            DIVIDER.parallelism(PARALLELISM).threshold(THRESHOLD).divide(0, nbCols,
+                    (f, l) -> MultiplyStructured.fillColumns(product, nbRows, f, l, left, leftData, leftFirst, leftLimit, complexity, right, rightData,
+                            rightFirst, rightLimit));
+        } else {
+            MultiplyStructured.fillColumns(product, nbRows, 0, nbCols, left, leftData, leftFirst, leftLimit, complexity, right, rightData, rightFirst,
+                    rightLimit);
+        }
+
+        return true;
+    }
+
+    /**
+     * Does the matrix declare structure? Only logical stores can, and it's only checked whether the first or
+     * last column is not full – that's O(1) and catches all the triangular, Hessenberg and banded shapes.
+     */
+    static boolean isStructured(final Access1D<?> matrix, final int nbRows, final int nbCols) {
+
+        if (matrix instanceof PhysicalStore || !(matrix instanceof Structure2D) || ((Structure2D) matrix).countRows() != nbRows || nbCols == 0) {
+            return false;
+        }
+
+        int last = nbCols - 1;
+
+        return Structure2D.firstInColumn(matrix, 0, 0) > 0 || Structure2D.limitOfColumn(matrix, 0, nbRows) < nbRows
+                || Structure2D.firstInColumn(matrix, last, 0) > 0 || Structure2D.limitOfColumn(matrix, last, nbRows) < nbRows;
+    }
+
+    /**
+     * Determines the nonzero range, [first,limit), of each column. Matrices that don't declare structure are
+     * assumed to be dense.
+     *
+     * @return The fraction of the elements that are within those ranges
+     */
+    static double profile(final Access1D<?> matrix, final boolean structured, final int nbRows, final int nbCols, final int[] first, final int[] limit) {
+
+        long count = 0L;
+
+        if (structured) {
+
+            for (int j = 0; j < nbCols; j++) {
+                int f = Structure2D.firstInColumn(matrix, j, 0);
+                int l = Math.max(f, Structure2D.limitOfColumn(matrix, j, nbRows));
+                first[j] = f;
+                limit[j] = l;
+                count += l - f;
+            }
+
+        } else {
+
+            Arrays.fill(first, 0);
+            Arrays.fill(limit, nbRows);
+            count = (long) nbRows * nbCols;
+        }
+
+        return count == 0L ? 0.0 : (double) count / ((double) nbRows * (double) nbCols);
+    }
+
+    private static void fillColumns(final double[] product, final int nbRows, final int firstColumn, final int columnLimit, final Access1D<?> left,
+            final double[] leftData, final int[] leftFirst, final int[] leftLimit, final int complexity, final Access1D<?> right, final double[] rightData,
+            final int[] rightFirst, final int[] rightLimit) {
+
+        Arrays.fill(product, firstColumn * nbRows, columnLimit * nbRows, 0.0);
+
+        double[] leftColumn = leftData != null ? leftData : new double[nbRows];
+
+        for (int c = 0; c < complexity; c++) {
+
+            int first = leftFirst[c];
+            int limit = leftLimit[c];
+            if (first >= limit) {
+                continue;
+            }
+
+            int base = c * nbRows;
+            if (leftData == null) {
+                for (int i = first; i < limit; i++) {
+                    leftColumn[i] = left.doubleValue(base + i);
+                }
+                base = 0;
+            }
+
+            for (int j = firstColumn; j < columnLimit; j++) {
+                if (c >= rightFirst[j] && c < rightLimit[j]) {
+                    int index = c + j * complexity;
+                    double value = rightData != null ? rightData[index] : right.doubleValue(index);
+                    if (value != 0.0) {
+                        AXPY.invoke(product, j * nbRows, value, leftColumn, base, first, limit);
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,571 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.function.IntSupplier;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.array.operation.AXPY;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.Mutate2D;
+import org.ojalgo.type.NumberDefinition;
+
+/**
+ * A compact, double valued, banded matrix – the typical structure of the tri- and penta-diagonal systems
+ * from spline fitting, finite differences or time-series smoothing. Only the elements within the band, at
+ * most {@link #getLowerBandwidth()} below and {@link #getUpperBandwidth()} above the main diagonal, are
+ * stored. The layout is that of LAPACK's general band storage: Column by column, with element (i,j) at
+ * [upper + i - j + j * (lower + upper + 1)].
+ * <p>
+ * Multiplication and transpose are O(n·bandwidth), and the factorisations returned by {@link #cholesky()}
+ * and {@link #lu()} are O(n·bandwidth²) to compute and O(n·bandwidth) per right hand side column to solve
+ * with. Setting a nonzero value outside the band is an error.
+ *
+ * @author apete
+ */
+public final class BandedStore extends FactoryStore<Double> implements Mutate2D {
+
+    /**
+     * A band Cholesky or LU factorisation, able to solve equation systems with the original matrix as the
+     * body. The right hand side columns are solved independently, and in parallel when there are many.
+     */
+    public abstract static class Factorisation {
+
+        private final int myDim;
+
+        Factorisation(final int dim) {
+            super();
+            myDim = dim;
+        }
+
+        /**
+         * Solves [A][X] = [B] in-place – [B] is replaced by [X].
+         */
+        public void ftran(final PhysicalStore<Double> rhsAndSolution) {
+
+            if (rhsAndSolution.countRows() != myDim) {
+                ProgrammingError.throwForMultiplicationNotPossible();
+            }
+
+            int nbCols = rhsAndSolution.getColDim();
+
+            if (rhsAndSolution instanceof Primitive64Store) {
+
+                double[] data = ((Primitive64Store) rhsAndSolution).data;
+
+                BandedStore.divide(nbCols, myDim, (first, limit) -> {
+                    for (int j = first; j < limit; j++) {
+                        this.solve(data, j * myDim);
+                    }
+                });
+
+            } else {
+
+                BandedStore.divide(nbCols, myDim, (first, limit) -> {
+                    double[] column = new double[myDim];
+                    for (int j = first; j < limit; j++) {
+                        for (int i = 0; i < myDim; i++) {
+                            column[i] = rhsAndSolution.doubleValue(i, j);
+                        }
+                        this.solve(column, 0);
+                        for (int i = 0; i < myDim; i++) {
+                            rhsAndSolution.set(i, j, column[i]);
+                        }
+                    }
+                });
+            }
+        }
+
+        public MatrixStore<Double> getSolution(final Access2D<?> rhs) {
+            Primitive64Store retVal = Primitive64Store.FACTORY.copy(rhs);
+            this.ftran(retVal);
+            return retVal;
+        }
+
+        /**
+         * @return true if the factorisation succeeded – the matrix was positive definite (Cholesky) or
+         *         nonsingular (LU).
+         */
+        public abstract boolean isSolvable();
+
+        abstract void solve(double[] rhs, int offset);
+
+    }
+
+    static final class CholeskyFactorisation extends Factorisation {
+
+        private final int myBandwidth;
+        private final double[] myL;
+        private final boolean mySolvable;
+
+        CholeskyFactorisation(final BandedStore matrix) {
+
+            super(matrix.getColDim());
+
+            int dim = matrix.getColDim();
+            int bw = matrix.getLowerBandwidth();
+            int stride = bw + 1;
+
+            myBandwidth = bw;
+            myL = new double[stride * dim];
+
+            boolean solvable = true;
+
+            for (int j = 0; solvable && j < dim; j++) {
+                for (int i = j, limit = Math.min(dim, j + bw + 1); i < limit; i++) {
+
+                    double value = matrix.doubleValue(i, j);
+                    for (int k = Math.max(0, i - bw); k < j; k++) {
+                        value -= myL[i - k + k * stride] * myL[j - k + k * stride];
+                    }
+
+                    if (i == j) {
+                        if (value > PrimitiveMath.ZERO) {
+                            myL[j * stride] = PrimitiveMath.SQRT.invoke(value);
+                        } else {
+                            solvable = false;
+                            break;
+                        }
+                    } else {
+                        myL[i - j + j * stride] = value / myL[j * stride];
+                    }
+                }
+            }
+
+            mySolvable = solvable;
+        }
+
+        @Override
+        public boolean isSolvable() {
+            return mySolvable;
+        }
+
+        @Override
+        void solve(final double[] rhs, final int offset) {
+
+            int dim = myL.length / (myBandwidth + 1);
+            int stride = myBandwidth + 1;
+
+            // [L][y] = [b]
+            for (int i = 0; i < dim; i++) {
+                double value = rhs[offset + i];
+                for (int k = Math.max(0, i - myBandwidth); k < i; k++) {
+                    value -= myL[i - k + k * stride] * rhs[offset + k];
+                }
+                rhs[offset + i] = value / myL[i * stride];
+            }
+
+            // [L]^T[x] = [y]
+            for (int i = dim - 1; i >= 0; i--) {
+                double value = rhs[offset + i];
+                for (int k = i + 1, limit = Math.min(dim, i + myBandwidth + 1); k < limit; k++) {
+                    value -= myL[k - i + i * stride] * rhs[offset + k];
+                }
+                rhs[offset + i] = value / myL[i * stride];
+            }
+        }
+
+    }
+
+    /**
+     * Band LU with partial (row) pivoting, as LAPACK's xGBTRF. Pivoting increases the upper bandwidth of
+     * [U] to lower + upper.
+     */
+    static final class LUFactorisation extends Factorisation {
+
+        private final int myLower;
+        private final int[] myPivots;
+        private final boolean mySolvable;
+        private final int myUpper;
+        private final double[] myWork;
+
+        LUFactorisation(final BandedStore matrix) {
+
+            super(matrix.getColDim());
+
+            int dim = matrix.getColDim();
+            int kl = matrix.getLowerBandwidth();
+            int ku = kl + matrix.getUpperBandwidth();
+            int stride = kl + ku + 1;
+
+            myLower = kl;
+            myUpper = ku;
+            myWork = new double[stride * dim];
+            myPivots = new int[dim];
+
+            double[] w = myWork;
+
+            for (int j = 0; j < dim; j++) {
+                for (int i = Math.max(0, j - matrix.getUpperBandwidth()), limit = Math.min(dim, j + kl + 1); i < limit; i++) {
+                    w[ku + i - j + j * stride] = matrix.doubleValue(i, j);
+                }
+            }
+
+            boolean solvable = true;
+
+            for (int j = 0; j < dim; j++) {
+
+                int last = Math.min(dim - 1, j + kl);
+                int right = Math.min(dim - 1, j + ku);
+
+                int pivot = j;
+                double largest = PrimitiveMath.ABS.invoke(w[ku + j * stride]);
+                for (int i = j + 1; i <= last; i++) {
+                    double candidate = PrimitiveMath.ABS.invoke(w[ku + i - j + j * stride]);
+                    if (candidate > largest) {
+                        largest = candidate;
+                        pivot = i;
+                    }
+                }
+                myPivots[j] = pivot;
+
+                if (largest == PrimitiveMath.ZERO) {
+                    solvable = false;
+                    continue;
+                }
+
+                if (pivot != j) {
+                    for (int c = j; c <= right; c++) {
+                        int ij = ku + j - c + c * stride;
+                        int ip = ku + pivot - c + c * stride;
+                        double tmp = w[ij];
+                        w[ij] = w[ip];
+                        w[ip] = tmp;
+                    }
+                }
+
+                double diagonal = w[ku + j * stride];
+                for (int i = j + 1; i <= last; i++) {
+                    w[ku + i - j + j * stride] /= diagonal;
+                }
+
+                for (int c = j + 1; c <= right; c++) {
+                    double factor = w[ku + j - c + c * stride];
+                    if (factor != PrimitiveMath.ZERO) {
+                        for (int i = j + 1; i <= last; i++) {
+                            w[ku + i - c + c * stride] -= w[ku + i - j + j * stride] * factor;
+                        }
+                    }
+                }
+            }
+
+            mySolvable = solvable;
+        }
+
+        @Override
+        public boolean isSolvable() {
+            return mySolvable;
+        }
+
+        @Override
+        void solve(final double[] rhs, final int offset) {
+
+            int dim = myPivots.length;
+            int ku = myUpper;
+            int stride = myLower + ku + 1;
+            double[] w = myWork;
+
+            // [P][L][y] = [b]
+            for (int j = 0; j < dim; j++) {
+                int pivot = myPivots[j];
+                if (pivot != j) {
+                    double tmp = rhs[offset + j];
+                    rhs[offset + j] = rhs[offset + pivot];
+                    rhs[offset + pivot] = tmp;
+                }
+                double value = rhs[offset + j];
+                if (value != PrimitiveMath.ZERO) {
+                    for (int i = j + 1, limit = Math.min(dim, j + myLower + 1); i < limit; i++) {
+                        rhs[offset + i] -= w[ku + i - j + j * stride] * value;
+                    }
+                }
+            }
+
+            // [U][x] = [y]
+            for (int i = dim - 1; i >= 0; i--) {
+                double value = rhs[offset + i];
+                for (int c = i + 1, limit = Math.min(dim, i + ku + 1); c < limit; c++) {
+                    value -= w[ku + i - c + c * stride] * rhs[offset + c];
+                }
+                rhs[offset + i] = value / w[ku + i * stride];
+            }
+        }
+
+    }
+
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    /**
+     * Multiplication and solving is split (by columns of the right hand side) among the threads when the
+     * total number of elements to calculate exceeds this.
+     */
+    public static int THRESHOLD = 65_536;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    /**
+     * Copies the elements within the band, the elements outside are assumed (not checked) to be zero.
+     */
+    public static BandedStore copy(final Access2D<?> matrix, final int lower, final int upper) {
+
+        BandedStore retVal = BandedStore.make(matrix.getRowDim(), matrix.getColDim(), lower, upper);
+
+        for (int j = 0, nbCols = retVal.getColDim(); j < nbCols; j++) {
+            for (int i = retVal.firstInColumn(j), limit = retVal.limitOfColumn(j); i < limit; i++) {
+                retVal.myData[retVal.index(i, j)] = matrix.doubleValue(i, j);
+            }
+        }
+
+        return retVal;
+    }
+
+    public static BandedStore make(final int nbRows, final int nbCols, final int lower, final int upper) {
+        if (lower < 0 || upper < 0) {
+            throw new ProgrammingError("Bandwidths can't be negative!");
+        }
+        return new BandedStore(nbRows, nbCols, lower, upper);
+    }
+
+    /**
+     * Determines the lower and upper bandwidths of the input matrix (the outermost nonzero elements), and
+     * copies it.
+     */
+    public static BandedStore of(final Access2D<?> matrix) {
+
+        int nbRows = matrix.getRowDim();
+        int nbCols = matrix.getColDim();
+
+        int lower = 0;
+        int upper = 0;
+
+        for (int j = 0; j < nbCols; j++) {
+            for (int i = 0; i < j - upper && i < nbRows; i++) {
+                if (matrix.doubleValue(i, j) != PrimitiveMath.ZERO) {
+                    upper = j - i;
+                    break;
+                }
+            }
+            for (int i = nbRows - 1; i > j + lower; i--) {
+                if (matrix.doubleValue(i, j) != PrimitiveMath.ZERO) {
+                    lower = i - j;
+                    break;
+                }
+            }
+        }
+
+        return BandedStore.copy(matrix, lower, upper);
+    }
+
+    static void divide(final int nbColumns, final int nbRows, final DivideAndConquer.Conquerer conquerer) {
+        if ((long) nbColumns * nbRows > THRESHOLD && nbColumns > 1) {
+            DIVIDER.parallelism(PARALLELISM).threshold(Math.max(1, THRESHOLD / Math.max(1, nbRows))).divide(0, nbColumns, conquerer);
+        } else {
+            conquerer.conquer(0, nbColumns);
+        }
+    }
+
+    private final double[] myData;
+    private final int myLower;
+    private final int myStride;
+    private final int myUpper;
+
+    BandedStore(final int nbRows, final int nbCols, final int lower, final int upper) {
+
+        super(Primitive64Store.FACTORY, nbRows, nbCols);
+
+        myLower = lower;
+        myUpper = upper;
+        myStride = lower + upper + 1;
+        myData = new double[myStride * nbCols];
+    }
+
+    /**
+     * Cholesky factorisation using the lower part of the band (the matrix is assumed to be symmetric).
+     */
+    public Factorisation cholesky() {
+        this.checkSquare();
+        return new CholeskyFactorisation(this);
+    }
+
+    @Override
+    public double doubleValue(final int row, final int col) {
+        if (row - col > myLower || col - row > myUpper) {
+            return PrimitiveMath.ZERO;
+        }
+        return myData[this.index(row, col)];
+    }
+
+    @Override
+    public int firstInColumn(final int col) {
+        return Math.max(0, col - myUpper);
+    }
+
+    @Override
+    public int firstInRow(final int row) {
+        return Math.max(0, row - myLower);
+    }
+
+    @Override
+    public Double get(final int row, final int col) {
+        return Double.valueOf(this.doubleValue(row, col));
+    }
+
+    public int getLowerBandwidth() {
+        return myLower;
+    }
+
+    public int getUpperBandwidth() {
+        return myUpper;
+    }
+
+    @Override
+    public int limitOfColumn(final int col) {
+        return Math.min(this.getRowDim(), col + myLower + 1);
+    }
+
+    @Override
+    public int limitOfRow(final int row) {
+        return Math.min(this.getColDim(), row + myUpper + 1);
+    }
+
+    public Factorisation lu() {
+        this.checkSquare();
+        return new LUFactorisation(this);
+    }
+
+    @Override
+    public void multiply(final Access1D<Double> right, final TransformableRegion<Double> target) {
+
+        int nbRows = this.getRowDim();
+        int complexity = this.getColDim();
+        int nbCols = Math.toIntExact(right.count() / complexity);
+
+        if (target instanceof Primitive64Store && target.count() == (long) nbRows * nbCols) {
+
+            this.multiply(((Primitive64Store) target).data, right, nbCols);
+
+        } else {
+
+            Primitive64Store product = Primitive64Store.FACTORY.make(nbRows, nbCols);
+            this.multiply(product.data, right, nbCols);
+            target.fillMatching(product);
+        }
+    }
+
+    @Override
+    public BandedStore multiply(final double scalar) {
+        BandedStore retVal = new BandedStore(this.getRowDim(), this.getColDim(), myLower, myUpper);
+        for (int i = 0; i < myData.length; i++) {
+            retVal.myData[i] = scalar * myData[i];
+        }
+        return retVal;
+    }
+
+    @Override
+    public void set(final int row, final int col, final double value) {
+        if (row - col > myLower || col - row > myUpper) {
+            if (value != PrimitiveMath.ZERO) {
+                throw new ProgrammingError("Outside the band!");
+            }
+        } else {
+            myData[this.index(row, col)] = value;
+        }
+    }
+
+    @Override
+    public void set(final long row, final long col, final Comparable<?> value) {
+        this.set(Math.toIntExact(row), Math.toIntExact(col), NumberDefinition.doubleValue(value));
+    }
+
+    @Override
+    public void supplyTo(final TransformableRegion<Double> receiver) {
+
+        receiver.reset();
+
+        for (int j = 0, nbCols = this.getColDim(); j < nbCols; j++) {
+            for (int i = this.firstInColumn(j), limit = this.limitOfColumn(j); i < limit; i++) {
+                receiver.set(i, j, myData[this.index(i, j)]);
+            }
+        }
+    }
+
+    @Override
+    public PrimitiveScalar toScalar(final long row, final long col) {
+        return PrimitiveScalar.of(this.doubleValue(Math.toIntExact(row), Math.toIntExact(col)));
+    }
+
+    @Override
+    public BandedStore transpose() {
+
+        BandedStore retVal = new BandedStore(this.getColDim(), this.getRowDim(), myUpper, myLower);
+
+        for (int j = 0, nbCols = this.getColDim(); j < nbCols; j++) {
+            for (int i = this.firstInColumn(j), limit = this.limitOfColumn(j); i < limit; i++) {
+                retVal.myData[retVal.index(j, i)] = myData[this.index(i, j)];
+            }
+        }
+
+        return retVal;
+    }
+
+    private void checkSquare() {
+        if (this.getRowDim() != this.getColDim()) {
+            throw new ProgrammingError("The matrix must be square!");
+        }
+    }
+
+    private int index(final int row, final int col) {
+        return myUpper + row - col + col * myStride;
+    }
+
+    private void multiply(final double[] product, final Access1D<Double> right, final int nbCols) {
+
+        int nbRows = this.getRowDim();
+        int complexity = this.getColDim();
+
+        double[] rightData = right instanceof Primitive64Store ? ((Primitive64Store) right).data : null;
+
+        BandedStore.divide(nbCols, nbRows, (first, limit) -> {
+            for (int j = first; j < limit; j++) {
+
+                int base = j * nbRows;
+                for (int i = 0; i < nbRows; i++) {
+                    product[base + i] = PrimitiveMath.ZERO;
+                }
+
+                for (int c = 0; c < complexity; c++) {
+                    int index = c + j * complexity;
+                    double value = rightData != null ? rightData[index] : right.doubleValue(index);
+                    if (value != PrimitiveMath.ZERO) {
+                        AXPY.invoke(product, base, value, myData, myUpper - c + c * myStride, this.firstInColumn(c), this.limitOfColumn(c));
+                    }
+                }
+            }
+        });
+    }
+
+}
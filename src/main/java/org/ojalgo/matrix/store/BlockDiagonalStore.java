@@ -0,0 +1,304 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.matrix.decomposition.MatrixDecomposition;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+
+/**
+ * A block-diagonal matrix – the blocks are placed along the diagonal, one after the other, and everything
+ * else is zero. Only the blocks are stored (as they are, any {@link MatrixStore}), and multiplication and
+ * transpose work block by block.
+ * <p>
+ * {@link #decompose(Supplier)} factors each block independently, using one decomposition instance per
+ * block, and the returned {@link Factorisation} solves block by block. Both are done in parallel when
+ * there are several blocks and enough work, see {@link #THRESHOLD}.
+ *
+ * @author apete
+ */
+public final class BlockDiagonalStore<N extends Comparable<N>> extends FactoryStore<N> {
+
+    /**
+     * One solver per block, each having decomposed its block.
+     */
+    public static final class Factorisation<N extends Comparable<N>> {
+
+        private final BlockDiagonalStore<N> myMatrix;
+        private final boolean mySolvable;
+        private final MatrixDecomposition.Solver<N>[] mySolvers;
+
+        Factorisation(final BlockDiagonalStore<N> matrix, final MatrixDecomposition.Solver<N>[] solvers, final boolean solvable) {
+            super();
+            myMatrix = matrix;
+            mySolvers = solvers;
+            mySolvable = solvable;
+        }
+
+        public MatrixStore<N> getSolution(final MatrixStore<N> rhs) {
+
+            if (!mySolvable) {
+                throw new ProgrammingError("Not solvable!");
+            }
+            if (rhs.countRows() != myMatrix.countRows()) {
+                ProgrammingError.throwForMultiplicationNotPossible();
+            }
+
+            int nbCols = rhs.getColDim();
+            int[] rowOffsets = myMatrix.myRowOffsets;
+            int[] colOffsets = myMatrix.myColOffsets;
+
+            PhysicalStore<N> retVal = myMatrix.physical().make(myMatrix.countColumns(), nbCols);
+
+            myMatrix.divide(nbCols, (first, limit) -> {
+                for (int b = first; b < limit; b++) {
+
+                    int nbBlockRows = rowOffsets[b + 1] - rowOffsets[b];
+                    int nbBlockCols = colOffsets[b + 1] - colOffsets[b];
+
+                    if (nbBlockCols > 0) {
+                        MatrixStore<N> blockRHS = rhs.offsets(rowOffsets[b], 0).limits(nbBlockRows, nbCols);
+                        MatrixStore<N> blockSolution = mySolvers[b].getSolution(blockRHS);
+                        retVal.regionByOffsets(colOffsets[b], 0).regionByLimits(nbBlockCols, nbCols).fillMatching(blockSolution);
+                    }
+                }
+            });
+
+            return retVal;
+        }
+
+        /**
+         * @return true if all blocks were successfully decomposed and are solvable
+         */
+        public boolean isSolvable() {
+            return mySolvable;
+        }
+
+    }
+
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    /**
+     * The blocks are processed in parallel when the total number of elements (in the matrix or the
+     * solution) exceeds this.
+     */
+    public static int THRESHOLD = 16_384;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    @SafeVarargs
+    public static <N extends Comparable<N>> BlockDiagonalStore<N> of(final MatrixStore<N>... blocks) {
+
+        if (blocks.length == 0) {
+            throw new ProgrammingError("Need at least 1 block!");
+        }
+
+        int[] rowOffsets = new int[blocks.length + 1];
+        int[] colOffsets = new int[blocks.length + 1];
+        for (int b = 0; b < blocks.length; b++) {
+            rowOffsets[b + 1] = rowOffsets[b] + blocks[b].getRowDim();
+            colOffsets[b + 1] = colOffsets[b] + blocks[b].getColDim();
+        }
+
+        return new BlockDiagonalStore<>(blocks[0].physical(), blocks.clone(), rowOffsets, colOffsets);
+    }
+
+    private static int block(final int[] offsets, final int index) {
+        int retVal = Arrays.binarySearch(offsets, index);
+        if (retVal < 0) {
+            return -retVal - 2;
+        }
+        while (retVal + 2 < offsets.length && offsets[retVal + 1] <= index) {
+            retVal++;
+        }
+        return retVal;
+    }
+
+    private final MatrixStore<N>[] myBlocks;
+    private final int[] myColOffsets;
+    private final int[] myRowOffsets;
+
+    BlockDiagonalStore(final PhysicalStore.Factory<N, ?> factory, final MatrixStore<N>[] blocks, final int[] rowOffsets, final int[] colOffsets) {
+
+        super(factory, rowOffsets[blocks.length], colOffsets[blocks.length]);
+
+        myBlocks = blocks;
+        myRowOffsets = rowOffsets;
+        myColOffsets = colOffsets;
+    }
+
+    public int countBlocks() {
+        return myBlocks.length;
+    }
+
+    /**
+     * Decomposes each of the blocks using its own instance from the supplied solver factory, e.g.
+     * <code>Cholesky.R064::make</code> or <code>LU.R064::make</code>.
+     */
+    public Factorisation<N> decompose(final Supplier<? extends MatrixDecomposition.Solver<N>> factory) {
+
+        MatrixDecomposition.Solver<N>[] solvers = new MatrixDecomposition.Solver[myBlocks.length];
+        boolean[] solvable = new boolean[myBlocks.length];
+
+        this.divide(myColOffsets[myBlocks.length], (first, limit) -> {
+            for (int b = first; b < limit; b++) {
+                solvers[b] = factory.get();
+                solvable[b] = solvers[b].compute(myBlocks[b]);
+            }
+        });
+
+        boolean all = true;
+        for (int b = 0; b < solvable.length; b++) {
+            all &= solvable[b];
+        }
+
+        return new Factorisation<>(this, solvers, all);
+    }
+
+    @Override
+    public double doubleValue(final int row, final int col) {
+        int b = BlockDiagonalStore.block(myRowOffsets, row);
+        if (col >= myColOffsets[b] && col < myColOffsets[b + 1]) {
+            return myBlocks[b].doubleValue(row - myRowOffsets[b], col - myColOffsets[b]);
+        }
+        return this.zero().doubleValue();
+    }
+
+    @Override
+    public int firstInColumn(final int col) {
+        return myRowOffsets[BlockDiagonalStore.block(myColOffsets, col)];
+    }
+
+    @Override
+    public int firstInRow(final int row) {
+        return myColOffsets[BlockDiagonalStore.block(myRowOffsets, row)];
+    }
+
+    @Override
+    public N get(final int row, final int col) {
+        int b = BlockDiagonalStore.block(myRowOffsets, row);
+        if (col >= myColOffsets[b] && col < myColOffsets[b + 1]) {
+            return myBlocks[b].get(row - myRowOffsets[b], col - myColOffsets[b]);
+        }
+        return this.zero().get();
+    }
+
+    public MatrixStore<N> getBlock(final int index) {
+        return myBlocks[index];
+    }
+
+    @Override
+    public int limitOfColumn(final int col) {
+        return myRowOffsets[BlockDiagonalStore.block(myColOffsets, col) + 1];
+    }
+
+    @Override
+    public int limitOfRow(final int row) {
+        return myColOffsets[BlockDiagonalStore.block(myRowOffsets, row) + 1];
+    }
+
+    @Override
+    public void multiply(final Access1D<N> right, final TransformableRegion<N> target) {
+
+        int complexity = this.getColDim();
+        int nbCols = Math.toIntExact(right.count() / complexity);
+
+        MatrixStore<N> rightStore;
+        if (right instanceof Access2D) {
+            rightStore = AbstractStore.cast(this.physical(), (Access2D<?>) right);
+        } else {
+            PhysicalStore<N> copy = this.physical().make(complexity, nbCols);
+            copy.fillMatching(right);
+            rightStore = copy;
+        }
+
+        this.divide(nbCols, (first, limit) -> {
+            for (int b = first; b < limit; b++) {
+
+                int nbBlockRows = myRowOffsets[b + 1] - myRowOffsets[b];
+                int nbBlockCols = myColOffsets[b + 1] - myColOffsets[b];
+
+                if (nbBlockRows > 0) {
+                    TransformableRegion<N> region = target.regionByOffsets(myRowOffsets[b], 0).regionByLimits(nbBlockRows, nbCols);
+                    if (nbBlockCols > 0) {
+                        myBlocks[b].multiply(rightStore.offsets(myColOffsets[b], 0).limits(nbBlockCols, nbCols), region);
+                    } else {
+                        region.reset();
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void supplyTo(final TransformableRegion<N> receiver) {
+
+        receiver.reset();
+
+        for (int b = 0; b < myBlocks.length; b++) {
+            int nbBlockRows = myRowOffsets[b + 1] - myRowOffsets[b];
+            int nbBlockCols = myColOffsets[b + 1] - myColOffsets[b];
+            if (nbBlockRows > 0 && nbBlockCols > 0) {
+                myBlocks[b].supplyTo(receiver.regionByOffsets(myRowOffsets[b], myColOffsets[b]).regionByLimits(nbBlockRows, nbBlockCols));
+            }
+        }
+    }
+
+    @Override
+    public Scalar<N> toScalar(final long row, final long col) {
+        int b = BlockDiagonalStore.block(myRowOffsets, Math.toIntExact(row));
+        if (col >= myColOffsets[b] && col < myColOffsets[b + 1]) {
+            return myBlocks[b].toScalar(row - myRowOffsets[b], col - myColOffsets[b]);
+        }
+        return this.zero();
+    }
+
+    @Override
+    public BlockDiagonalStore<N> transpose() {
+        MatrixStore<N>[] blocks = new MatrixStore[myBlocks.length];
+        for (int b = 0; b < blocks.length; b++) {
+            blocks[b] = myBlocks[b].transpose();
+        }
+        return new BlockDiagonalStore<>(this.physical(), blocks, myColOffsets, myRowOffsets);
+    }
+
+    /**
+     * Divides the blocks among the threads. The work is estimated to be proportional to the size of the
+     * matrix times the width of the other operand.
+     */
+    private void divide(final int width, final DivideAndConquer.Conquerer conquerer) {
+        if (myBlocks.length > 1 && this.count() * Math.max(1, width) / myBlocks.length > THRESHOLD) {
+            DIVIDER.parallelism(PARALLELISM).threshold(1).divide(0, myBlocks.length, conquerer);
+        } else {
+            conquerer.conquer(0, myBlocks.length);
+        }
+    }
+
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Arrays;
+
+import org.ojalgo.function.constant.PrimitiveMath;
+
+/**
+ * Common parts of the immutable compressed sparse (double) stores, {@link R064CSR} and {@link R064CSC}. The
+ * nonzero elements are stored in 3 arrays: the (major) pointers, the (minor) indices and the values. For CSR
+ * the major dimension is the rows and the minor the columns; for CSC it's the other way around.
+ * <p>
+ * The elements of major index i are at positions [pointers[i], pointers[i+1]) of the indices and values
+ * arrays, sorted by (minor) index and without duplicates.
+ *
+ * @author apete
+ */
+public abstract class CompressedSparseR064 extends FactoryStore<Double> {
+
+    /**
+     * Collects triplets (row, column, value) in any order, then sorts them once, with a linear time counting
+     * sort, when the store is built. Duplicates (several values for the same row/column) are summed.
+     * <p>
+     * To load from a stream of triplets: stream.forEachOrdered(t -> builder.add(t.row, t.col, t.value)). The
+     * builder itself is not thread safe.
+     */
+    public static final class Builder {
+
+        private int[] myColumns;
+        private final int myColumnsCount;
+        private int[] myRows;
+        private final int myRowsCount;
+        private int mySize = 0;
+        private double[] myValues;
+
+        Builder(final int rowsCount, final int columnsCount, final int initialCapacity) {
+
+            super();
+
+            myRowsCount = rowsCount;
+            myColumnsCount = columnsCount;
+
+            int capacity = Math.max(16, initialCapacity);
+            myRows = new int[capacity];
+            myColumns = new int[capacity];
+            myValues = new double[capacity];
+        }
+
+        /**
+         * Add the value to the element at (row, col). Adding to the same element several times sums the
+         * values.
+         */
+        public Builder add(final int row, final int col, final double value) {
+
+            if (row < 0 || row >= myRowsCount || col < 0 || col >= myColumnsCount) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+
+            if (mySize == myValues.length) {
+                int capacity = 2 * mySize;
+                myRows = Arrays.copyOf(myRows, capacity);
+                myColumns = Arrays.copyOf(myColumns, capacity);
+                myValues = Arrays.copyOf(myValues, capacity);
+            }
+
+            myRows[mySize] = row;
+            myColumns[mySize] = col;
+            myValues[mySize] = value;
+            mySize++;
+
+            return this;
+        }
+
+        /**
+         * The number of triplets added so far (not the number of unique nonzero elements).
+         */
+        public int size() {
+            return mySize;
+        }
+
+        public R064CSC toCSC() {
+            return new R064CSC(myRowsCount, myColumnsCount,
+                    CompressedSparseR064.compress(myColumnsCount, myRowsCount, myColumns, myRows, myValues, mySize));
+        }
+
+        public R064CSR toCSR() {
+            return new R064CSR(myRowsCount, myColumnsCount,
+                    CompressedSparseR064.compress(myRowsCount, myColumnsCount, myRows, myColumns, myValues, mySize));
+        }
+
+        public SparseStore<Double> toSparse() {
+            return this.toCSC().toSparse();
+        }
+
+    }
+
+    /**
+     * The 3 arrays of a compressed sparse structure
+     */
+    static final class Compressed {
+
+        final int[] indices;
+        final int[] pointers;
+        final double[] values;
+
+        Compressed(final int[] pointers, final int[] indices, final double[] values) {
+            super();
+            this.pointers = pointers;
+            this.indices = indices;
+            this.values = values;
+        }
+
+    }
+
+    public static Builder builder(final int rowsCount, final int columnsCount) {
+        return new Builder(rowsCount, columnsCount, Math.max(rowsCount, columnsCount));
+    }
+
+    public static Builder builder(final int rowsCount, final int columnsCount, final int initialCapacity) {
+        return new Builder(rowsCount, columnsCount, initialCapacity);
+    }
+
+    /**
+     * Sorts the (unordered) triplets by major and then minor index, using 2 stable counting sort passes (first
+     * on the minor and then on the major index), and sums duplicates. O(nnz + majorCount + minorCount)
+     */
+    static Compressed compress(final int majorCount, final int minorCount, final int[] major, final int[] minor, final double[] values,
+            final int size) {
+
+        // Pass 1: sort on the minor index
+
+        int[] minorPointers = new int[minorCount + 1];
+        for (int t = 0; t < size; t++) {
+            minorPointers[minor[t] + 1]++;
+        }
+        for (int m = 0; m < minorCount; m++) {
+            minorPointers[m + 1] += minorPointers[m];
+        }
+
+        int[] order = new int[size];
+        int[] next = Arrays.copyOf(minorPointers, minorCount);
+        for (int t = 0; t < size; t++) {
+            order[next[minor[t]]++] = t;
+        }
+
+        // Pass 2: (stable) sort on the major index
+
+        int[] pointers = new int[majorCount + 1];
+        for (int t = 0; t < size; t++) {
+            pointers[major[t] + 1]++;
+        }
+        for (int m = 0; m < majorCount; m++) {
+            pointers[m + 1] += pointers[m];
+        }
+
+        int[] indices = new int[size];
+        double[] sorted = new double[size];
+        next = Arrays.copyOf(pointers, majorCount);
+        for (int o = 0; o < size; o++) {
+            int t = order[o];
+            int position = next[major[t]]++;
+            indices[position] = minor[t];
+            sorted[position] = values[t];
+        }
+
+        // Sum duplicates and compact
+
+        int count = 0;
+        int first = 0;
+        for (int m = 0; m < majorCount; m++) {
+            int limit = pointers[m + 1];
+            pointers[m] = count;
+            for (int p = first; p < limit; p++) {
+                if (count > pointers[m] && indices[count - 1] == indices[p]) {
+                    sorted[count - 1] += sorted[p];
+                } else {
+                    indices[count] = indices[p];
+                    sorted[count] = sorted[p];
+                    count++;
+                }
+            }
+            first = limit;
+        }
+        pointers[majorCount] = count;
+
+        if (count < size) {
+            indices = Arrays.copyOf(indices, count);
+            sorted = Arrays.copyOf(sorted, count);
+        }
+
+        return new Compressed(pointers, indices, sorted);
+    }
+
+    /**
+     * Gustavson's algorithm. With both operands, and the result, compressed along the same (major) dimension:
+     * result[i,:] = sum over (k,a) in outer[i,:] of a * inner[k,:]
+     * <p>
+     * For CSR (result = left * right) outer is the left and inner the right operand. For CSC it's the other
+     * way around.
+     */
+    static Compressed multiply(final CompressedSparseR064 outer, final CompressedSparseR064 inner, final int majorCount, final int minorCount) {
+
+        int[] pointers = new int[majorCount + 1];
+        int[] indices = new int[Math.max(16, outer.countNonzeros() + inner.countNonzeros())];
+        double[] values = new double[indices.length];
+
+        double[] accumulator = new double[minorCount];
+        int[] marker = new int[minorCount];
+        Arrays.fill(marker, -1);
+
+        int count = 0;
+
+        for (int i = 0; i < majorCount; i++) {
+
+            pointers[i] = count;
+
+            for (int p = outer.myPointers[i], pLimit = outer.myPointers[i + 1]; p < pLimit; p++) {
+                int k = outer.myIndices[p];
+                double a = outer.myValues[p];
+
+                for (int q = inner.myPointers[k], qLimit = inner.myPointers[k + 1]; q < qLimit; q++) {
+                    int j = inner.myIndices[q];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        accumulator[j] = PrimitiveMath.ZERO;
+                        if (count == indices.length) {
+                            indices = Arrays.copyOf(indices, 2 * count);
+                            values = Arrays.copyOf(values, 2 * count);
+                        }
+                        indices[count++] = j;
+                    }
+                    accumulator[j] += a * inner.myValues[q];
+                }
+            }
+
+            Arrays.sort(indices, pointers[i], count);
+            for (int p = pointers[i]; p < count; p++) {
+                values[p] = accumulator[indices[p]];
+            }
+        }
+        pointers[majorCount] = count;
+
+        return new Compressed(pointers, Arrays.copyOf(indices, count), Arrays.copyOf(values, count));
+    }
+
+    final int[] myIndices;
+    final int[] myPointers;
+    final double[] myValues;
+
+    CompressedSparseR064(final int rowsCount, final int columnsCount, final Compressed compressed) {
+
+        super(Primitive64Store.FACTORY, rowsCount, columnsCount);
+
+        myPointers = compressed.pointers;
+        myIndices = compressed.indices;
+        myValues = compressed.values;
+    }
+
+    /**
+     * The number of stored (structurally nonzero) elements
+     */
+    public int countNonzeros() {
+        return myValues.length;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || !(obj instanceof CompressedSparseR064) || this.getClass() != obj.getClass()) {
+            return false;
+        }
+        CompressedSparseR064 other = (CompressedSparseR064) obj;
+        return Arrays.equals(myPointers, other.myPointers) && Arrays.equals(myIndices, other.myIndices) && Arrays.equals(myValues, other.myValues);
+    }
+
+    @Override
+    public Double get(final int row, final int col) {
+        return Double.valueOf(this.doubleValue(row, col));
+    }
+
+    @Override
+    public int hashCode() {
+        int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + Arrays.hashCode(myPointers);
+        result = prime * result + Arrays.hashCode(myIndices);
+        return prime * result + Arrays.hashCode(myValues);
+    }
+
+    /**
+     * @return A {@link SparseStore} with the same elements
+     */
+    public abstract SparseStore<Double> toSparse();
+
+    final int firstInMajor(final int major, final int minorCount) {
+        int first = myPointers[major];
+        return first < myPointers[major + 1] ? myIndices[first] : minorCount;
+    }
+
+    final int limitOfMajor(final int major) {
+        int limit = myPointers[major + 1];
+        return limit > myPointers[major] ? myIndices[limit - 1] + 1 : 0;
+    }
+
+    final Compressed scaled(final double scalar) {
+        double[] values = new double[myValues.length];
+        for (int p = 0; p < values.length; p++) {
+            values[p] = scalar * myValues[p];
+        }
+        return new Compressed(myPointers, myIndices, values);
+    }
+
+    /**
+     * Re-compress along the other dimension (CSR to CSC or the other way around). O(nnz + majorCount +
+     * minorCount)
+     */
+    final Compressed transposed(final int majorCount, final int minorCount) {
+
+        int[] pointers = new int[minorCount + 1];
+        for (int p = 0; p < myIndices.length; p++) {
+            pointers[myIndices[p] + 1]++;
+        }
+        for (int m = 0; m < minorCount; m++) {
+            pointers[m + 1] += pointers[m];
+        }
+
+        int[] indices = new int[myIndices.length];
+        double[] values = new double[myValues.length];
+        int[] next = Arrays.copyOf(pointers, minorCount);
+
+        for (int i = 0; i < majorCount; i++) {
+            for (int p = myPointers[i], limit = myPointers[i + 1]; p < limit; p++) {
+                int position = next[myIndices[p]]++;
+                indices[position] = i;
+                values[position] = myValues[p];
+            }
+        }
+
+        return new Compressed(pointers, indices, values);
+    }
+
+    /**
+     * The value at (major, minor), or 0.0 if not stored
+     */
+    final double valueAt(final int major, final int minor) {
+        int index = Arrays.binarySearch(myIndices, myPointers[major], myPointers[major + 1], minor);
+        return index >= 0 ? myValues[index] : PrimitiveMath.ZERO;
+    }
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.function.Supplier;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.matrix.decomposition.MatrixDecomposition;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * The Kronecker product [A]⊗[B] of a p x q matrix [A] and an r x s matrix [B] – a pr x qs matrix that is
+ * never materialised. Element (i,j) is A(i/r,j/s)*B(i%r,j%s).
+ * <p>
+ * Multiplication uses the identity ([A]⊗[B]) vec([X]) = vec([B][X][A]<sup>T</sup>), which is O(rq(p + s))
+ * per column instead of O(pqrs). Similarly {@link #decompose(Supplier)} only decomposes [A]
+ * and [B], and solves using ([A]⊗[B])<sup>-1</sup> = [A]<sup>-1</sup>⊗[B]<sup>-1</sup>. Transposing is
+ * O(1): ([A]⊗[B])<sup>T</sup> = [A]<sup>T</sup>⊗[B]<sup>T</sup>.
+ *
+ * @author apete
+ */
+public final class KroneckerStore<N extends Comparable<N>> extends FactoryStore<N> {
+
+    /**
+     * Solvers for the two (square) factors.
+     */
+    public static final class Factorisation<N extends Comparable<N>> {
+
+        private final KroneckerStore<N> myMatrix;
+        private final boolean mySolvable;
+        private final MatrixDecomposition.Solver<N> mySolverA;
+        private final MatrixDecomposition.Solver<N> mySolverB;
+
+        Factorisation(final KroneckerStore<N> matrix, final MatrixDecomposition.Solver<N> solverA, final MatrixDecomposition.Solver<N> solverB,
+                final boolean solvable) {
+            super();
+            myMatrix = matrix;
+            mySolverA = solverA;
+            mySolverB = solverB;
+            mySolvable = solvable;
+        }
+
+        /**
+         * With [Y] the (r x p) reshaped rhs column: [X] = [B]<sup>-1</sup>[Y][A]<sup>-T</sup>. All rhs columns
+         * are handled by 1 solve with each of the factors.
+         */
+        public MatrixStore<N> getSolution(final MatrixStore<N> rhs) {
+
+            if (!mySolvable) {
+                throw new ProgrammingError("Not solvable!");
+            }
+            if (rhs.countRows() != myMatrix.countRows()) {
+                ProgrammingError.throwForMultiplicationNotPossible();
+            }
+
+            int p = myMatrix.myA.getRowDim();
+            int r = myMatrix.myB.getRowDim();
+            int nbCols = rhs.getColDim();
+
+            PhysicalStore.Factory<N, ?> factory = myMatrix.physical();
+
+            PhysicalStore<N> reshaped = factory.make(r, p * nbCols);
+            for (int j = 0; j < nbCols; j++) {
+                for (int a = 0; a < p; a++) {
+                    for (int c = 0; c < r; c++) {
+                        reshaped.set(c, j * p + a, rhs.get(c + a * r, j));
+                    }
+                }
+            }
+
+            MatrixStore<N> solutionB = mySolverB.getSolution(reshaped);
+
+            PhysicalStore<N> transposed = factory.make(p, r * nbCols);
+            for (int j = 0; j < nbCols; j++) {
+                for (int a = 0; a < p; a++) {
+                    for (int c = 0; c < r; c++) {
+                        transposed.set(a, j * r + c, solutionB.get(c, j * p + a));
+                    }
+                }
+            }
+
+            MatrixStore<N> solutionA = mySolverA.getSolution(transposed);
+
+            PhysicalStore<N> retVal = factory.make(myMatrix.countColumns(), nbCols);
+            for (int j = 0; j < nbCols; j++) {
+                for (int a = 0; a < p; a++) {
+                    for (int c = 0; c < r; c++) {
+                        retVal.set(c + a * r, j, solutionA.get(a, j * r + c));
+                    }
+                }
+            }
+            return retVal;
+        }
+
+        public boolean isSolvable() {
+            return mySolvable;
+        }
+
+    }
+
+    public static <N extends Comparable<N>> KroneckerStore<N> of(final MatrixStore<N> left, final MatrixStore<N> right) {
+        return new KroneckerStore<>(left, right);
+    }
+
+    private final MatrixStore<N> myA;
+    private final MatrixStore<N> myB;
+
+    KroneckerStore(final MatrixStore<N> left, final MatrixStore<N> right) {
+
+        super(left.physical(), left.countRows() * right.countRows(), left.countColumns() * right.countColumns());
+
+        myA = left;
+        myB = right;
+    }
+
+    /**
+     * Decomposes [A] and [B], using instances from the supplied solver factory, e.g.
+     * <code>LU.R064::make</code>. Both must be square.
+     */
+    public Factorisation<N> decompose(final Supplier<? extends MatrixDecomposition.Solver<N>> factory) {
+
+        if (myA.countRows() != myA.countColumns() || myB.countRows() != myB.countColumns()) {
+            throw new ProgrammingError("The factors must be square!");
+        }
+
+        MatrixDecomposition.Solver<N> solverA = factory.get();
+        MatrixDecomposition.Solver<N> solverB = factory.get();
+
+        boolean solvable = solverA.compute(myA);
+        solvable &= solverB.compute(myB);
+
+        return new Factorisation<>(this, solverA, solverB, solvable);
+    }
+
+    @Override
+    public double doubleValue(final int row, final int col) {
+        int r = myB.getRowDim();
+        int s = myB.getColDim();
+        return myA.doubleValue(row / r, col / s) * myB.doubleValue(row % r, col % s);
+    }
+
+    @Override
+    public N get(final int row, final int col) {
+        return this.toScalar(row, col).get();
+    }
+
+    public MatrixStore<N> getLeft() {
+        return myA;
+    }
+
+    public MatrixStore<N> getRight() {
+        return myB;
+    }
+
+    /**
+     * With [X] the (s x q) reshaped column of [right]: [B][X][A]<sup>T</sup>. All columns are handled by 1
+     * multiplication with each of the factors.
+     */
+    @Override
+    public void multiply(final Access1D<N> right, final TransformableRegion<N> target) {
+
+        int p = myA.getRowDim();
+        int q = myA.getColDim();
+        int r = myB.getRowDim();
+        int s = myB.getColDim();
+        int nbCols = Math.toIntExact(right.count() / this.countColumns());
+
+        PhysicalStore.Factory<N, ?> factory = this.physical();
+
+        PhysicalStore<N> reshaped = factory.make(s, q * nbCols);
+        for (int j = 0; j < nbCols; j++) {
+            for (int b = 0; b < q; b++) {
+                for (int a = 0; a < s; a++) {
+                    reshaped.set(a, j * q + b, right.get(a + b * s + j * (long) s * q));
+                }
+            }
+        }
+
+        MatrixStore<N> productB = myB.multiply(reshaped);
+
+        PhysicalStore<N> transposed = factory.make(q, r * nbCols);
+        for (int j = 0; j < nbCols; j++) {
+            for (int b = 0; b < q; b++) {
+                for (int c = 0; c < r; c++) {
+                    transposed.set(b, j * r + c, productB.get(c, j * q + b));
+                }
+            }
+        }
+
+        MatrixStore<N> productA = myA.multiply(transposed);
+
+        for (int j = 0; j < nbCols; j++) {
+            for (int a = 0; a < p; a++) {
+                for (int c = 0; c < r; c++) {
+                    target.set(c + a * r, j, productA.get(a, j * r + c));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void supplyTo(final TransformableRegion<N> receiver) {
+
+        int r = myB.getRowDim();
+        int s = myB.getColDim();
+
+        for (int j = 0, nbCols = myA.getColDim(); j < nbCols; j++) {
+            for (int i = 0, nbRows = myA.getRowDim(); i < nbRows; i++) {
+                receiver.regionByOffsets(i * r, j * s).regionByLimits(r, s).fillMatching(myB.multiply(myA.get(i, j)));
+            }
+        }
+    }
+
+    @Override
+    public Scalar<N> toScalar(final long row, final long col) {
+        int r = myB.getRowDim();
+        int s = myB.getColDim();
+        return myA.toScalar(row / r, col / s).multiply(myB.get(row % r, col % s));
+    }
+
+    @Override
+    public KroneckerStore<N> transpose() {
+        return new KroneckerStore<>(myA.transpose(), myB.transpose());
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.decomposition.MatrixDecomposition;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+
+/**
+ * A diagonal plus low-rank matrix, [D] + [B][F][B]<sup>T</sup>, where [D] is n x n diagonal, [B] n x k and
+ * [F] k x k with k &lt;&lt; n – typically a factor model covariance matrix. Only [D], [B] and [B][F] are
+ * stored, O(nk) memory, and:
+ * <ul>
+ * <li>Multiplying by an n x m matrix is O(nkm) – [D][X] + [B][F]([B]<sup>T</sup>[X]).
+ * <li>{@link #getSolution(Access2D)} uses the Woodbury identity. It requires [D] to be nonsingular and
+ * decomposes a k x k matrix (once), then each solve is O(nkm).
+ * <li>{@link #transpose()} is O(1).
+ * </ul>
+ * It can be used (as the [Q] matrix) with the convex solvers. They work with a materialised (dense) copy,
+ * which {@link #supplyTo(TransformableRegion)} produces in O(n²k).
+ *
+ * @author apete
+ */
+public final class LowRankStore extends FactoryStore<Double> {
+
+    /**
+     * [D] + [B][B]<sup>T</sup>
+     */
+    public static LowRankStore of(final Access1D<?> diagonal, final Access2D<?> factors) {
+        Primitive64Store mtrxB = Primitive64Store.FACTORY.copy(factors);
+        return LowRankStore.of(diagonal, mtrxB, mtrxB);
+    }
+
+    /**
+     * [D] + [B][F][B]<sup>T</sup>
+     */
+    public static LowRankStore of(final Access1D<?> diagonal, final Access2D<?> factors, final Access2D<?> covariances) {
+
+        Primitive64Store mtrxB = Primitive64Store.FACTORY.copy(factors);
+
+        if (covariances.getRowDim() != mtrxB.getColDim() || covariances.getColDim() != mtrxB.getColDim()) {
+            ProgrammingError.throwForMultiplicationNotPossible();
+        }
+
+        Primitive64Store mtrxBF = Primitive64Store.FACTORY.make(mtrxB.getRowDim(), mtrxB.getColDim());
+        mtrxBF.fillByMultiplying(mtrxB, Primitive64Store.FACTORY.copy(covariances));
+
+        return LowRankStore.of(diagonal, mtrxB, mtrxBF);
+    }
+
+    private static LowRankStore of(final Access1D<?> diagonal, final Primitive64Store left, final Primitive64Store right) {
+
+        if (diagonal.count() != left.countRows()) {
+            throw new ProgrammingError("The diagonal and the factors must have the same number of rows!");
+        }
+
+        return new LowRankStore(diagonal.toRawCopy1D(), left, right);
+    }
+
+    private transient MatrixDecomposition.Solver<Double> myCapacitance = null;
+    private final double[] myDiagonal;
+    /**
+     * [B], n x k
+     */
+    private final Primitive64Store myFactors;
+    /**
+     * [B][F], n x k – this matrix is [D] + [BF][B]<sup>T</sup>
+     */
+    private final Primitive64Store myScaled;
+
+    LowRankStore(final double[] diagonal, final Primitive64Store factors, final Primitive64Store scaled) {
+
+        super(Primitive64Store.FACTORY, diagonal.length, diagonal.length);
+
+        myDiagonal = diagonal;
+        myFactors = factors;
+        myScaled = scaled;
+    }
+
+    @Override
+    public double doubleValue(final int row, final int col) {
+
+        int dim = myDiagonal.length;
+        double[] scaled = myScaled.data;
+        double[] factors = myFactors.data;
+
+        double retVal = row == col ? myDiagonal[row] : PrimitiveMath.ZERO;
+        for (int k = 0, rank = myFactors.getColDim(); k < rank; k++) {
+            retVal += scaled[row + k * dim] * factors[col + k * dim];
+        }
+        return retVal;
+    }
+
+    @Override
+    public Double get(final int row, final int col) {
+        return Double.valueOf(this.doubleValue(row, col));
+    }
+
+    public int getRank() {
+        return myFactors.getColDim();
+    }
+
+    /**
+     * Solves [this][X] = [rhs] using the Woodbury identity:
+     * ([D] + [BF][B]<sup>T</sup>)<sup>-1</sup> = [D]<sup>-1</sup> - [D]<sup>-1</sup>[BF]([I] +
+     * [B]<sup>T</sup>[D]<sup>-1</sup>[BF])<sup>-1</sup>[B]<sup>T</sup>[D]<sup>-1</sup>
+     *
+     * @throws ProgrammingError if not {@link #isSolvable()}
+     */
+    public MatrixStore<Double> getSolution(final Access2D<?> rhs) {
+
+        MatrixDecomposition.Solver<Double> capacitance = this.getCapacitance();
+        if (capacitance == null) {
+            throw new ProgrammingError("Not solvable!");
+        }
+        if (rhs.getRowDim() != myDiagonal.length) {
+            ProgrammingError.throwForMultiplicationNotPossible();
+        }
+
+        int dim = myDiagonal.length;
+        int nbCols = rhs.getColDim();
+
+        // [Y] = [D]^-1 [rhs]
+        Primitive64Store retVal = Primitive64Store.FACTORY.copy(rhs);
+        this.divideByDiagonal(retVal.data, nbCols);
+
+        // [S] = [C]^-1 [B]^T [Y]
+        Primitive64Store tmp = Primitive64Store.FACTORY.make(this.getRank(), nbCols);
+        tmp.fillByMultiplying(myFactors.transpose(), retVal);
+        MatrixStore<Double> solution = capacitance.getSolution(tmp);
+
+        // [X] = [Y] - [D]^-1 [BF] [S]
+        Primitive64Store correction = Primitive64Store.FACTORY.make(dim, nbCols);
+        correction.fillByMultiplying(myScaled, solution);
+        this.divideByDiagonal(correction.data, nbCols);
+
+        for (int i = 0; i < retVal.data.length; i++) {
+            retVal.data[i] -= correction.data[i];
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return true if the diagonal is nonzero and the (k x k) capacitance matrix is nonsingular
+     */
+    public boolean isSolvable() {
+        return this.getCapacitance() != null;
+    }
+
+    @Override
+    public void multiply(final Access1D<Double> right, final TransformableRegion<Double> target) {
+
+        int dim = myDiagonal.length;
+        int nbCols = Math.toIntExact(right.count() / dim);
+
+        Primitive64Store tmp = Primitive64Store.FACTORY.make(this.getRank(), nbCols);
+        tmp.fillByMultiplying(myFactors.transpose(), right);
+
+        target.fillByMultiplying(myScaled, tmp);
+
+        for (int j = 0; j < nbCols; j++) {
+            for (int i = 0; i < dim; i++) {
+                target.add(i, j, myDiagonal[i] * right.doubleValue(i + j * (long) dim));
+            }
+        }
+    }
+
+    @Override
+    public void supplyTo(final TransformableRegion<Double> receiver) {
+
+        receiver.fillByMultiplying(myScaled, myFactors.transpose());
+
+        for (int i = 0; i < myDiagonal.length; i++) {
+            receiver.add(i, i, myDiagonal[i]);
+        }
+    }
+
+    @Override
+    public PrimitiveScalar toScalar(final long row, final long col) {
+        return PrimitiveScalar.of(this.doubleValue(Math.toIntExact(row), Math.toIntExact(col)));
+    }
+
+    /**
+     * ([D] + [BF][B]<sup>T</sup>)<sup>T</sup> = [D] + [B][BF]<sup>T</sup>
+     */
+    @Override
+    public LowRankStore transpose() {
+        return new LowRankStore(myDiagonal, myScaled, myFactors);
+    }
+
+    private void divideByDiagonal(final double[] data, final int nbCols) {
+        int dim = myDiagonal.length;
+        for (int j = 0; j < nbCols; j++) {
+            for (int i = 0; i < dim; i++) {
+                data[i + j * dim] /= myDiagonal[i];
+            }
+        }
+    }
+
+    /**
+     * Lazily decomposes the capacitance matrix [I] + [B]<sup>T</sup>[D]<sup>-1</sup>[BF].
+     *
+     * @return null if not solvable
+     */
+    private synchronized MatrixDecomposition.Solver<Double> getCapacitance() {
+
+        if (myCapacitance == null) {
+
+            for (int i = 0; i < myDiagonal.length; i++) {
+                if (myDiagonal[i] == PrimitiveMath.ZERO) {
+                    return null;
+                }
+            }
+
+            int rank = this.getRank();
+
+            Primitive64Store scaled = myScaled.copy();
+            this.divideByDiagonal(scaled.data, rank);
+
+            Primitive64Store capacitance = Primitive64Store.FACTORY.make(rank, rank);
+            capacitance.fillByMultiplying(myFactors.transpose(), scaled);
+            for (int k = 0; k < rank; k++) {
+                capacitance.add(k, k, PrimitiveMath.ONE);
+            }
+
+            MatrixDecomposition.Solver<Double> solver = LU.R064.make(capacitance);
+            if (solver.compute(capacitance)) {
+                myCapacitance = solver;
+            }
+        }
+
+        return myCapacitance;
+    }
+
+}
@@ -47,9 +47,9 @@ final class LowerHessenbergStore<N extends Comparable<N>> extends ShadingStore<N
     @Override
     public int firstInColumn(final int col) {
         if (col == 0) {
-            return 0;
+            return super.firstInColumn(col);
         }
-        return col - 1;
+        return Math.max(col - 1, super.firstInColumn(col));
     }
 
     @Override
@@ -62,7 +62,7 @@ final class LowerHessenbergStore<N extends Comparable<N>> extends ShadingStore<N
 
     @Override
     public int limitOfRow(final int row) {
-        return Math.min(row + 2, this.getColDim());
+        return Math.min(row + 2, super.limitOfRow(row));
     }
 
     @Override
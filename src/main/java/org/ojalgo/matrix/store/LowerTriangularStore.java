@@ -49,7 +49,18 @@ final class LowerTriangularStore<N extends Comparable<N>> extends ShadingStore<N
 
     @Override
     public int firstInColumn(final int col) {
-        return col;
+        if (myUnitDiagonal) {
+            return col;
+        }
+        return Math.max(col, super.firstInColumn(col));
+    }
+
+    @Override
+    public int firstInRow(final int row) {
+        if (myUnitDiagonal) {
+            return Math.min(row, super.firstInRow(row));
+        }
+        return super.firstInRow(row);
     }
 
     @Override
@@ -64,9 +75,20 @@ final class LowerTriangularStore<N extends Comparable<N>> extends ShadingStore<N
         }
     }
 
+    @Override
+    public int limitOfColumn(final int col) {
+        if (myUnitDiagonal) {
+            return Math.min(Math.max(col + 1, super.limitOfColumn(col)), this.getRowDim());
+        }
+        return super.limitOfColumn(col);
+    }
+
     @Override
     public int limitOfRow(final int row) {
-        return Math.min(row + 1, this.getColDim());
+        if (myUnitDiagonal) {
+            return Math.min(row + 1, this.getColDim());
+        }
+        return Math.min(row + 1, super.limitOfRow(row));
     }
 
     @Override
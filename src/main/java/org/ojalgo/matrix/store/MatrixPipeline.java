@@ -21,6 +21,12 @@
  */
 package org.ojalgo.matrix.store;
 
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.aggregator.Aggregator;
@@ -28,9 +34,16 @@ import org.ojalgo.structure.Access1D;
 import org.ojalgo.structure.Access2D;
 import org.ojalgo.structure.Transformation2D;
 
+/**
+ * The stages of an {@link ElementsSupplier} pipeline. Consecutive elementwise stages (unary, matching binary
+ * and row/column broadcasts) are fused in to one {@link Fused} stage that does one pass over the receiver –
+ * in parallel when the number of elements exceeds {@link #THRESHOLD}.
+ *
+ * @author apete
+ */
 abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSupplier<N> {
 
-    static final class BinaryOperatorLeft<N extends Comparable<N>> extends MatrixPipeline<N> {
+    static final class BinaryOperatorLeft<N extends Comparable<N>> extends ElementwiseStage<N> {
 
         private final Access2D<N> myLeft;
         private final BinaryFunction<N> myOperator;
@@ -42,13 +55,22 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
         }
 
         @Override
-        public void supplyTo(final TransformableRegion<N> receiver) {
-            this.getContext().supplyTo(receiver);
+        double invoke(final long row, final long col, final double value) {
+            return myOperator.invoke(myLeft.doubleValue(row, col), value);
+        }
+
+        @Override
+        N invoke(final long row, final long col, final N value) {
+            return myOperator.invoke(myLeft.get(row, col), value);
+        }
+
+        @Override
+        void modify(final TransformableRegion<N> receiver) {
             receiver.modifyMatching(myLeft, myOperator);
         }
     }
 
-    static final class BinaryOperatorRight<N extends Comparable<N>> extends MatrixPipeline<N> {
+    static final class BinaryOperatorRight<N extends Comparable<N>> extends ElementwiseStage<N> {
 
         private final BinaryFunction<N> myOperator;
         private final Access2D<N> myRight;
@@ -60,13 +82,22 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
         }
 
         @Override
-        public void supplyTo(final TransformableRegion<N> receiver) {
-            this.getContext().supplyTo(receiver);
+        double invoke(final long row, final long col, final double value) {
+            return myOperator.invoke(value, myRight.doubleValue(row, col));
+        }
+
+        @Override
+        N invoke(final long row, final long col, final N value) {
+            return myOperator.invoke(value, myRight.get(row, col));
+        }
+
+        @Override
+        void modify(final TransformableRegion<N> receiver) {
             receiver.modifyMatching(myOperator, myRight);
         }
     }
 
-    static final class ColumnsModifier<N extends Comparable<N>> extends MatrixPipeline<N> {
+    static final class ColumnsModifier<N extends Comparable<N>> extends ElementwiseStage<N> {
 
         private final BinaryFunction<N> myFunction;
         private final Access1D<N> myRightArgumnts;
@@ -78,9 +109,17 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
         }
 
         @Override
-        public void supplyTo(final TransformableRegion<N> receiver) {
+        double invoke(final long row, final long col, final double value) {
+            return col < myRightArgumnts.count() ? myFunction.invoke(value, myRightArgumnts.doubleValue(col)) : value;
+        }
 
-            this.getContext().supplyTo(receiver);
+        @Override
+        N invoke(final long row, final long col, final N value) {
+            return col < myRightArgumnts.count() ? myFunction.invoke(value, myRightArgumnts.get(col)) : value;
+        }
+
+        @Override
+        void modify(final TransformableRegion<N> receiver) {
 
             UnaryFunction<N> modifier;
 
@@ -112,6 +151,121 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
 
     }
 
+    /**
+     * A stage that (only) modifies each element individually, and can therefore be fused with its
+     * neighbours.
+     */
+    abstract static class ElementwiseStage<N extends Comparable<N>> extends MatrixPipeline<N> {
+
+        ElementwiseStage(final ElementsSupplier<N> context) {
+            super(context);
+        }
+
+        @Override
+        public final void supplyTo(final TransformableRegion<N> receiver) {
+            this.getContext().supplyTo(receiver);
+            this.modify(receiver);
+        }
+
+        abstract double invoke(long row, long col, double value);
+
+        abstract N invoke(long row, long col, N value);
+
+        /**
+         * Modify the receiver (in a separate pass) as defined by this stage only.
+         */
+        abstract void modify(TransformableRegion<N> receiver);
+
+    }
+
+    /**
+     * Any number of consecutive {@link ElementwiseStage}:s executed as one pass over the elements.
+     */
+    static final class Fused<N extends Comparable<N>> extends MatrixPipeline<N> {
+
+        private final ElementwiseStage<N>[] myStages;
+
+        Fused(final ElementsSupplier<N> context, final ElementwiseStage<N>[] stages) {
+            super(context);
+            myStages = stages;
+        }
+
+        @Override
+        public void supplyTo(final TransformableRegion<N> receiver) {
+
+            ElementsSupplier<N> context = this.getContext();
+
+            if (receiver instanceof SparseStore<?>) {
+                // Don't visit every element of a sparse receiver
+                context.supplyTo(receiver);
+                for (int s = 0; s < myStages.length; s++) {
+                    myStages[s].modify(receiver);
+                }
+                return;
+            }
+
+            Access2D<N> source;
+            if (context instanceof PhysicalStore<?>) {
+                // Read directly from the source, rather than first copying to the receiver
+                source = (PhysicalStore<N>) context;
+            } else {
+                context.supplyTo(receiver);
+                source = receiver;
+            }
+
+            int nbRows = Math.toIntExact(receiver.countRows());
+            int nbCols = Math.toIntExact(receiver.countColumns());
+
+            if (nbRows == 0 || nbCols == 0) {
+                return;
+            }
+
+            boolean primitive = source.get(0, 0) instanceof Double;
+
+            if (receiver instanceof PhysicalStore<?> && receiver.count() > THRESHOLD) {
+                DIVIDER.parallelism(PARALLELISM).threshold(Math.max(1, THRESHOLD / nbRows)).divide(0, nbCols,
+                        (first, limit) -> this.modify(source, receiver, nbRows, first, limit, primitive));
+            } else {
+                this.modify(source, receiver, nbRows, 0, nbCols, primitive);
+            }
+        }
+
+        private void modify(final Access2D<N> source, final TransformableRegion<N> receiver, final int nbRows, final int first, final int limit,
+                final boolean primitive) {
+
+            ElementwiseStage<N>[] stages = myStages;
+
+            if (primitive) {
+                for (long j = first; j < limit; j++) {
+                    for (long i = 0L; i < nbRows; i++) {
+                        double value = source.doubleValue(i, j);
+                        for (int s = 0; s < stages.length; s++) {
+                            value = stages[s].invoke(i, j, value);
+                        }
+                        receiver.set(i, j, value);
+                    }
+                }
+            } else {
+                for (long j = first; j < limit; j++) {
+                    for (long i = 0L; i < nbRows; i++) {
+                        N value = source.get(i, j);
+                        for (int s = 0; s < stages.length; s++) {
+                            value = stages[s].invoke(i, j, value);
+                        }
+                        receiver.set(i, j, value);
+                    }
+                }
+            }
+        }
+
+        Fused<N> append(final ElementwiseStage<N> stage) {
+            ElementwiseStage<N>[] stages = Arrays.copyOf(myStages, myStages.length + 1);
+            stages[myStages.length] = stage;
+            return new Fused<>(this.getContext(), stages);
+        }
+
+    }
+
     static final class Multiplication<N extends Comparable<N>> extends MatrixPipeline<N> {
 
         private final Access1D<N> myLeft;
@@ -132,7 +286,7 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
 
     }
 
-    static final class RowsModifier<N extends Comparable<N>> extends MatrixPipeline<N> {
+    static final class RowsModifier<N extends Comparable<N>> extends ElementwiseStage<N> {
 
         private final BinaryFunction<N> myFunction;
         private final Access1D<N> myRightArgumnts;
@@ -144,9 +298,17 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
         }
 
         @Override
-        public void supplyTo(final TransformableRegion<N> receiver) {
+        double invoke(final long row, final long col, final double value) {
+            return row < myRightArgumnts.count() ? myFunction.invoke(value, myRightArgumnts.doubleValue(row)) : value;
+        }
 
-            this.getContext().supplyTo(receiver);
+        @Override
+        N invoke(final long row, final long col, final N value) {
+            return row < myRightArgumnts.count() ? myFunction.invoke(value, myRightArgumnts.get(row)) : value;
+        }
+
+        @Override
+        void modify(final TransformableRegion<N> receiver) {
 
             UnaryFunction<N> modifier;
 
@@ -210,7 +372,7 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
         }
     }
 
-    static final class UnaryOperator<N extends Comparable<N>> extends MatrixPipeline<N> {
+    static final class UnaryOperator<N extends Comparable<N>> extends ElementwiseStage<N> {
 
         private final UnaryFunction<N> myOperator;
 
@@ -220,12 +382,31 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
         }
 
         @Override
-        public void supplyTo(final TransformableRegion<N> receiver) {
-            this.getContext().supplyTo(receiver);
+        double invoke(final long row, final long col, final double value) {
+            return myOperator.invoke(value);
+        }
+
+        @Override
+        N invoke(final long row, final long col, final N value) {
+            return myOperator.invoke(value);
+        }
+
+        @Override
+        void modify(final TransformableRegion<N> receiver) {
             receiver.modifyAll(myOperator);
         }
     }
 
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    public static int THRESHOLD = 65_536;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    @SafeVarargs
+    private static <N extends Comparable<N>> ElementwiseStage<N>[] stages(final ElementwiseStage<N>... stages) {
+        return stages;
+    }
+
     private final long myColumnsCount;
     private final ElementsSupplier<N> myContext;
     private final long myRowsCount;
@@ -249,6 +430,31 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
         return myRowsCount;
     }
 
+    @Override
+    public ElementsSupplier<N> onAll(final UnaryFunction<N> operator) {
+        return this.fuse(new UnaryOperator<>(this, operator));
+    }
+
+    @Override
+    public ElementsSupplier<N> onColumns(final BinaryFunction<N> operator, final Access1D<N> right) {
+        return this.fuse(new ColumnsModifier<>(this, operator, right));
+    }
+
+    @Override
+    public ElementsSupplier<N> onMatching(final Access2D<N> left, final BinaryFunction<N> operator) {
+        return this.fuse(new BinaryOperatorLeft<>(left, operator, this));
+    }
+
+    @Override
+    public ElementsSupplier<N> onMatching(final BinaryFunction<N> operator, final Access2D<N> right) {
+        return this.fuse(new BinaryOperatorRight<>(this, operator, right));
+    }
+
+    @Override
+    public ElementsSupplier<N> onRows(final BinaryFunction<N> operator, final Access1D<N> right) {
+        return this.fuse(new RowsModifier<>(this, operator, right));
+    }
+
     @Override
     public final String toString() {
         return myRowsCount + "x" + myColumnsCount + " " + this.getClass();
@@ -258,4 +464,14 @@ abstract class MatrixPipeline<N extends Comparable<N>> implements ElementsSuppli
         return myContext;
     }
 
+    private ElementsSupplier<N> fuse(final ElementwiseStage<N> stage) {
+        if (this instanceof Fused) {
+            return ((Fused<N>) this).append(stage);
+        }
+        if (this instanceof ElementwiseStage) {
+            return new Fused<>(myContext, MatrixPipeline.stages((ElementwiseStage<N>) this, stage));
+        }
+        return stage;
+    }
+
 }
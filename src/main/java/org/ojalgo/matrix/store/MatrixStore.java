@@ -93,6 +93,13 @@ public interface MatrixStore<N extends Comparable<N>> extends Matrix2D<N, Matrix
         return this.onMatching(this.physical().function().add(), addend).collect(this.physical());
     }
 
+    /**
+     * [target] = [this] + [addend], without allocating anything.
+     */
+    default void add(final MatrixStore<N> addend, final TransformableRegion<N> target) {
+        target.fillMatching(this, this.physical().function().add(), addend);
+    }
+
     @Override
     default MatrixStore<N> add(final N scalarAddend) {
         return this.onAll(this.physical().function().add().second(scalarAddend));
@@ -411,6 +418,13 @@ public interface MatrixStore<N extends Comparable<N>> extends Matrix2D<N, Matrix
         return this.multiply(this.physical().scalar().cast(scalarMultiplicand));
     }
 
+    /**
+     * [target] = [this] * scalarMultiplicand, without allocating anything.
+     */
+    default void multiply(final double scalarMultiplicand, final TransformableRegion<N> target) {
+        this.multiply(this.physical().scalar().cast(scalarMultiplicand), target);
+    }
+
     @Override
     default MatrixStore<N> multiply(final MatrixStore<N> right) {
 
@@ -429,6 +443,13 @@ public interface MatrixStore<N extends Comparable<N>> extends Matrix2D<N, Matrix
         return this.onAll(this.physical().function().multiply().second(scalarMultiplicand));
     }
 
+    /**
+     * [target] = [this] * scalarMultiplicand, without allocating anything.
+     */
+    default void multiply(final N scalarMultiplicand, final TransformableRegion<N> target) {
+        target.fillMatching(this.physical().function().multiply().second(scalarMultiplicand), this);
+    }
+
     /**
      * Assumes [leftAndRight] is a vector and will calulate [leftAndRight]<sup>H</sup>[this][leftAndRight]
      *
@@ -454,6 +475,13 @@ public interface MatrixStore<N extends Comparable<N>> extends Matrix2D<N, Matrix
         return this.onAll(this.physical().function().negate());
     }
 
+    /**
+     * [target] = -[this], without allocating anything.
+     */
+    default void negate(final TransformableRegion<N> target) {
+        target.fillMatching(this.physical().function().negate(), this);
+    }
+
     @Override
     default double norm() {
 
@@ -752,6 +780,13 @@ public interface MatrixStore<N extends Comparable<N>> extends Matrix2D<N, Matrix
         return this.onMatching(this.physical().function().subtract(), subtrahend).collect(this.physical());
     }
 
+    /**
+     * [target] = [this] - [subtrahend], without allocating anything.
+     */
+    default void subtract(final MatrixStore<N> subtrahend, final TransformableRegion<N> target) {
+        target.fillMatching(this, this.physical().function().subtract(), subtrahend);
+    }
+
     @Override
     default MatrixStore<N> subtract(final N scalarSubtrahend) {
         return this.onAll(this.physical().function().subtract().second(scalarSubtrahend));
@@ -795,6 +830,14 @@ public interface MatrixStore<N extends Comparable<N>> extends Matrix2D<N, Matrix
         return new TransposedStore<>(this);
     }
 
+    /**
+     * [target] = [this]<sup>T</sup> – the same as <code>transpose().copy()</code> but without allocating a
+     * new physical store.
+     */
+    default void transpose(final TransformableRegion<N> target) {
+        target.fillMatching(this.transpose());
+    }
+
     @Override
     default MatrixStore<N> triangular(final boolean upper, final boolean assumeOne) {
         if (upper) {
@@ -0,0 +1,1063 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.array.Array2D;
+import org.ojalgo.array.BasicArray;
+import org.ojalgo.array.BufferArray;
+import org.ojalgo.array.OffHeapArray;
+import org.ojalgo.array.operation.ApplyCholesky;
+import org.ojalgo.array.operation.ApplyLDL;
+import org.ojalgo.array.operation.ApplyLU;
+import org.ojalgo.array.operation.SubstituteBackwards;
+import org.ojalgo.array.operation.SubstituteForwards;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.matrix.decomposition.DecompositionStore;
+import org.ojalgo.matrix.operation.MultiplyBoth;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.Structure2D;
+import org.ojalgo.type.NumberDefinition;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * A {@linkplain double} implementation of {@linkplain PhysicalStore} with the elements stored off heap (in
+ * native memory) rather than in a Java array. Intended for very large matrices, that you don't want to
+ * account for when sizing the heap or have the garbage collector deal with.
+ * <p>
+ * The memory is freed when the store is garbage collected, or immediately when {@link #close()} is called.
+ * Closing more than once has no effect, but any other use of a closed store throws an
+ * {@link IllegalStateException}.
+ * <p>
+ * Alternatively the elements can be stored in a memory mapped file, see {@link #map(File, long, long)} and
+ * {@link #newMapped(File)}.
+ * <p>
+ * It is also a {@linkplain DecompositionStore}. To have the in-place decompositions work directly on off heap
+ * memory, create them using for instance {@code LU.newR064(OffHeapStore.FACTORY)}. The Schur form and the
+ * (complete) tridiagonalisation, used by the eigenvalue decompositions, are not implemented on the off heap
+ * data. They temporarily copy the matrix to the heap, and are refused for matrices larger than
+ * {@link #HEAP_COPY_LIMIT}.
+ *
+ * @author apete
+ */
+public final class OffHeapStore implements PhysicalStore<Double>, DecompositionStore<Double>, AutoCloseable {
+
+    static final class Factory extends PrimitiveFactory<OffHeapStore> {
+
+        private final LongFunction<BasicArray<Double>> myAllocator;
+        private final boolean myZeroed;
+
+        /**
+         * @param allocator Allocates the elements (the array) of a new store
+         * @param zeroed Are the newly allocated elements already zero, or do they have to be reset?
+         */
+        Factory(final LongFunction<BasicArray<Double>> allocator, final boolean zeroed) {
+            super();
+            myAllocator = allocator;
+            myZeroed = zeroed;
+        }
+
+        @Override
+        public OffHeapStore columns(final Access1D<?>... source) {
+
+            int nbRows = Math.toIntExact(source[0].count());
+            int nbCols = source.length;
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int j = 0; j < nbCols; j++) {
+                Access1D<?> column = source[j];
+                for (int i = 0; i < nbRows; i++) {
+                    retVal.set(i, j, column.doubleValue(i));
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore columns(final Comparable<?>[]... source) {
+
+            int nbRows = source[0].length;
+            int nbCols = source.length;
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int j = 0; j < nbCols; j++) {
+                Comparable<?>[] column = source[j];
+                for (int i = 0; i < nbRows; i++) {
+                    retVal.set(i, j, NumberDefinition.doubleValue(column[i]));
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore columns(final double[]... source) {
+
+            int nbRows = source[0].length;
+            int nbCols = source.length;
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int j = 0; j < nbCols; j++) {
+                double[] column = source[j];
+                for (int i = 0; i < nbRows; i++) {
+                    retVal.set(i, j, column[i]);
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore columns(final List<? extends Comparable<?>>... source) {
+
+            int nbRows = source[0].size();
+            int nbCols = source.length;
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int j = 0; j < nbCols; j++) {
+                List<? extends Comparable<?>> column = source[j];
+                for (int i = 0; i < nbRows; i++) {
+                    retVal.set(i, j, NumberDefinition.doubleValue(column.get(i)));
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore copy(final Access2D<?> source) {
+
+            int nbRows = Math.toIntExact(source.countRows());
+            int nbCols = Math.toIntExact(source.countColumns());
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int j = 0; j < nbCols; j++) {
+                for (int i = 0; i < nbRows; i++) {
+                    retVal.set(i, j, source.doubleValue(i, j));
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public MathType getMathType() {
+            return MathType.R064;
+        }
+
+        @Override
+        public OffHeapStore make(final long rows, final long columns) {
+
+            OffHeapStore retVal = this.allocate(rows, columns);
+
+            if (!myZeroed) {
+                retVal.myArray.reset();
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore rows(final Access1D<?>... source) {
+
+            int nbRows = source.length;
+            int nbCols = Math.toIntExact(source[0].count());
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int i = 0; i < nbRows; i++) {
+                Access1D<?> row = source[i];
+                for (int j = 0; j < nbCols; j++) {
+                    retVal.set(i, j, row.doubleValue(j));
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore rows(final Comparable<?>[]... source) {
+
+            int nbRows = source.length;
+            int nbCols = source[0].length;
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int i = 0; i < nbRows; i++) {
+                Comparable<?>[] row = source[i];
+                for (int j = 0; j < nbCols; j++) {
+                    retVal.set(i, j, NumberDefinition.doubleValue(row[j]));
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore rows(final double[]... source) {
+
+            int nbRows = source.length;
+            int nbCols = source[0].length;
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int i = 0; i < nbRows; i++) {
+                double[] row = source[i];
+                for (int j = 0; j < nbCols; j++) {
+                    retVal.set(i, j, row[j]);
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore rows(final List<? extends Comparable<?>>... source) {
+
+            int nbRows = source.length;
+            int nbCols = source[0].size();
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int i = 0; i < nbRows; i++) {
+                List<? extends Comparable<?>> row = source[i];
+                for (int j = 0; j < nbCols; j++) {
+                    retVal.set(i, j, NumberDefinition.doubleValue(row.get(j)));
+                }
+            }
+
+            return retVal;
+        }
+
+        @Override
+        public OffHeapStore transpose(final Access2D<?> source) {
+
+            int nbRows = Math.toIntExact(source.countColumns());
+            int nbCols = Math.toIntExact(source.countRows());
+
+            OffHeapStore retVal = this.allocate(nbRows, nbCols);
+
+            for (int j = 0; j < nbCols; j++) {
+                for (int i = 0; i < nbRows; i++) {
+                    retVal.set(i, j, source.doubleValue(j, i));
+                }
+            }
+
+            return retVal;
+        }
+
+        /**
+         * The elements are not initialised
+         */
+        OffHeapStore allocate(final long rows, final long columns) {
+            return new OffHeapStore(this, myAllocator.apply(rows * columns), rows, columns);
+        }
+
+    }
+
+    public static final PhysicalStore.Factory<Double, OffHeapStore> FACTORY = new Factory(OffHeapArray.R064::make, false);
+
+    /**
+     * The maximum number of elements for which {@link #computeInPlaceSchur(PhysicalStore, boolean)} and
+     * {@link #tred2(BasicArray, BasicArray, boolean)} are allowed to (temporarily) copy the matrix to the heap.
+     * Larger matrices throw an {@link UnsupportedOperationException} rather than silently allocating that
+     * much heap memory.
+     */
+    public static long HEAP_COPY_LIMIT = 1L << 24;
+
+    /**
+     * Map a file to a matrix store. The elements are stored in column-major order, as 8-byte doubles, and
+     * nothing else – there is no header. Mapping an existing file (again) is instant, regardless of its size.
+     * Nothing is read or deserialised – the operating system pages the elements in, and out, as they are
+     * accessed. If the file does not exist, or is too short, it is created/extended with zeros.
+     * <p>
+     * Matrices derived from the returned store (products and such) are backed by temporary files in the same
+     * directory, see {@link #newMapped(File)}.
+     *
+     * @param file The file to map
+     * @param rows The number of rows
+     * @param columns The number of columns
+     */
+    public static OffHeapStore map(final File file, final long rows, final long columns) {
+        Factory factory = OffHeapStore.mapped(file.getAbsoluteFile().getParentFile());
+        return new OffHeapStore(factory, BufferArray.R064.newMapped(file).map(rows * columns), rows, columns);
+    }
+
+    /**
+     * A factory that creates stores backed by memory mapped temporary files in the specified directory. The
+     * files are deleted when the stores are closed, or (at the latest) when the JVM exits. With this factory the in-place decompositions can work on matrices
+     * larger than the available RAM, for instance {@code LU.newR064(OffHeapStore.newMapped(directory))}.
+     * Their algorithms access the (column-major) elements a column at a time, and the operating system streams
+     * those panels of the file in and out of memory.
+     *
+     * @param directory Where to create the temporary files
+     */
+    public static PhysicalStore.Factory<Double, OffHeapStore> newMapped(final File directory) {
+        return OffHeapStore.mapped(directory);
+    }
+
+    private static Primitive64Store copyToHeap(final Access2D<?> matrix) {
+
+        if (matrix.count() > HEAP_COPY_LIMIT) {
+            throw new UnsupportedOperationException("Too large to copy to the heap: " + matrix.countRows() + "x" + matrix.countColumns() + "!");
+        }
+
+        return Primitive64Store.FACTORY.copy(matrix);
+    }
+
+    private static Factory mapped(final File directory) {
+        return new Factory(count -> BufferArray.R064.newTemporary(directory).map(count), true);
+    }
+
+    private final BasicArray<Double> myArray;
+    private final int myColDim;
+    private final Factory myFactory;
+    private final MultiplyBoth.Primitive myMultiplier;
+    private final int myRowDim;
+    private final Array2D<Double> myUtility;
+
+    OffHeapStore(final Factory factory, final BasicArray<Double> array, final long numbRows, final long numbCols) {
+
+        super();
+
+        myFactory = factory;
+        myArray = array;
+
+        myRowDim = Math.toIntExact(numbRows);
+        myColDim = Math.toIntExact(numbCols);
+
+        myUtility = Array2D.R064.wrap(array, myRowDim);
+
+        myMultiplier = MultiplyBoth.newPrimitive64(myRowDim, myColDim);
+    }
+
+    @Override
+    public void accept(final Access2D<?> supplied) {
+        for (long j = 0L; j < supplied.countColumns(); j++) {
+            for (long i = 0L; i < supplied.countRows(); i++) {
+                this.set(i, j, supplied.doubleValue(i, j));
+            }
+        }
+    }
+
+    @Override
+    public void add(final long row, final long col, final Comparable<?> addend) {
+        myUtility.add(row, col, addend);
+    }
+
+    @Override
+    public void add(final long row, final long col, final double addend) {
+        myUtility.add(row, col, addend);
+    }
+
+    @Override
+    public void applyCholesky(final int iterationPoint, final BasicArray<Double> multipliers) {
+
+        double[] column = multipliers.toRawCopy1D();
+
+        if (myColDim - iterationPoint - 1 > ApplyCholesky.THRESHOLD) {
+
+            DivideAndConquer conquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    OffHeapStore.this.subtract(first, limit, column, column, ONE);
+                }
+            };
+
+            conquerer.invoke(iterationPoint + 1, myColDim, ApplyCholesky.THRESHOLD);
+
+        } else {
+
+            this.subtract(iterationPoint + 1, myColDim, column, column, ONE);
+        }
+    }
+
+    @Override
+    public void applyLDL(final int iterationPoint, final BasicArray<Double> multipliers) {
+
+        double[] column = multipliers.toRawCopy1D();
+        double diagonal = this.doubleValue(iterationPoint, iterationPoint);
+
+        if (myColDim - iterationPoint - 1 > ApplyLDL.THRESHOLD) {
+
+            DivideAndConquer conquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    OffHeapStore.this.subtract(first, limit, column, column, diagonal);
+                }
+            };
+
+            conquerer.invoke(iterationPoint + 1, myColDim, ApplyLDL.THRESHOLD);
+
+        } else {
+
+            this.subtract(iterationPoint + 1, myColDim, column, column, diagonal);
+        }
+    }
+
+    @Override
+    public void applyLU(final int iterationPoint, final BasicArray<Double> multipliers) {
+
+        double[] column = multipliers.toRawCopy1D();
+
+        if (myColDim - iterationPoint - 1 > ApplyLU.THRESHOLD) {
+
+            DivideAndConquer conquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    OffHeapStore.this.subtract(first, limit, iterationPoint, column);
+                }
+            };
+
+            conquerer.invoke(iterationPoint + 1, myColDim, ApplyLU.THRESHOLD);
+
+        } else {
+
+            this.subtract(iterationPoint + 1, myColDim, iterationPoint, column);
+        }
+    }
+
+    @Override
+    public Array1D<Double> asList() {
+        return myUtility.flatten();
+    }
+
+    /**
+     * Free the memory now, rather than when this store is garbage collected. For a memory mapped store this
+     * closes the file (all segments of it), and temporary files, see {@link #newMapped(File)}, are deleted –
+     * the mapping itself is released when the store is garbage collected.
+     */
+    @Override
+    public void close() {
+        if (myArray instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) myArray).close();
+            } catch (Exception cause) {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    @Override
+    public Array1D<ComplexNumber> computeInPlaceSchur(final PhysicalStore<Double> transformationCollector, final boolean eigenvalue) {
+
+        Primitive64Store tmpThis = OffHeapStore.copyToHeap(this);
+        Primitive64Store tmpCollector = OffHeapStore.copyToHeap(transformationCollector);
+
+        Array1D<ComplexNumber> retVal = tmpThis.computeInPlaceSchur(tmpCollector, eigenvalue);
+
+        this.fillMatching(tmpThis);
+        transformationCollector.fillMatching(tmpCollector);
+
+        return retVal;
+    }
+
+    @Override
+    public MatrixStore<Double> conjugate() {
+        return this.transpose();
+    }
+
+    @Override
+    public long countColumns() {
+        return myColDim;
+    }
+
+    @Override
+    public long countRows() {
+        return myRowDim;
+    }
+
+    @Override
+    public void divideAndCopyColumn(final int row, final int column, final BasicArray<Double> destination) {
+
+        long index = Structure2D.index(myRowDim, row, column);
+        double denominator = myArray.doubleValue(index);
+
+        for (int i = row + 1; i < myRowDim; i++) {
+            double value = myArray.doubleValue(++index) / denominator;
+            myArray.set(index, value);
+            destination.set(i, value);
+        }
+    }
+
+    @Override
+    public double doubleValue(final int row, final int col) {
+        return myArray.doubleValue(Structure2D.index(myRowDim, row, col));
+    }
+
+    @Override
+    public double doubleValue(final long index) {
+        return myArray.doubleValue(index);
+    }
+
+    @Override
+    public double doubleValue(final long row, final long col) {
+        return myArray.doubleValue(Structure2D.index(myRowDim, row, col));
+    }
+
+    @Override
+    public void exchangeColumns(final long colA, final long colB) {
+        myUtility.exchangeColumns(colA, colB);
+    }
+
+    @Override
+    public void exchangeHermitian(final int indexA, final int indexB) {
+
+        int indexMin = Math.min(indexA, indexB);
+        int indexMax = Math.max(indexA, indexB);
+
+        double tmpVal;
+
+        for (int j = 0; j < indexMin; j++) {
+            tmpVal = this.doubleValue(indexMin, j);
+            this.set(indexMin, j, this.doubleValue(indexMax, j));
+            this.set(indexMax, j, tmpVal);
+        }
+
+        tmpVal = this.doubleValue(indexMin, indexMin);
+        this.set(indexMin, indexMin, this.doubleValue(indexMax, indexMax));
+        this.set(indexMax, indexMax, tmpVal);
+
+        for (int ij = indexMin + 1; ij < indexMax; ij++) {
+            tmpVal = this.doubleValue(ij, indexMin);
+            this.set(ij, indexMin, this.doubleValue(indexMax, ij));
+            this.set(indexMax, ij, tmpVal);
+        }
+
+        for (int i = indexMax + 1; i < myRowDim; i++) {
+            tmpVal = this.doubleValue(i, indexMin);
+            this.set(i, indexMin, this.doubleValue(i, indexMax));
+            this.set(i, indexMax, tmpVal);
+        }
+    }
+
+    @Override
+    public void exchangeRows(final long rowA, final long rowB) {
+        myUtility.exchangeRows(rowA, rowB);
+    }
+
+    @Override
+    public void fillByMultiplying(final Access1D<Double> left, final Access1D<Double> right) {
+
+        int complexity = Math.toIntExact(left.count() / this.countRows());
+        if (complexity != Math.toIntExact(right.count() / this.countColumns())) {
+            ProgrammingError.throwForMultiplicationNotPossible();
+        }
+
+        myMultiplier.invoke(this, left, complexity, right);
+    }
+
+    @Override
+    public boolean generateApplyAndCopyHouseholderColumn(final int row, final int column, final Householder<Double> destination) {
+
+        Householder.Primitive64 tmpDestination = (Householder.Primitive64) destination;
+
+        double[] vector = tmpDestination.vector;
+        tmpDestination.first = row;
+
+        long base = Structure2D.index(myRowDim, 0, column);
+
+        double normInf = ZERO; // Copy column and calculate its infinity-norm.
+        for (int i = row; i < myRowDim; i++) {
+            normInf = Math.max(normInf, Math.abs(vector[i] = myArray.doubleValue(base + i)));
+        }
+
+        boolean retVal = normInf != ZERO;
+        double norm2 = ZERO;
+
+        if (retVal) {
+            for (int i = row + 1; i < myRowDim; i++) {
+                double value = vector[i] /= normInf;
+                norm2 += value * value;
+            }
+            retVal = !PrimitiveScalar.isSmall(ONE, norm2);
+        }
+
+        if (retVal) {
+
+            double scale = vector[row] / normInf;
+            norm2 += scale * scale;
+            norm2 = Math.sqrt(norm2); // 2-norm of the vector to transform (scaled by inf-norm)
+
+            if (scale <= ZERO) {
+                myArray.set(base + row, norm2 * normInf);
+                scale -= norm2;
+            } else {
+                myArray.set(base + row, -norm2 * normInf);
+                scale += norm2;
+            }
+
+            vector[row] = ONE;
+
+            for (int i = row + 1; i < myRowDim; i++) {
+                myArray.set(base + i, vector[i] /= scale);
+            }
+
+            tmpDestination.beta = Math.abs(scale) / norm2;
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public boolean generateApplyAndCopyHouseholderRow(final int row, final int column, final Householder<Double> destination) {
+
+        Householder.Primitive64 tmpDestination = (Householder.Primitive64) destination;
+
+        double[] vector = tmpDestination.vector;
+        tmpDestination.first = column;
+
+        double normInf = ZERO; // Copy row and calculate its infinity-norm.
+        for (int j = column; j < myColDim; j++) {
+            normInf = Math.max(normInf, Math.abs(vector[j] = this.doubleValue(row, j)));
+        }
+
+        boolean retVal = normInf != ZERO;
+        double norm2 = ZERO;
+
+        if (retVal) {
+            for (int j = column + 1; j < myColDim; j++) {
+                double value = vector[j] /= normInf;
+                norm2 += value * value;
+            }
+            retVal = !PrimitiveScalar.isSmall(ONE, norm2);
+        }
+
+        if (retVal) {
+
+            double scale = vector[column] / normInf;
+            norm2 += scale * scale;
+            norm2 = Math.sqrt(norm2); // 2-norm of the vector to transform (scaled by inf-norm)
+
+            if (scale <= ZERO) {
+                this.set(row, column, norm2 * normInf);
+                scale -= norm2;
+            } else {
+                this.set(row, column, -norm2 * normInf);
+                scale += norm2;
+            }
+
+            vector[column] = ONE;
+
+            for (int j = column + 1; j < myColDim; j++) {
+                this.set(row, j, vector[j] /= scale);
+            }
+
+            tmpDestination.beta = Math.abs(scale) / norm2;
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public Double get(final int row, final int col) {
+        return Double.valueOf(this.doubleValue(row, col));
+    }
+
+    @Override
+    public Double get(final long row, final long col) {
+        return Double.valueOf(this.doubleValue(row, col));
+    }
+
+    @Override
+    public int getColDim() {
+        return myColDim;
+    }
+
+    @Override
+    public int getRowDim() {
+        return myRowDim;
+    }
+
+    @Override
+    public void modifyOne(final long row, final long col, final UnaryFunction<Double> modifier) {
+        this.set(row, col, modifier.invoke(this.doubleValue(row, col)));
+    }
+
+    @Override
+    public MatrixStore<Double> multiply(final MatrixStore<Double> right) {
+
+        OffHeapStore retVal = myFactory.allocate(myRowDim, right.countColumns());
+
+        retVal.fillByMultiplying(this, right);
+
+        return retVal;
+    }
+
+    @Override
+    public void negateColumn(final int column) {
+        myUtility.modifyColumn(0, column, PrimitiveMath.NEGATE);
+    }
+
+    @Override
+    public PhysicalStore.Factory<Double, OffHeapStore> physical() {
+        return myFactory;
+    }
+
+    @Override
+    public TransformableRegion<Double> regionByColumns(final int... columns) {
+        return new Subregion2D.ColumnsRegion<>(this, myMultiplier, columns);
+    }
+
+    @Override
+    public TransformableRegion<Double> regionByLimits(final int rowLimit, final int columnLimit) {
+        return new Subregion2D.LimitRegion<>(this, myMultiplier, rowLimit, columnLimit);
+    }
+
+    @Override
+    public TransformableRegion<Double> regionByOffsets(final int rowOffset, final int columnOffset) {
+        return new Subregion2D.OffsetRegion<>(this, myMultiplier, rowOffset, columnOffset);
+    }
+
+    @Override
+    public TransformableRegion<Double> regionByRows(final int... rows) {
+        return new Subregion2D.RowsRegion<>(this, myMultiplier, rows);
+    }
+
+    @Override
+    public TransformableRegion<Double> regionByTransposing() {
+        return new Subregion2D.TransposedRegion<>(this, myMultiplier);
+    }
+
+    @Override
+    public void rotateRight(final int low, final int high, final double cos, final double sin) {
+
+        long indexA = Structure2D.index(myRowDim, 0, low);
+        long indexB = Structure2D.index(myRowDim, 0, high);
+
+        for (int i = 0; i < myRowDim; i++, indexA++, indexB++) {
+
+            double oldA = myArray.doubleValue(indexA);
+            double oldB = myArray.doubleValue(indexB);
+
+            myArray.set(indexA, cos * oldA - sin * oldB);
+            myArray.set(indexB, cos * oldB + sin * oldA);
+        }
+    }
+
+    @Override
+    public void set(final int row, final int col, final double value) {
+        myArray.set(Structure2D.index(myRowDim, row, col), value);
+    }
+
+    @Override
+    public void set(final long index, final double value) {
+        myArray.set(index, value);
+    }
+
+    @Override
+    public void set(final long row, final long col, final Comparable<?> value) {
+        myArray.set(Structure2D.index(myRowDim, row, col), NumberDefinition.doubleValue(value));
+    }
+
+    @Override
+    public void set(final long row, final long col, final double value) {
+        myArray.set(Structure2D.index(myRowDim, row, col), value);
+    }
+
+    @Override
+    public void setToIdentity(final int col) {
+        myUtility.set(col, col, ONE);
+        myUtility.fillColumn(col + 1, col, ZERO);
+    }
+
+    @Override
+    public Array1D<Double> sliceColumn(final long row, final long col) {
+        return myUtility.sliceColumn(row, col);
+    }
+
+    @Override
+    public Array1D<Double> sliceDiagonal(final long row, final long col) {
+        return myUtility.sliceDiagonal(row, col);
+    }
+
+    @Override
+    public Array1D<Double> sliceRange(final long first, final long limit) {
+        return myUtility.sliceRange(first, limit);
+    }
+
+    @Override
+    public Array1D<Double> sliceRow(final long row, final long col) {
+        return myUtility.sliceRow(row, col);
+    }
+
+    @Override
+    public void substituteBackwards(final Access2D<Double> body, final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
+
+        double[] column = new double[myRowDim];
+
+        for (int j = 0; j < myColDim; j++) {
+            this.copyColumn(j, column);
+            SubstituteBackwards.invoke(column, myRowDim, 0, 1, body, unitDiagonal, conjugated, hermitian);
+            this.fillColumn(j, column);
+        }
+    }
+
+    @Override
+    public void substituteForwards(final Access2D<Double> body, final boolean unitDiagonal, final boolean conjugated, final boolean identity) {
+
+        double[] column = new double[myRowDim];
+
+        for (int j = 0; j < myColDim; j++) {
+            this.copyColumn(j, column);
+            SubstituteForwards.invoke(column, myRowDim, 0, 1, body, unitDiagonal, conjugated, identity);
+            this.fillColumn(j, column);
+        }
+    }
+
+    @Override
+    public PrimitiveScalar toScalar(final long row, final long column) {
+        return PrimitiveScalar.of(this.doubleValue(row, column));
+    }
+
+    @Override
+    public String toString() {
+        return Access2D.toString(this);
+    }
+
+    @Override
+    public void transformLeft(final Householder<Double> transformation, final int firstColumn) {
+
+        Householder.Primitive64 householder = Primitive64Store.cast(transformation);
+
+        double[] vector = householder.vector;
+        int first = householder.first;
+        double beta = householder.beta;
+
+        for (int j = firstColumn; j < myColDim; j++) {
+
+            long base = Structure2D.index(myRowDim, 0, j);
+
+            double scale = ZERO;
+            for (int i = first; i < myRowDim; i++) {
+                scale += vector[i] * myArray.doubleValue(base + i);
+            }
+            scale *= beta;
+
+            for (int i = first; i < myRowDim; i++) {
+                myArray.set(base + i, myArray.doubleValue(base + i) - scale * vector[i]);
+            }
+        }
+    }
+
+    @Override
+    public void transformLeft(final Rotation<Double> transformation) {
+
+        Rotation.Primitive tmpTransf = Primitive64Store.cast(transformation);
+
+        int tmpLow = tmpTransf.low;
+        int tmpHigh = tmpTransf.high;
+
+        if (tmpLow != tmpHigh) {
+            if (!Double.isNaN(tmpTransf.cos) && !Double.isNaN(tmpTransf.sin)) {
+                double cos = tmpTransf.cos;
+                double sin = tmpTransf.sin;
+                for (int j = 0; j < myColDim; j++) {
+                    double oldA = this.doubleValue(tmpLow, j);
+                    double oldB = this.doubleValue(tmpHigh, j);
+                    this.set(tmpLow, j, cos * oldA + sin * oldB);
+                    this.set(tmpHigh, j, cos * oldB - sin * oldA);
+                }
+            } else {
+                myUtility.exchangeRows(tmpLow, tmpHigh);
+            }
+        } else if (!Double.isNaN(tmpTransf.cos)) {
+            myUtility.modifyRow(tmpLow, 0L, PrimitiveMath.MULTIPLY.second(tmpTransf.cos));
+        } else if (!Double.isNaN(tmpTransf.sin)) {
+            myUtility.modifyRow(tmpLow, 0L, PrimitiveMath.DIVIDE.second(tmpTransf.sin));
+        } else {
+            myUtility.modifyRow(tmpLow, 0, PrimitiveMath.NEGATE);
+        }
+    }
+
+    @Override
+    public void transformRight(final Householder<Double> transformation, final int firstRow) {
+
+        Householder.Primitive64 householder = Primitive64Store.cast(transformation);
+
+        double[] vector = householder.vector;
+        int first = householder.first;
+        double beta = householder.beta;
+
+        double[] work = new double[myRowDim];
+
+        for (int j = first; j < myColDim; j++) {
+            long base = Structure2D.index(myRowDim, 0, j);
+            double factor = beta * vector[j];
+            for (int i = firstRow; i < myRowDim; i++) {
+                work[i] += factor * myArray.doubleValue(base + i);
+            }
+        }
+
+        for (int j = first; j < myColDim; j++) {
+            long base = Structure2D.index(myRowDim, 0, j);
+            double factor = vector[j];
+            for (int i = firstRow; i < myRowDim; i++) {
+                myArray.set(base + i, myArray.doubleValue(base + i) - factor * work[i]);
+            }
+        }
+    }
+
+    @Override
+    public void transformRight(final Rotation<Double> transformation) {
+
+        Rotation.Primitive tmpTransf = Primitive64Store.cast(transformation);
+
+        int tmpLow = tmpTransf.low;
+        int tmpHigh = tmpTransf.high;
+
+        if (tmpLow != tmpHigh) {
+            if (!Double.isNaN(tmpTransf.cos) && !Double.isNaN(tmpTransf.sin)) {
+                this.rotateRight(tmpLow, tmpHigh, tmpTransf.cos, tmpTransf.sin);
+            } else {
+                myUtility.exchangeColumns(tmpLow, tmpHigh);
+            }
+        } else if (!Double.isNaN(tmpTransf.cos)) {
+            myUtility.modifyColumn(0L, tmpHigh, PrimitiveMath.MULTIPLY.second(tmpTransf.cos));
+        } else if (!Double.isNaN(tmpTransf.sin)) {
+            myUtility.modifyColumn(0L, tmpHigh, PrimitiveMath.DIVIDE.second(tmpTransf.sin));
+        } else {
+            myUtility.modifyColumn(0, tmpHigh, PrimitiveMath.NEGATE);
+        }
+    }
+
+    /**
+     * Same as {@link Primitive64Store#transformSymmetric(Householder)} – only the lower triangular part is
+     * referenced/updated – but streaming the off heap data column by column.
+     */
+    @Override
+    public void transformSymmetric(final Householder<Double> transformation) {
+
+        Householder.Primitive64 householder = Primitive64Store.cast(transformation);
+
+        double[] vector = householder.vector;
+        int first = householder.first;
+        double beta = householder.beta;
+
+        double[] work = new double[myRowDim];
+
+        for (int j = first; j < myRowDim; j++) {
+            long base = Structure2D.index(myRowDim, 0, j);
+            double vj = vector[j];
+            double sum = myArray.doubleValue(base + j) * vj;
+            for (int i = j + 1; i < myRowDim; i++) {
+                double value = myArray.doubleValue(base + i);
+                work[i] += value * vj;
+                sum += value * vector[i];
+            }
+            work[j] += sum;
+        }
+
+        double scale = ZERO;
+        for (int i = first; i < myRowDim; i++) {
+            scale += vector[i] * work[i];
+        }
+        scale *= beta / TWO;
+        for (int i = first; i < myRowDim; i++) {
+            work[i] = beta * (work[i] - scale * vector[i]);
+        }
+
+        for (int j = first; j < myRowDim; j++) {
+            long base = Structure2D.index(myRowDim, 0, j);
+            double vj = vector[j];
+            double wj = work[j];
+            for (int i = j; i < myRowDim; i++) {
+                myArray.set(base + i, myArray.doubleValue(base + i) - (work[i] * vj + vector[i] * wj));
+            }
+        }
+    }
+
+    @Override
+    public void tred2(final BasicArray<Double> mainDiagonal, final BasicArray<Double> offDiagonal, final boolean yesvecs) {
+
+        Primitive64Store tmpThis = OffHeapStore.copyToHeap(this);
+
+        tmpThis.tred2(mainDiagonal, offDiagonal, yesvecs);
+
+        this.fillMatching(tmpThis);
+    }
+
+    private void copyColumn(final int col, final double[] destination) {
+        long base = Structure2D.index(myRowDim, 0, col);
+        for (int i = 0; i < myRowDim; i++) {
+            destination[i] = myArray.doubleValue(base + i);
+        }
+    }
+
+    private void fillColumn(final int col, final double[] source) {
+        long base = Structure2D.index(myRowDim, 0, col);
+        for (int i = 0; i < myRowDim; i++) {
+            myArray.set(base + i, source[i]);
+        }
+    }
+
+    /**
+     * Column j, from row j, is reduced by factor * multipliers[j] * column (Cholesky and LDL).
+     */
+    private void subtract(final int first, final int limit, final double[] multipliers, final double[] column, final double factor) {
+        for (int j = first; j < limit; j++) {
+            long base = Structure2D.index(myRowDim, 0, j);
+            double scale = factor * multipliers[j];
+            for (int i = j; i < myRowDim; i++) {
+                myArray.set(base + i, myArray.doubleValue(base + i) - scale * column[i]);
+            }
+        }
+    }
+
+    /**
+     * Column j, below the iteration point, is reduced by the element at the iteration point times the
+     * multipliers (LU).
+     */
+    private void subtract(final int first, final int limit, final int iterationPoint, final double[] multipliers) {
+        for (int j = first; j < limit; j++) {
+            long base = Structure2D.index(myRowDim, 0, j);
+            double scale = myArray.doubleValue(base + iterationPoint);
+            for (int i = iterationPoint + 1; i < myRowDim; i++) {
+                myArray.set(base + i, myArray.doubleValue(base + i) - scale * multipliers[i]);
+            }
+        }
+    }
+
+}
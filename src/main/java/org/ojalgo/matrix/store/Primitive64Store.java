@@ -38,6 +38,7 @@ import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.constant.PrimitiveMath;
 import org.ojalgo.function.special.MissingMath;
 import org.ojalgo.machine.JavaType;
@@ -48,8 +49,10 @@ import org.ojalgo.matrix.operation.HouseholderLeft;
 import org.ojalgo.matrix.operation.HouseholderRight;
 import org.ojalgo.matrix.operation.MultiplyBoth;
 import org.ojalgo.matrix.operation.MultiplyLeft;
+import org.ojalgo.matrix.operation.MultiplyMixed;
 import org.ojalgo.matrix.operation.MultiplyNeither;
 import org.ojalgo.matrix.operation.MultiplyRight;
+import org.ojalgo.matrix.operation.MultiplyStructured;
 import org.ojalgo.matrix.transformation.Householder;
 import org.ojalgo.matrix.transformation.HouseholderReference;
 import org.ojalgo.matrix.transformation.Rotation;
@@ -459,6 +462,14 @@ public final class Primitive64Store extends ArrayR064 implements PhysicalStore<D
         myUtility.add(row, col, addend);
     }
 
+    @Override
+    public Double aggregateAll(final Aggregator aggregator) {
+        if (aggregator == Aggregator.NORM1) {
+            return ASUM.invoke(data, 0, data.length, 1);
+        }
+        return DecompositionStore.super.aggregateAll(aggregator);
+    }
+
     @Override
     public void applyCholesky(final int iterationPoint, final BasicArray<Double> multipliers) {
 
@@ -677,6 +688,20 @@ public final class Primitive64Store extends ArrayR064 implements PhysicalStore<D
             ProgrammingError.throwForMultiplicationNotPossible();
         }
 
+        if (left instanceof R064Strided || right instanceof R064Strided) {
+            R064Strided.of(this).fillByMultiplying(left, right);
+            return;
+        }
+
+        if (left instanceof Primitive32Store && right instanceof Primitive32Store) {
+            MultiplyMixed.invoke(data, Primitive32Store.cast(left).data, complexity, Primitive32Store.cast(right).data);
+            return;
+        }
+
+        if (MultiplyStructured.invoke(data, left, complexity, right)) {
+            return;
+        }
+
         if (left instanceof Primitive64Store) {
             if (right instanceof Primitive64Store) {
                 multiplyNeither.invoke(data, Primitive64Store.cast(left).data, complexity, Primitive64Store.cast(right).data);
@@ -1020,6 +1045,14 @@ public final class Primitive64Store extends ArrayR064 implements PhysicalStore<D
         return myUtility.sliceRow(row, col);
     }
 
+    /**
+     * A zero-copy, writable, view of this store's data – blocks, rows, columns and transposes of it are also
+     * views of the same array. See {@link R064Strided}.
+     */
+    public R064Strided strided() {
+        return R064Strided.of(this);
+    }
+
     @Override
     public void substituteBackwards(final Access2D<Double> body, final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
 
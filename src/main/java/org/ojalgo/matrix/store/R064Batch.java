@@ -0,0 +1,654 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.function.IntSupplier;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.Mutate2D;
+import org.ojalgo.structure.Structure2D;
+
+/**
+ * A batch of many small, same shaped, double matrices stored contiguously in one array. Matrix m occupies
+ * the range [m*stride, (m+1)*stride) and is stored column-major (the same as {@link Primitive64Store}).
+ * <p>
+ * The operations – multiplication and LU, Cholesky and QR decompositions with their solvers – work on all
+ * matrices of the batch at once, without creating any per matrix objects. The decompositions are done
+ * in-place, using the same algorithms as the raw (double[][] based) implementations in
+ * {@link org.ojalgo.matrix.decomposition}. The 2x2, 3x3 and 4x4 multiplications, and the 2x2 and 3x3
+ * Cholesky decompositions, are unrolled. Large batches are processed in parallel, see {@link #THRESHOLD}.
+ *
+ * @author apete
+ */
+public final class R064Batch implements Structure2D {
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    /**
+     * The batch is split among the threads when the total number of elements exceeds this. Each task gets
+     * at least this many elements.
+     */
+    public static int THRESHOLD = 16_384;
+
+    public static R064Batch make(final int count, final int rows, final int columns) {
+        return new R064Batch(new double[R064Batch.size(count, rows, columns)], count, rows, columns);
+    }
+
+    public static R064Batch wrap(final double[] data, final int count, final int rows, final int columns) {
+        if (data.length < R064Batch.size(count, rows, columns)) {
+            throw new ProgrammingError("The array is too small!");
+        }
+        return new R064Batch(data, count, rows, columns);
+    }
+
+    private static boolean cholesky(final double[] a, final int o, final int n) {
+
+        if (n == 2) {
+            return R064Batch.cholesky2(a, o);
+        }
+        if (n == 3) {
+            return R064Batch.cholesky3(a, o);
+        }
+
+        for (int j = 0; j < n; j++) {
+
+            int jj = o + j + j * n;
+
+            double d = a[jj];
+            for (int k = 0; k < j; k++) {
+                double ljk = a[o + j + k * n];
+                d -= ljk * ljk;
+            }
+            if (!(d > PrimitiveMath.ZERO)) {
+                return false;
+            }
+            double ljj = Math.sqrt(d);
+            a[jj] = ljj;
+
+            for (int i = j + 1; i < n; i++) {
+                double sum = a[o + i + j * n];
+                for (int k = 0; k < j; k++) {
+                    sum -= a[o + i + k * n] * a[o + j + k * n];
+                }
+                a[o + i + j * n] = sum / ljj;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean cholesky2(final double[] a, final int o) {
+
+        double a00 = a[o];
+        if (!(a00 > PrimitiveMath.ZERO)) {
+            return false;
+        }
+        double l00 = Math.sqrt(a00);
+        double l10 = a[o + 1] / l00;
+        double d11 = a[o + 3] - l10 * l10;
+        if (!(d11 > PrimitiveMath.ZERO)) {
+            return false;
+        }
+
+        a[o] = l00;
+        a[o + 1] = l10;
+        a[o + 3] = Math.sqrt(d11);
+
+        return true;
+    }
+
+    private static boolean cholesky3(final double[] a, final int o) {
+
+        double a00 = a[o];
+        if (!(a00 > PrimitiveMath.ZERO)) {
+            return false;
+        }
+        double l00 = Math.sqrt(a00);
+        double l10 = a[o + 1] / l00;
+        double l20 = a[o + 2] / l00;
+
+        double d11 = a[o + 4] - l10 * l10;
+        if (!(d11 > PrimitiveMath.ZERO)) {
+            return false;
+        }
+        double l11 = Math.sqrt(d11);
+        double l21 = (a[o + 5] - l20 * l10) / l11;
+
+        double d22 = a[o + 8] - l20 * l20 - l21 * l21;
+        if (!(d22 > PrimitiveMath.ZERO)) {
+            return false;
+        }
+
+        a[o] = l00;
+        a[o + 1] = l10;
+        a[o + 2] = l20;
+        a[o + 4] = l11;
+        a[o + 5] = l21;
+        a[o + 8] = Math.sqrt(d22);
+
+        return true;
+    }
+
+    private static boolean lu(final double[] a, final int o, final int n, final int[] pivots, final int po) {
+
+        boolean retVal = true;
+
+        for (int k = 0; k < n; k++) {
+
+            int colK = o + k * n;
+
+            int p = k;
+            double largest = Math.abs(a[colK + k]);
+            for (int i = k + 1; i < n; i++) {
+                double candidate = Math.abs(a[colK + i]);
+                if (candidate > largest) {
+                    largest = candidate;
+                    p = i;
+                }
+            }
+            pivots[po + k] = p;
+
+            if (p != k) {
+                for (int j = 0; j < n; j++) {
+                    int colJ = o + j * n;
+                    double tmp = a[colJ + k];
+                    a[colJ + k] = a[colJ + p];
+                    a[colJ + p] = tmp;
+                }
+            }
+
+            double pivot = a[colK + k];
+            if (pivot == PrimitiveMath.ZERO) {
+                retVal = false;
+                continue;
+            }
+
+            for (int i = k + 1; i < n; i++) {
+                a[colK + i] /= pivot;
+            }
+
+            for (int j = k + 1; j < n; j++) {
+                int colJ = o + j * n;
+                double akj = a[colJ + k];
+                if (akj != PrimitiveMath.ZERO) {
+                    for (int i = k + 1; i < n; i++) {
+                        a[colJ + i] -= a[colK + i] * akj;
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    private static void multiply(final double[] product, final int po, final double[] left, final int lo, final int m, final int c, final double[] right,
+            final int ro, final int n) {
+
+        if (m == c && c == n) {
+            if (m == 2) {
+                R064Batch.multiply2(product, po, left, lo, right, ro);
+                return;
+            }
+            if (m == 3) {
+                R064Batch.multiply3(product, po, left, lo, right, ro);
+                return;
+            }
+            if (m == 4) {
+                R064Batch.multiply4(product, po, left, lo, right, ro);
+                return;
+            }
+        }
+
+        for (int j = 0; j < n; j++) {
+            int pj = po + j * m;
+            for (int i = 0; i < m; i++) {
+                product[pj + i] = PrimitiveMath.ZERO;
+            }
+            for (int k = 0; k < c; k++) {
+                double rkj = right[ro + k + j * c];
+                int lk = lo + k * m;
+                for (int i = 0; i < m; i++) {
+                    product[pj + i] += left[lk + i] * rkj;
+                }
+            }
+        }
+    }
+
+    private static void multiply2(final double[] p, final int po, final double[] l, final int lo, final double[] r, final int ro) {
+
+        double l00 = l[lo], l10 = l[lo + 1], l01 = l[lo + 2], l11 = l[lo + 3];
+        double r00 = r[ro], r10 = r[ro + 1], r01 = r[ro + 2], r11 = r[ro + 3];
+
+        p[po] = l00 * r00 + l01 * r10;
+        p[po + 1] = l10 * r00 + l11 * r10;
+        p[po + 2] = l00 * r01 + l01 * r11;
+        p[po + 3] = l10 * r01 + l11 * r11;
+    }
+
+    private static void multiply3(final double[] p, final int po, final double[] l, final int lo, final double[] r, final int ro) {
+
+        double l00 = l[lo], l10 = l[lo + 1], l20 = l[lo + 2];
+        double l01 = l[lo + 3], l11 = l[lo + 4], l21 = l[lo + 5];
+        double l02 = l[lo + 6], l12 = l[lo + 7], l22 = l[lo + 8];
+
+        for (int j = 0; j < 3; j++) {
+            int rj = ro + 3 * j;
+            double r0j = r[rj], r1j = r[rj + 1], r2j = r[rj + 2];
+            int pj = po + 3 * j;
+            p[pj] = l00 * r0j + l01 * r1j + l02 * r2j;
+            p[pj + 1] = l10 * r0j + l11 * r1j + l12 * r2j;
+            p[pj + 2] = l20 * r0j + l21 * r1j + l22 * r2j;
+        }
+    }
+
+    private static void multiply4(final double[] p, final int po, final double[] l, final int lo, final double[] r, final int ro) {
+
+        double l00 = l[lo], l10 = l[lo + 1], l20 = l[lo + 2], l30 = l[lo + 3];
+        double l01 = l[lo + 4], l11 = l[lo + 5], l21 = l[lo + 6], l31 = l[lo + 7];
+        double l02 = l[lo + 8], l12 = l[lo + 9], l22 = l[lo + 10], l32 = l[lo + 11];
+        double l03 = l[lo + 12], l13 = l[lo + 13], l23 = l[lo + 14], l33 = l[lo + 15];
+
+        for (int j = 0; j < 4; j++) {
+            int rj = ro + 4 * j;
+            double r0j = r[rj], r1j = r[rj + 1], r2j = r[rj + 2], r3j = r[rj + 3];
+            int pj = po + 4 * j;
+            p[pj] = l00 * r0j + l01 * r1j + l02 * r2j + l03 * r3j;
+            p[pj + 1] = l10 * r0j + l11 * r1j + l12 * r2j + l13 * r3j;
+            p[pj + 2] = l20 * r0j + l21 * r1j + l22 * r2j + l23 * r3j;
+            p[pj + 3] = l30 * r0j + l31 * r1j + l32 * r2j + l33 * r3j;
+        }
+    }
+
+    private static boolean qr(final double[] a, final int o, final int m, final int n, final double[] tau, final int to) {
+
+        boolean retVal = true;
+
+        for (int k = 0, limit = Math.min(m, n); k < limit; k++) {
+
+            int colK = o + k * m;
+
+            double alpha = a[colK + k];
+            double norm2 = PrimitiveMath.ZERO;
+            for (int i = k + 1; i < m; i++) {
+                norm2 += a[colK + i] * a[colK + i];
+            }
+
+            if (norm2 == PrimitiveMath.ZERO) {
+                // Nothing to eliminate, H = I
+                tau[to + k] = PrimitiveMath.ZERO;
+                if (alpha == PrimitiveMath.ZERO) {
+                    retVal = false;
+                }
+                continue;
+            }
+
+            double beta = Math.sqrt(alpha * alpha + norm2);
+            if (alpha > PrimitiveMath.ZERO) {
+                beta = -beta;
+            }
+            double scale = PrimitiveMath.ONE / (alpha - beta);
+            for (int i = k + 1; i < m; i++) {
+                a[colK + i] *= scale;
+            }
+            double t = (beta - alpha) / beta;
+            tau[to + k] = t;
+            a[colK + k] = beta;
+
+            for (int j = k + 1; j < n; j++) {
+                int colJ = o + j * m;
+                double w = a[colJ + k];
+                for (int i = k + 1; i < m; i++) {
+                    w += a[colK + i] * a[colJ + i];
+                }
+                w *= t;
+                a[colJ + k] -= w;
+                for (int i = k + 1; i < m; i++) {
+                    a[colJ + i] -= w * a[colK + i];
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The total number of elements, count * rows * columns, which must fit in a (single) Java array.
+     */
+    private static int size(final int count, final int rows, final int columns) {
+
+        if (count < 0 || rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Negative size: " + count + " matrices of " + rows + "x" + columns + "!");
+        }
+
+        try {
+            return Math.multiplyExact(count, Math.multiplyExact(rows, columns));
+        } catch (ArithmeticException cause) {
+            throw new IllegalArgumentException("Too large: " + count + " matrices of " + rows + "x" + columns + " don't fit in one array!", cause);
+        }
+    }
+
+    private static void solveCholesky(final double[] l, final int lo, final int n, final double[] b, final int bo, final int nbCols) {
+        for (int c = 0; c < nbCols; c++) {
+            int col = bo + c * n;
+            // [L][y] = [b]
+            for (int i = 0; i < n; i++) {
+                double sum = b[col + i];
+                for (int k = 0; k < i; k++) {
+                    sum -= l[lo + i + k * n] * b[col + k];
+                }
+                b[col + i] = sum / l[lo + i + i * n];
+            }
+            // [L]<sup>T</sup>[x] = [y]
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = b[col + i];
+                for (int k = i + 1; k < n; k++) {
+                    sum -= l[lo + k + i * n] * b[col + k];
+                }
+                b[col + i] = sum / l[lo + i + i * n];
+            }
+        }
+    }
+
+    private static void solveLU(final double[] lu, final int lo, final int n, final int[] pivots, final int po, final double[] b, final int bo,
+            final int nbCols) {
+        for (int c = 0; c < nbCols; c++) {
+            int col = bo + c * n;
+            for (int k = 0; k < n; k++) {
+                int p = pivots[po + k];
+                if (p != k) {
+                    double tmp = b[col + k];
+                    b[col + k] = b[col + p];
+                    b[col + p] = tmp;
+                }
+            }
+            // [L][y] = [Pb], L has unit diagonal
+            for (int i = 1; i < n; i++) {
+                double sum = b[col + i];
+                for (int k = 0; k < i; k++) {
+                    sum -= lu[lo + i + k * n] * b[col + k];
+                }
+                b[col + i] = sum;
+            }
+            // [U][x] = [y]
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = b[col + i];
+                for (int k = i + 1; k < n; k++) {
+                    sum -= lu[lo + i + k * n] * b[col + k];
+                }
+                b[col + i] = sum / lu[lo + i + i * n];
+            }
+        }
+    }
+
+    private static void solveQR(final double[] qr, final int qo, final int m, final int n, final double[] tau, final int to, final double[] b, final int bo,
+            final int nbCols) {
+        for (int c = 0; c < nbCols; c++) {
+            int col = bo + c * m;
+            // [Q]<sup>T</sup>[b]
+            for (int k = 0; k < n; k++) {
+                double t = tau[to + k];
+                if (t != PrimitiveMath.ZERO) {
+                    int colK = qo + k * m;
+                    double w = b[col + k];
+                    for (int i = k + 1; i < m; i++) {
+                        w += qr[colK + i] * b[col + i];
+                    }
+                    w *= t;
+                    b[col + k] -= w;
+                    for (int i = k + 1; i < m; i++) {
+                        b[col + i] -= w * qr[colK + i];
+                    }
+                }
+            }
+            // [R][x] = [Q]<sup>T</sup>[b]
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = b[col + i];
+                for (int k = i + 1; k < n; k++) {
+                    sum -= qr[qo + i + k * m] * b[col + k];
+                }
+                b[col + i] = sum / qr[qo + i + i * m];
+            }
+        }
+    }
+
+    public final double[] data;
+
+    private final int myColumns;
+    private final int myCount;
+    private final int myRows;
+    private final int myStride;
+
+    R064Batch(final double[] data, final int count, final int rows, final int columns) {
+        super();
+        this.data = data;
+        myCount = count;
+        myRows = rows;
+        myColumns = columns;
+        myStride = rows * columns;
+    }
+
+    /**
+     * Cholesky decompose, in-place, all the (symmetric positive definite) matrices. The lower triangular
+     * factor [L] replaces the lower triangle (incl. the diagonal) of each matrix. The strictly upper part is
+     * not touched.
+     *
+     * @return For each matrix, true if the decomposition succeeded (the matrix was positive definite)
+     */
+    public boolean[] cholesky() {
+
+        ProgrammingError.throwIfNotSquare(this);
+
+        boolean[] retVal = new boolean[myCount];
+
+        this.execute((first, limit) -> {
+            for (int b = first; b < limit; b++) {
+                retVal[b] = R064Batch.cholesky(data, b * myStride, myRows);
+            }
+        });
+
+        return retVal;
+    }
+
+    public long countColumns() {
+        return myColumns;
+    }
+
+    /**
+     * @return The number of matrices in this batch
+     */
+    public int countMatrices() {
+        return myCount;
+    }
+
+    public long countRows() {
+        return myRows;
+    }
+
+    public double doubleValue(final int matrix, final int row, final int col) {
+        return data[this.index(matrix, row, col)];
+    }
+
+    /**
+     * Copy the elements of one of the matrices from <code>values</code>.
+     */
+    public void fill(final int matrix, final Access2D<?> values) {
+        int offset = matrix * myStride;
+        for (int j = 0; j < myColumns; j++) {
+            for (int i = 0; i < myRows; i++) {
+                data[offset + i + j * myRows] = values.doubleValue(i, j);
+            }
+        }
+    }
+
+    public int index(final int matrix, final int row, final int col) {
+        return matrix * myStride + row + col * myRows;
+    }
+
+    /**
+     * LU decompose, in-place with partial (row) pivoting, all the matrices. The unit lower triangular [L]
+     * (excl. the diagonal) and the upper triangular [U] replace each matrix.
+     *
+     * @param pivots Where the row exchanges are stored – (at least) count*rows long
+     * @return For each matrix, true if it was nonsingular
+     */
+    public boolean[] lu(final int[] pivots) {
+
+        ProgrammingError.throwIfNotSquare(this);
+
+        boolean[] retVal = new boolean[myCount];
+
+        this.execute((first, limit) -> {
+            for (int b = first; b < limit; b++) {
+                retVal[b] = R064Batch.lu(data, b * myStride, myRows, pivots, b * myRows);
+            }
+        });
+
+        return retVal;
+    }
+
+    /**
+     * [product]<sub>m</sub> = [this]<sub>m</sub> [right]<sub>m</sub> for each matrix m in the batch.
+     */
+    public void multiply(final R064Batch right, final R064Batch product) {
+
+        if (right.countMatrices() != myCount || product.countMatrices() != myCount || right.countRows() != myColumns || product.countRows() != myRows
+                || product.countColumns() != right.countColumns()) {
+            throw new ProgrammingError("The batches don't match!");
+        }
+
+        int nbCols = right.myColumns;
+
+        this.execute((first, limit) -> {
+            for (int b = first; b < limit; b++) {
+                R064Batch.multiply(product.data, b * product.myStride, data, b * myStride, myRows, myColumns, right.data, b * right.myStride, nbCols);
+            }
+        });
+    }
+
+    /**
+     * QR decompose, in-place using Householder reflections, all the (tall or square) matrices. [R] replaces
+     * the upper triangle, and the Householder vectors (with implicit unit first element) the strictly lower
+     * part.
+     *
+     * @param tau Where the Householder reflection factors are stored – (at least) count*columns long
+     * @return For each matrix, true if it had full column rank
+     */
+    public boolean[] qr(final double[] tau) {
+
+        if (myRows < myColumns) {
+            throw new ProgrammingError("Only implemented for tall (or square) matrices!");
+        }
+
+        boolean[] retVal = new boolean[myCount];
+
+        this.execute((first, limit) -> {
+            for (int b = first; b < limit; b++) {
+                retVal[b] = R064Batch.qr(data, b * myStride, myRows, myColumns, tau, b * myColumns);
+            }
+        });
+
+        return retVal;
+    }
+
+    public void set(final int matrix, final int row, final int col, final double value) {
+        data[this.index(matrix, row, col)] = value;
+    }
+
+    /**
+     * Assumes this batch has been Cholesky decomposed. Solves, in-place, [A]<sub>m</sub>[X]<sub>m</sub> =
+     * [rhs]<sub>m</sub> for each matrix m.
+     */
+    public void solveCholesky(final R064Batch rhs) {
+
+        this.validateRHS(rhs);
+
+        this.execute((first, limit) -> {
+            for (int b = first; b < limit; b++) {
+                R064Batch.solveCholesky(data, b * myStride, myRows, rhs.data, b * rhs.myStride, rhs.myColumns);
+            }
+        });
+    }
+
+    /**
+     * Assumes this batch has been LU decomposed. Solves, in-place, [A]<sub>m</sub>[X]<sub>m</sub> =
+     * [rhs]<sub>m</sub> for each matrix m.
+     */
+    public void solveLU(final int[] pivots, final R064Batch rhs) {
+
+        this.validateRHS(rhs);
+
+        this.execute((first, limit) -> {
+            for (int b = first; b < limit; b++) {
+                R064Batch.solveLU(data, b * myStride, myRows, pivots, b * myRows, rhs.data, b * rhs.myStride, rhs.myColumns);
+            }
+        });
+    }
+
+    /**
+     * Assumes this batch has been QR decomposed. Solves, in-place, the least squares problems
+     * min||[A]<sub>m</sub>[X]<sub>m</sub> - [rhs]<sub>m</sub>|| for each matrix m. The solutions end up in
+     * the first (columns) rows of each rhs matrix.
+     */
+    public void solveQR(final double[] tau, final R064Batch rhs) {
+
+        this.validateRHS(rhs);
+
+        this.execute((first, limit) -> {
+            for (int b = first; b < limit; b++) {
+                R064Batch.solveQR(data, b * myStride, myRows, myColumns, tau, b * myColumns, rhs.data, b * rhs.myStride, rhs.myColumns);
+            }
+        });
+    }
+
+    /**
+     * Copy the elements of one of the matrices to <code>receiver</code>.
+     */
+    public void supplyTo(final int matrix, final Mutate2D receiver) {
+        int offset = matrix * myStride;
+        for (int j = 0; j < myColumns; j++) {
+            for (int i = 0; i < myRows; i++) {
+                receiver.set(i, j, data[offset + i + j * myRows]);
+            }
+        }
+    }
+
+    private void execute(final DivideAndConquer.Conquerer conquerer) {
+        if ((long) myCount * myStride > THRESHOLD) {
+            DIVIDER.parallelism(PARALLELISM).threshold(Math.max(1, THRESHOLD / Math.max(1, myStride))).divide(0, myCount, conquerer);
+        } else {
+            conquerer.conquer(0, myCount);
+        }
+    }
+
+    private void validateRHS(final R064Batch rhs) {
+        if (rhs.countMatrices() != myCount || rhs.countRows() != myRows) {
+            throw new ProgrammingError("The batches don't match!");
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Arrays;
+
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * Immutable Compressed Sparse Column store of double values. Build it from triplets using
+ * {@link CompressedSparseR064#builder(int, int)}, or convert from a {@link SparseStore} using
+ * {@link SparseStore#toCSC()}.
+ * <p>
+ * Each column is a contiguous sorted sequence of (row, value) pairs, making column access and vector-matrix
+ * multiplication (vector * this) fast.
+ *
+ * @author apete
+ */
+public final class R064CSC extends CompressedSparseR064 {
+
+    R064CSC(final int rowsCount, final int columnsCount, final Compressed compressed) {
+        super(rowsCount, columnsCount, compressed);
+    }
+
+    @Override
+    public MatrixStore<Double> conjugate() {
+        return this.transpose();
+    }
+
+    @Override
+    public double doubleValue(final int row, final int col) {
+        return this.valueAt(col, row);
+    }
+
+    @Override
+    public int firstInColumn(final int col) {
+        return this.firstInMajor(col, this.getRowDim());
+    }
+
+    @Override
+    public int limitOfColumn(final int col) {
+        return this.limitOfMajor(col);
+    }
+
+    @Override
+    public void multiply(final Access1D<Double> right, final TransformableRegion<Double> target) {
+
+        int nbRows = this.getRowDim();
+        int complexity = this.getColDim();
+        int nbCols = Math.toIntExact(right.count() / complexity);
+
+        double[] column = new double[nbRows];
+
+        for (int j = 0; j < nbCols; j++) {
+
+            long offset = (long) j * complexity;
+
+            for (int k = 0; k < complexity; k++) {
+                double factor = right.doubleValue(offset + k);
+                if (factor != PrimitiveMath.ZERO) {
+                    for (int p = myPointers[k], limit = myPointers[k + 1]; p < limit; p++) {
+                        column[myIndices[p]] += myValues[p] * factor;
+                    }
+                }
+            }
+
+            for (int i = 0; i < nbRows; i++) {
+                target.set(i, j, column[i]);
+                column[i] = PrimitiveMath.ZERO;
+            }
+        }
+    }
+
+    @Override
+    public R064CSC multiply(final double scalar) {
+        return new R064CSC(this.getRowDim(), this.getColDim(), this.scaled(scalar));
+    }
+
+    @Override
+    public MatrixStore<Double> multiply(final MatrixStore<Double> right) {
+
+        if (right instanceof R064CSC) {
+            return this.multiply((R064CSC) right);
+        }
+
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(this.countRows(), right.countColumns());
+
+        this.multiply(right, retVal);
+
+        return retVal;
+    }
+
+    /**
+     * Sparse times sparse, with a sparse result
+     */
+    public R064CSC multiply(final R064CSC right) {
+
+        if (this.getColDim() != right.getRowDim()) {
+            throw new IllegalArgumentException();
+        }
+
+        int nbRows = this.getRowDim();
+        int nbCols = right.getColDim();
+
+        return new R064CSC(nbRows, nbCols, CompressedSparseR064.multiply(right, this, nbCols, nbRows));
+    }
+
+    @Override
+    public ElementsSupplier<Double> premultiply(final Access1D<Double> left) {
+
+        int complexity = this.getRowDim();
+        int nbCols = this.getColDim();
+        int nbRows = Math.toIntExact(left.count() / complexity);
+
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(nbRows, nbCols);
+        double[] data = retVal.data;
+
+        for (int j = 0; j < nbCols; j++) {
+            int base = j * nbRows;
+            for (int p = myPointers[j], limit = myPointers[j + 1]; p < limit; p++) {
+                long offset = (long) myIndices[p] * nbRows;
+                double value = myValues[p];
+                for (int i = 0; i < nbRows; i++) {
+                    data[base + i] += left.doubleValue(offset + i) * value;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public void supplyTo(final TransformableRegion<Double> receiver) {
+
+        receiver.reset();
+
+        for (int j = 0, nbCols = this.getColDim(); j < nbCols; j++) {
+            for (int p = myPointers[j], limit = myPointers[j + 1]; p < limit; p++) {
+                receiver.set(myIndices[p], j, myValues[p]);
+            }
+        }
+    }
+
+    /**
+     * Convert to Compressed Sparse Row
+     */
+    public R064CSR toCSR() {
+        return new R064CSR(this.getRowDim(), this.getColDim(), this.transposed(this.getColDim(), this.getRowDim()));
+    }
+
+    @Override
+    public SparseStore<Double> toSparse() {
+
+        int nbRows = this.getRowDim();
+        int nbCols = this.getColDim();
+
+        int nnz = myPointers[nbCols];
+
+        int[] columns = new int[nnz];
+        for (int j = 0; j < nbCols; j++) {
+            Arrays.fill(columns, myPointers[j], myPointers[j + 1], j);
+        }
+
+        SparseStore<Double> retVal = SparseStore.R064.make(nbRows, nbCols);
+
+        // Already sorted (column-major) and without duplicates, so no sorting needed
+        retVal.addAll(myIndices, columns, myValues, nnz);
+
+        return retVal;
+    }
+
+    /**
+     * The transpose of a CSC matrix is a CSR matrix sharing the same (unmodifiable) arrays.
+     */
+    @Override
+    public R064CSR transpose() {
+        return new R064CSR(this.getColDim(), this.getRowDim(), new Compressed(myPointers, myIndices, myValues));
+    }
+
+}
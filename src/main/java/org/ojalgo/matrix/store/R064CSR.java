@@ -0,0 +1,199 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.function.IntSupplier;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * Immutable Compressed Sparse Row store of double values. Build it from triplets using
+ * {@link CompressedSparseR064#builder(int, int)}, or convert from a {@link SparseStore} using
+ * {@link SparseStore#toCSR()}.
+ * <p>
+ * Each row is a contiguous sorted sequence of (column, value) pairs, making row access and matrix-vector
+ * multiplication (this * vector) fast. Large matrix-vector multiplications are done in parallel, see
+ * {@link #THRESHOLD}.
+ *
+ * @author apete
+ */
+public final class R064CSR extends CompressedSparseR064 {
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    /**
+     * Matrix-vector multiplication is done in parallel when the number of nonzeros exceeds this. The rows are
+     * partitioned so that each task gets (roughly) the same number of nonzeros, but at least this many.
+     */
+    public static int THRESHOLD = 32_768;
+
+    R064CSR(final int rowsCount, final int columnsCount, final Compressed compressed) {
+        super(rowsCount, columnsCount, compressed);
+    }
+
+    @Override
+    public MatrixStore<Double> conjugate() {
+        return this.transpose();
+    }
+
+    @Override
+    public double doubleValue(final int row, final int col) {
+        return this.valueAt(row, col);
+    }
+
+    @Override
+    public int firstInRow(final int row) {
+        return this.firstInMajor(row, this.getColDim());
+    }
+
+    @Override
+    public int limitOfRow(final int row) {
+        return this.limitOfMajor(row);
+    }
+
+    @Override
+    public void multiply(final Access1D<Double> right, final TransformableRegion<Double> target) {
+
+        int nbRows = this.getRowDim();
+        int nbCols = Math.toIntExact(right.count() / this.getColDim());
+
+        if (myValues.length > THRESHOLD) {
+            DIVIDER.parallelism(PARALLELISM).threshold(THRESHOLD).divide(0, nbRows, i -> myPointers[i],
+                    (first, limit) -> this.multiply(right, nbCols, target, first, limit));
+        } else {
+            this.multiply(right, nbCols, target, 0, nbRows);
+        }
+    }
+
+    @Override
+    public R064CSR multiply(final double scalar) {
+        return new R064CSR(this.getRowDim(), this.getColDim(), this.scaled(scalar));
+    }
+
+    @Override
+    public MatrixStore<Double> multiply(final MatrixStore<Double> right) {
+
+        if (right instanceof R064CSR) {
+            return this.multiply((R064CSR) right);
+        }
+
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(this.countRows(), right.countColumns());
+
+        this.multiply(right, retVal);
+
+        return retVal;
+    }
+
+    /**
+     * Sparse times sparse, with a sparse result
+     */
+    public R064CSR multiply(final R064CSR right) {
+
+        if (this.getColDim() != right.getRowDim()) {
+            throw new IllegalArgumentException();
+        }
+
+        int nbRows = this.getRowDim();
+        int nbCols = right.getColDim();
+
+        return new R064CSR(nbRows, nbCols, CompressedSparseR064.multiply(this, right, nbRows, nbCols));
+    }
+
+    @Override
+    public ElementsSupplier<Double> premultiply(final Access1D<Double> left) {
+
+        int complexity = this.getRowDim();
+        int nbCols = this.getColDim();
+        int nbRows = Math.toIntExact(left.count() / complexity);
+
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(nbRows, nbCols);
+        double[] data = retVal.data;
+
+        for (int k = 0; k < complexity; k++) {
+            long offset = (long) k * nbRows;
+            for (int p = myPointers[k], limit = myPointers[k + 1]; p < limit; p++) {
+                int base = myIndices[p] * nbRows;
+                double value = myValues[p];
+                for (int i = 0; i < nbRows; i++) {
+                    data[base + i] += left.doubleValue(offset + i) * value;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public void supplyTo(final TransformableRegion<Double> receiver) {
+
+        receiver.reset();
+
+        for (int i = 0, nbRows = this.getRowDim(); i < nbRows; i++) {
+            for (int p = myPointers[i], limit = myPointers[i + 1]; p < limit; p++) {
+                receiver.set(i, myIndices[p], myValues[p]);
+            }
+        }
+    }
+
+    /**
+     * Convert to Compressed Sparse Column
+     */
+    public R064CSC toCSC() {
+        return new R064CSC(this.getRowDim(), this.getColDim(), this.transposed(this.getRowDim(), this.getColDim()));
+    }
+
+    @Override
+    public SparseStore<Double> toSparse() {
+        return this.toCSC().toSparse();
+    }
+
+    /**
+     * The transpose of a CSR matrix is a CSC matrix sharing the same (unmodifiable) arrays.
+     */
+    @Override
+    public R064CSC transpose() {
+        return new R064CSC(this.getColDim(), this.getRowDim(), new Compressed(myPointers, myIndices, myValues));
+    }
+
+    private void multiply(final Access1D<Double> right, final int nbCols, final TransformableRegion<Double> target, final int firstRow,
+            final int rowLimit) {
+
+        int complexity = this.getColDim();
+
+        for (int j = 0; j < nbCols; j++) {
+            long offset = (long) j * complexity;
+            for (int i = firstRow; i < rowLimit; i++) {
+                double sum = PrimitiveMath.ZERO;
+                for (int p = myPointers[i], limit = myPointers[i + 1]; p < limit; p++) {
+                    sum += myValues[p] * right.doubleValue(offset + myIndices[p]);
+                }
+                target.set(i, j, sum);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.function.IntSupplier;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.matrix.operation.MultiplyBlocked;
+import org.ojalgo.matrix.operation.MultiplyBoth;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+
+/**
+ * A zero-copy, strided, view of (part of) a double[]. Element (i,j) is located at
+ * <code>data[offset + i * rowStride + j * columnStride]</code>. A {@link Primitive64Store} (column-major)
+ * is viewed with row stride 1 and column stride equal to its number of rows. Sub-blocks, rows, columns and
+ * the transpose of a view are again views of the same array – creating them is O(1) and nothing is copied.
+ * <p>
+ * The view is writable, and changes are visible in the underlying array (and any other view of it). The
+ * multiplication kernels ({@link #fillByMultiplying(Access1D, Access1D)} and
+ * {@link #addProduct(double, R064Strided, R064Strided)}) work directly on the strided data – block
+ * algorithms can operate on sub-matrices in-place without gathering/scattering them to/from temporary
+ * arrays.
+ * <p>
+ * {@link Primitive64Store#limits(long, long)}, {@link Primitive64Store#offsets(long, long)},
+ * {@link Primitive64Store#regionByLimits(int, int)}, {@link Primitive64Store#regionByOffsets(int, int)} and
+ * {@link Primitive64Store#regionByTransposing()} all return instances of this class.
+ *
+ * @author apete
+ */
+public final class R064Strided extends FactoryStore<Double> implements TransformableRegion<Double> {
+
+    private static final int BLOCKED_DEPTH = 8;
+    private static final int BLOCKED_ROWS = 16;
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    /**
+     * Multiplications are split among the threads (by columns) when the number of multiply-add operations
+     * exceeds this.
+     */
+    public static int THRESHOLD = 65_536;
+
+    public static R064Strided of(final Primitive64Store store) {
+        int nbRows = store.getRowDim();
+        return new R064Strided(store.data, 0, nbRows, store.getColDim(), 1, nbRows);
+    }
+
+    /**
+     * @param data The array to view
+     * @param offset The index of element (0,0)
+     * @param nbRows The number of rows
+     * @param nbCols The number of columns
+     * @param rowStride The distance (in the array) between consecutive elements in a column
+     * @param columnStride The distance (in the array) between consecutive elements in a row
+     */
+    public static R064Strided wrap(final double[] data, final int offset, final int nbRows, final int nbCols, final int rowStride,
+            final int columnStride) {
+        if (nbRows > 0 && nbCols > 0) {
+            long last = offset + (long) (nbRows - 1) * rowStride + (long) (nbCols - 1) * columnStride;
+            if (offset < 0 || last >= data.length || last < 0) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+        }
+        return new R064Strided(data, offset, nbRows, nbCols, rowStride, columnStride);
+    }
+
+    /**
+     * [product] = alpha * [left][right] + (accumulate ? [product] : 0), for the columns [first, limit) of
+     * [product].
+     */
+    static void multiply(final R064Strided product, final double alpha, final boolean accumulate, final R064Strided left, final R064Strided right,
+            final int first, final int limit) {
+
+        double[] c = product.data;
+        int cOff = product.myOffset;
+        int cRS = product.myRowStride;
+        int cCS = product.myColumnStride;
+
+        double[] a = left.data;
+        int aOff = left.myOffset;
+        int aRS = left.myRowStride;
+        int aCS = left.myColumnStride;
+
+        double[] b = right.data;
+        int bOff = right.myOffset;
+        int bRS = right.myRowStride;
+        int bCS = right.myColumnStride;
+
+        int m = product.getRowDim();
+        int k = left.getColDim();
+
+        if (!accumulate) {
+            for (int j = first; j < limit; j++) {
+                int cj = cOff + j * cCS;
+                for (int i = 0; i < m; i++) {
+                    c[cj + i * cRS] = 0.0;
+                }
+            }
+        }
+
+        if (cRS == 1 && m >= BLOCKED_ROWS && k >= BLOCKED_DEPTH) {
+
+            // Column-contiguous product – the cache-blocked (packed and register-tiled) kernel
+
+            MultiplyBlocked.addMxN(c, cOff + first * cCS, cCS, m, limit - first, alpha, a, aOff, aRS, aCS, k, b, bOff + first * bCS, bRS, bCS);
+
+        } else if (aRS == 1 && cRS == 1) {
+
+            // Small, contiguous columns – AXPY:s
+
+            for (int j = first; j < limit; j++) {
+                int cj = cOff + j * cCS;
+                int bj = bOff + j * bCS;
+
+                for (int p = 0; p < k; p++) {
+                    double s = alpha * b[bj + p * bRS];
+                    if (s != 0.0) {
+                        int ap = aOff + p * aCS;
+                        for (int i = 0; i < m; i++) {
+                            c[cj + i] += s * a[ap + i];
+                        }
+                    }
+                }
+            }
+
+        } else {
+
+            // Otherwise – DOT:s
+
+            for (int j = first; j < limit; j++) {
+                int cj = cOff + j * cCS;
+                int bj = bOff + j * bCS;
+
+                for (int i = 0; i < m; i++) {
+                    int ai = aOff + i * aRS;
+                    double sum = 0.0;
+                    for (int p = 0; p < k; p++) {
+                        sum += a[ai + p * aCS] * b[bj + p * bRS];
+                    }
+                    c[cj + i * cRS] += alpha * sum;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A view of the input if that is possible without copying, otherwise null.
+     */
+    static R064Strided view(final Access1D<?> matrix) {
+        if (matrix instanceof R064Strided) {
+            return (R064Strided) matrix;
+        }
+        if (matrix instanceof Primitive64Store) {
+            return R064Strided.of((Primitive64Store) matrix);
+        }
+        if (matrix instanceof TransposedStore && ((TransposedStore<?>) matrix).base() instanceof Primitive64Store) {
+            return R064Strided.of((Primitive64Store) ((TransposedStore<?>) matrix).base()).transpose();
+        }
+        return null;
+    }
+
+    public final double[] data;
+
+    private final int myColumnStride;
+    /**
+     * Resolved when first needed, most views are never multiplied into
+     */
+    private TransformableRegion.FillByMultiplying<Double> myMultiplier = null;
+    private final int myOffset;
+    private final int myRowStride;
+
+    R064Strided(final double[] data, final int offset, final int nbRows, final int nbCols, final int rowStride, final int columnStride) {
+
+        super(Primitive64Store.FACTORY, nbRows, nbCols);
+
+        this.data = data;
+        myOffset = offset;
+        myRowStride = rowStride;
+        myColumnStride = columnStride;
+    }
+
+    @Override
+    public void add(final long row, final long col, final Comparable<?> addend) {
+        data[this.index(row, col)] += PrimitiveScalar.valueOf(addend).doubleValue();
+    }
+
+    @Override
+    public void add(final long row, final long col, final double addend) {
+        data[this.index(row, col)] += addend;
+    }
+
+    /**
+     * [this] += alpha * [left][right]
+     */
+    public void addProduct(final double alpha, final R064Strided left, final R064Strided right) {
+        this.multiply(alpha, true, left, right);
+    }
+
+    /**
+     * A sub-block of this view, also a view of the same array.
+     */
+    public R064Strided block(final int rowOffset, final int columnOffset, final int nbRows, final int nbCols) {
+        if (rowOffset < 0 || columnOffset < 0 || rowOffset + nbRows > this.getRowDim() || columnOffset + nbCols > this.getColDim()) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        return new R064Strided(data, myOffset + rowOffset * myRowStride + columnOffset * myColumnStride, nbRows, nbCols, myRowStride, myColumnStride);
+    }
+
+    @Override
+    public R064Strided column(final int col) {
+        return this.block(0, col, this.getRowDim(), 1);
+    }
+
+    @Override
+    public double doubleValue(final int row, final int col) {
+        return data[myOffset + row * myRowStride + col * myColumnStride];
+    }
+
+    @Override
+    public void exchangeColumns(final long colA, final long colB) {
+        if (colA != colB) {
+            int a = this.index(0L, colA);
+            int b = this.index(0L, colB);
+            for (int i = 0, limit = this.getRowDim(); i < limit; i++) {
+                int ia = a + i * myRowStride;
+                int ib = b + i * myRowStride;
+                double tmp = data[ia];
+                data[ia] = data[ib];
+                data[ib] = tmp;
+            }
+        }
+    }
+
+    @Override
+    public void exchangeRows(final long rowA, final long rowB) {
+        if (rowA != rowB) {
+            int a = this.index(rowA, 0L);
+            int b = this.index(rowB, 0L);
+            for (int j = 0, limit = this.getColDim(); j < limit; j++) {
+                int ja = a + j * myColumnStride;
+                int jb = b + j * myColumnStride;
+                double tmp = data[ja];
+                data[ja] = data[jb];
+                data[jb] = tmp;
+            }
+        }
+    }
+
+    @Override
+    public void fillByMultiplying(final Access1D<Double> left, final Access1D<Double> right) {
+
+        int complexity = Math.toIntExact(left.count() / this.countRows());
+        if (complexity != Math.toIntExact(right.count() / this.countColumns())) {
+            ProgrammingError.throwForMultiplicationNotPossible();
+        }
+
+        R064Strided viewLeft = R064Strided.view(left);
+        R064Strided viewRight = R064Strided.view(right);
+
+        if (viewLeft != null && viewRight != null && viewLeft.getColDim() == complexity && viewRight.getRowDim() == complexity) {
+            this.multiply(1.0, false, viewLeft, viewRight);
+        } else {
+            this.getMultiplier().invoke(this, left, complexity, right);
+        }
+    }
+
+    @Override
+    public void fillMatching(final Access1D<?> values) {
+
+        R064Strided view = R064Strided.view(values);
+
+        if (view != null && view.getRowDim() == this.getRowDim() && view.getColDim() == this.getColDim()) {
+            for (int j = 0, nbCols = this.getColDim(); j < nbCols; j++) {
+                int to = myOffset + j * myColumnStride;
+                int from = view.myOffset + j * view.myColumnStride;
+                for (int i = 0, nbRows = this.getRowDim(); i < nbRows; i++) {
+                    data[to + i * myRowStride] = view.data[from + i * view.myRowStride];
+                }
+            }
+        } else if (values instanceof Access2D && ((Access2D<?>) values).countRows() == this.countRows()) {
+            Access2D<?> matrix = (Access2D<?>) values;
+            for (int j = 0, nbCols = Math.toIntExact(Math.min(this.countColumns(), matrix.countColumns())); j < nbCols; j++) {
+                for (int i = 0, nbRows = this.getRowDim(); i < nbRows; i++) {
+                    data[myOffset + i * myRowStride + j * myColumnStride] = matrix.doubleValue(i, j);
+                }
+            }
+        } else {
+            for (long i = 0L, limit = Math.min(this.count(), values.count()); i < limit; i++) {
+                this.set(i, values.doubleValue(i));
+            }
+        }
+    }
+
+    @Override
+    public Double get(final int row, final int col) {
+        return Double.valueOf(this.doubleValue(row, col));
+    }
+
+    public int getColumnStride() {
+        return myColumnStride;
+    }
+
+    public int getOffset() {
+        return myOffset;
+    }
+
+    public int getRowStride() {
+        return myRowStride;
+    }
+
+    @Override
+    public R064Strided limits(final long rowLimit, final long columnLimit) {
+        int nbRows = rowLimit < 0 ? this.getRowDim() : Math.toIntExact(Math.min(rowLimit, this.countRows()));
+        int nbCols = columnLimit < 0 ? this.getColDim() : Math.toIntExact(Math.min(columnLimit, this.countColumns()));
+        return this.block(0, 0, nbRows, nbCols);
+    }
+
+    @Override
+    public void modifyOne(final long row, final long col, final UnaryFunction<Double> modifier) {
+        int index = this.index(row, col);
+        data[index] = modifier.invoke(data[index]);
+    }
+
+    @Override
+    public R064Strided offsets(final long rowOffset, final long columnOffset) {
+        int rowOff = rowOffset < 0 ? 0 : Math.toIntExact(rowOffset);
+        int colOff = columnOffset < 0 ? 0 : Math.toIntExact(columnOffset);
+        return this.block(rowOff, colOff, this.getRowDim() - rowOff, this.getColDim() - colOff);
+    }
+
+    @Override
+    public TransformableRegion<Double> regionByColumns(final int... columns) {
+        return new Subregion2D.ColumnsRegion<>(this, (product, left, complexity, right) -> this.getMultiplier().invoke(product, left, complexity, right), columns);
+    }
+
+    @Override
+    public R064Strided regionByLimits(final int rowLimit, final int columnLimit) {
+        return this.block(0, 0, rowLimit, columnLimit);
+    }
+
+    @Override
+    public R064Strided regionByOffsets(final int rowOffset, final int columnOffset) {
+        return this.block(rowOffset, columnOffset, this.getRowDim() - rowOffset, this.getColDim() - columnOffset);
+    }
+
+    @Override
+    public TransformableRegion<Double> regionByRows(final int... rows) {
+        return new Subregion2D.RowsRegion<>(this, (product, left, complexity, right) -> this.getMultiplier().invoke(product, left, complexity, right), rows);
+    }
+
+    @Override
+    public R064Strided regionByTransposing() {
+        return this.transpose();
+    }
+
+    @Override
+    public R064Strided row(final int row) {
+        return this.block(row, 0, 1, this.getColDim());
+    }
+
+    @Override
+    public void set(final int row, final int col, final double value) {
+        data[myOffset + row * myRowStride + col * myColumnStride] = value;
+    }
+
+    @Override
+    public void set(final long row, final long col, final Comparable<?> value) {
+        data[this.index(row, col)] = PrimitiveScalar.valueOf(value).doubleValue();
+    }
+
+    @Override
+    public void supplyTo(final TransformableRegion<Double> receiver) {
+        if (receiver instanceof R064Strided || receiver instanceof Primitive64Store) {
+            receiver.fillMatching(this);
+        } else {
+            super.supplyTo(receiver);
+        }
+    }
+
+    @Override
+    public PrimitiveScalar toScalar(final long row, final long col) {
+        return PrimitiveScalar.of(data[this.index(row, col)]);
+    }
+
+    @Override
+    public R064Strided transpose() {
+        return new R064Strided(data, myOffset, this.getColDim(), this.getRowDim(), myColumnStride, myRowStride);
+    }
+
+    private TransformableRegion.FillByMultiplying<Double> getMultiplier() {
+        if (myMultiplier == null) {
+            myMultiplier = MultiplyBoth.newPrimitive64(this.getRowDim(), this.getColDim());
+        }
+        return myMultiplier;
+    }
+
+    private int index(final long row, final long col) {
+        return myOffset + Math.toIntExact(row) * myRowStride + Math.toIntExact(col) * myColumnStride;
+    }
+
+    private void multiply(final double alpha, final boolean accumulate, final R064Strided left, final R064Strided right) {
+
+        int nbCols = this.getColDim();
+
+        if ((long) this.getRowDim() * nbCols * left.getColDim() > THRESHOLD && nbCols > 1) {
+            int workPerColumn = Math.max(1, this.getRowDim() * left.getColDim());
+            DIVIDER.parallelism(PARALLELISM).threshold(Math.max(1, THRESHOLD / workPerColumn)).divide(0, nbCols,
+                    (f, l) -> R064Strided.multiply(this, alpha, accumulate, left, right, f, l));
+        } else {
+            R064Strided.multiply(this, alpha, accumulate, left, right, 0, nbCols);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Arrays;
+
+import org.ojalgo.structure.Structure2D;
+
+/**
+ * Per-thread scratch (work) stores, for code that is executed repeatedly with the same (or similar) shapes
+ * and should not allocate anything in steady state. Each call site uses its own slot – a small integer
+ * index – and gets the same store back every time (on the same thread) as long as the requested shape
+ * doesn't change.
+ * <p>
+ * The contents of a returned store are undefined. It is whatever the previous user of that slot left there.
+ * Either overwrite everything, or call {@link PhysicalStore#reset()} first.
+ * <p>
+ * Instances are thread safe, but the returned stores are not meant to be shared between threads.
+ *
+ * @author apete
+ */
+public final class ScratchPool<N extends Comparable<N>, I extends PhysicalStore<N>> {
+
+    public static <N extends Comparable<N>, I extends PhysicalStore<N>> ScratchPool<N, I> of(final PhysicalStore.Factory<N, I> factory) {
+        return new ScratchPool<>(factory);
+    }
+
+    private final PhysicalStore.Factory<N, I> myFactory;
+    private final ThreadLocal<Object[]> mySlots = ThreadLocal.withInitial(() -> new Object[8]);
+
+    ScratchPool(final PhysicalStore.Factory<N, I> factory) {
+        super();
+        myFactory = factory;
+    }
+
+    /**
+     * @param slot The call site specific index
+     * @param rows The required number of rows
+     * @param columns The required number of columns
+     * @return A store of exactly the requested shape – with undefined contents
+     */
+    public I get(final int slot, final long rows, final long columns) {
+
+        Object[] slots = mySlots.get();
+
+        if (slot >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slot + 1, 2 * slots.length));
+            mySlots.set(slots);
+        }
+
+        I retVal = (I) slots[slot];
+
+        if (retVal == null || retVal.countRows() != rows || retVal.countColumns() != columns) {
+            retVal = myFactory.make(rows, columns);
+            slots[slot] = retVal;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Same as {@link #get(int, long, long)} with the shape of the template.
+     */
+    public I get(final int slot, final Structure2D template) {
+        return this.get(slot, template.countRows(), template.countColumns());
+    }
+
+    public PhysicalStore.Factory<N, I> getFactory() {
+        return myFactory;
+    }
+
+    /**
+     * Drops all scratch stores of the calling thread.
+     */
+    public void release() {
+        mySlots.remove();
+    }
+
+}
@@ -23,7 +23,9 @@ package org.ojalgo.matrix.store;
 
 /**
  * Does not change the matrix size/shape, but applies some structure to the elements. Shaded elements are
- * assumed to be zero.
+ * assumed to be zero. The structure (first/limit in rows and columns) is the intersection of what the
+ * subclass shades and what the base store reports, so that nested shadings (bidiagonal, tridiagonal,
+ * diagonal...) describe their actual nonzero pattern.
  *
  * @author apete
  */
@@ -33,6 +35,26 @@ abstract class ShadingStore<N extends Comparable<N>> extends LogicalStore<N> {
         super(base, base.getRowDim(), base.getColDim());
     }
 
+    @Override
+    public int firstInColumn(final int col) {
+        return this.base().firstInColumn(col);
+    }
+
+    @Override
+    public int firstInRow(final int row) {
+        return this.base().firstInRow(row);
+    }
+
+    @Override
+    public int limitOfColumn(final int col) {
+        return this.base().limitOfColumn(col);
+    }
+
+    @Override
+    public int limitOfRow(final int row) {
+        return this.base().limitOfRow(row);
+    }
+
     @Override
     public void supplyTo(final TransformableRegion<N> consumer) {
 
@@ -34,6 +34,7 @@ import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
 import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.constant.PrimitiveMath;
 import org.ojalgo.matrix.operation.MultiplyBoth;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
@@ -241,6 +242,12 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
         }
     }
 
+    /**
+     * Cached {@link #toCSR()} result, cleared by the mutators (not by the read-only views and accessors). It
+     * may be created lazily by concurrent readers – volatile so that they never see a partially constructed
+     * instance. At worst more than one (identical) instance is created.
+     */
+    private volatile R064CSR myCSR = null;
     private final SparseArray<N> myElements;
     private final int[] myFirsts;
     private final int[] myLimits;
@@ -267,6 +274,7 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
     @Override
     public void add(final long row, final long col, final Comparable<?> addend) {
         synchronized (myElements) {
+            myCSR = null;
             myElements.add(Structure2D.index(myFirsts.length, row, col), addend);
         }
         this.updateNonZeros(row, col);
@@ -275,11 +283,47 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
     @Override
     public void add(final long row, final long col, final double addend) {
         synchronized (myElements) {
+            myCSR = null;
             myElements.add(Structure2D.index(myFirsts.length, row, col), addend);
         }
         this.updateNonZeros(row, col);
     }
 
+    /**
+     * Bulk load COO (coordinate) triplets – (rows[k], columns[k], values[k]) for k in [0, size). The triplets
+     * may be in any order and duplicates are summed. They're sorted once, O(nnz log nnz), instead of
+     * inserting them one at a time.
+     *
+     * @see CompressedSparseR064#builder(int, int)
+     */
+    public void addAll(final int[] rows, final int[] columns, final double[] values, final int size) {
+
+        int nbRows = myFirsts.length;
+        int nbCols = this.getColDim();
+
+        long[] indices = new long[size];
+        double[] sorted = new double[size];
+
+        for (int k = 0; k < size; k++) {
+            int row = rows[k];
+            int col = columns[k];
+            if (row < 0 || row >= nbRows || col < 0 || col >= nbCols) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            indices[k] = Structure2D.index(nbRows, row, col);
+            sorted[k] = values[k];
+        }
+
+        synchronized (myElements) {
+            myCSR = null;
+            myElements.addAll(indices, sorted, size);
+        }
+
+        for (int k = 0; k < size; k++) {
+            this.updateNonZeros(rows[k], columns[k]);
+        }
+    }
+
     @Override
     public double doubleValue(final int row, final int col) {
         return myElements.doubleValue(Structure2D.index(myFirsts.length, row, col));
@@ -326,6 +370,7 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
     @Override
     public void fillOne(final long row, final long col, final N value) {
         synchronized (myElements) {
+            myCSR = null;
             myElements.fillOne(Structure2D.index(myFirsts.length, row, col), value);
         }
         this.updateNonZeros(row, col);
@@ -334,6 +379,7 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
     @Override
     public void fillOne(final long row, final long col, final NullaryFunction<?> supplier) {
         synchronized (myElements) {
+            myCSR = null;
             myElements.fillOne(Structure2D.index(myFirsts.length, row, col), supplier);
         }
         this.updateNonZeros(row, col);
@@ -417,6 +463,8 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
     @Override
     public void modifyMatching(final Access1D<N> left, final BinaryFunction<N> function) {
 
+        myCSR = null;
+
         long limit = Math.min(left.count(), this.count());
         boolean notModifiesZero = function.invoke(E, ZERO) == ZERO;
 
@@ -444,6 +492,8 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
     @Override
     public void modifyMatching(final BinaryFunction<N> function, final Access1D<N> right) {
 
+        myCSR = null;
+
         long limit = Math.min(this.count(), right.count());
         boolean notModifiesZero = function.invoke(ZERO, E) == ZERO;
 
@@ -484,6 +534,11 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
 
             SparseStore.multiply(this, (SparseStore<N>) right, target);
 
+        } else if (this.isPrimitive() && myElements.countNonzeros() > R064CSR.THRESHOLD && R064CSR.PARALLELISM.getAsInt() > 1) {
+
+            // Converting to CSR is O(nnz), done once until modified, and enables a row partitioned parallel multiplication
+            this.toCSR().multiply((Access1D<Double>) right, (TransformableRegion<Double>) target);
+
         } else if (this.isPrimitive()) {
 
             long complexity = this.countColumns();
@@ -590,6 +645,11 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
         return super.multiplyBoth(leftAndRight);
     }
 
+    @Override
+    public MatrixStore<N> negate() {
+        return this.multiply(PrimitiveMath.NEG);
+    }
+
     @Override
     public ElementView2D<N, ?> nonzeros() {
         return new Access2D.ElementView<>(myElements.nonzeros(), this.countRows());
@@ -692,6 +752,7 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
 
     @Override
     public void reset() {
+        myCSR = null;
         myElements.reset();
         Arrays.fill(myFirsts, this.getColDim());
         Arrays.fill(myLimits, 0);
@@ -700,6 +761,7 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
     @Override
     public void set(final long row, final long col, final Comparable<?> value) {
         synchronized (myElements) {
+            myCSR = null;
             myElements.set(Structure2D.index(myFirsts.length, row, col), value);
         }
         this.updateNonZeros(row, col);
@@ -708,6 +770,7 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
     @Override
     public void set(final int row, final int col, final double value) {
         synchronized (myElements) {
+            myCSR = null;
             myElements.set(Structure2D.index(myFirsts.length, row, col), value);
         }
         this.updateNonZeros(row, col);
@@ -721,6 +784,47 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
         myElements.supplyNonZerosTo(receiver);
     }
 
+    /**
+     * Convert to an immutable Compressed Sparse Column store (with double values). The elements are already
+     * stored in column-major order, so this is O(nnz).
+     */
+    public R064CSC toCSC() {
+
+        int nbRows = this.getRowDim();
+        int nbCols = this.getColDim();
+        int nnz = Math.toIntExact(myElements.countNonzeros());
+
+        int[] pointers = new int[nbCols + 1];
+        int[] indices = new int[nnz];
+        double[] values = new double[nnz];
+
+        int count = 0;
+        for (NonzeroView<N> element : myElements.nonzeros()) {
+            long index = element.index();
+            indices[count] = Math.toIntExact(index % nbRows);
+            values[count] = element.doubleValue();
+            pointers[Math.toIntExact(index / nbRows) + 1]++;
+            count++;
+        }
+        for (int j = 0; j < nbCols; j++) {
+            pointers[j + 1] += pointers[j];
+        }
+
+        return new R064CSC(nbRows, nbCols, new CompressedSparseR064.Compressed(pointers, indices, values));
+    }
+
+    /**
+     * Convert to an immutable Compressed Sparse Row store (with double values). The result is cached, and
+     * returned again, until this store is modified.
+     */
+    public R064CSR toCSR() {
+        R064CSR retVal = myCSR;
+        if (retVal == null) {
+            myCSR = retVal = this.toCSC().toCSR();
+        }
+        return retVal;
+    }
+
     @Override
     public void visitColumn(final long row, final long col, final VoidFunction<N> visitor) {
 
@@ -758,6 +862,9 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
         this.updateNonZeros((int) row, (int) col);
     }
 
+    /**
+     * Only to be read from – modifying the elements through this would not invalidate {@link #toCSR()}.
+     */
     SparseArray<N> getElements() {
         return myElements;
     }
@@ -47,9 +47,9 @@ final class UpperHessenbergStore<N extends Comparable<N>> extends ShadingStore<N
     @Override
     public int firstInRow(final int row) {
         if (row == 0) {
-            return 0;
+            return super.firstInRow(row);
         }
-        return row - 1;
+        return Math.max(row - 1, super.firstInRow(row));
     }
 
     @Override
@@ -62,7 +62,7 @@ final class UpperHessenbergStore<N extends Comparable<N>> extends ShadingStore<N
 
     @Override
     public int limitOfColumn(final int col) {
-        return Math.min(col + 2, this.getRowDim());
+        return Math.min(col + 2, super.limitOfColumn(col));
     }
 
     @Override
@@ -47,9 +47,20 @@ final class UpperTriangularStore<N extends Comparable<N>> extends ShadingStore<N
         }
     }
 
+    @Override
+    public int firstInColumn(final int col) {
+        if (myUnitDiagonal) {
+            return Math.min(col, super.firstInColumn(col));
+        }
+        return super.firstInColumn(col);
+    }
+
     @Override
     public int firstInRow(final int row) {
-        return row;
+        if (myUnitDiagonal) {
+            return row;
+        }
+        return Math.max(row, super.firstInRow(row));
     }
 
     @Override
@@ -66,7 +77,18 @@ final class UpperTriangularStore<N extends Comparable<N>> extends ShadingStore<N
 
     @Override
     public int limitOfColumn(final int col) {
-        return Math.min(col + 1, this.getRowDim());
+        if (myUnitDiagonal) {
+            return Math.min(col + 1, this.getRowDim());
+        }
+        return Math.min(col + 1, super.limitOfColumn(col));
+    }
+
+    @Override
+    public int limitOfRow(final int row) {
+        if (myUnitDiagonal) {
+            return Math.min(Math.max(row + 1, super.limitOfRow(row)), this.getColDim());
+        }
+        return super.limitOfRow(row);
     }
 
     @Override
@@ -24,8 +24,14 @@ package org.ojalgo.matrix.task.iterative;
 import static org.ojalgo.function.constant.PrimitiveMath.*;
 
 import java.util.List;
+import java.util.function.IntSupplier;
 
 import org.ojalgo.RecoverableCondition;
+import org.ojalgo.array.BasicArray;
+import org.ojalgo.array.SparseArray;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.equation.Equation;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
@@ -45,6 +51,41 @@ import org.ojalgo.type.context.NumberContext;
  */
 public final class ConjugateGradientSolver extends KrylovSubspaceSolver implements IterativeSolverTask.SparseDelegate {
 
+    public static IntSupplier PARALLELISM = Parallelism.CORES;
+    /**
+     * The (sparse) matrix-vector multiplication of each iteration is done in parallel when the total number
+     * of nonzeros is larger than this. The equations are partitioned by their number of nonzeros.
+     */
+    public static int THRESHOLD = 32_768;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    /**
+     * The cumulative number of nonzeros of the equations' bodies: [0, nnz(0), nnz(0) + nnz(1), ...]
+     */
+    private static long[] cumulativeNonzeros(final List<Equation> equations) {
+
+        int nbEquations = equations.size();
+
+        long[] retVal = new long[nbEquations + 1];
+
+        for (int i = 0; i < nbEquations; i++) {
+            BasicArray<?> body = equations.get(i).getBody();
+            long nonzeros = body instanceof SparseArray ? ((SparseArray<?>) body).countNonzeros() : body.count();
+            retVal[i + 1] = retVal[i] + nonzeros;
+        }
+
+        return retVal;
+    }
+
+    private static void multiply(final List<Equation> equations, final Primitive64Store direction, final Primitive64Store vector, final int first,
+            final int limit) {
+        for (int i = first; i < limit; i++) {
+            Equation row = equations.get(i);
+            vector.set(row.index, row.dot(direction));
+        }
+    }
+
     private transient Primitive64Store myDirection = null;
     private transient Primitive64Store myPreconditioned = null;
     private transient Primitive64Store myResidual = null;
@@ -91,13 +132,18 @@ public final class ConjugateGradientSolver extends KrylovSubspaceSolver implemen
 
         zr1 = preconditioned.dot(residual);
 
+        long[] cumulativeNonzeros = ConjugateGradientSolver.cumulativeNonzeros(equations);
+        boolean parallel = cumulativeNonzeros[nbEquations] > THRESHOLD;
+
         do {
 
             zr0 = zr1;
 
-            for (int i = 0; i < nbEquations; i++) {
-                Equation row = equations.get(i);
-                vector.set(row.index, row.dot(direction));
+            if (parallel) {
+                DIVIDER.parallelism(PARALLELISM).threshold(THRESHOLD).divide(0, nbEquations, i -> cumulativeNonzeros[i],
+                        (first, last) -> ConjugateGradientSolver.multiply(equations, direction, vector, first, last));
+            } else {
+                ConjugateGradientSolver.multiply(equations, direction, vector, 0, nbEquations);
             }
 
             pAp0 = direction.dot(vector);
@@ -0,0 +1,48 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import org.ojalgo.array.SparseArray;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.transformation.InvertibleFactor;
+
+/**
+ * The representation of the (inverse) basis used by {@link RevisedStore} – {@link ProductFormInverse} or
+ * {@link SparseLU}.
+ */
+interface BasisRepresentation extends InvertibleFactor<Double> {
+
+    /**
+     * Reset/refactorise using the full basis.
+     */
+    void reset(MatrixStore<Double> basis);
+
+    /**
+     * Update to reflect a replaced column in the basis.
+     *
+     * @param basis Full basis, with the column already exchanged.
+     * @param index The index, of the column, that was exchanged.
+     * @param values The (non zero) values of that column.
+     */
+    void update(MatrixStore<Double> basis, int index, SparseArray<Double> values);
+
+}
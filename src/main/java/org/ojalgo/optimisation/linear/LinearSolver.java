@@ -54,6 +54,25 @@ public abstract class LinearSolver extends GenericSolver implements UpdatableSol
 
     public static final class Configuration {
 
+        private boolean mySparseLU = false;
+
+        public boolean isSparseLU() {
+            return mySparseLU;
+        }
+
+        /**
+         * The revised simplex implementation (used when {@link Optimisation.Options#sparse} is TRUE) keeps
+         * a representation of the inverse basis. By default that is a product form inverse (a dense LU and
+         * a file of eta columns). With this set it is instead a sparse LU factorisation, with threshold
+         * Markowitz pivoting and Forrest-Tomlin updates, that never uses dense matrices.
+         * <p>
+         * This is an experimental feature!
+         */
+        public Configuration sparseLU(final boolean sparseLU) {
+            mySparseLU = sparseLU;
+            return this;
+        }
+
     }
 
     /**
@@ -588,7 +607,7 @@ public abstract class LinearSolver extends GenericSolver implements UpdatableSol
 
             PhasedSimplexSolver solver = SimplexStore.build(model, structure -> {
                 if (Boolean.TRUE.equals(model.options.sparse)) {
-                    return new RevisedStore(structure);
+                    return new RevisedStore(structure, model.options.linear());
                 } else if (Boolean.FALSE.equals(model.options.sparse)) {
                     return new TableauStore(structure);
                 } else {
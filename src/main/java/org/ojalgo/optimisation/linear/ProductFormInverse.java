@@ -37,7 +37,7 @@ import org.ojalgo.matrix.store.Primitive64Store;
 import org.ojalgo.matrix.transformation.InvertibleFactor;
 import org.ojalgo.type.ObjectPool;
 
-final class ProductFormInverse implements InvertibleFactor<Double> {
+final class ProductFormInverse implements BasisRepresentation {
 
     static final class ArrayPool extends ObjectPool<SparseArray<Double>> {
 
@@ -202,7 +202,7 @@ final class ProductFormInverse implements InvertibleFactor<Double> {
      *
      * @param basis Full basis, with the column already exchanged.
      */
-    void reset(final MatrixStore<Double> basis) {
+    public void reset(final MatrixStore<Double> basis) {
         this.clearFactors();
         myRoot.decompose(basis.transpose());
     }
@@ -231,7 +231,7 @@ final class ProductFormInverse implements InvertibleFactor<Double> {
      * @param index The index, of the column, that was exchanged.
      * @param values The (non zero) values of that column.
      */
-    void update(final MatrixStore<Double> basis, final int index, final SparseArray<Double> values) {
+    public void update(final MatrixStore<Double> basis, final int index, final SparseArray<Double> values) {
 
         values.supplyTo(myWork);
 
@@ -57,7 +57,7 @@ final class RevisedStore extends SimplexStore {
     }
 
     static RevisedStore build(final ExpressionsBasedModel model) {
-        return SimplexStore.build(model, RevisedStore::new);
+        return SimplexStore.build(model, structure -> new RevisedStore(structure, model.options.linear()));
     }
 
     static RevisedStore build(final LinearSolver.GeneralBuilder builder, final int... basis) {
@@ -78,7 +78,7 @@ final class RevisedStore extends SimplexStore {
     private final ColumnsSupplier.SingleView<Double> myConstraintsColumn;
     private final Primitive64Store myConstraintsRHS;
     private Primitive64Store myCopiedObjective = null;
-    private final ProductFormInverse myInvBasis;
+    private final BasisRepresentation myInvBasis;
     private final Primitive64Store myObjective;
     /**
      * cost reducer
@@ -99,6 +99,10 @@ final class RevisedStore extends SimplexStore {
     }
 
     RevisedStore(final LinearStructure linearStructure) {
+        this(linearStructure, new LinearSolver.Configuration());
+    }
+
+    RevisedStore(final LinearStructure linearStructure, final LinearSolver.Configuration configuration) {
 
         super(linearStructure);
 
@@ -118,7 +122,11 @@ final class RevisedStore extends SimplexStore {
         r = RevisedStore.newColumn(n - m);
 
         myBasis = myConstraintsBody.columns(included);
-        myInvBasis = new ProductFormInverse(m, TWO_THIRDS); // TODO The scaling threshold should be much smaller
+        if (configuration.isSparseLU()) {
+            myInvBasis = new SparseLU(m, RELATIVELY_SMALL);
+        } else {
+            myInvBasis = new ProductFormInverse(m, TWO_THIRDS); // TODO The scaling threshold should be much smaller
+        }
     }
 
     private void doExclTranspMult(final MatrixStore<Double> lambda, final PhysicalStore<Double> results) {
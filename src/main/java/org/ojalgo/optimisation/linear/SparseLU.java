@@ -0,0 +1,779 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.SparseArray;
+import org.ojalgo.array.SparseArray.NonzeroView;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.structure.ElementView2D;
+
+/**
+ * Sparse LU factorisation of the (revised) simplex basis, [P][B][Q] = [L][U], with Forrest-Tomlin updates
+ * when a basis column is replaced. An alternative to {@link ProductFormInverse} that never uses dense
+ * matrices – ftran/btran cost is proportional to the number of nonzeros in the factors.
+ * <ul>
+ * <li>The factorisation is right-looking with threshold Markowitz pivoting: the pivot minimises the
+ * Markowitz count (r<sub>i</sub>-1)(c<sub>j</sub>-1) among the elements that are at least
+ * {@link #PIVOT_THRESHOLD} times the largest element in their row. Only a few rows/columns, those with the
+ * smallest counts, are searched.
+ * <li>[L] is kept as a file of column etas, [U] row-wise in the (permuted) pivot order.
+ * <li>A Forrest-Tomlin update replaces a column of [U] with the (partially transformed) new column, moves
+ * it last in the pivot order and eliminates the row that then breaks the triangular structure. That
+ * elimination is kept as a row eta.
+ * <li>The basis is refactorised (from scratch) when there have been {@link #UPDATES} updates, when the
+ * factors have grown more than {@link #FILL} times, or when an update would be numerically unstable.
+ * </ul>
+ *
+ * @author apete
+ */
+final class SparseLU implements BasisRepresentation {
+
+    /**
+     * Refactorise when the number of nonzeros in the factors (incl. the update etas) grows larger than this
+     * times the number right after factorisation.
+     */
+    public static double FILL = 2.0;
+    /**
+     * The threshold Markowitz pivoting parameter: a pivot candidate must be at least this times the largest
+     * (absolute) value in its row. 1.0 is partial pivoting, smaller values allow sparser factors.
+     */
+    public static double PIVOT_THRESHOLD = 0.1;
+    /**
+     * Stop searching for a better pivot after this many rows/columns have been examined (and a candidate
+     * found).
+     */
+    public static int SEARCH = 4;
+    /**
+     * The maximum number of Forrest-Tomlin updates before refactorising
+     */
+    public static int UPDATES = 100;
+
+    private static int[] grow(final int[] array, final int minLength) {
+        return Arrays.copyOf(array, Math.max(minLength, 2 * array.length + 4));
+    }
+
+    private static double[] grow(final double[] array, final int minLength) {
+        return Arrays.copyOf(array, Math.max(minLength, 2 * array.length + 4));
+    }
+
+    private final int myDim;
+    private boolean myFactorised = false;
+    private int myInitialNonzeros = 0;
+    /**
+     * [L] column etas – at step k, the row myRows[k] times the values subtracted from the other rows
+     */
+    private int[] myLIndices = new int[16];
+    private int[] myLPivots;
+    private int[] myLPointers;
+    private int myLSteps = 0;
+    private double[] myLValues = new double[16];
+    private int myNonzeros = 0;
+    /**
+     * The basis column that is pivot at each position
+     */
+    private final int[] myPivotColumns;
+    /**
+     * The row that is pivot at each position
+     */
+    private final int[] myPivotRows;
+    private final int[] myPositions;
+    /**
+     * Row etas from the Forrest-Tomlin updates
+     */
+    private int[] myRIndices = new int[16];
+    private final int[] myRPivots;
+    private final int[] myRPointers;
+    private int myRSteps = 0;
+    private double[] myRValues = new double[16];
+    private final double myStability;
+    private final double[] myUDiagonal;
+    private final int[][] myUIndices;
+    private final int[] myULengths;
+    private final int[][] myURows;
+    private final int[] myURowsLengths;
+    private final double[][] myUValues;
+    private final double[] myWork;
+    private final double[] myWork2;
+
+    /**
+     * @param dim The basis dimension
+     * @param stability An update is (numerically) rejected, and the basis refactorised, if the new diagonal
+     *        element is smaller than this times the largest element of the transformed column.
+     */
+    SparseLU(final int dim, final double stability) {
+
+        super();
+
+        myDim = dim;
+        myStability = stability;
+
+        myPivotRows = new int[dim];
+        myPivotColumns = new int[dim];
+        myPositions = new int[dim];
+
+        myLPivots = new int[dim];
+        myLPointers = new int[dim + 1];
+
+        myRPivots = new int[UPDATES];
+        myRPointers = new int[UPDATES + 1];
+
+        myUDiagonal = new double[dim];
+        myUIndices = new int[dim][];
+        myUValues = new double[dim][];
+        myULengths = new int[dim];
+        myURows = new int[dim][];
+        myURowsLengths = new int[dim];
+
+        myWork = new double[dim];
+        myWork2 = new double[dim];
+    }
+
+    public void btran(final PhysicalStore<Double> arg) {
+
+        if (!myFactorised) {
+            return;
+        }
+
+        double[] columns = myWork;
+        double[] rows = myWork2;
+
+        for (int c = 0, nbCols = Math.toIntExact(arg.countColumns()); c < nbCols; c++) {
+
+            for (int i = 0; i < myDim; i++) {
+                columns[i] = arg.doubleValue(i, c);
+            }
+
+            // [U]T
+
+            for (int k = 0; k < myDim; k++) {
+                int p = myPivotRows[k];
+                double zp = columns[myPivotColumns[k]] / myUDiagonal[p];
+                rows[p] = zp;
+                if (zp != ZERO) {
+                    int[] indices = myUIndices[p];
+                    double[] values = myUValues[p];
+                    for (int e = 0, limit = myULengths[p]; e < limit; e++) {
+                        columns[indices[e]] -= values[e] * zp;
+                    }
+                }
+            }
+
+            // [R]T
+
+            for (int s = myRSteps - 1; s >= 0; s--) {
+                double zt = rows[myRPivots[s]];
+                if (zt != ZERO) {
+                    for (int e = myRPointers[s], limit = myRPointers[s + 1]; e < limit; e++) {
+                        rows[myRIndices[e]] -= myRValues[e] * zt;
+                    }
+                }
+            }
+
+            // [L]T
+
+            for (int k = myLSteps - 1; k >= 0; k--) {
+                double sum = ZERO;
+                for (int e = myLPointers[k], limit = myLPointers[k + 1]; e < limit; e++) {
+                    sum += myLValues[e] * rows[myLIndices[e]];
+                }
+                rows[myLPivots[k]] -= sum;
+            }
+
+            for (int i = 0; i < myDim; i++) {
+                arg.set(i, c, rows[i]);
+            }
+        }
+    }
+
+    public long countColumns() {
+        return myDim;
+    }
+
+    public long countRows() {
+        return myDim;
+    }
+
+    public void ftran(final PhysicalStore<Double> arg) {
+
+        if (!myFactorised) {
+            return;
+        }
+
+        double[] rows = myWork;
+        double[] columns = myWork2;
+
+        for (int c = 0, nbCols = Math.toIntExact(arg.countColumns()); c < nbCols; c++) {
+
+            for (int i = 0; i < myDim; i++) {
+                rows[i] = arg.doubleValue(i, c);
+            }
+
+            this.transform(rows);
+
+            // [U]
+
+            for (int k = myDim - 1; k >= 0; k--) {
+                int p = myPivotRows[k];
+                double sum = rows[p];
+                int[] indices = myUIndices[p];
+                double[] values = myUValues[p];
+                for (int e = 0, limit = myULengths[p]; e < limit; e++) {
+                    sum -= values[e] * columns[indices[e]];
+                }
+                columns[myPivotColumns[k]] = sum / myUDiagonal[p];
+            }
+
+            for (int j = 0; j < myDim; j++) {
+                arg.set(j, c, columns[j]);
+            }
+        }
+    }
+
+    /**
+     * Factorise the basis (from scratch).
+     */
+    public void reset(final MatrixStore<Double> basis) {
+        this.reset();
+        myFactorised = this.factorise(basis);
+        if (!myFactorised) {
+            this.reset();
+        }
+    }
+
+    /**
+     * Update the factorisation to reflect a replaced column in the basis.
+     *
+     * @param basis Full basis, with the column already exchanged.
+     * @param index The index, of the column, that was exchanged.
+     * @param values The (non zero) values of that column.
+     */
+    public void update(final MatrixStore<Double> basis, final int index, final SparseArray<Double> values) {
+        if (!this.replace(index, values)) {
+            this.reset(basis);
+        }
+    }
+
+    /**
+     * Threshold Markowitz, right-looking, factorisation of the basis.
+     *
+     * @return false if the basis is (structurally or numerically) singular
+     */
+    private boolean factorise(final MatrixStore<Double> basis) {
+
+        int dim = myDim;
+
+        // The active sub-matrix: rows with values, columns with (row) patterns only
+
+        int[][] rowIndices = new int[dim][];
+        double[][] rowValues = new double[dim][];
+        int[] rowLengths = new int[dim];
+        int[][] colIndices = new int[dim][];
+        int[] colLengths = new int[dim];
+
+        for (int i = 0; i < dim; i++) {
+            rowIndices[i] = new int[4];
+            rowValues[i] = new double[4];
+            colIndices[i] = new int[4];
+        }
+
+        SparseStore<Double> elements;
+        if (basis instanceof SparseStore) {
+            elements = (SparseStore<Double>) basis;
+        } else {
+            elements = SparseStore.R064.make(dim, dim);
+            basis.supplyTo(elements);
+        }
+
+        for (ElementView2D<Double, ?> element : elements.nonzeros()) {
+            double value = element.doubleValue();
+            if (value != ZERO) {
+                int i = Math.toIntExact(element.row());
+                int j = Math.toIntExact(element.column());
+                if (rowLengths[i] == rowIndices[i].length) {
+                    rowIndices[i] = SparseLU.grow(rowIndices[i], 0);
+                    rowValues[i] = SparseLU.grow(rowValues[i], 0);
+                }
+                rowIndices[i][rowLengths[i]] = j;
+                rowValues[i][rowLengths[i]++] = value;
+                if (colLengths[j] == colIndices[j].length) {
+                    colIndices[j] = SparseLU.grow(colIndices[j], 0);
+                }
+                colIndices[j][colLengths[j]++] = i;
+            }
+        }
+
+        // Count buckets
+
+        int[] rowHead = new int[dim + 1];
+        int[] rowNext = new int[dim];
+        int[] rowPrevious = new int[dim];
+        int[] rowBucket = new int[dim];
+        int[] colHead = new int[dim + 1];
+        int[] colNext = new int[dim];
+        int[] colPrevious = new int[dim];
+        int[] colBucket = new int[dim];
+        Arrays.fill(rowHead, -1);
+        Arrays.fill(colHead, -1);
+
+        for (int i = 0; i < dim; i++) {
+            SparseLU.insert(i, rowLengths[i], rowBucket, rowHead, rowNext, rowPrevious);
+            SparseLU.insert(i, colLengths[i], colBucket, colHead, colNext, colPrevious);
+        }
+
+        int[] positions = new int[dim];
+        Arrays.fill(positions, -1);
+
+        myLSteps = 0;
+        myLPointers[0] = 0;
+        myRSteps = 0;
+        myRPointers[0] = 0;
+
+        int nbLNonzeros = 0;
+        int nbUNonzeros = 0;
+
+        for (int k = 0; k < dim; k++) {
+
+            // Pivot search
+
+            int pivotRow = -1;
+            int pivotCol = -1;
+            long bestCost = Long.MAX_VALUE;
+            double bestValue = ZERO;
+            int searched = 0;
+
+            search: for (int count = 1; count <= dim; count++) {
+
+                for (int j = colHead[count]; j >= 0; j = colNext[j]) {
+                    for (int a = 0; a < colLengths[j]; a++) {
+                        int i = colIndices[j][a];
+                        double value = Math.abs(SparseLU.find(j, rowIndices[i], rowValues[i], rowLengths[i]));
+                        if (value > ZERO && value >= PIVOT_THRESHOLD * SparseLU.largest(rowValues[i], rowLengths[i])) {
+                            long cost = (long) (rowLengths[i] - 1) * (count - 1);
+                            if (cost < bestCost || (cost == bestCost && value > bestValue)) {
+                                bestCost = cost;
+                                bestValue = value;
+                                pivotRow = i;
+                                pivotCol = j;
+                            }
+                        }
+                    }
+                    searched++;
+                    if (pivotRow >= 0 && (searched >= SEARCH || bestCost <= (long) (count - 1) * (count - 1))) {
+                        break search;
+                    }
+                }
+
+                for (int i = rowHead[count]; i >= 0; i = rowNext[i]) {
+                    double threshold = PIVOT_THRESHOLD * SparseLU.largest(rowValues[i], rowLengths[i]);
+                    for (int a = 0; a < rowLengths[i]; a++) {
+                        double value = Math.abs(rowValues[i][a]);
+                        if (value > ZERO && value >= threshold) {
+                            long cost = (long) (count - 1) * (colLengths[rowIndices[i][a]] - 1);
+                            if (cost < bestCost || (cost == bestCost && value > bestValue)) {
+                                bestCost = cost;
+                                bestValue = value;
+                                pivotRow = i;
+                                pivotCol = rowIndices[i][a];
+                            }
+                        }
+                    }
+                    searched++;
+                    if (pivotRow >= 0 && (searched >= SEARCH || bestCost <= (long) (count - 1) * (count - 1))) {
+                        break search;
+                    }
+                }
+            }
+
+            if (pivotRow < 0) {
+                return false;
+            }
+
+            int p = pivotRow;
+            int q = pivotCol;
+
+            SparseLU.remove(p, rowBucket, rowHead, rowNext, rowPrevious);
+            SparseLU.remove(q, colBucket, colHead, colNext, colPrevious);
+
+            // The pivot row becomes a row of [U]
+
+            int[] pIndices = rowIndices[p];
+            double[] pValues = rowValues[p];
+            int pLength = rowLengths[p];
+
+            double pivot = ZERO;
+            int uLength = 0;
+            int[] uIndices = new int[Math.max(1, pLength - 1)];
+            double[] uValues = new double[uIndices.length];
+            for (int a = 0; a < pLength; a++) {
+                int j = pIndices[a];
+                if (j == q) {
+                    pivot = pValues[a];
+                } else {
+                    uIndices[uLength] = j;
+                    uValues[uLength++] = pValues[a];
+                    SparseLU.removeFrom(p, colIndices[j], colLengths, j);
+                }
+            }
+
+            myPivotRows[k] = p;
+            myPivotColumns[k] = q;
+            myUDiagonal[p] = pivot;
+            myUIndices[p] = uIndices;
+            myUValues[p] = uValues;
+            myULengths[p] = uLength;
+            nbUNonzeros += uLength + 1;
+
+            // The pivot column becomes an eta of [L], and the other rows are updated
+
+            myLPivots[k] = p;
+
+            for (int a = 0; a < colLengths[q]; a++) {
+
+                int i = colIndices[q][a];
+                if (i == p) {
+                    continue;
+                }
+
+                int[] iIndices = rowIndices[i];
+                double[] iValues = rowValues[i];
+                int iLength = rowLengths[i];
+
+                double multiplier = ZERO;
+                for (int b = 0; b < iLength; b++) {
+                    if (iIndices[b] == q) {
+                        multiplier = iValues[b] / pivot;
+                        iLength--;
+                        iIndices[b] = iIndices[iLength];
+                        iValues[b] = iValues[iLength];
+                        break;
+                    }
+                }
+
+                if (nbLNonzeros == myLIndices.length) {
+                    myLIndices = SparseLU.grow(myLIndices, 0);
+                    myLValues = SparseLU.grow(myLValues, 0);
+                }
+                myLIndices[nbLNonzeros] = i;
+                myLValues[nbLNonzeros++] = multiplier;
+
+                if (multiplier != ZERO) {
+
+                    for (int b = 0; b < iLength; b++) {
+                        positions[iIndices[b]] = b;
+                    }
+
+                    for (int e = 0; e < uLength; e++) {
+                        int j = uIndices[e];
+                        int position = positions[j];
+                        if (position >= 0) {
+                            iValues[position] -= multiplier * uValues[e];
+                        } else {
+                            if (iLength == iIndices.length) {
+                                iIndices = SparseLU.grow(iIndices, 0);
+                                iValues = SparseLU.grow(iValues, 0);
+                            }
+                            iIndices[iLength] = j;
+                            iValues[iLength++] = -multiplier * uValues[e];
+                            if (colLengths[j] == colIndices[j].length) {
+                                colIndices[j] = SparseLU.grow(colIndices[j], 0);
+                            }
+                            colIndices[j][colLengths[j]++] = i;
+                        }
+                    }
+
+                    for (int b = 0; b < iLength; b++) {
+                        positions[iIndices[b]] = -1;
+                    }
+                }
+
+                rowIndices[i] = iIndices;
+                rowValues[i] = iValues;
+                rowLengths[i] = iLength;
+
+                SparseLU.remove(i, rowBucket, rowHead, rowNext, rowPrevious);
+                SparseLU.insert(i, iLength, rowBucket, rowHead, rowNext, rowPrevious);
+            }
+
+            myLSteps = k + 1;
+            myLPointers[k + 1] = nbLNonzeros;
+
+            for (int e = 0; e < uLength; e++) {
+                int j = uIndices[e];
+                SparseLU.remove(j, colBucket, colHead, colNext, colPrevious);
+                SparseLU.insert(j, colLengths[j], colBucket, colHead, colNext, colPrevious);
+            }
+
+            rowIndices[p] = null;
+            rowValues[p] = null;
+            colIndices[q] = null;
+        }
+
+        for (int k = 0; k < dim; k++) {
+            myPositions[myPivotColumns[k]] = k;
+        }
+
+        // Column patterns of [U], used to locate the elements of a replaced column
+
+        Arrays.fill(myURowsLengths, 0);
+        for (int p = 0; p < dim; p++) {
+            int[] indices = myUIndices[p];
+            for (int e = 0, limit = myULengths[p]; e < limit; e++) {
+                this.addURow(indices[e], p);
+            }
+        }
+
+        myNonzeros = nbLNonzeros + nbUNonzeros;
+        myInitialNonzeros = myNonzeros;
+
+        return true;
+    }
+
+    private static double find(final int index, final int[] indices, final double[] values, final int length) {
+        for (int a = 0; a < length; a++) {
+            if (indices[a] == index) {
+                return values[a];
+            }
+        }
+        return ZERO;
+    }
+
+    private static void insert(final int index, final int count, final int[] bucket, final int[] head, final int[] next, final int[] previous) {
+        bucket[index] = count;
+        int first = head[count];
+        next[index] = first;
+        previous[index] = -1;
+        if (first >= 0) {
+            previous[first] = index;
+        }
+        head[count] = index;
+    }
+
+    private static double largest(final double[] values, final int length) {
+        double retVal = ZERO;
+        for (int a = 0; a < length; a++) {
+            retVal = Math.max(retVal, Math.abs(values[a]));
+        }
+        return retVal;
+    }
+
+    private static void remove(final int index, final int[] bucket, final int[] head, final int[] next, final int[] previous) {
+        int before = previous[index];
+        int after = next[index];
+        if (before >= 0) {
+            next[before] = after;
+        } else {
+            head[bucket[index]] = after;
+        }
+        if (after >= 0) {
+            previous[after] = before;
+        }
+    }
+
+    private static void removeFrom(final int value, final int[] list, final int[] lengths, final int which) {
+        int length = lengths[which];
+        for (int a = 0; a < length; a++) {
+            if (list[a] == value) {
+                list[a] = list[length - 1];
+                lengths[which] = length - 1;
+                return;
+            }
+        }
+    }
+
+    private void addURow(final int col, final int row) {
+        int[] rows = myURows[col];
+        int length = myURowsLengths[col];
+        if (rows == null) {
+            rows = new int[4];
+        } else if (length == rows.length) {
+            rows = SparseLU.grow(rows, 0);
+        }
+        rows[length] = row;
+        myURows[col] = rows;
+        myURowsLengths[col] = length + 1;
+    }
+
+    /**
+     * Forrest-Tomlin update
+     *
+     * @return false if the update was rejected – the basis has to be refactorised
+     */
+    private boolean replace(final int col, final SparseArray<Double> values) {
+
+        if (!myFactorised || myRSteps >= myRPivots.length) {
+            return false;
+        }
+
+        // The spike: [R][L]<sup>-1</sup>[a]
+
+        double[] spike = myWork;
+        Arrays.fill(spike, ZERO);
+        for (NonzeroView<Double> nz : values.nonzeros()) {
+            spike[Math.toIntExact(nz.index())] = nz.doubleValue();
+        }
+        this.transform(spike);
+
+        int t = myPositions[col];
+        int pt = myPivotRows[t];
+
+        // Eliminate the row that is moved last, using the rows below it
+
+        double[] row = myWork2;
+        Arrays.fill(row, ZERO);
+        int[] ptIndices = myUIndices[pt];
+        double[] ptValues = myUValues[pt];
+        for (int e = 0, limit = myULengths[pt]; e < limit; e++) {
+            row[ptIndices[e]] = ptValues[e];
+        }
+
+        int first = myRPointers[myRSteps];
+        int count = first;
+        double diagonal = spike[pt];
+        double largest = Math.abs(diagonal);
+
+        for (int k = t + 1; k < myDim; k++) {
+            int q = myPivotColumns[k];
+            double value = row[q];
+            if (value != ZERO) {
+                int p = myPivotRows[k];
+                double multiplier = value / myUDiagonal[p];
+                int[] indices = myUIndices[p];
+                double[] factors = myUValues[p];
+                for (int e = 0, limit = myULengths[p]; e < limit; e++) {
+                    if (indices[e] != col) {
+                        row[indices[e]] -= multiplier * factors[e];
+                    }
+                }
+                row[q] = ZERO;
+                if (count == myRIndices.length) {
+                    myRIndices = SparseLU.grow(myRIndices, 0);
+                    myRValues = SparseLU.grow(myRValues, 0);
+                }
+                myRIndices[count] = p;
+                myRValues[count++] = multiplier;
+                diagonal -= multiplier * spike[p];
+            }
+        }
+
+        for (int i = 0; i < myDim; i++) {
+            if (i != pt) {
+                largest = Math.max(largest, Math.abs(spike[i]));
+            }
+        }
+
+        if (!(Math.abs(diagonal) > myStability * largest)) {
+            return false;
+        }
+
+        // Commit: the row eta, the new column of [U] and the new pivot order
+
+        myRPivots[myRSteps] = pt;
+        myRSteps++;
+        myRPointers[myRSteps] = count;
+        spike[pt] = diagonal;
+
+        int[] rows = myURows[col];
+        for (int a = 0, limit = myURowsLengths[col]; a < limit; a++) {
+            int p = rows[a];
+            int[] indices = myUIndices[p];
+            double[] factors = myUValues[p];
+            int length = myULengths[p];
+            for (int e = 0; e < length; e++) {
+                if (indices[e] == col) {
+                    length--;
+                    indices[e] = indices[length];
+                    factors[e] = factors[length];
+                    myNonzeros--;
+                    break;
+                }
+            }
+            myULengths[p] = length;
+        }
+        myURowsLengths[col] = 0;
+
+        myNonzeros += count - first - myULengths[pt];
+        myULengths[pt] = 0;
+        myUDiagonal[pt] = diagonal;
+
+        for (int p = 0; p < myDim; p++) {
+            double value = spike[p];
+            if (p != pt && value != ZERO) {
+                int length = myULengths[p];
+                if (myUIndices[p] == null || length == myUIndices[p].length) {
+                    myUIndices[p] = myUIndices[p] == null ? new int[4] : SparseLU.grow(myUIndices[p], 0);
+                    myUValues[p] = myUValues[p] == null ? new double[4] : SparseLU.grow(myUValues[p], 0);
+                }
+                myUIndices[p][length] = col;
+                myUValues[p][length] = value;
+                myULengths[p] = length + 1;
+                this.addURow(col, p);
+                myNonzeros++;
+            }
+        }
+
+        System.arraycopy(myPivotRows, t + 1, myPivotRows, t, myDim - t - 1);
+        System.arraycopy(myPivotColumns, t + 1, myPivotColumns, t, myDim - t - 1);
+        myPivotRows[myDim - 1] = pt;
+        myPivotColumns[myDim - 1] = col;
+        for (int k = t; k < myDim; k++) {
+            myPositions[myPivotColumns[k]] = k;
+        }
+
+        return myNonzeros <= FILL * myInitialNonzeros + myDim;
+    }
+
+    /**
+     * Apply the [L] and [R] etas: [R][L]<sup>-1</sup>
+     */
+    private void transform(final double[] rows) {
+
+        for (int k = 0; k < myLSteps; k++) {
+            double xp = rows[myLPivots[k]];
+            if (xp != ZERO) {
+                for (int e = myLPointers[k], limit = myLPointers[k + 1]; e < limit; e++) {
+                    rows[myLIndices[e]] -= myLValues[e] * xp;
+                }
+            }
+        }
+
+        for (int s = 0; s < myRSteps; s++) {
+            double sum = ZERO;
+            for (int e = myRPointers[s], limit = myRPointers[s + 1]; e < limit; e++) {
+                sum += myRValues[e] * rows[myRIndices[e]];
+            }
+            rows[myRPivots[s]] -= sum;
+        }
+    }
+
+    void reset() {
+        myFactorised = false;
+        myLSteps = 0;
+        myRSteps = 0;
+    }
+
+}
@@ -22,12 +22,29 @@
 package org.ojalgo.type;
 
 import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import sun.misc.Unsafe;
 
 public abstract class NativeMemory {
 
+    static final class Allocation {
+
+        final Cleaner.Cleanable cleanable;
+        final WeakReference<Object> owner;
+
+        Allocation(final Object owner, final Cleaner.Cleanable cleanable) {
+            super();
+            this.owner = new WeakReference<>(owner);
+            this.cleanable = cleanable;
+        }
+
+    }
+
+    static final Map<Long, Allocation> ALLOCATIONS = new ConcurrentHashMap<>();
     static final Cleaner CLEANER = Cleaner.create();
     static final long SIZE_BYTE = Unsafe.ARRAY_BYTE_INDEX_SCALE;
     static final long SIZE_DOUBLE = Unsafe.ARRAY_DOUBLE_INDEX_SCALE;
@@ -142,6 +159,22 @@ public abstract class NativeMemory {
         return UNSAFE.getShort(basePointer + SIZE_SHORT * index);
     }
 
+    /**
+     * Free memory previously allocated by one of the allocate-methods, without waiting for its owner to be
+     * garbage collected. Calling this more than once (for the same owner and pointer) has no effect. The
+     * memory must not be accessed after it has been freed.
+     *
+     * @param owner The same owner as when the memory was allocated
+     * @param basePointer As returned when the memory was allocated
+     */
+    public static void free(final Object owner, final long basePointer) {
+        Long key = Long.valueOf(basePointer);
+        Allocation allocation = ALLOCATIONS.get(key);
+        if (allocation != null && allocation.owner.get() == owner && ALLOCATIONS.remove(key, allocation)) {
+            allocation.cleanable.clean();
+        }
+    }
+
     public static void initialiseByteArray(final long basePointer, final long count) {
         NativeMemory.fillByteArray(basePointer, count, ZERO_BYTE);
     }
@@ -194,7 +227,10 @@ public abstract class NativeMemory {
 
         final long pointer = UNSAFE.allocateMemory(bytes);
 
-        CLEANER.register(owner, () -> UNSAFE.freeMemory(pointer));
+        ALLOCATIONS.put(Long.valueOf(pointer), new Allocation(owner, CLEANER.register(owner, () -> {
+            ALLOCATIONS.remove(Long.valueOf(pointer));
+            UNSAFE.freeMemory(pointer);
+        })));
 
         return pointer;
     }
@@ -53,6 +53,11 @@ public enum MathType {
      * Rational Number: 2 * long
      */
     Q128(NumberSet.Q, 2, JavaType.LONG),
+    /**
+     * Real Number: 16 bits – IEEE 754 half precision (binary16) or bfloat16, stored as short and computed
+     * as float
+     */
+    R016(NumberSet.R, 1, JavaType.SHORT),
     /**
      * Real Number: float
      */
@@ -150,6 +155,21 @@ public enum MathType {
             default:
                 return Q128;
             }
+        case R016:
+            switch (other) {
+            case Z008:
+                return Z008;
+            case Z016:
+                return Z016;
+            case Z032:
+                return Z032;
+            case Z064:
+                return Z064;
+            case Q128:
+                return Q128;
+            default:
+                return R016;
+            }
         case R032:
             switch (other) {
             case Z008:
@@ -162,6 +182,8 @@ public enum MathType {
                 return Z064;
             case Q128:
                 return Q128;
+            case R016:
+                return R016;
             default:
                 return R032;
             }
@@ -177,6 +199,8 @@ public enum MathType {
                 return Z064;
             case Q128:
                 return Q128;
+            case R016:
+                return R016;
             case R032:
                 return R032;
             default:
@@ -194,6 +218,8 @@ public enum MathType {
                 return Z064;
             case Q128:
                 return Q128;
+            case R016:
+                return R016;
             case R032:
                 return R032;
             case R064:
@@ -213,6 +239,8 @@ public enum MathType {
                 return Z064;
             case Q128:
                 return Q128;
+            case R016:
+                return R016;
             case R032:
                 return R032;
             case R064:
@@ -234,6 +262,8 @@ public enum MathType {
                 return Z064;
             case Q128:
                 return Q128;
+            case R016:
+                return R016;
             case R032:
                 return R032;
             case R064:
@@ -257,6 +287,8 @@ public enum MathType {
                 return Z064;
             case Q128:
                 return Q128;
+            case R016:
+                return R016;
             case R032:
                 return R032;
             case R064:
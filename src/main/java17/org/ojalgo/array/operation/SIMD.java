@@ -0,0 +1,336 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Java 17+ version of the contiguous double[] and float[] kernels, using the incubating Vector API. The
+ * jdk.incubator.vector module is not resolved by default, and then {@link #VECTORISED} is false and the
+ * scalar code of the respective operation is used (as with Java 11). The same goes for short ranges, and for
+ * the tails that do not fill a complete vector. To enable the vectorised code run with --add-modules
+ * jdk.incubator.vector
+ *
+ * @author apete
+ */
+abstract class SIMD {
+
+    /**
+     * Everything that references jdk.incubator.vector is in here, and this class is only loaded if the
+     * module is actually present.
+     */
+    static final class Vectorised {
+
+        private static final VectorSpecies<Double> R064 = DoubleVector.SPECIES_PREFERRED;
+        private static final VectorSpecies<Float> R032 = FloatVector.SPECIES_PREFERRED;
+
+        static final int MIN_LENGTH = 2 * R064.length();
+
+        static int amax(final double[] data, final int first, final int limit) {
+
+            int bound = first + R064.loopBound(limit - first);
+
+            DoubleVector largest = DoubleVector.zero(R064);
+
+            int i = first;
+            for (; i < bound; i += R064.length()) {
+                largest = largest.max(DoubleVector.fromArray(R064, data, i).abs());
+            }
+            double max = largest.reduceLanes(VectorOperators.MAX);
+            for (; i < limit; i++) {
+                max = Math.max(max, Math.abs(data[i]));
+            }
+
+            if (Double.isNaN(max)) {
+                return AMAX.scalar(data, first, limit, 1);
+            }
+            if (max > 0D) {
+                for (int j = first; j < limit; j++) {
+                    if (Math.abs(data[j]) == max) {
+                        return j;
+                    }
+                }
+            }
+            return first;
+        }
+
+        static int amax(final float[] data, final int first, final int limit) {
+
+            int bound = first + R032.loopBound(limit - first);
+
+            FloatVector largest = FloatVector.zero(R032);
+
+            int i = first;
+            for (; i < bound; i += R032.length()) {
+                largest = largest.max(FloatVector.fromArray(R032, data, i).abs());
+            }
+            float max = largest.reduceLanes(VectorOperators.MAX);
+            for (; i < limit; i++) {
+                max = Math.max(max, Math.abs(data[i]));
+            }
+
+            if (Float.isNaN(max)) {
+                return AMAX.scalar(data, first, limit, 1);
+            }
+            if (max > 0F) {
+                for (int j = first; j < limit; j++) {
+                    if (Math.abs(data[j]) == max) {
+                        return j;
+                    }
+                }
+            }
+            return first;
+        }
+
+        static double asum(final double[] data, final int first, final int limit) {
+
+            int bound = first + R064.loopBound(limit - first);
+
+            DoubleVector sum = DoubleVector.zero(R064);
+
+            int i = first;
+            for (; i < bound; i += R064.length()) {
+                sum = sum.add(DoubleVector.fromArray(R064, data, i).abs());
+            }
+            double retVal = sum.reduceLanes(VectorOperators.ADD);
+            for (; i < limit; i++) {
+                retVal += Math.abs(data[i]);
+            }
+            return retVal;
+        }
+
+        static void axpy(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+
+            int bound = first + R064.loopBound(limit - first);
+
+            DoubleVector va = DoubleVector.broadcast(R064, a);
+
+            int i = first;
+            for (; i < bound; i += R064.length()) {
+                DoubleVector vx = DoubleVector.fromArray(R064, x, basex + i);
+                DoubleVector vy = DoubleVector.fromArray(R064, y, basey + i);
+                vx.fma(va, vy).intoArray(y, basey + i);
+            }
+            for (; i < limit; i++) {
+                y[basey + i] += a * x[basex + i];
+            }
+        }
+
+        static void axpy(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
+
+            int bound = first + R032.loopBound(limit - first);
+
+            FloatVector va = FloatVector.broadcast(R032, a);
+
+            int i = first;
+            for (; i < bound; i += R032.length()) {
+                FloatVector vx = FloatVector.fromArray(R032, x, basex + i);
+                FloatVector vy = FloatVector.fromArray(R032, y, basey + i);
+                vx.fma(va, vy).intoArray(y, basey + i);
+            }
+            for (; i < limit; i++) {
+                y[basey + i] += a * x[basex + i];
+            }
+        }
+
+        static double dot(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+
+            int length = R064.length();
+            int bound = first + R064.loopBound(limit - first);
+
+            // Two independent accumulators to hide the latency of the fma
+            DoubleVector sum0 = DoubleVector.zero(R064);
+            DoubleVector sum1 = DoubleVector.zero(R064);
+
+            int i = first;
+            for (int lim2 = bound - length; i < lim2; i += 2 * length) {
+                sum0 = DoubleVector.fromArray(R064, array1, offset1 + i).fma(DoubleVector.fromArray(R064, array2, offset2 + i), sum0);
+                sum1 = DoubleVector.fromArray(R064, array1, offset1 + i + length).fma(DoubleVector.fromArray(R064, array2, offset2 + i + length), sum1);
+            }
+            for (; i < bound; i += length) {
+                sum0 = DoubleVector.fromArray(R064, array1, offset1 + i).fma(DoubleVector.fromArray(R064, array2, offset2 + i), sum0);
+            }
+            double retVal = sum0.add(sum1).reduceLanes(VectorOperators.ADD);
+            for (; i < limit; i++) {
+                retVal += array1[offset1 + i] * array2[offset2 + i];
+            }
+            return retVal;
+        }
+
+        static float dot(final float[] array1, final int offset1, final float[] array2, final int offset2, final int first, final int limit) {
+
+            int length = R032.length();
+            int bound = first + R032.loopBound(limit - first);
+
+            FloatVector sum0 = FloatVector.zero(R032);
+            FloatVector sum1 = FloatVector.zero(R032);
+
+            int i = first;
+            for (int lim2 = bound - length; i < lim2; i += 2 * length) {
+                sum0 = FloatVector.fromArray(R032, array1, offset1 + i).fma(FloatVector.fromArray(R032, array2, offset2 + i), sum0);
+                sum1 = FloatVector.fromArray(R032, array1, offset1 + i + length).fma(FloatVector.fromArray(R032, array2, offset2 + i + length), sum1);
+            }
+            for (; i < bound; i += length) {
+                sum0 = FloatVector.fromArray(R032, array1, offset1 + i).fma(FloatVector.fromArray(R032, array2, offset2 + i), sum0);
+            }
+            float retVal = sum0.add(sum1).reduceLanes(VectorOperators.ADD);
+            for (; i < limit; i++) {
+                retVal += array1[offset1 + i] * array2[offset2 + i];
+            }
+            return retVal;
+        }
+
+        static double nrm2(final double[] data, final double scale, final int first, final int limit) {
+
+            int bound = first + R064.loopBound(limit - first);
+
+            DoubleVector sum2 = DoubleVector.zero(R064);
+
+            int i = first;
+            for (; i < bound; i += R064.length()) {
+                DoubleVector tmpVal = DoubleVector.fromArray(R064, data, i).div(scale);
+                sum2 = tmpVal.fma(tmpVal, sum2);
+            }
+            double retVal = sum2.reduceLanes(VectorOperators.ADD);
+            for (; i < limit; i++) {
+                double tmpVal = data[i] / scale;
+                retVal += tmpVal * tmpVal;
+            }
+            return scale * Math.sqrt(retVal);
+        }
+
+        static void scal(final double[] data, final double factor, final int first, final int limit) {
+
+            int bound = first + R064.loopBound(limit - first);
+
+            int i = first;
+            for (; i < bound; i += R064.length()) {
+                DoubleVector.fromArray(R064, data, i).mul(factor).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] *= factor;
+            }
+        }
+
+        static void scal(final float[] data, final float factor, final int first, final int limit) {
+
+            int bound = first + R032.loopBound(limit - first);
+
+            int i = first;
+            for (; i < bound; i += R032.length()) {
+                FloatVector.fromArray(R032, data, i).mul(factor).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] *= factor;
+            }
+        }
+
+    }
+
+    /**
+     * Don't use the vectorised code for shorter ranges than this.
+     */
+    static final int MIN_LENGTH;
+    static final boolean VECTORISED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    static {
+        MIN_LENGTH = VECTORISED ? Vectorised.MIN_LENGTH : Integer.MAX_VALUE;
+    }
+
+    static int amax(final double[] data, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            return Vectorised.amax(data, first, limit);
+        }
+        return AMAX.scalar(data, first, limit, 1);
+    }
+
+    static int amax(final float[] data, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            return Vectorised.amax(data, first, limit);
+        }
+        return AMAX.scalar(data, first, limit, 1);
+    }
+
+    static double asum(final double[] data, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            return Vectorised.asum(data, first, limit);
+        }
+        return ASUM.scalar(data, first, limit, 1);
+    }
+
+    static void axpy(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            Vectorised.axpy(y, basey, a, x, basex, first, limit);
+        } else {
+            AXPY.scalar(y, basey, a, x, basex, first, limit);
+        }
+    }
+
+    static void axpy(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            Vectorised.axpy(y, basey, a, x, basex, first, limit);
+        } else {
+            AXPY.scalar(y, basey, a, x, basex, first, limit);
+        }
+    }
+
+    static double dot(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            return Vectorised.dot(array1, offset1, array2, offset2, first, limit);
+        }
+        return DOT.unrolled04(array1, offset1, array2, offset2, first, limit);
+    }
+
+    static float dot(final float[] array1, final int offset1, final float[] array2, final int offset2, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            return Vectorised.dot(array1, offset1, array2, offset2, first, limit);
+        }
+        return DOT.unrolled04(array1, offset1, array2, offset2, first, limit);
+    }
+
+    static double nrm2(final double[] data, final double scale, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            return Vectorised.nrm2(data, scale, first, limit);
+        }
+        return NRM2.scalar(data, scale, first, limit);
+    }
+
+    static void scal(final double[] data, final double factor, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            Vectorised.scal(data, factor, first, limit);
+        } else {
+            SCAL.scalar(data, factor, first, limit);
+        }
+    }
+
+    static void scal(final float[] data, final float factor, final int first, final int limit) {
+        if (VECTORISED && limit - first >= MIN_LENGTH) {
+            Vectorised.scal(data, factor, first, limit);
+        } else {
+            SCAL.scalar(data, factor, first, limit);
+        }
+    }
+
+}
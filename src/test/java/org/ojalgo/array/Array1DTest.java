@@ -21,6 +21,8 @@
  */
 package org.ojalgo.array;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Test;
 import org.ojalgo.TestUtils;
 
@@ -45,6 +47,43 @@ public class Array1DTest extends ArrayTests {
         this.doSortTest(tmpRows);
     }
 
+    /**
+     * Longs larger than 2^53 can't be represented exactly by a double – sorting a slice must not convert
+     * them.
+     */
+    @Test
+    public void testSortingLargeLongsInSlice() {
+
+        long big = 1L << 53;
+        long[] values = { big + 7L, -big - 3L, big + 1L, Long.MAX_VALUE, big + 5L, Long.MIN_VALUE + 1L, big + 3L };
+
+        Array1D<Double> array = Array1D.Z064.make(values.length + 2);
+        for (int i = 0; i < values.length; i++) {
+            array.set(i + 1, values[i]);
+        }
+        array.set(0, Long.MAX_VALUE);
+        array.set(values.length + 1, Long.MIN_VALUE);
+
+        Array1D<Double> slice = array.sliceRange(1, values.length + 1);
+
+        long[] expected = values.clone();
+        Arrays.sort(expected);
+
+        slice.sortAscending();
+        for (int i = 0; i < expected.length; i++) {
+            TestUtils.assertEquals(expected[i], slice.longValue(i));
+        }
+
+        slice.sortDescending();
+        for (int i = 0; i < expected.length; i++) {
+            TestUtils.assertEquals(expected[expected.length - 1 - i], slice.longValue(i));
+        }
+
+        // Outside the slice unchanged
+        TestUtils.assertEquals(Long.MAX_VALUE, array.longValue(0));
+        TestUtils.assertEquals(Long.MIN_VALUE, array.longValue(values.length + 1));
+    }
+
     @Test
     public void testSortingOddSizedArrayAscending() {
 
@@ -0,0 +1,131 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.constant.PrimitiveMath;
+
+public class ArrayR016Test extends ArrayTests {
+
+    /**
+     * The rounded value is at least as close as its neighbours (in the 16 bit format).
+     */
+    private static void assertNearest(final float value, final short bits, final boolean brain) {
+
+        float rounded = brain ? ArrayR016.fromBFloat16(bits) : ArrayR016.fromFloat16(bits);
+        float below = brain ? ArrayR016.fromBFloat16((short) (bits - 1)) : ArrayR016.fromFloat16((short) (bits - 1));
+        float above = brain ? ArrayR016.fromBFloat16((short) (bits + 1)) : ArrayR016.fromFloat16((short) (bits + 1));
+
+        double error = Math.abs((double) value - rounded);
+        TestUtils.assertTrue(value + " -> " + rounded, Float.isNaN(below) || Float.isInfinite(below) || error <= Math.abs((double) value - below));
+        TestUtils.assertTrue(value + " -> " + rounded, Float.isNaN(above) || Float.isInfinite(above) || error <= Math.abs((double) value - above));
+    }
+
+    @Test
+    public void testArrayOperations() {
+
+        for (DenseArray.Factory<Double> factory : new DenseArray.Factory[] { ArrayR016.FACTORY, ArrayR016.BFLOAT16, BufferArray.R016, BufferArray.BFLOAT16 }) {
+
+            DenseArray<Double> array = factory.make(100);
+            for (int i = 0; i < 100; i++) {
+                array.set(i, 99 - i);
+            }
+
+            TestUtils.assertEquals(100L, array.count());
+            TestUtils.assertEquals(0L, array.indexOfLargest());
+            TestUtils.assertEquals(4950.0, array.aggregateAll(Aggregator.SUM).doubleValue());
+
+            array.add(3, 0.5);
+            TestUtils.assertEquals(96.5, array.doubleValue(3));
+
+            array.modifyAll(PrimitiveMath.NEGATE);
+            TestUtils.assertEquals(-96.5, array.doubleValue(3));
+
+            array.fillAll(0.25);
+            TestUtils.assertEquals(0.25, array.doubleValue(50));
+        }
+
+        ArrayR016 sortable = ArrayR016.make(5);
+        sortable.set(0, 3.0);
+        sortable.set(1, -1.0);
+        sortable.set(2, 2.0);
+        sortable.set(3, 0.5);
+        sortable.set(4, 1024.0);
+        sortable.sortAscending();
+        TestUtils.assertEquals(ArrayR064.wrap(-1.0, 0.5, 2.0, 3.0, 1024.0), sortable);
+    }
+
+    @Test
+    public void testBFloat16() {
+
+        TestUtils.assertEquals(1.0F, ArrayR016.fromBFloat16(ArrayR016.toBFloat16(1.0F)));
+        TestUtils.assertEquals((short) 0x3F80, ArrayR016.toBFloat16(1.0F));
+        TestUtils.assertEquals(Float.POSITIVE_INFINITY, ArrayR016.fromBFloat16(ArrayR016.toBFloat16(Float.MAX_VALUE)));
+        TestUtils.assertTrue(Float.isNaN(ArrayR016.fromBFloat16(ArrayR016.toBFloat16(Float.intBitsToFloat(0x7F800001)))));
+
+        for (int bits = 0; bits < 0x10000; bits++) {
+            float value = ArrayR016.fromBFloat16((short) bits);
+            if (!Float.isNaN(value)) {
+                TestUtils.assertEquals((short) bits, ArrayR016.toBFloat16(value));
+            }
+        }
+
+        Random random = new Random(123L);
+        for (int i = 0; i < 10_000; i++) {
+            float value = (float) (random.nextGaussian() * Math.pow(10, random.nextInt(60) - 30));
+            ArrayR016Test.assertNearest(value, ArrayR016.toBFloat16(value), true);
+        }
+    }
+
+    @Test
+    public void testFloat16() {
+
+        TestUtils.assertEquals((short) 0x3C00, ArrayR016.toFloat16(1.0F));
+        TestUtils.assertEquals((short) 0xC000, ArrayR016.toFloat16(-2.0F));
+        TestUtils.assertEquals((short) 0x7BFF, ArrayR016.toFloat16(65504.0F));
+        TestUtils.assertEquals((short) 0x7C00, ArrayR016.toFloat16(65520.0F));
+        TestUtils.assertEquals((short) 0x0001, ArrayR016.toFloat16(0x1p-24F));
+        TestUtils.assertEquals((short) 0x0000, ArrayR016.toFloat16(0x1p-25F));
+        TestUtils.assertEquals((short) 0x8000, ArrayR016.toFloat16(-0.0F));
+        TestUtils.assertEquals(65504.0F, ArrayR016.fromFloat16((short) 0x7BFF));
+        TestUtils.assertEquals(0x1p-14F, ArrayR016.fromFloat16((short) 0x0400));
+        TestUtils.assertTrue(Float.isNaN(ArrayR016.fromFloat16(ArrayR016.toFloat16(Float.NaN))));
+
+        for (int bits = 0; bits < 0x10000; bits++) {
+            float value = ArrayR016.fromFloat16((short) bits);
+            if (!Float.isNaN(value)) {
+                TestUtils.assertEquals((short) bits, ArrayR016.toFloat16(value));
+            }
+        }
+
+        Random random = new Random(123L);
+        for (int i = 0; i < 10_000; i++) {
+            float value = (float) (random.nextGaussian() * Math.pow(10, random.nextInt(12) - 7));
+            ArrayR016Test.assertNearest(value, ArrayR016.toFloat16(value), false);
+        }
+    }
+
+}
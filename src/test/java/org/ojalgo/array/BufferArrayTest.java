@@ -80,4 +80,48 @@ public class BufferArrayTest extends ArrayTests {
         }
     }
 
+    @Test
+    public void testSegmentedMappedFile() {
+
+        File file = new File(tempDir, "Segmented");
+
+        int size = 5000;
+
+        BasicArray<Double> segmented = BufferArray.R064.newMapped(file).map(size, 10);
+
+        BufferArrayTest.doTest(segmented, size);
+
+        for (int i = 0; i < size; i++) {
+            segmented.set(i, i);
+        }
+
+        TestUtils.assertTrue(segmented instanceof SegmentedArray);
+        ((SegmentedArray<Double>) segmented).close();
+
+        // Map the same file again, as a single segment
+
+        try (BufferArray reopened = BufferArray.R064.newMapped(file).make(size)) {
+            for (int i = 0; i < size; i++) {
+                TestUtils.assertEquals(i, reopened.doubleValue(i));
+            }
+        }
+    }
+
+    @Test
+    public void testTemporaryMappedFile() {
+
+        BufferArray.MappedFileFactory factory = BufferArray.R064.newTemporary(tempDir);
+
+        SegmentedArray<Double> segmented = (SegmentedArray<Double>) factory.map(5000, 10);
+        TestUtils.assertEquals(1, tempDir.listFiles().length);
+
+        BufferArrayTest.doTest(segmented, 5000);
+
+        segmented.close();
+        TestUtils.assertEquals(0, tempDir.listFiles().length);
+
+        // Closing again is harmless
+        segmented.close();
+    }
+
 }
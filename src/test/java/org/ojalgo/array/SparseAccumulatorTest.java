@@ -0,0 +1,79 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.SparseArray.NonzeroView;
+
+public class SparseAccumulatorTest extends ArrayTests {
+
+    @Test
+    public void testAccumulateAndFinalise() {
+
+        long count = 10_000_000L;
+
+        SparseAccumulator accumulator = SparseAccumulator.make(count);
+        SparseArray<Double> expected = SparseArray.factory(ArrayR064.FACTORY).make(count);
+
+        Random random = new Random(123L);
+        for (int k = 0; k < 5_000; k++) {
+            // Many repeated indices, and enough distinct ones to rehash several times
+            long index = random.nextInt(2_000) * 4_999L;
+            double value = random.nextGaussian();
+            accumulator.add(index, value);
+            expected.add(index, value);
+        }
+        accumulator.set(1L, 2.0);
+        expected.set(1L, 2.0);
+
+        TestUtils.assertEquals(expected.countNonzeros(), accumulator.countNonzeros());
+        TestUtils.assertTrue(accumulator.capacity() >= 2 * accumulator.countNonzeros());
+
+        long previous = -1L;
+        for (NonzeroView<Double> nz : accumulator.nonzeros()) {
+            TestUtils.assertTrue(nz.index() > previous);
+            TestUtils.assertEquals(expected.doubleValue(nz.index()), nz.doubleValue(), 1E-12);
+            previous = nz.index();
+        }
+
+        SparseArray<Double> actual = accumulator.toSparse();
+        TestUtils.assertEquals(expected.countNonzeros(), actual.countNonzeros());
+        for (NonzeroView<Double> nz : expected.nonzeros()) {
+            TestUtils.assertEquals(nz.doubleValue(), actual.doubleValue(nz.index()), 1E-12);
+            TestUtils.assertEquals(nz.doubleValue(), accumulator.doubleValue(nz.index()), 1E-12);
+        }
+
+        SparseArray<Double> supplied = SparseArray.factory(ArrayR064.FACTORY).make(count);
+        accumulator.supplyNonZerosTo(supplied);
+        TestUtils.assertEquals(expected.countNonzeros(), supplied.countNonzeros());
+
+        TestUtils.assertEquals(0.0, accumulator.doubleValue(3L));
+
+        accumulator.reset();
+        TestUtils.assertEquals(0L, accumulator.countNonzeros());
+        TestUtils.assertEquals(0.0, accumulator.doubleValue(1L));
+    }
+
+}
@@ -59,6 +59,36 @@ public class SparseTest extends ArrayTests {
         TestUtils.assertEquals(expected, array2D.aggregateAll(Aggregator.SUM).doubleValue());
     }
 
+    @Test
+    public void testAddAll() {
+
+        long count = 1_000_000L;
+        int size = 2_000;
+
+        SparseArray<Double> expected = SparseArray.factory(ArrayR064.FACTORY).make(count);
+        SparseArray<Double> actual = SparseArray.factory(ArrayR064.FACTORY).make(count);
+
+        long[] indices = new long[size];
+        double[] values = new double[size];
+        for (int k = 0; k < size; k++) {
+            // Plenty of duplicates
+            indices[k] = Uniform.randomInteger(size) * 500L;
+            values[k] = Math.random();
+            expected.add(indices[k], values[k]);
+        }
+
+        actual.set(7L, 3.0);
+        expected.add(7L, 3.0);
+
+        actual.addAll(indices, values, size);
+
+        TestUtils.assertEquals(expected.countNonzeros(), actual.countNonzeros());
+        for (int k = 0; k < size; k++) {
+            TestUtils.assertEquals(expected.doubleValue(indices[k]), actual.doubleValue(indices[k]), 1E-12);
+        }
+        TestUtils.assertEquals(3.0, actual.doubleValue(7L));
+    }
+
     @Test
     public void testIndexOfLargest() {
 
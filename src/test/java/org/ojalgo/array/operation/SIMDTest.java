@@ -0,0 +1,205 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.random.Uniform;
+
+/**
+ * Compares the {@link SIMD} kernels with the scalar code of the respective operations. Built and run with Java
+ * 17+ the test is also executed against the packaged (multi-release) jar with the jdk.incubator.vector module
+ * present – then the vectorised code is used for all but the shortest ranges, and the lengths below make sure
+ * the tails (that do not fill a complete vector) are covered.
+ */
+public class SIMDTest extends ArrayOperationTests {
+
+    /**
+     * The vector kernels use fused multiply-add and sum in a different order. The inputs are all in [-1,1) and
+     * results may be the result of cancellation, so the differences are compared in absolute terms – scaled by
+     * the number of terms.
+     */
+    private static final double EPSILON_R032 = 1E-6;
+    private static final double EPSILON_R064 = 1E-14;
+    private static final int FIRST = 3;
+    private static final int[] LENGTHS = { 0, 1, 2, 3, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 47, 63, 64, 65, 100, 129, 257 };
+    private static final int OFFSET = 2;
+
+    private static double[] newR064(final int length) {
+        Uniform uniform = new Uniform(-1.0, 2.0);
+        double[] retVal = new double[length];
+        for (int i = 0; i < length; i++) {
+            retVal[i] = uniform.doubleValue();
+        }
+        return retVal;
+    }
+
+    private static float[] newR032(final int length) {
+        Uniform uniform = new Uniform(-1.0, 2.0);
+        float[] retVal = new float[length];
+        for (int i = 0; i < length; i++) {
+            retVal[i] = uniform.floatValue();
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testAMAX() {
+        for (int length : LENGTHS) {
+
+            int limit = FIRST + length;
+
+            double[] r064 = SIMDTest.newR064(limit + OFFSET);
+            TestUtils.assertEquals(AMAX.scalar(r064, FIRST, limit, 1), SIMD.amax(r064, FIRST, limit));
+            TestUtils.assertEquals(AMAX.scalar(r064, FIRST, limit, 1), AMAX.invoke(r064, FIRST, limit, 1));
+
+            float[] r032 = SIMDTest.newR032(limit + OFFSET);
+            TestUtils.assertEquals(AMAX.scalar(r032, FIRST, limit, 1), SIMD.amax(r032, FIRST, limit));
+
+            if (length > 0) {
+                // The largest in the very last (tail) element
+                r064[limit - 1] = 10.0;
+                r032[limit - 1] = -10F;
+                TestUtils.assertEquals(limit - 1, SIMD.amax(r064, FIRST, limit));
+                TestUtils.assertEquals(limit - 1, SIMD.amax(r032, FIRST, limit));
+            }
+        }
+    }
+
+    @Test
+    public void testASUM() {
+        for (int length : LENGTHS) {
+
+            int limit = FIRST + length;
+
+            double[] r064 = SIMDTest.newR064(limit + OFFSET);
+            assertEquals(ASUM.scalar(r064, FIRST, limit, 1), SIMD.asum(r064, FIRST, limit), EPSILON_R064 * (1 + length));
+        }
+    }
+
+    @Test
+    public void testAXPY() {
+        for (int length : LENGTHS) {
+
+            int limit = FIRST + length;
+
+            double[] x64 = SIMDTest.newR064(limit + OFFSET);
+            double[] expected64 = SIMDTest.newR064(limit + 2 * OFFSET);
+            double[] actual64 = expected64.clone();
+
+            AXPY.scalar(expected64, OFFSET, 0.7, x64, OFFSET, FIRST, limit);
+            SIMD.axpy(actual64, OFFSET, 0.7, x64, OFFSET, FIRST, limit);
+
+            for (int i = 0; i < expected64.length; i++) {
+                assertEquals(expected64[i], actual64[i], EPSILON_R064);
+            }
+
+            float[] x32 = SIMDTest.newR032(limit + OFFSET);
+            float[] expected32 = SIMDTest.newR032(limit + 2 * OFFSET);
+            float[] actual32 = expected32.clone();
+
+            AXPY.scalar(expected32, OFFSET, 0.7F, x32, OFFSET, FIRST, limit);
+            SIMD.axpy(actual32, OFFSET, 0.7F, x32, OFFSET, FIRST, limit);
+
+            for (int i = 0; i < expected32.length; i++) {
+                assertEquals(expected32[i], actual32[i], EPSILON_R032);
+            }
+        }
+    }
+
+    @Test
+    public void testDOT() {
+        for (int length : LENGTHS) {
+
+            int limit = FIRST + length;
+
+            double[] a64 = SIMDTest.newR064(limit + OFFSET);
+            double[] b64 = SIMDTest.newR064(limit);
+            assertEquals(DOT.plain(a64, OFFSET, b64, 0, FIRST, limit), SIMD.dot(a64, OFFSET, b64, 0, FIRST, limit), EPSILON_R064 * (1 + length));
+
+            float[] a32 = SIMDTest.newR032(limit + OFFSET);
+            float[] b32 = SIMDTest.newR032(limit);
+            assertEquals(DOT.plain(a32, OFFSET, b32, 0, FIRST, limit), SIMD.dot(a32, OFFSET, b32, 0, FIRST, limit), EPSILON_R032 * (1 + length));
+        }
+    }
+
+    @Test
+    public void testNRM2() {
+        for (int length : LENGTHS) {
+
+            int limit = FIRST + length;
+
+            double[] r064 = SIMDTest.newR064(limit + OFFSET);
+            assertEquals(NRM2.scalar(r064, 2.0, FIRST, limit), SIMD.nrm2(r064, 2.0, FIRST, limit), EPSILON_R064 * (1 + length));
+        }
+    }
+
+    @Test
+    public void testSCAL() {
+        for (int length : LENGTHS) {
+
+            int limit = FIRST + length;
+
+            double[] expected64 = SIMDTest.newR064(limit + OFFSET);
+            double[] actual64 = expected64.clone();
+
+            SCAL.scalar(expected64, -1.5, FIRST, limit);
+            SIMD.scal(actual64, -1.5, FIRST, limit);
+
+            for (int i = 0; i < expected64.length; i++) {
+                TestUtils.assertEquals(expected64[i], actual64[i]);
+            }
+
+            float[] expected32 = SIMDTest.newR032(limit + OFFSET);
+            float[] actual32 = expected32.clone();
+
+            SCAL.scalar(expected32, -1.5F, FIRST, limit);
+            SIMD.scal(actual32, -1.5F, FIRST, limit);
+
+            for (int i = 0; i < expected32.length; i++) {
+                TestUtils.assertEquals(expected32[i], actual32[i]);
+            }
+        }
+    }
+
+    /**
+     * Vectorised only if the module is present, and then only with the Java 17 version of {@link SIMD} –
+     * which is what the "ojalgo.test.vectorised" system property asserts.
+     */
+    @Test
+    public void testVectorised() {
+
+        boolean present = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        if (!present) {
+            TestUtils.assertFalse(SIMD.VECTORISED);
+        }
+
+        if (Boolean.getBoolean("ojalgo.test.vectorised")) {
+            TestUtils.assertTrue(present);
+            TestUtils.assertTrue(SIMD.VECTORISED);
+        }
+    }
+
+}
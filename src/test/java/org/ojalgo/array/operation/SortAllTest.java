@@ -0,0 +1,166 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.Array1D;
+
+public class SortAllTest extends ArrayOperationTests {
+
+    private static double[] randomDoubles(final int n, final Random random) {
+        double[] retVal = new double[n];
+        for (int i = 0; i < n; i++) {
+            retVal[i] = random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10);
+        }
+        retVal[0] = Double.NaN;
+        retVal[1] = -0.0;
+        retVal[2] = 0.0;
+        retVal[3] = Double.NEGATIVE_INFINITY;
+        retVal[4] = Double.POSITIVE_INFINITY;
+        return retVal;
+    }
+
+    @Test
+    public void testArgsort() {
+
+        Random random = new Random(123L);
+
+        for (int n : new int[] { 10, 100, 5_000, 50_000 }) {
+
+            double[] values = SortAllTest.randomDoubles(n, random);
+            double[] copy = values.clone();
+
+            int[] order = SortAll.argsort(values);
+
+            TestUtils.assertTrue(Arrays.equals(copy, values));
+            for (int i = 1; i < n; i++) {
+                TestUtils.assertTrue(Double.compare(values[order[i - 1]], values[order[i]]) <= 0);
+            }
+
+            long[] longs = new long[n];
+            for (int i = 0; i < n; i++) {
+                longs[i] = random.nextLong() >> random.nextInt(64);
+            }
+            order = SortAll.argsort(longs);
+            for (int i = 1; i < n; i++) {
+                TestUtils.assertTrue(longs[order[i - 1]] <= longs[order[i]]);
+            }
+        }
+    }
+
+    @Test
+    public void testParallel() {
+
+        IntSupplier parallelism = SortAll.PARALLELISM;
+        int threshold = SortAll.THRESHOLD;
+
+        try {
+
+            Random random = new Random(456L);
+
+            for (int chunks : new int[] { 2, 3, 4, 7 }) {
+
+                SortAll.PARALLELISM = () -> chunks;
+                SortAll.THRESHOLD = 32;
+
+                double[] actual = SortAllTest.randomDoubles(20_000 + chunks, random);
+                double[] expected = actual.clone();
+
+                Arrays.sort(expected);
+                SortAll.sort(actual);
+
+                TestUtils.assertTrue(Arrays.equals(expected, actual));
+
+                int[] indices = new int[actual.length];
+                double[] keys = SortAllTest.randomDoubles(actual.length, random);
+                for (int i = 0; i < indices.length; i++) {
+                    indices[i] = i;
+                }
+                double[] original = keys.clone();
+
+                SortAll.sort(keys, indices);
+
+                for (int i = 0; i < indices.length; i++) {
+                    TestUtils.assertEquals(Double.doubleToLongBits(keys[i]), Double.doubleToLongBits(original[indices[i]]));
+                    if (i > 0) {
+                        TestUtils.assertTrue(Double.compare(keys[i - 1], keys[i]) <= 0);
+                    }
+                }
+            }
+
+        } finally {
+            SortAll.PARALLELISM = parallelism;
+            SortAll.THRESHOLD = threshold;
+        }
+    }
+
+    @Test
+    public void testPrimaryAndSecondary() {
+
+        Random random = new Random(789L);
+
+        for (int n : new int[] { 20, 500, 20_000 }) {
+
+            long[] primary = new long[n];
+            double[] secondary = new double[n];
+            for (int i = 0; i < n; i++) {
+                primary[i] = random.nextInt(n) - n / 2;
+                secondary[i] = primary[i];
+            }
+
+            long[] expected = primary.clone();
+            Arrays.sort(expected);
+
+            SortAll.sort(primary, secondary);
+
+            TestUtils.assertTrue(Arrays.equals(expected, primary));
+            for (int i = 0; i < n; i++) {
+                TestUtils.assertEquals(primary[i], secondary[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testSliceOfArray1D() {
+
+        Random random = new Random(321L);
+
+        Array1D<Double> array = Array1D.R064.copy(SortAllTest.randomDoubles(5_000, random));
+        double[] expected = array.toRawCopy1D();
+
+        Arrays.sort(expected, 1000, 4000);
+        array.sliceRange(1000, 4000).sortAscending();
+
+        TestUtils.assertTrue(Arrays.equals(expected, array.toRawCopy1D()));
+
+        array.sliceRange(1000, 4000).sortDescending();
+        for (int i = 1000, j = 3999; i < 4000; i++, j--) {
+            TestUtils.assertEquals(expected[j], array.doubleValue(i));
+        }
+    }
+
+}
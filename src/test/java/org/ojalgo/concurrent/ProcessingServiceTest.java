@@ -67,6 +67,40 @@ public class ProcessingServiceTest {
         }
     }
 
+    @Test
+    public void testDivideByWeight() {
+
+        // Quadratically increasing weights – most of the weight is at the end of the range
+        long[] cumulative = new long[DIM + 1];
+        for (int i = 0; i < DIM; i++) {
+            cumulative[i + 1] = cumulative[i] + i * (long) i;
+        }
+
+        AtomicInteger[] counters = new AtomicInteger[DIM];
+        for (int i = 0; i < DIM; i++) {
+            counters[i] = new AtomicInteger();
+        }
+        Set<Long> weights = ConcurrentHashMap.newKeySet();
+
+        ProcessingService.INSTANCE.divider().parallelism(() -> 8).threshold(DIM).divide(0, DIM, i -> cumulative[i], (first, limit) -> {
+            for (int i = first; i < limit; i++) {
+                counters[i].incrementAndGet();
+            }
+            weights.add(Long.valueOf(cumulative[limit] - cumulative[first]));
+        });
+
+        for (int i = 0; i < DIM; i++) {
+            TestUtils.assertEquals(1, counters[i].get());
+        }
+
+        // 8 parts of roughly equal weight
+        TestUtils.assertEquals(8, weights.size());
+        long total = cumulative[DIM];
+        for (Long weight : weights) {
+            TestUtils.assertTrue(Math.abs(weight.longValue() - total / 8) < total / 16);
+        }
+    }
+
     @Test
     public void testProcess() {
 
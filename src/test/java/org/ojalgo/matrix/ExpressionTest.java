@@ -0,0 +1,172 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.GenericStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.scalar.RationalNumber;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Deferred (fused) {@link BasicMatrix} arithmetic should produce the same results as the corresponding eager
+ * {@link MatrixStore} operations.
+ */
+public class ExpressionTest extends MatrixTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 14);
+
+    @Test
+    public void testDeferred() {
+
+        MatrixR064 a = MatrixR064.FACTORY.makeFilled(5, 4, new Uniform());
+        MatrixR064 b = MatrixR064.FACTORY.makeFilled(4, 3, new Uniform());
+        MatrixR064 c = MatrixR064.FACTORY.makeFilled(5, 3, new Uniform());
+
+        MatrixR064 product = a.multiply(b);
+        MatrixR064 sum = product.add(c);
+        MatrixR064 scaled = sum.multiply(2.0);
+
+        TestUtils.assertTrue(product.supplier() instanceof Expression.Product);
+        TestUtils.assertTrue(sum.supplier() instanceof Expression.Elementwise);
+        TestUtils.assertTrue(scaled.supplier() instanceof Expression.Elementwise);
+
+        TestUtils.assertTrue(a.multiply(3.0).transpose().multiply(2.0).supplier() instanceof Expression.Elementwise);
+        TestUtils.assertTrue(a.multiply(3.0).multiply(b.transpose().transpose()).supplier() instanceof Expression.Product);
+    }
+
+    /**
+     * An evaluated (sub)expression is not evaluated again, and expressions built on top of it start from the
+     * result.
+     */
+    @Test
+    public void testMemoized() {
+
+        MatrixR064 a = MatrixR064.FACTORY.makeFilled(5, 4, new Uniform());
+        MatrixR064 b = MatrixR064.FACTORY.makeFilled(4, 3, new Uniform());
+
+        MatrixR064 product = a.multiply(b);
+        MatrixR064 first = product.add(1.0);
+        MatrixR064 second = product.subtract(1.0);
+
+        MatrixStore<Double> evaluated = first.store();
+        TestUtils.assertEquals(evaluated, first.store(), ACCURACY);
+        TestUtils.assertTrue(evaluated == first.store());
+
+        // The shared product was evaluated once, and kept
+        MatrixStore<Double> kept = ((Expression<Double>) product.supplier()).getValue();
+        TestUtils.assertTrue(kept != null);
+        TestUtils.assertTrue(kept == product.store());
+        TestUtils.assertEquals(a.store().multiply(b.store()).subtract(1.0), second, ACCURACY);
+
+        Expression.Elementwise<Double> chained = (Expression.Elementwise<Double>) first.multiply(2.0).supplier();
+        TestUtils.assertTrue(chained.getBase() == evaluated);
+
+        // Elementwise operations on a scaled product share the same (unscaled) product
+
+        MatrixR064 scaled = a.multiply(b).multiply(3.0);
+        Expression.Elementwise<Double> plus = (Expression.Elementwise<Double>) scaled.add(1.0).supplier();
+        Expression.Elementwise<Double> minus = (Expression.Elementwise<Double>) scaled.subtract(1.0).supplier();
+        TestUtils.assertTrue(plus.getBase() == minus.getBase());
+
+        MatrixStore<Double> expected = a.store().multiply(b.store()).multiply(3.0);
+        TestUtils.assertEquals(expected.add(1.0), scaled.add(1.0), ACCURACY);
+        kept = ((Expression<Double>) plus.getBase()).getValue();
+        TestUtils.assertTrue(kept != null);
+        TestUtils.assertEquals(expected.subtract(1.0), scaled.subtract(1.0), ACCURACY);
+        TestUtils.assertTrue(kept == ((Expression<Double>) minus.getBase()).getValue());
+        TestUtils.assertEquals(expected, scaled, ACCURACY);
+    }
+
+    @Test
+    public void testPrimitive() {
+
+        MatrixR064 a = MatrixR064.FACTORY.makeFilled(5, 4, new Uniform());
+        MatrixR064 b = MatrixR064.FACTORY.makeFilled(4, 3, new Uniform());
+        MatrixR064 c = MatrixR064.FACTORY.makeFilled(5, 3, new Uniform());
+
+        MatrixStore<Double> sa = a.store();
+        MatrixStore<Double> sb = b.store();
+        MatrixStore<Double> sc = c.store();
+
+        MatrixStore<Double> expected = sa.multiply(sb).add(sc).multiply(2.0).collect(Primitive64Store.FACTORY);
+        TestUtils.assertEquals(expected, a.multiply(b).add(c).multiply(2.0), ACCURACY);
+
+        expected = sb.transpose().multiply(sa.transpose()).multiply(-3.0).collect(Primitive64Store.FACTORY);
+        TestUtils.assertEquals(expected, a.multiply(b).multiply(3.0).transpose().negate(), ACCURACY);
+        TestUtils.assertEquals(expected, b.transpose().multiply(a.transpose().multiply(-1.0)).multiply(3.0), ACCURACY);
+
+        expected = sa.transpose().multiply(sa).divide(4.0).subtract(1.0).collect(Primitive64Store.FACTORY);
+        TestUtils.assertEquals(expected, a.transpose().multiply(a).divide(4.0).subtract(1.0), ACCURACY);
+
+        MatrixStore<Double> fused = sc.multiply(2.0).add(1.0).negate().subtract(sc).divide(2.0).collect(Primitive64Store.FACTORY);
+        TestUtils.assertEquals(fused, c.multiply(2.0).add(1.0).negate().subtract(c).divide(2.0), ACCURACY);
+        TestUtils.assertEquals(fused.transpose(), c.multiply(2.0).add(1.0).negate().subtract(c).divide(2.0).transpose(), ACCURACY);
+    }
+
+    /**
+     * Operations on sparse matrices are not deferred – the result should remain sparse.
+     */
+    @Test
+    public void testSparseKeepsStructure() {
+
+        MatrixR064.SparseReceiver receiver = MatrixR064.FACTORY.makeSparse(100, 100);
+        for (int ij = 0; ij < 100; ij++) {
+            receiver.set(ij, ij, 1.0 + ij);
+            receiver.set(ij, (ij + 7) % 100, 1.0);
+        }
+        MatrixR064 sparse = receiver.get();
+        MatrixR064 dense = MatrixR064.FACTORY.makeFilled(100, 3, new Uniform());
+
+        TestUtils.assertTrue(sparse.store() instanceof SparseStore);
+
+        TestUtils.assertTrue(sparse.multiply(2.0).store() instanceof SparseStore);
+        TestUtils.assertTrue(sparse.multiply(sparse).store() instanceof SparseStore);
+        TestUtils.assertTrue(sparse.negate().store() instanceof SparseStore);
+
+        TestUtils.assertEquals(sparse.store().multiply(dense.store()), sparse.multiply(dense), ACCURACY);
+        TestUtils.assertEquals(sparse.store().multiply(-2.0), sparse.multiply(2.0).negate(), ACCURACY);
+    }
+
+    @Test
+    public void testRational() {
+
+        MatrixQ128 a = MatrixQ128.FACTORY.makeFilled(3, 4, new Uniform());
+        MatrixQ128 b = MatrixQ128.FACTORY.makeFilled(4, 2, new Uniform());
+        MatrixQ128 c = MatrixQ128.FACTORY.makeFilled(3, 2, new Uniform());
+
+        MatrixStore<RationalNumber> sa = a.store();
+        MatrixStore<RationalNumber> sb = b.store();
+        MatrixStore<RationalNumber> sc = c.store();
+
+        MatrixStore<RationalNumber> expected = sa.multiply(sb).add(sc).multiply(2.0).subtract(sc).collect(GenericStore.Q128);
+        TestUtils.assertEquals(expected, a.multiply(b).add(c).multiply(2.0).subtract(c), ACCURACY);
+
+        expected = sa.multiply(sb).multiply(0.5).negate().transpose().collect(GenericStore.Q128);
+        TestUtils.assertEquals(expected, a.multiply(b.multiply(0.5)).negate().transpose(), ACCURACY);
+    }
+
+}
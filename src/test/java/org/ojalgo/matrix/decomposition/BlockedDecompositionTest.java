@@ -0,0 +1,211 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.operation.DecomposeBlocked;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The blocked algorithms, {@link DecomposeBlocked}, used (if enabled) by the Primitive64Store based
+ * decompositions should give the same results as the unblocked ones – the same pivots and factors, and the
+ * same outcome for singular, ill-conditioned and not positive definite input.
+ */
+public class BlockedDecompositionTest extends MatrixDecompositionTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    private static Primitive64Store hilbert(final int dim) {
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(dim, dim);
+        for (int j = 0; j < dim; j++) {
+            for (int i = 0; i < dim; i++) {
+                retVal.set(i, j, 1.0 / (i + j + 1));
+            }
+        }
+        return retVal;
+    }
+
+    private int myBlock;
+    private int myThreshold;
+
+    @AfterEach
+    public void restore() {
+        DecomposeBlocked.BLOCK = myBlock;
+        DecomposeBlocked.THRESHOLD = myThreshold;
+    }
+
+    @BeforeEach
+    public void save() {
+        myBlock = DecomposeBlocked.BLOCK;
+        myThreshold = DecomposeBlocked.THRESHOLD;
+        DecomposeBlocked.BLOCK = 5;
+        DecomposeBlocked.THRESHOLD = 8;
+    }
+
+    @Test
+    public void testCholesky() {
+
+        for (int dim : new int[] { 8, 23, 40 }) {
+
+            Primitive64Store random = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+            Primitive64Store body = Primitive64Store.FACTORY.make(dim, dim);
+            body.fillByMultiplying(random.transpose(), random);
+            for (int ij = 0; ij < dim; ij++) {
+                body.add(ij, ij, 1.0);
+            }
+
+            CholeskyDecomposition<Double> blocked = new CholeskyDecomposition.R064();
+            TestUtils.assertTrue(blocked.checkAndDecompose(body));
+            TestUtils.assertTrue(blocked.isSolvable());
+
+            RawCholesky reference = new RawCholesky();
+            TestUtils.assertTrue(reference.checkAndDecompose(body));
+
+            TestUtils.assertEquals(reference.getL(), blocked.getL(), ACCURACY);
+            TestUtils.assertEquals(body, blocked.reconstruct(), ACCURACY);
+            TestUtils.assertEquals(reference.getRankThreshold(), blocked.getRankThreshold(), ACCURACY);
+
+            // Not positive definite
+
+            body.set(dim - 3, dim - 3, -1.0);
+            TestUtils.assertFalse(blocked.decompose(body));
+        }
+    }
+
+    /**
+     * Ill-conditioned (Hilbert) matrices are positive definite, but not numerically for larger dimensions.
+     * Indefinite matrices fail. Either way blocked and unblocked should agree.
+     */
+    @Test
+    public void testCholeskyIllConditionedAndIndefinite() {
+
+        Primitive64Store random = Primitive64Store.FACTORY.makeFilled(30, 30, Normal.standard());
+        Primitive64Store indefinite = Primitive64Store.FACTORY.make(30, 30);
+        for (int j = 0; j < 30; j++) {
+            for (int i = 0; i < 30; i++) {
+                indefinite.set(i, j, random.doubleValue(i, j) + random.doubleValue(j, i));
+            }
+        }
+
+        for (Primitive64Store body : new Primitive64Store[] { BlockedDecompositionTest.hilbert(10), BlockedDecompositionTest.hilbert(25), indefinite }) {
+
+            CholeskyDecomposition<Double> blocked = new CholeskyDecomposition.R064();
+            boolean blockedOK = blocked.checkAndDecompose(body);
+
+            DecomposeBlocked.THRESHOLD = Integer.MAX_VALUE;
+            CholeskyDecomposition<Double> unblocked = new CholeskyDecomposition.R064();
+            boolean unblockedOK = unblocked.checkAndDecompose(body);
+            DecomposeBlocked.THRESHOLD = 8;
+
+            TestUtils.assertEquals(unblockedOK, blockedOK);
+            TestUtils.assertEquals(unblocked.isSolvable(), blocked.isSolvable());
+            if (unblockedOK) {
+                TestUtils.assertEquals(unblocked.getL(), blocked.getL(), ACCURACY);
+                TestUtils.assertEquals(unblocked.getRankThreshold(), blocked.getRankThreshold(), ACCURACY);
+            }
+        }
+    }
+
+    @Test
+    public void testLU() {
+
+        for (int[] shape : new int[][] { { 8, 8 }, { 23, 23 }, { 31, 17 }, { 17, 31 } }) {
+
+            Primitive64Store body = Primitive64Store.FACTORY.makeFilled(shape[0], shape[1], Normal.standard());
+
+            LUDecomposition<Double> blocked = new LUDecomposition.R064();
+            TestUtils.assertTrue(blocked.decompose(body));
+
+            DecomposeBlocked.THRESHOLD = Integer.MAX_VALUE;
+            LUDecomposition<Double> unblocked = new LUDecomposition.R064();
+            TestUtils.assertTrue(unblocked.decompose(body));
+            DecomposeBlocked.THRESHOLD = 8;
+
+            TestUtils.assertEquals(unblocked.getPivotOrder(), blocked.getPivotOrder());
+            TestUtils.assertEquals(unblocked.getL(), blocked.getL(), ACCURACY);
+            TestUtils.assertEquals(unblocked.getU(), blocked.getU(), ACCURACY);
+            TestUtils.assertEquals(body, blocked.reconstruct(), ACCURACY);
+        }
+    }
+
+    /**
+     * Ill-conditioned (Hilbert) and nearly singular matrices – the pivot sequence must be the same.
+     */
+    @Test
+    public void testLUIllConditioned() {
+
+        Primitive64Store nearlySingular = Primitive64Store.FACTORY.makeFilled(27, 27, Normal.standard());
+        for (int i = 0; i < 27; i++) {
+            nearlySingular.set(i, 11, nearlySingular.doubleValue(i, 3) - nearlySingular.doubleValue(i, 5) + 1E-12 * i);
+        }
+
+        for (Primitive64Store body : new Primitive64Store[] { BlockedDecompositionTest.hilbert(12), BlockedDecompositionTest.hilbert(25), nearlySingular }) {
+
+            LUDecomposition<Double> blocked = new LUDecomposition.R064();
+            TestUtils.assertTrue(blocked.decompose(body));
+
+            DecomposeBlocked.THRESHOLD = Integer.MAX_VALUE;
+            LUDecomposition<Double> unblocked = new LUDecomposition.R064();
+            TestUtils.assertTrue(unblocked.decompose(body));
+            DecomposeBlocked.THRESHOLD = 8;
+
+            TestUtils.assertEquals(unblocked.getPivotOrder(), blocked.getPivotOrder());
+            TestUtils.assertEquals(unblocked.getL(), blocked.getL(), ACCURACY);
+            TestUtils.assertEquals(unblocked.getU(), blocked.getU(), ACCURACY);
+            TestUtils.assertEquals(unblocked.getRank(), blocked.getRank());
+            TestUtils.assertEquals(unblocked.isSolvable(), blocked.isSolvable());
+        }
+    }
+
+    @Test
+    public void testSingular() {
+
+        int dim = 20;
+
+        Primitive64Store body = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+        for (int i = 0; i < dim; i++) {
+            body.set(i, 7, 0.0);
+            body.set(i, 13, body.doubleValue(i, 2) + body.doubleValue(i, 4));
+        }
+
+        LUDecomposition<Double> blocked = new LUDecomposition.R064();
+        TestUtils.assertTrue(blocked.decompose(body));
+
+        TestUtils.assertFalse(blocked.isSolvable());
+        TestUtils.assertEquals(dim - 2, blocked.getRank());
+        TestUtils.assertEquals(body, blocked.reconstruct(), ACCURACY);
+
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 1, Normal.standard());
+        body.fillColumn(0, 7, Normal.standard());
+        body.fillColumn(0, 13, Normal.standard());
+        TestUtils.assertTrue(blocked.compute(body));
+        MatrixStore<Double> solution = blocked.getSolution(rhs);
+        TestUtils.assertEquals(rhs, body.multiply(solution), ACCURACY);
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.matrix.decomposition.Eigenvalue.Eigenpair;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.type.context.NumberContext;
+
+public class KrylovEvDTest extends MatrixDecompositionTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(8, 8);
+
+    /**
+     * |[A][x] - λ[x]| small, relative to |λ|, for each of the eigenpairs
+     */
+    private static void assertResiduals(final MatrixStore<Double> matrix, final List<Eigenpair> eigenpairs) {
+
+        int dim = matrix.getRowDim();
+
+        for (Eigenpair pair : eigenpairs) {
+
+            Primitive64Store re = Primitive64Store.FACTORY.make(dim, 1);
+            Primitive64Store im = Primitive64Store.FACTORY.make(dim, 1);
+            for (int i = 0; i < dim; i++) {
+                re.set(i, pair.vector.get(i).getReal());
+                im.set(i, pair.vector.get(i).i);
+            }
+
+            MatrixStore<Double> productRe = matrix.multiply(re);
+            MatrixStore<Double> productIm = matrix.multiply(im);
+
+            double lambdaRe = pair.value.getReal();
+            double lambdaIm = pair.value.i;
+
+            double error = ZERO;
+            double length = ZERO;
+            for (int i = 0; i < dim; i++) {
+                double diffRe = productRe.doubleValue(i) - (lambdaRe * re.doubleValue(i) - lambdaIm * im.doubleValue(i));
+                double diffIm = productIm.doubleValue(i) - (lambdaRe * im.doubleValue(i) + lambdaIm * re.doubleValue(i));
+                error = HYPOT.invoke(error, HYPOT.invoke(diffRe, diffIm));
+                length = HYPOT.invoke(length, HYPOT.invoke(re.doubleValue(i), im.doubleValue(i)));
+            }
+
+            TestUtils.assertEquals(ONE, length, ACCURACY);
+            TestUtils.assertEquals(ZERO, error / Math.max(ONE, pair.value.norm()), ACCURACY);
+        }
+    }
+
+    private static void addBlock(final Primitive64Store matrix, final int index, final double re, final double im) {
+        matrix.add(index, index, re);
+        matrix.add(index + 1, index + 1, re);
+        matrix.add(index, index + 1, im);
+        matrix.add(index + 1, index, -im);
+    }
+
+    @Test
+    public void testArnoldiLogical() {
+
+        int dim = 200;
+        int count = 4; // Splits a complex conjugate pair – 5 eigenpairs expected
+
+        Primitive64Store matrix = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+        // Dominant eigenvalues (approximately) 50 ± 40i, 55, -40 ± 20i and 35, well separated from the rest
+        KrylovEvDTest.addBlock(matrix, 0, 50.0, 40.0);
+        matrix.add(2, 2, 55.0);
+        KrylovEvDTest.addBlock(matrix, 3, -40.0, 20.0);
+        matrix.add(5, 5, 35.0);
+
+        // The eigenvalues of the transpose are the same – a logical store, never materialised
+        MatrixStore<Double> operator = matrix.transpose();
+
+        KrylovEvD partial = KrylovEvD.arnoldi(count, KrylovEvD.Extreme.LARGEST);
+        TestUtils.assertTrue(partial.compute(operator));
+
+        Eigenvalue<Double> full = Eigenvalue.R064.make(matrix, false);
+        full.decompose(matrix);
+        List<ComplexNumber> expected = new ArrayList<>();
+        for (ComplexNumber value : full.getEigenvalues()) {
+            expected.add(value);
+        }
+        expected.sort(Comparator.<ComplexNumber> comparingDouble(ComplexNumber::norm).reversed());
+
+        Array1D<ComplexNumber> actual = partial.getEigenvalues();
+        TestUtils.assertEquals(count + 1, actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            TestUtils.assertEquals(expected.get(i).norm(), actual.get(i).norm(), ACCURACY);
+        }
+
+        KrylovEvDTest.assertResiduals(operator, partial.getEigenpairs());
+
+        // [A][V] = [V][D]
+        MatrixStore<Double> mtrxV = partial.getV();
+        TestUtils.assertEquals(operator.multiply(mtrxV), mtrxV.multiply(partial.getD()), ACCURACY);
+    }
+
+    @Test
+    public void testLanczosLargest() {
+
+        int dim = 300;
+        int count = 10;
+
+        Primitive64Store base = Primitive64Store.FACTORY.makeFilled(dim, dim / 2, Normal.standard());
+        Primitive64Store covariance = Primitive64Store.FACTORY.copy(base.multiply(base.transpose()));
+
+        KrylovEvD partial = KrylovEvD.lanczos(count, KrylovEvD.Extreme.LARGEST);
+        TestUtils.assertTrue(partial.compute(covariance));
+
+        Eigenvalue<Double> full = Eigenvalue.R064.make(covariance, true);
+        full.decompose(covariance);
+        double[] expected = new double[dim];
+        full.getEigenvalues(expected, java.util.Optional.empty());
+        Arrays.sort(expected);
+
+        Array1D<ComplexNumber> actual = partial.getEigenvalues();
+        TestUtils.assertEquals(count, actual.size());
+        for (int i = 0; i < count; i++) {
+            TestUtils.assertEquals(expected[dim - 1 - i], actual.doubleValue(i), ACCURACY);
+        }
+
+        KrylovEvDTest.assertResiduals(covariance, partial.getEigenpairs());
+
+        MatrixStore<Double> mtrxV = partial.getV();
+        TestUtils.assertEquals(Primitive64Store.FACTORY.makeIdentity(count), mtrxV.transpose().multiply(mtrxV), ACCURACY);
+    }
+
+    /**
+     * The smallest eigenvalues of a (sparse) 2D Laplacian are known analytically
+     */
+    @Test
+    public void testLanczosSmallestSparse() {
+
+        int size = 20;
+        int count = 4;
+
+        SparseStore<Double> laplacian = SparseLDLTest.newLaplacian(size, ZERO);
+
+        KrylovEvD partial = KrylovEvD.lanczos(count, KrylovEvD.Extreme.SMALLEST);
+        TestUtils.assertTrue(partial.compute(laplacian));
+
+        double[] expected = new double[size * size];
+        for (int p = 1; p <= size; p++) {
+            for (int q = 1; q <= size; q++) {
+                expected[(p - 1) * size + q - 1] = FOUR - TWO * Math.cos(p * PI / (size + 1)) - TWO * Math.cos(q * PI / (size + 1));
+            }
+        }
+        Arrays.sort(expected);
+
+        Array1D<ComplexNumber> actual = partial.getEigenvalues();
+        for (int i = 0; i < count; i++) {
+            TestUtils.assertEquals(expected[i], actual.doubleValue(i), ACCURACY);
+        }
+
+        KrylovEvDTest.assertResiduals(laplacian, partial.getEigenpairs());
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class MixedPrecisionSolverTest extends MatrixDecompositionTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 12);
+    private static final double ONE = 1.0;
+
+    static Primitive64Store newGeneral(final int dim) {
+        Primitive64Store retVal = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+        for (int ij = 0; ij < dim; ij++) {
+            retVal.add(ij, ij, dim);
+        }
+        return retVal;
+    }
+
+    static Primitive64Store newSPD(final int dim) {
+        Primitive64Store random = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(dim, dim);
+        retVal.fillByMultiplying(random.transpose(), random);
+        for (int ij = 0; ij < dim; ij++) {
+            retVal.add(ij, ij, ONE);
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testCholesky() {
+
+        int dim = 50;
+
+        Primitive64Store body = MixedPrecisionSolverTest.newSPD(dim);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 3, Normal.standard());
+
+        Cholesky<Double> reference = Cholesky.R064.make(body);
+        TestUtils.assertTrue(reference.compute(body));
+        MatrixStore<Double> expected = reference.getSolution(rhs);
+
+        MixedPrecisionSolver mixed = MixedPrecisionSolver.CHOLESKY.make(body);
+        TestUtils.assertTrue(mixed.compute(body));
+        TestUtils.assertFalse(mixed.isUsingFallback());
+        MatrixStore<Double> actual = mixed.getSolution(rhs);
+
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+        TestUtils.assertTrue(mixed.getIterations() >= 1);
+    }
+
+    /**
+     * The Hilbert matrix is far too ill-conditioned for single precision factors. The solver must either
+     * fail the single precision factorisation or notice that the refinement does not converge – either way
+     * the results should be those of the double precision fallback.
+     */
+    @Test
+    public void testFallback() {
+
+        int dim = 8;
+
+        Primitive64Store body = Primitive64Store.FACTORY.make(dim, dim);
+        body.loopAll((i, j) -> body.set(i, j, ONE / (i + j + 1)));
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 1, Normal.standard());
+
+        LU<Double> reference = LU.R064.make(body);
+        TestUtils.assertTrue(reference.compute(body));
+        MatrixStore<Double> expected = reference.getSolution(rhs);
+
+        MixedPrecisionSolver mixed = MixedPrecisionSolver.LU.make(body);
+        TestUtils.assertTrue(mixed.compute(body));
+        MatrixStore<Double> actual = mixed.getSolution(rhs);
+
+        TestUtils.assertTrue(mixed.isUsingFallback());
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+    }
+
+    @Test
+    public void testInverse() {
+
+        int dim = 20;
+
+        Primitive64Store body = MixedPrecisionSolverTest.newGeneral(dim);
+
+        MixedPrecisionSolver mixed = MixedPrecisionSolver.LU.make(body);
+        TestUtils.assertTrue(mixed.compute(body));
+
+        MatrixStore<Double> inverse = mixed.getInverse();
+
+        TestUtils.assertEquals(Primitive64Store.FACTORY.makeIdentity(dim), body.multiply(inverse), ACCURACY);
+    }
+
+    @Test
+    public void testLU() {
+
+        int dim = 50;
+
+        Primitive64Store body = MixedPrecisionSolverTest.newGeneral(dim);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 3, Normal.standard());
+
+        LU<Double> reference = LU.R064.make(body);
+        TestUtils.assertTrue(reference.compute(body));
+        MatrixStore<Double> expected = reference.getSolution(rhs);
+
+        MixedPrecisionSolver mixed = MixedPrecisionSolver.LU.make(body);
+        TestUtils.assertTrue(mixed.compute(body));
+        TestUtils.assertFalse(mixed.isUsingFallback());
+        MatrixStore<Double> actual = mixed.getSolution(rhs);
+
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+    }
+
+    @Test
+    public void testTransposed() {
+
+        int dim = 30;
+
+        Primitive64Store body = MixedPrecisionSolverTest.newGeneral(dim);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 2, Normal.standard());
+
+        MixedPrecisionSolver mixed = MixedPrecisionSolver.LU.make(body);
+        TestUtils.assertTrue(mixed.compute(body));
+
+        Primitive64Store solution = rhs.copy();
+        mixed.btran(solution);
+
+        TestUtils.assertEquals(rhs, body.transpose().multiply(solution), ACCURACY);
+    }
+
+}
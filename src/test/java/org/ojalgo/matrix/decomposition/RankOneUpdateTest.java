@@ -0,0 +1,239 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class RankOneUpdateTest extends MatrixDecompositionTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10, 10);
+
+    private static void assertQR(final MatrixStore<Double> expected, final UpdatableQR decomposition) {
+
+        MatrixStore<Double> mtrxQ = decomposition.getQ();
+        MatrixStore<Double> mtrxR = decomposition.getR();
+
+        TestUtils.assertEquals(expected.countColumns(), decomposition.countColumns());
+        TestUtils.assertEquals(Primitive64Store.FACTORY.makeIdentity(expected.getRowDim()), mtrxQ.transpose().multiply(mtrxQ), ACCURACY);
+        TestUtils.assertEquals(mtrxR, mtrxR.triangular(true, false), ACCURACY);
+        TestUtils.assertEquals(expected, mtrxQ.multiply(mtrxR), ACCURACY);
+    }
+
+    static Primitive64Store newSPD(final int dim) {
+        Primitive64Store base = Primitive64Store.FACTORY.makeFilled(dim + dim, dim, Normal.standard());
+        return Primitive64Store.FACTORY.copy(base.transpose().multiply(base));
+    }
+
+    static Primitive64Store newVector(final int dim) {
+        return Primitive64Store.FACTORY.makeFilled(dim, 1, Normal.standard());
+    }
+
+    @Test
+    public void testCholesky() {
+
+        int dim = 40;
+
+        for (Cholesky<Double> decomposition : MatrixDecompositionTests.getPrimitiveCholesky()) {
+
+            MatrixDecomposition.Updatable<Double> updatable = (MatrixDecomposition.Updatable<Double>) decomposition;
+
+            Primitive64Store matrix = RankOneUpdateTest.newSPD(dim);
+            TestUtils.assertTrue(decomposition.decompose(matrix));
+
+            for (int t = 0; t < 5; t++) {
+
+                Primitive64Store added = RankOneUpdateTest.newVector(dim);
+                Primitive64Store removed = RankOneUpdateTest.newVector(dim);
+
+                matrix.modifyMatching(ADD, added.multiply(added.transpose()));
+                TestUtils.assertTrue(updatable.update(added));
+
+                // Make sure this downdate is possible
+                removed.modifyAll(DIVIDE.by(TEN));
+                matrix.modifyMatching(SUBTRACT, removed.multiply(removed.transpose()));
+                TestUtils.assertTrue(updatable.downdate(removed));
+
+                TestUtils.assertTrue(decomposition.isSolvable());
+                TestUtils.assertEquals(matrix, decomposition.reconstruct(), ACCURACY);
+
+                Primitive64Store rhs = RankOneUpdateTest.newVector(dim);
+                TestUtils.assertEquals(rhs, matrix.multiply(decomposition.getSolution(rhs)), ACCURACY);
+            }
+
+            // Would no longer be positive definite, and the decomposition is left unchanged
+            Primitive64Store large = Primitive64Store.FACTORY.make(dim, 1);
+            large.set(dim / 2, 0, 1.0E6);
+            TestUtils.assertFalse(updatable.downdate(large));
+            TestUtils.assertEquals(matrix, decomposition.reconstruct(), ACCURACY);
+        }
+    }
+
+    /**
+     * Indefinite, and pivoted, LDL
+     */
+    @Test
+    public void testLDL() {
+
+        int dim = 30;
+
+        Primitive64Store matrix = RankOneUpdateTest.newSPD(dim);
+        matrix.modifyDiagonal(SUBTRACT.second(matrix.aggregateDiagonal(Aggregator.AVERAGE)));
+
+        LDL<Double> decomposition = LDL.R064.make(matrix);
+        TestUtils.assertTrue(decomposition.decompose(matrix));
+        TestUtils.assertTrue(decomposition.isPivoted());
+
+        MatrixDecomposition.Updatable<Double> updatable = (MatrixDecomposition.Updatable<Double>) decomposition;
+
+        for (int t = 0; t < 5; t++) {
+
+            Primitive64Store added = RankOneUpdateTest.newVector(dim);
+            Primitive64Store removed = RankOneUpdateTest.newVector(dim);
+
+            matrix.modifyMatching(ADD, added.multiply(added.transpose()));
+            TestUtils.assertTrue(updatable.update(added));
+
+            matrix.modifyMatching(SUBTRACT, removed.multiply(removed.transpose()));
+            TestUtils.assertTrue(updatable.downdate(removed));
+
+            TestUtils.assertEquals(matrix, decomposition.reconstruct(), ACCURACY);
+        }
+    }
+
+    /**
+     * Only the R064 implementations are updatable
+     */
+    @Test
+    public void testNotUpdatable() {
+
+        TestUtils.assertTrue(Cholesky.R064.make() instanceof MatrixDecomposition.Updatable);
+        TestUtils.assertTrue(LDL.R064.make() instanceof MatrixDecomposition.Updatable);
+
+        TestUtils.assertFalse(Cholesky.R128.make() instanceof MatrixDecomposition.Updatable);
+        TestUtils.assertFalse(Cholesky.Q128.make() instanceof MatrixDecomposition.Updatable);
+        TestUtils.assertFalse(LDL.R128.make() instanceof MatrixDecomposition.Updatable);
+        LDL<Double> sparse = new SparseLDL();
+        TestUtils.assertFalse(sparse instanceof MatrixDecomposition.Updatable);
+    }
+
+    /**
+     * The cached solvability is re-evaluated when the factors are revised.
+     */
+    @Test
+    public void testSolvabilityRevised() {
+
+        int dim = 10;
+
+        Primitive64Store matrix = Primitive64Store.FACTORY.make(dim, dim);
+        matrix.fillDiagonal(ONE);
+        matrix.set(dim - 1, dim - 1, 1.0E-30);
+
+        for (Cholesky<Double> decomposition : MatrixDecompositionTests.getPrimitiveCholesky()) {
+
+            TestUtils.assertTrue(decomposition.decompose(matrix));
+            TestUtils.assertFalse(decomposition.isSolvable());
+
+            Primitive64Store vector = Primitive64Store.FACTORY.make(dim, 1);
+            vector.set(dim - 1, ONE);
+
+            TestUtils.assertTrue(((MatrixDecomposition.Updatable<Double>) decomposition).update(vector));
+            TestUtils.assertTrue(decomposition.isSolvable());
+        }
+    }
+
+    @Test
+    public void testQRColumns() {
+
+        int nbRows = 25;
+        int nbCols = 10;
+
+        Primitive64Store matrix = Primitive64Store.FACTORY.makeFilled(nbRows, nbCols, Normal.standard());
+
+        UpdatableQR decomposition = UpdatableQR.FACTORY.make(matrix);
+        TestUtils.assertTrue(decomposition.decompose(matrix));
+
+        Primitive64Store column = RankOneUpdateTest.newVector(nbRows);
+
+        TestUtils.assertTrue(decomposition.insertColumn(3, column));
+        MatrixStore<Double> expected = matrix.limits(-1, 3).right(column).right(matrix.offsets(0, 3));
+        RankOneUpdateTest.assertQR(expected, decomposition);
+
+        Primitive64Store last = RankOneUpdateTest.newVector(nbRows);
+        TestUtils.assertTrue(decomposition.insertColumn(nbCols + 1, last));
+        expected = expected.right(last);
+        RankOneUpdateTest.assertQR(expected, decomposition);
+
+        TestUtils.assertTrue(decomposition.deleteColumn(0));
+        expected = expected.offsets(0, 1);
+        RankOneUpdateTest.assertQR(expected, decomposition);
+
+        TestUtils.assertTrue(decomposition.deleteColumn(5));
+        expected = expected.limits(-1, 5).right(expected.offsets(0, 6));
+        RankOneUpdateTest.assertQR(expected, decomposition);
+
+        // Least squares solution same as from a fresh decomposition
+        Primitive64Store rhs = RankOneUpdateTest.newVector(nbRows);
+        QR<Double> reference = QR.R064.make(expected);
+        reference.decompose(expected);
+        TestUtils.assertEquals(reference.getSolution(rhs), decomposition.getSolution(rhs), ACCURACY);
+    }
+
+    /**
+     * Replacing one row (observation) of [A] is a rank-1 update
+     */
+    @Test
+    public void testQRUpdate() {
+
+        int dim = 20;
+
+        Primitive64Store matrix = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+
+        UpdatableQR decomposition = UpdatableQR.FACTORY.make(matrix);
+        TestUtils.assertTrue(decomposition.decompose(matrix));
+        TestUtils.assertEquals(QR.R064.make(matrix).calculateDeterminant(matrix), decomposition.getDeterminant(), ACCURACY);
+
+        for (int t = 0; t < dim; t++) {
+
+            Primitive64Store left = Primitive64Store.FACTORY.make(dim, 1);
+            left.set(t, 0, ONE);
+            Primitive64Store right = RankOneUpdateTest.newVector(dim);
+            right.modifyMatching(SUBTRACT, matrix.sliceRow(t));
+
+            matrix.modifyMatching(ADD, left.multiply(right.transpose()));
+            TestUtils.assertTrue(decomposition.update(left, right));
+
+            RankOneUpdateTest.assertQR(matrix, decomposition);
+        }
+
+        TestUtils.assertEquals(QR.R064.make(matrix).calculateDeterminant(matrix), decomposition.getDeterminant(), ACCURACY);
+        TestUtils.assertEquals(Primitive64Store.FACTORY.makeIdentity(dim), matrix.multiply(decomposition.getInverse()), ACCURACY);
+    }
+
+}
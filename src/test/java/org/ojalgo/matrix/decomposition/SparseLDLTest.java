@@ -0,0 +1,225 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class SparseLDLTest extends MatrixDecompositionTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 12);
+
+    /**
+     * The 5-point Laplacian on a size x size grid, shifted to be positive definite
+     */
+    static SparseStore<Double> newLaplacian(final int size, final double shift) {
+
+        int dim = size * size;
+
+        SparseStore<Double> retVal = SparseStore.R064.make(dim, dim);
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int ij = x + y * size;
+                retVal.set(ij, ij, 4.0 + shift);
+                if (x + 1 < size) {
+                    retVal.set(ij, ij + 1, -1.0);
+                    retVal.set(ij + 1, ij, -1.0);
+                }
+                if (y + 1 < size) {
+                    retVal.set(ij, ij + size, -1.0);
+                    retVal.set(ij + size, ij, -1.0);
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    @Test
+    public void testApproximateMinimumDegree() {
+
+        SparseLDL.Symbolic ordered = SparseLDL.analyse(SparseLDLTest.newLaplacian(20, 0.0));
+
+        int[] order = ordered.getOrder();
+        boolean[] used = new boolean[order.length];
+        for (int i : order) {
+            TestUtils.assertFalse(used[i]);
+            used[i] = true;
+        }
+
+        SparseLDL natural = SparseLDL.FACTORY.make();
+        TestUtils.assertTrue(natural.decomposeWithoutPivoting(SparseLDLTest.newLaplacian(20, 0.0)));
+        TestUtils.assertFalse(natural.isPivoted());
+
+        // The natural (banded) ordering of a 20x20 grid gives 20 fill per column – AMD should do much better
+        TestUtils.assertTrue(ordered.countNonzeros() < natural.getSymbolic().countNonzeros() / 2);
+    }
+
+    /**
+     * An arrow matrix (dense last row/column) factorises without fill in the natural order, but with
+     * complete fill if the dense row/column goes first.
+     */
+    @Test
+    public void testArrow() {
+
+        int dim = 50;
+
+        SparseStore<Double> arrow = SparseStore.R064.make(dim, dim);
+        for (int i = 0; i < dim; i++) {
+            arrow.set(i, i, dim);
+            arrow.set(0, i, ONE);
+            arrow.set(i, 0, ONE);
+        }
+        arrow.set(0, 0, dim);
+
+        SparseLDL decomposition = SparseLDL.FACTORY.make(arrow);
+        TestUtils.assertTrue(decomposition.decompose(arrow));
+        TestUtils.assertTrue(decomposition.isSPD());
+
+        TestUtils.assertEquals(dim - 1, decomposition.getSymbolic().countNonzeros());
+
+        TestUtils.assertEquals(arrow, decomposition.reconstruct(), ACCURACY);
+    }
+
+    /**
+     * Quasi-definite KKT system [H A<sup>T</sup>; A -δI] – indefinite but factorisable with any symmetric
+     * ordering.
+     */
+    @Test
+    public void testKKT() {
+
+        int nbVars = 60;
+        int nbCons = 20;
+        int dim = nbVars + nbCons;
+
+        SparseStore<Double> kkt = SparseStore.R064.make(dim, dim);
+
+        for (int i = 0; i < nbVars; i++) {
+            kkt.set(i, i, 2.0 + i % 3);
+            if (i + 1 < nbVars) {
+                kkt.set(i, i + 1, 0.5);
+                kkt.set(i + 1, i, 0.5);
+            }
+        }
+        for (int c = 0; c < nbCons; c++) {
+            for (int t = 0; t < 3; t++) {
+                int j = Uniform.randomInteger(nbVars);
+                double value = Normal.standard().doubleValue();
+                kkt.set(nbVars + c, j, value);
+                kkt.set(j, nbVars + c, value);
+            }
+            kkt.set(nbVars + c, nbVars + c, -1E-6);
+        }
+
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 2, Normal.standard());
+
+        SparseLDL sparse = SparseLDL.FACTORY.make(kkt);
+        TestUtils.assertTrue(sparse.decompose(kkt));
+        TestUtils.assertTrue(sparse.isSolvable());
+        TestUtils.assertFalse(sparse.isSPD());
+
+        LU<Double> reference = LU.R064.make(kkt);
+        TestUtils.assertTrue(reference.decompose(kkt));
+
+        TestUtils.assertEquals(reference.getSolution(rhs), sparse.getSolution(rhs), NumberContext.of(8, 10));
+        TestUtils.assertEquals(reference.getDeterminant(), sparse.getDeterminant(), NumberContext.of(8));
+    }
+
+    /**
+     * Refactorising with new values (and a subset of the pattern) reuses the symbolic analysis.
+     */
+    @Test
+    public void testRefactorise() {
+
+        SparseStore<Double> first = SparseLDLTest.newLaplacian(12, 0.5);
+        SparseStore<Double> second = SparseLDLTest.newLaplacian(12, 2.0);
+        second.set(5, 6, ZERO);
+        second.set(6, 5, ZERO);
+
+        SparseLDL decomposition = SparseLDL.FACTORY.make(first);
+
+        TestUtils.assertTrue(decomposition.decompose(first));
+        SparseLDL.Symbolic symbolic = decomposition.getSymbolic();
+
+        TestUtils.assertTrue(decomposition.decompose(second));
+        TestUtils.assertTrue(symbolic == decomposition.getSymbolic());
+
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(second.countRows(), 1, Normal.standard());
+
+        Cholesky<Double> reference = Cholesky.R064.make(second);
+        TestUtils.assertTrue(reference.decompose(second));
+
+        TestUtils.assertEquals(reference.getSolution(rhs), decomposition.getSolution(rhs), ACCURACY);
+
+        // The same analysis, in another instance
+        SparseLDL shared = SparseLDL.of(symbolic);
+        TestUtils.assertTrue(shared.decompose(first));
+        TestUtils.assertTrue(symbolic == shared.getSymbolic());
+
+        // Not contained in the analysed pattern
+        SparseStore<Double> third = SparseLDLTest.newLaplacian(12, 0.5);
+        third.set(0, 143, -0.1);
+        third.set(143, 0, -0.1);
+        TestUtils.assertTrue(decomposition.decompose(third));
+        TestUtils.assertFalse(symbolic == decomposition.getSymbolic());
+    }
+
+    @Test
+    public void testSPD() {
+
+        SparseStore<Double> matrix = SparseLDLTest.newLaplacian(15, 0.1);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(matrix.countRows(), 3, Normal.standard());
+
+        SparseLDL sparse = SparseLDL.FACTORY.make(matrix);
+        TestUtils.assertTrue(sparse.decompose(matrix));
+        TestUtils.assertTrue(sparse.isSPD());
+        TestUtils.assertTrue(sparse.isPivoted());
+        TestUtils.assertEquals(matrix.countRows(), sparse.getRank());
+
+        Cholesky<Double> reference = Cholesky.R064.make(matrix);
+        TestUtils.assertTrue(reference.decompose(matrix));
+
+        TestUtils.assertEquals(reference.getSolution(rhs), sparse.getSolution(rhs), ACCURACY);
+        TestUtils.assertEquals(matrix, sparse.reconstruct(), ACCURACY);
+        TestUtils.assertEquals(reference.getInverse(), sparse.getInverse(), ACCURACY);
+
+        // A dense store with the same elements gives the same results
+        Primitive64Store dense = Primitive64Store.FACTORY.copy(matrix);
+        SparseLDL fromDense = SparseLDL.FACTORY.make(dense);
+        TestUtils.assertTrue(fromDense.decompose(dense));
+        TestUtils.assertEquals(sparse.getSolution(rhs), fromDense.getSolution(rhs), ACCURACY);
+
+        // Shifted to be indefinite
+        SparseStore<Double> indefinite = SparseLDLTest.newLaplacian(15, -2.5);
+        TestUtils.assertTrue(sparse.decompose(indefinite));
+        TestUtils.assertFalse(sparse.isSPD());
+    }
+
+}
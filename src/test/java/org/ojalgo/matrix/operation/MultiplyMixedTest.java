@@ -0,0 +1,57 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.Primitive32Store;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class MultiplyMixedTest {
+
+    private static final NumberContext ACCURACY = NumberContext.of(14, 14);
+
+    /**
+     * Multiplying the float factors in double precision should give the same result as multiplying their
+     * (exact) double copies.
+     */
+    @Test
+    public void testSameAsDouble() {
+
+        for (int dim : new int[] { 1, 7, MultiplyMixed.THRESHOLD + 9 }) {
+
+            Primitive32Store left = Primitive32Store.FACTORY.makeFilled(dim + 3, dim, Normal.standard());
+            Primitive32Store right = Primitive32Store.FACTORY.makeFilled(dim, dim + 5, Normal.standard());
+
+            Primitive64Store expected = Primitive64Store.FACTORY.make(dim + 3, dim + 5);
+            expected.fillByMultiplying(Primitive64Store.FACTORY.copy(left), Primitive64Store.FACTORY.copy(right));
+
+            Primitive64Store actual = Primitive64Store.FACTORY.make(dim + 3, dim + 5);
+            actual.fillByMultiplying(left, right);
+
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class MultiplyStrassenTest {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 10);
+
+    private int myCutoff;
+    private int myDepth;
+    private int myThreshold;
+
+    @AfterEach
+    public void restore() {
+        MultiplyStrassen.CUTOFF = myCutoff;
+        MultiplyStrassen.DEPTH = myDepth;
+        MultiplyStrassen.THRESHOLD = myThreshold;
+    }
+
+    @BeforeEach
+    public void save() {
+        myCutoff = MultiplyStrassen.CUTOFF;
+        myDepth = MultiplyStrassen.DEPTH;
+        myThreshold = MultiplyStrassen.THRESHOLD;
+    }
+
+    @Test
+    public void testGlobalPolicy() {
+
+        MultiplyStrassen.CUTOFF = 16;
+        MultiplyStrassen.THRESHOLD = 64;
+
+        Primitive64Store left = Primitive64Store.FACTORY.makeFilled(70, 65, Normal.standard());
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(65, 66, Normal.standard());
+
+        Primitive64Store expected = Primitive64Store.FACTORY.make(70, 66);
+        MultiplyNeither.fillMxN(expected.data, left.data, 65, right.data);
+
+        TestUtils.assertEquals(expected, left.multiply(right), ACCURACY);
+    }
+
+    @Test
+    public void testOddDimensions() {
+
+        MultiplyStrassen.CUTOFF = 4;
+
+        for (int depth = 0; depth <= 4; depth++) {
+            MultiplyStrassen.DEPTH = depth;
+
+            for (int[] dims : new int[][] { { 37, 41, 29 }, { 32, 32, 32 }, { 5, 64, 9 }, { 50, 7, 51 } }) {
+
+                int m = dims[0];
+                int k = dims[1];
+                int n = dims[2];
+
+                Primitive64Store left = Primitive64Store.FACTORY.makeFilled(m, k, Normal.standard());
+                Primitive64Store right = Primitive64Store.FACTORY.makeFilled(k, n, Normal.standard());
+                Primitive64Store expected = Primitive64Store.FACTORY.make(m, n);
+                Primitive64Store actual = Primitive64Store.FACTORY.make(m, n);
+
+                MultiplyNeither.fillMxN(expected.data, left.data, k, right.data);
+                MultiplyStrassen.invoke(actual.data, left.data, k, right.data);
+
+                TestUtils.assertEquals(depth + ": " + m + "x" + k + "x" + n, expected, actual, ACCURACY);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class MultiplyStructuredTest {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 12);
+
+    static void compare(final MatrixStore<Double> left, final MatrixStore<Double> right, final boolean structured) {
+
+        int m = left.getRowDim();
+        int c = left.getColDim();
+        int n = right.getColDim();
+
+        Primitive64Store expected = Primitive64Store.FACTORY.make(m, n);
+        MultiplyNeither.fillMxN(expected.data, Primitive64Store.FACTORY.copy(left).data, c, Primitive64Store.FACTORY.copy(right).data);
+
+        Primitive64Store actual = Primitive64Store.FACTORY.makeFilled(m, n, Normal.standard());
+        TestUtils.assertEquals(structured, MultiplyStructured.invoke(actual.data, left, c, right));
+        if (structured) {
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+        }
+
+        TestUtils.assertEquals(expected, left.multiply(right), ACCURACY);
+    }
+
+    @Test
+    public void testBanded() {
+
+        int dim = 2 * MultiplyStructured.THRESHOLD + 7;
+
+        Primitive64Store banded = Primitive64Store.FACTORY.make(dim, dim);
+        for (int j = 0; j < dim; j++) {
+            for (int i = Math.max(0, j - 2); i < Math.min(dim, j + 3); i++) {
+                banded.set(i, j, Normal.standard().doubleValue());
+            }
+        }
+        Primitive64Store dense = Primitive64Store.FACTORY.makeFilled(dim, dim - 3, Normal.standard());
+
+        // Physically stored banded matrices are not detected – they're dense as far as this is concerned
+        MultiplyStructuredTest.compare(banded, dense, false);
+        MultiplyStructuredTest.compare(dense.transpose(), banded, false);
+        MultiplyStructuredTest.compare(banded.tridiagonal(), dense, true);
+        MultiplyStructuredTest.compare(banded.hessenberg(true), banded, false);
+    }
+
+    @Test
+    public void testDense() {
+
+        int dim = MultiplyStructured.THRESHOLD + 3;
+
+        Primitive64Store left = Primitive64Store.FACTORY.makeFilled(dim + 1, dim, Normal.standard());
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(dim, dim - 1, Normal.standard());
+
+        MultiplyStructuredTest.compare(left, right, false);
+        MultiplyStructuredTest.compare(left, right.transpose().transpose(), false);
+        MultiplyStructuredTest.compare(Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard()).symmetric(true), right, false);
+    }
+
+    /**
+     * Only logical stores can declare structure, and physical stores are never scanned.
+     */
+    @Test
+    public void testDeclaredStructure() {
+
+        int dim = MultiplyStructured.THRESHOLD + 5;
+
+        Primitive64Store square = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+
+        TestUtils.assertFalse(MultiplyStructured.isStructured(square, dim, dim));
+        TestUtils.assertFalse(MultiplyStructured.isStructured(Primitive64Store.FACTORY.copy(square.diagonal()), dim, dim));
+        TestUtils.assertFalse(MultiplyStructured.isStructured(square.transpose(), dim, dim));
+        TestUtils.assertFalse(MultiplyStructured.isStructured(square.symmetric(true), dim, dim));
+
+        TestUtils.assertTrue(MultiplyStructured.isStructured(square.diagonal(), dim, dim));
+        TestUtils.assertTrue(MultiplyStructured.isStructured(square.triangular(true, false), dim, dim));
+        TestUtils.assertTrue(MultiplyStructured.isStructured(square.triangular(false, true), dim, dim));
+        TestUtils.assertTrue(MultiplyStructured.isStructured(square.hessenberg(true), dim, dim));
+        TestUtils.assertTrue(MultiplyStructured.isStructured(square.hessenberg(false), dim, dim));
+    }
+
+    @Test
+    public void testDiagonal() {
+
+        int dim = MultiplyStructured.THRESHOLD + 5;
+
+        Primitive64Store square = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+        Primitive64Store dense = Primitive64Store.FACTORY.makeFilled(dim, 3, Normal.standard());
+
+        MultiplyStructuredTest.compare(square.diagonal(), dense, true);
+        MultiplyStructuredTest.compare(dense.transpose(), square.diagonal(), true);
+        MultiplyStructuredTest.compare(square.bidiagonal(true), dense, true);
+        MultiplyStructuredTest.compare(square.bidiagonal(false), square.diagonal(), true);
+        MultiplyStructuredTest.compare(Primitive64Store.FACTORY.copy(square.diagonal()), dense, false);
+    }
+
+    @Test
+    public void testTriangular() {
+
+        int dim = MultiplyStructured.THRESHOLD + 9;
+
+        Primitive64Store square = Primitive64Store.FACTORY.makeFilled(dim, dim, Normal.standard());
+        Primitive64Store dense = Primitive64Store.FACTORY.makeFilled(dim, dim + 2, Normal.standard());
+
+        MultiplyStructuredTest.compare(square.triangular(true, false), dense, false);
+        MultiplyStructuredTest.compare(square.triangular(false, true), square.triangular(true, false), true);
+        MultiplyStructuredTest.compare(square.triangular(true, false), square.triangular(true, true), true);
+        MultiplyStructuredTest.compare(Primitive64Store.FACTORY.copy(square.triangular(false, false)), square.triangular(false, false), false);
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.operation;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Verify that the cache-blocked implementation produces the same results as the general implementations,
+ * for shapes that are not multiples of the block sizes and that span more than one block.
+ */
+public class TestBlockedImplementation {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 12);
+
+    static int[] dims() {
+        return new int[] { 1, MultiplyBlocked.MR + 1, MultiplyBlocked.MC - 1, MultiplyBlocked.MC + 3, MultiplyBlocked.KC + 5 };
+    }
+
+    @Test
+    public void testMultiplyBoth() {
+
+        for (int m : TestBlockedImplementation.dims()) {
+            for (int c : TestBlockedImplementation.dims()) {
+                int n = MultiplyBlocked.NR + 3;
+
+                Primitive64Store left = Primitive64Store.FACTORY.makeFilled(m, c, Normal.standard());
+                Primitive64Store right = Primitive64Store.FACTORY.makeFilled(c, n, Normal.standard());
+                Primitive64Store expected = Primitive64Store.FACTORY.make(m, n);
+                Primitive64Store actual = Primitive64Store.FACTORY.make(m, n);
+
+                MatrixStore<Double> l = left.triangular(true, false);
+                MatrixStore<Double> r = right.transpose().transpose();
+
+                MultiplyBoth.fillMxN_P64(expected, l, c, r);
+                MultiplyBlocked.fillMxN(actual, l, c, r);
+
+                TestUtils.assertEquals(m + "-" + c + "-" + n, expected, actual, ACCURACY);
+            }
+        }
+    }
+
+    /**
+     * Tall products are computed in several panels of columns
+     */
+    @Test
+    public void testMultiplyBothPanels() {
+
+        int m = 2 * MultiplyBlocked.MC + 1;
+        int c = MultiplyBlocked.MR + 1;
+        int n = MultiplyBlocked.NC / 2 + 2 * MultiplyBlocked.NR + 1;
+
+        Primitive64Store left = Primitive64Store.FACTORY.makeFilled(m, c, Normal.standard());
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(c, n, Normal.standard());
+        Primitive64Store expected = Primitive64Store.FACTORY.make(m, n);
+        Primitive64Store actual = Primitive64Store.FACTORY.make(m, n);
+
+        MatrixStore<Double> l = left.transpose().transpose();
+        MatrixStore<Double> r = right.transpose().transpose();
+
+        MultiplyBoth.fillMxN_P64(expected, l, c, r);
+        MultiplyBlocked.fillMxN(actual, l, c, r);
+
+        TestUtils.assertEquals(m + "-" + c + "-" + n, expected, actual, ACCURACY);
+    }
+
+    @Test
+    public void testMultiplyLeft() {
+
+        for (int m : TestBlockedImplementation.dims()) {
+            for (int n : TestBlockedImplementation.dims()) {
+                int c = MultiplyBlocked.KC + 1;
+
+                Primitive64Store left = Primitive64Store.FACTORY.makeFilled(m, c, Normal.standard());
+                Primitive64Store right = Primitive64Store.FACTORY.makeFilled(c, n, Normal.standard());
+                Primitive64Store expected = Primitive64Store.FACTORY.make(m, n);
+                Primitive64Store actual = Primitive64Store.FACTORY.make(m, n);
+
+                MatrixStore<Double> l = left.transpose().transpose();
+
+                MultiplyLeft.fillMxN(expected.data, l, c, right.data);
+                MultiplyBlocked.fillMxN(actual.data, l, c, right.data);
+
+                TestUtils.assertEquals(m + "-" + c + "-" + n, expected, actual, ACCURACY);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplyNeither() {
+
+        for (int m : TestBlockedImplementation.dims()) {
+            for (int c : TestBlockedImplementation.dims()) {
+                for (int n : TestBlockedImplementation.dims()) {
+
+                    Primitive64Store left = Primitive64Store.FACTORY.makeFilled(m, c, Normal.standard());
+                    Primitive64Store right = Primitive64Store.FACTORY.makeFilled(c, n, Normal.standard());
+                    Primitive64Store expected = Primitive64Store.FACTORY.make(m, n);
+                    Primitive64Store actual = Primitive64Store.FACTORY.make(m, n);
+
+                    MultiplyNeither.fillMxN(expected.data, left.data, c, right.data);
+                    MultiplyBlocked.fillMxN(actual.data, left.data, c, right.data);
+
+                    TestUtils.assertEquals(m + "-" + c + "-" + n, expected, actual, ACCURACY);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplyRight() {
+
+        for (int m : TestBlockedImplementation.dims()) {
+            for (int n : TestBlockedImplementation.dims()) {
+                int c = MultiplyBlocked.KC + 1;
+
+                Primitive64Store left = Primitive64Store.FACTORY.makeFilled(m, c, Normal.standard());
+                Primitive64Store right = Primitive64Store.FACTORY.makeFilled(c, n, Normal.standard());
+                Primitive64Store expected = Primitive64Store.FACTORY.make(m, n);
+                Primitive64Store actual = Primitive64Store.FACTORY.make(m, n);
+
+                MatrixStore<Double> r = right.transpose().transpose();
+
+                MultiplyRight.fillMxN(expected.data, left.data, c, r);
+                MultiplyBlocked.fillMxN(actual.data, left.data, c, r);
+
+                TestUtils.assertEquals(m + "-" + c + "-" + n, expected, actual, ACCURACY);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class BandedStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(9);
+    private static final Uniform UNIFORM = new Uniform(-1, 2);
+
+    private static BandedStore random(final int nbRows, final int nbCols, final int lower, final int upper) {
+        BandedStore retVal = BandedStore.make(nbRows, nbCols, lower, upper);
+        for (int j = 0; j < nbCols; j++) {
+            for (int i = retVal.firstInColumn(j); i < retVal.limitOfColumn(j); i++) {
+                retVal.set(i, j, UNIFORM.doubleValue());
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Symmetric and strictly diagonally dominant, and therefore positive definite
+     */
+    private static BandedStore spd(final int dim, final int bandwidth) {
+        BandedStore retVal = BandedStore.make(dim, dim, bandwidth, bandwidth);
+        for (int j = 0; j < dim; j++) {
+            retVal.set(j, j, 2 * bandwidth + 1);
+            for (int i = j + 1; i < retVal.limitOfColumn(j); i++) {
+                double value = UNIFORM.doubleValue();
+                retVal.set(i, j, value);
+                retVal.set(j, i, value);
+            }
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testCholesky() {
+
+        BandedStore body = BandedStoreTest.spd(50, 2);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(50, 3, UNIFORM);
+
+        BandedStore.Factorisation cholesky = body.cholesky();
+        TestUtils.assertTrue(cholesky.isSolvable());
+
+        MatrixStore<Double> solution = cholesky.getSolution(rhs);
+        TestUtils.assertEquals(rhs, body.multiply(solution), ACCURACY);
+
+        body.set(7, 7, -1.0);
+        TestUtils.assertFalse(body.cholesky().isSolvable());
+    }
+
+    @Test
+    public void testLU() {
+
+        for (int[] bandwidths : new int[][] { { 0, 0 }, { 1, 1 }, { 2, 3 }, { 4, 1 }, { 0, 2 } }) {
+
+            BandedStore body = BandedStoreTest.random(40, 40, bandwidths[0], bandwidths[1]);
+            // Well conditioned, but with a zero in the top left corner to force pivoting
+            for (int i = 0; i < 40; i++) {
+                body.set(i, i, (i % 2 == 0 ? 1 : -1) * (bandwidths[0] + bandwidths[1] + 2));
+            }
+            if (bandwidths[0] > 0) {
+                body.set(0, 0, 0.0);
+            }
+            Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(40, 2, UNIFORM);
+
+            BandedStore.Factorisation lu = body.lu();
+            TestUtils.assertTrue(lu.isSolvable());
+
+            MatrixStore<Double> solution = lu.getSolution(rhs);
+            TestUtils.assertEquals(rhs, body.multiply(solution), ACCURACY);
+
+            Primitive32Store other = Primitive32Store.FACTORY.copy(rhs);
+            lu.ftran(other);
+            TestUtils.assertEquals(solution, other, NumberContext.of(4));
+        }
+
+        BandedStore singular = BandedStore.make(10, 10, 1, 1);
+        singular.set(0, 0, 1.0);
+        TestUtils.assertFalse(singular.lu().isSolvable());
+    }
+
+    @Test
+    public void testMultiply() {
+
+        BandedStore banded = BandedStoreTest.random(30, 25, 3, 2);
+        Primitive64Store dense = Primitive64Store.FACTORY.copy(banded);
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(25, 7, UNIFORM);
+
+        TestUtils.assertEquals(dense.multiply(right), banded.multiply(right), ACCURACY);
+        TestUtils.assertEquals(dense.multiply(right), banded.multiply(right.transpose().transpose()), ACCURACY);
+        TestUtils.assertEquals(right.transpose().multiply(dense.transpose()), right.transpose().multiply(banded.transpose()), ACCURACY);
+        TestUtils.assertEquals(dense.multiply(2.5), banded.multiply(2.5), ACCURACY);
+
+        BandedStore large = BandedStoreTest.random(100, 100, 1, 2);
+        Primitive64Store left = Primitive64Store.FACTORY.makeFilled(10, 100, UNIFORM);
+        TestUtils.assertEquals(left.multiply(Primitive64Store.FACTORY.copy(large)), left.multiply(large), ACCURACY);
+
+        int threshold = BandedStore.THRESHOLD;
+        IntSupplier parallelism = BandedStore.PARALLELISM;
+        try {
+            BandedStore.THRESHOLD = 16;
+            BandedStore.PARALLELISM = Parallelism.FOUR;
+            TestUtils.assertEquals(dense.multiply(right), banded.multiply(right), ACCURACY);
+        } finally {
+            BandedStore.THRESHOLD = threshold;
+            BandedStore.PARALLELISM = parallelism;
+        }
+    }
+
+    @Test
+    public void testStructure() {
+
+        BandedStore banded = BandedStoreTest.random(20, 30, 2, 4);
+        Primitive64Store dense = Primitive64Store.FACTORY.copy(banded);
+
+        TestUtils.assertEquals(dense, banded);
+        TestUtils.assertEquals(dense.transpose(), banded.transpose());
+
+        BandedStore detected = BandedStore.of(dense);
+        TestUtils.assertEquals(2, detected.getLowerBandwidth());
+        TestUtils.assertEquals(4, detected.getUpperBandwidth());
+        TestUtils.assertEquals(dense, detected);
+
+        for (int j = 0; j < 30; j++) {
+            TestUtils.assertEquals(Math.max(0, j - 4), banded.firstInColumn(j));
+            TestUtils.assertEquals(Math.min(20, j + 3), banded.limitOfColumn(j));
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class BlockDiagonalStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    private static BlockDiagonalStore<Double> spd(final int... dims) {
+        MatrixStore<Double>[] blocks = new MatrixStore[dims.length];
+        for (int b = 0; b < dims.length; b++) {
+            blocks[b] = Primitive64Store.FACTORY.makeSPD(dims[b]);
+        }
+        return BlockDiagonalStore.of(blocks);
+    }
+
+    @Test
+    public void testMultiply() {
+
+        BlockDiagonalStore<Double> blocks = BlockDiagonalStore.of(Primitive64Store.FACTORY.makeFilled(3, 2, Normal.standard()),
+                Primitive64Store.FACTORY.makeFilled(4, 5, Normal.standard()).triangular(true, false), Primitive64Store.FACTORY.makeFilled(1, 1, Normal.standard()));
+        Primitive64Store dense = Primitive64Store.FACTORY.copy(blocks);
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(8, 3, Normal.standard());
+
+        TestUtils.assertEquals(8, blocks.countRows());
+        TestUtils.assertEquals(8, blocks.countColumns());
+        TestUtils.assertEquals(3, blocks.countBlocks());
+
+        TestUtils.assertEquals(dense.multiply(right), blocks.multiply(right), ACCURACY);
+        TestUtils.assertEquals(dense.multiply(right), blocks.multiply(right.transpose().transpose()), ACCURACY);
+        TestUtils.assertEquals(dense.transpose(), blocks.transpose());
+        TestUtils.assertEquals(right.transpose().multiply(dense), right.transpose().multiply(blocks), ACCURACY);
+
+        for (int j = 0; j < 8; j++) {
+            for (int i = 0; i < 8; i++) {
+                if (i < blocks.firstInColumn(j) || i >= blocks.limitOfColumn(j)) {
+                    TestUtils.assertEquals(0.0, dense.doubleValue(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSolve() {
+
+        BlockDiagonalStore<Double> blocks = BlockDiagonalStoreTest.spd(3, 5, 1, 4);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(13, 2, Normal.standard());
+
+        BlockDiagonalStore.Factorisation<Double> cholesky = blocks.decompose(Cholesky.R064::make);
+        TestUtils.assertTrue(cholesky.isSolvable());
+        TestUtils.assertEquals(rhs, blocks.multiply(cholesky.getSolution(rhs)), ACCURACY);
+
+        BlockDiagonalStore.Factorisation<Double> lu = blocks.decompose(LU.R064::make);
+        TestUtils.assertTrue(lu.isSolvable());
+        TestUtils.assertEquals(cholesky.getSolution(rhs), lu.getSolution(rhs), ACCURACY);
+
+        BlockDiagonalStore<Double> singular = BlockDiagonalStore.of(Primitive64Store.FACTORY.makeSPD(3), Primitive64Store.FACTORY.make(2, 2));
+        TestUtils.assertFalse(singular.decompose(LU.R064::make).isSolvable());
+    }
+
+    @Test
+    public void testSolveInParallel() {
+
+        int threshold = BlockDiagonalStore.THRESHOLD;
+        IntSupplier parallelism = BlockDiagonalStore.PARALLELISM;
+
+        try {
+            BlockDiagonalStore.THRESHOLD = 1;
+            BlockDiagonalStore.PARALLELISM = Parallelism.FOUR;
+
+            BlockDiagonalStore<Double> blocks = BlockDiagonalStoreTest.spd(6, 2, 7, 5, 3, 9, 4);
+            Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(36, 3, Normal.standard());
+
+            BlockDiagonalStore.Factorisation<Double> cholesky = blocks.decompose(Cholesky.R064::make);
+            TestUtils.assertTrue(cholesky.isSolvable());
+            MatrixStore<Double> solution = cholesky.getSolution(rhs);
+
+            TestUtils.assertEquals(rhs, blocks.multiply(solution), ACCURACY);
+            TestUtils.assertEquals(solution, Primitive64Store.FACTORY.copy(blocks).multiply(solution).multiply(0.0).add(solution), ACCURACY);
+
+        } finally {
+            BlockDiagonalStore.THRESHOLD = threshold;
+            BlockDiagonalStore.PARALLELISM = parallelism;
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import static org.ojalgo.function.constant.PrimitiveMath.ONE;
+
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class CompressedSparseTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 12);
+
+    private static SparseStore<Double> fill(final CompressedSparseR064.Builder builder, final int nbRows, final int nbCols, final int nbTriplets,
+            final Random random) {
+
+        SparseStore<Double> expected = SparseStore.R064.make(nbRows, nbCols);
+
+        for (int t = 0; t < nbTriplets; t++) {
+            int row = random.nextInt(nbRows);
+            int col = random.nextInt(nbCols);
+            double value = random.nextGaussian();
+            builder.add(row, col, value);
+            expected.add(row, col, value);
+        }
+
+        return expected;
+    }
+
+    /**
+     * Bulk loading unordered triplets, with duplicates, into a (non-empty) SparseStore gives the same result
+     * as adding them one at a time.
+     */
+    @Test
+    public void testAddAllTriplets() {
+
+        Random random = new Random(789L);
+
+        int nbRows = 40;
+        int nbCols = 30;
+        int size = 500;
+
+        int[] rows = new int[size];
+        int[] cols = new int[size];
+        double[] values = new double[size];
+
+        SparseStore<Double> expected = SparseStore.R064.make(nbRows, nbCols);
+        SparseStore<Double> actual = SparseStore.R064.make(nbRows, nbCols);
+
+        for (int k = 0; k < 50; k++) {
+            int row = random.nextInt(nbRows);
+            int col = random.nextInt(nbCols);
+            expected.set(row, col, ONE);
+            actual.set(row, col, ONE);
+        }
+
+        for (int k = 0; k < size; k++) {
+            rows[k] = random.nextInt(nbRows);
+            cols[k] = random.nextInt(nbCols);
+            values[k] = random.nextGaussian();
+            expected.add(rows[k], cols[k], values[k]);
+        }
+
+        actual.addAll(rows, cols, values, size);
+
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+        for (int i = 0; i < nbRows; i++) {
+            TestUtils.assertEquals(expected.firstInRow(i), actual.firstInRow(i));
+            TestUtils.assertEquals(expected.limitOfRow(i), actual.limitOfRow(i));
+        }
+
+        CompressedSparseR064.Builder builder = CompressedSparseR064.builder(nbRows, nbCols);
+        for (int k = 0; k < size; k++) {
+            builder.add(rows[k], cols[k], values[k]);
+        }
+        SparseStore<Double> built = builder.toSparse();
+        actual.reset();
+        actual.addAll(rows, cols, values, size);
+        TestUtils.assertEquals(actual, built, ACCURACY);
+    }
+
+    @Test
+    public void testBuilderAndConversions() {
+
+        Random random = new Random(123L);
+
+        CompressedSparseR064.Builder builder = CompressedSparseR064.builder(50, 40);
+        SparseStore<Double> expected = CompressedSparseTest.fill(builder, 50, 40, 500, random); // Plenty of duplicates
+
+        R064CSR csr = builder.toCSR();
+        R064CSC csc = builder.toCSC();
+
+        TestUtils.assertEquals(expected, csr, ACCURACY);
+        TestUtils.assertEquals(expected, csc, ACCURACY);
+
+        TestUtils.assertEquals(expected, csr.toCSC(), ACCURACY);
+        TestUtils.assertEquals(expected, csc.toCSR(), ACCURACY);
+        TestUtils.assertEquals(expected, csr.toSparse(), ACCURACY);
+        TestUtils.assertEquals(expected, csc.toSparse(), ACCURACY);
+        TestUtils.assertEquals(expected, expected.toCSR(), ACCURACY);
+        TestUtils.assertEquals(expected, expected.toCSC(), ACCURACY);
+
+        TestUtils.assertEquals(csr.countNonzeros(), csc.countNonzeros());
+        TestUtils.assertEquals(csr, expected.toCSR());
+        TestUtils.assertEquals(csc, expected.toCSC());
+
+        TestUtils.assertEquals(expected.transpose(), csr.transpose(), ACCURACY);
+        TestUtils.assertEquals(expected.transpose(), csc.transpose(), ACCURACY);
+
+        for (int i = 0; i < 50; i++) {
+            TestUtils.assertEquals(expected.firstInRow(i), csr.firstInRow(i));
+            TestUtils.assertEquals(expected.limitOfRow(i), csr.limitOfRow(i));
+        }
+        for (int j = 0; j < 40; j++) {
+            TestUtils.assertEquals(expected.firstInColumn(j), csc.firstInColumn(j));
+            TestUtils.assertEquals(expected.limitOfColumn(j), csc.limitOfColumn(j));
+        }
+    }
+
+    @Test
+    public void testParallelMultiply() {
+
+        int threshold = R064CSR.THRESHOLD;
+        IntSupplier parallelism = R064CSR.PARALLELISM;
+
+        try {
+
+            R064CSR.THRESHOLD = 64;
+            R064CSR.PARALLELISM = () -> 4;
+
+            Random random = new Random(789L);
+
+            CompressedSparseR064.Builder builder = CompressedSparseR064.builder(500, 300);
+            SparseStore<Double> sparse = CompressedSparseTest.fill(builder, 500, 300, 3_000, random);
+            // Make some rows much denser than the others
+            for (int j = 0; j < 300; j++) {
+                builder.add(7, j, ONE);
+                sparse.add(7, j, ONE);
+            }
+            R064CSR csr = builder.toCSR();
+
+            Primitive64Store dense = Primitive64Store.FACTORY.copy(sparse);
+            Primitive64Store vector = Primitive64Store.FACTORY.makeFilled(300, 1, new Normal());
+            Primitive64Store matrix = Primitive64Store.FACTORY.makeFilled(300, 3, new Normal());
+
+            TestUtils.assertEquals(dense.multiply(vector), csr.multiply(vector), ACCURACY);
+            TestUtils.assertEquals(dense.multiply(matrix), csr.multiply(matrix), ACCURACY);
+            TestUtils.assertEquals(dense.multiply(vector), sparse.multiply(vector), ACCURACY);
+
+            // The CSR form is cached, until the SparseStore is modified
+            R064CSR cached = sparse.toCSR();
+            TestUtils.assertTrue(cached == sparse.toCSR());
+
+            // Reading doesn't invalidate it
+            sparse.nonzeros().forEach(nz -> nz.doubleValue());
+            sparse.multiply(sparse.transpose().collect(SparseStore.R064));
+            TestUtils.assertTrue(cached == sparse.toCSR());
+
+            sparse.set(7, 0, 5.0);
+            dense.set(7, 0, 5.0);
+            TestUtils.assertFalse(cached == sparse.toCSR());
+            TestUtils.assertEquals(dense.multiply(vector), sparse.multiply(vector), ACCURACY);
+
+            sparse.add(499, 299, 2.0);
+            dense.add(499, 299, 2.0);
+            TestUtils.assertEquals(dense.multiply(matrix), sparse.multiply(matrix), ACCURACY);
+
+        } finally {
+
+            R064CSR.THRESHOLD = threshold;
+            R064CSR.PARALLELISM = parallelism;
+        }
+    }
+
+    @Test
+    public void testMultiply() {
+
+        Random random = new Random(456L);
+
+        CompressedSparseR064.Builder builderA = CompressedSparseR064.builder(30, 20);
+        CompressedSparseR064.Builder builderB = CompressedSparseR064.builder(20, 25);
+
+        Primitive64Store denseA = Primitive64Store.FACTORY.copy(CompressedSparseTest.fill(builderA, 30, 20, 100, random));
+        Primitive64Store denseB = Primitive64Store.FACTORY.copy(CompressedSparseTest.fill(builderB, 20, 25, 100, random));
+
+        Primitive64Store vector = Primitive64Store.FACTORY.makeFilled(20, 1, new Normal());
+        Primitive64Store matrix = Primitive64Store.FACTORY.makeFilled(20, 7, new Normal());
+        Primitive64Store left = Primitive64Store.FACTORY.makeFilled(5, 30, new Normal());
+
+        MatrixStore<Double> expectedAB = denseA.multiply(denseB);
+
+        for (CompressedSparseR064 sparseA : new CompressedSparseR064[] { builderA.toCSR(), builderA.toCSC() }) {
+
+            TestUtils.assertEquals(denseA.multiply(vector), sparseA.multiply(vector), ACCURACY);
+            TestUtils.assertEquals(denseA.multiply(matrix), sparseA.multiply(matrix), ACCURACY);
+            TestUtils.assertEquals(left.multiply(denseA), sparseA.premultiply(left).collect(Primitive64Store.FACTORY), ACCURACY);
+            TestUtils.assertEquals(denseA.multiply(2.5), sparseA.multiply(2.5), ACCURACY);
+            TestUtils.assertEquals(expectedAB, sparseA.multiply(denseB), ACCURACY);
+        }
+
+        R064CSR productCSR = builderA.toCSR().multiply(builderB.toCSR());
+        TestUtils.assertEquals(expectedAB, productCSR, ACCURACY);
+
+        R064CSC productCSC = builderA.toCSC().multiply(builderB.toCSC());
+        TestUtils.assertEquals(expectedAB, productCSC, ACCURACY);
+
+        TestUtils.assertEquals(productCSR, productCSC.toCSR());
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.random.Normal;
+import org.ojalgo.scalar.RationalNumber;
+import org.ojalgo.type.context.NumberContext;
+
+public class KroneckerStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10);
+
+    private static Primitive64Store dense(final MatrixStore<Double> left, final MatrixStore<Double> right) {
+        int r = right.getRowDim();
+        int s = right.getColDim();
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(left.countRows() * r, left.countColumns() * s);
+        for (int j = 0; j < retVal.getColDim(); j++) {
+            for (int i = 0; i < retVal.getRowDim(); i++) {
+                retVal.set(i, j, left.doubleValue(i / r, j / s) * right.doubleValue(i % r, j % s));
+            }
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testElementsAndMultiply() {
+
+        Primitive64Store left = Primitive64Store.FACTORY.makeFilled(3, 4, Normal.standard());
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(5, 2, Normal.standard());
+
+        KroneckerStore<Double> kronecker = KroneckerStore.of(left, right);
+        Primitive64Store dense = KroneckerStoreTest.dense(left, right);
+
+        TestUtils.assertEquals(15, kronecker.countRows());
+        TestUtils.assertEquals(8, kronecker.countColumns());
+        TestUtils.assertEquals(dense, kronecker, ACCURACY);
+        TestUtils.assertEquals(dense, Primitive64Store.FACTORY.copy(kronecker), ACCURACY);
+        TestUtils.assertEquals(dense.transpose(), kronecker.transpose(), ACCURACY);
+
+        Primitive64Store vectors = Primitive64Store.FACTORY.makeFilled(8, 3, Normal.standard());
+        TestUtils.assertEquals(dense.multiply(vectors), kronecker.multiply(vectors), ACCURACY);
+        TestUtils.assertEquals(dense.multiply(vectors), kronecker.multiply(vectors.transpose().transpose()), ACCURACY);
+
+        Primitive64Store other = Primitive64Store.FACTORY.makeFilled(2, 15, Normal.standard());
+        TestUtils.assertEquals(other.multiply(dense), other.multiply(kronecker), ACCURACY);
+    }
+
+    @Test
+    public void testRational() {
+
+        GenericStore<RationalNumber> left = GenericStore.Q128.copy(Primitive64Store.FACTORY.rows(new double[][] { { 1, 2 }, { 3, 5 } }));
+        GenericStore<RationalNumber> right = GenericStore.Q128.copy(Primitive64Store.FACTORY.rows(new double[][] { { 2, 0, 1 }, { 1, 1, 0 }, { 0, 3, 1 } }));
+        GenericStore<RationalNumber> rhs = GenericStore.Q128.copy(Primitive64Store.FACTORY.makeFilled(6, 2, Normal.standard()));
+
+        KroneckerStore<RationalNumber> kronecker = KroneckerStore.of(left, right);
+        KroneckerStore.Factorisation<RationalNumber> factorisation = kronecker.decompose(LU.Q128::make);
+
+        TestUtils.assertTrue(factorisation.isSolvable());
+        TestUtils.assertEquals(rhs, kronecker.multiply(factorisation.getSolution(rhs)), ACCURACY);
+    }
+
+    @Test
+    public void testSolve() {
+
+        Primitive64Store left = Primitive64Store.FACTORY.makeSPD(4);
+        Primitive64Store right = Primitive64Store.FACTORY.makeSPD(6);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(24, 3, Normal.standard());
+
+        KroneckerStore<Double> kronecker = KroneckerStore.of(left, right);
+        KroneckerStore.Factorisation<Double> factorisation = kronecker.decompose(LU.R064::make);
+
+        TestUtils.assertTrue(factorisation.isSolvable());
+        TestUtils.assertEquals(rhs, KroneckerStoreTest.dense(left, right).multiply(factorisation.getSolution(rhs)), ACCURACY);
+
+        TestUtils.assertFalse(KroneckerStore.of(left, Primitive64Store.FACTORY.make(2, 2)).decompose(LU.R064::make).isSolvable());
+    }
+
+}
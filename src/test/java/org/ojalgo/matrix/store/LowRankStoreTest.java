@@ -0,0 +1,95 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.convex.ConvexSolver;
+import org.ojalgo.random.Normal;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class LowRankStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10);
+
+    private static LowRankStore covariance(final int dim, final int rank) {
+        Primitive64Store diagonal = Primitive64Store.FACTORY.makeFilled(dim, 1, new Uniform(0.5, 1.0));
+        Primitive64Store factors = Primitive64Store.FACTORY.makeFilled(dim, rank, Normal.standard());
+        Primitive64Store covariances = Primitive64Store.FACTORY.makeSPD(rank);
+        return LowRankStore.of(diagonal, factors, covariances);
+    }
+
+    @Test
+    public void testConvexSolver() {
+
+        LowRankStore mtrxQ = LowRankStoreTest.covariance(30, 3);
+        Primitive64Store mtrxC = Primitive64Store.FACTORY.makeFilled(30, 1, Normal.standard());
+
+        Optimisation.Result result = ConvexSolver.newBuilder().objective(mtrxQ, mtrxC).build().solve();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(mtrxQ.getSolution(mtrxC), Primitive64Store.FACTORY.columns(result), ACCURACY);
+    }
+
+    @Test
+    public void testElements() {
+
+        Primitive64Store diagonal = Primitive64Store.FACTORY.makeFilled(12, 1, Normal.standard());
+        Primitive64Store factors = Primitive64Store.FACTORY.makeFilled(12, 2, Normal.standard());
+        Primitive64Store covariances = Primitive64Store.FACTORY.makeFilled(2, 2, Normal.standard());
+
+        LowRankStore lowRank = LowRankStore.of(diagonal, factors, covariances);
+
+        PhysicalStore<Double> dense = Primitive64Store.FACTORY.make(12, 12);
+        dense.fillByMultiplying(factors, covariances.multiply(factors.transpose()));
+        for (int i = 0; i < 12; i++) {
+            dense.add(i, i, diagonal.doubleValue(i));
+        }
+
+        TestUtils.assertEquals(2, lowRank.getRank());
+        TestUtils.assertEquals(dense, lowRank, ACCURACY);
+        TestUtils.assertEquals(dense, Primitive64Store.FACTORY.copy(lowRank), ACCURACY);
+        TestUtils.assertEquals(dense.transpose(), lowRank.transpose(), ACCURACY);
+        TestUtils.assertEquals(dense.transpose(), Primitive64Store.FACTORY.copy(lowRank.transpose()), ACCURACY);
+    }
+
+    @Test
+    public void testMultiplyAndSolve() {
+
+        LowRankStore lowRank = LowRankStoreTest.covariance(50, 4);
+        Primitive64Store dense = Primitive64Store.FACTORY.copy(lowRank);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(50, 3, Normal.standard());
+
+        TestUtils.assertEquals(dense.multiply(rhs), lowRank.multiply(rhs), ACCURACY);
+        TestUtils.assertEquals(rhs.transpose().multiply(dense), rhs.transpose().multiply(lowRank), ACCURACY);
+
+        TestUtils.assertTrue(lowRank.isSolvable());
+        MatrixStore<Double> solution = lowRank.getSolution(rhs);
+        TestUtils.assertEquals(rhs, dense.multiply(solution), ACCURACY);
+
+        LowRankStore singular = LowRankStore.of(Primitive64Store.FACTORY.make(5, 1), Primitive64Store.FACTORY.makeFilled(5, 1, Normal.standard()));
+        TestUtils.assertFalse(singular.isSolvable());
+    }
+
+}
@@ -4,16 +4,46 @@ import static org.ojalgo.function.constant.PrimitiveMath.*;
 
 import org.junit.jupiter.api.Test;
 import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.Parallelism;
 import org.ojalgo.data.DataProcessors;
+import org.ojalgo.function.constant.RationalMath;
 import org.ojalgo.netio.BasicLogger;
 import org.ojalgo.random.Normal;
 import org.ojalgo.random.Uniform;
+import org.ojalgo.scalar.RationalNumber;
 
 public class MatrixPipelineTest extends MatrixStoreTests {
 
     private static final Normal NORMAL = Normal.standard();
     private static final Uniform UNIFORM = Uniform.standard();
 
+    /**
+     * Standardise the columns, then scale/shift elementwise – 5 elementwise stages fused in to 1 pass.
+     */
+    private static <N extends Comparable<N>> ElementsSupplier<N> standardise(final ElementsSupplier<N> start, final PhysicalStore<N> matching,
+            final PhysicalStore<N> means, final PhysicalStore<N> deviations, final PhysicalStore<N> weights) {
+        PhysicalStore.Factory<N, ?> factory = matching.physical();
+        return start.onColumns(factory.function().subtract(), means).onColumns(factory.function().divide(), deviations)
+                .onRows(factory.function().multiply(), weights).onMatching(factory.function().add(), matching)
+                .onAll(factory.function().multiply().second(factory.scalar().cast(2.0)));
+    }
+
+    private static <N extends Comparable<N>> PhysicalStore<N> standardised(final PhysicalStore<N> start, final PhysicalStore<N> matching,
+            final PhysicalStore<N> means, final PhysicalStore<N> deviations, final PhysicalStore<N> weights) {
+        PhysicalStore.Factory<N, ?> factory = matching.physical();
+        PhysicalStore<N> retVal = start.copy();
+        for (long j = 0L; j < retVal.countColumns(); j++) {
+            retVal.modifyColumn(j, factory.function().subtract().second(means.get(j)));
+            retVal.modifyColumn(j, factory.function().divide().second(deviations.get(j)));
+        }
+        for (long i = 0L; i < retVal.countRows(); i++) {
+            retVal.modifyRow(i, factory.function().multiply().second(weights.get(i)));
+        }
+        retVal.modifyMatching(factory.function().add(), matching);
+        retVal.modifyAll(factory.function().multiply().second(factory.scalar().cast(2.0)));
+        return retVal;
+    }
+
     private static ElementsSupplier<Double> initialise() {
 
         // Assume you have the matrices [A],[B] and[C]
@@ -70,6 +100,71 @@ public class MatrixPipelineTest extends MatrixStoreTests {
         return placeholderF;
     }
 
+    @Test
+    public void testFused() {
+
+        Primitive64Store start = Primitive64Store.FACTORY.makeFilled(9, 7, NORMAL);
+        Primitive64Store matching = Primitive64Store.FACTORY.makeFilled(9, 7, UNIFORM);
+        Primitive64Store means = Primitive64Store.FACTORY.makeFilled(1, 7, NORMAL);
+        Primitive64Store deviations = Primitive64Store.FACTORY.makeFilled(1, 7, UNIFORM);
+        Primitive64Store weights = Primitive64Store.FACTORY.makeFilled(9, 1, UNIFORM);
+
+        PhysicalStore<Double> expected = MatrixPipelineTest.standardised(start, matching, means, deviations, weights);
+
+        // The physical store is read directly
+        ElementsSupplier<Double> fused = MatrixPipelineTest.standardise(start, matching, means, deviations, weights);
+        TestUtils.assertTrue(fused instanceof MatrixPipeline.Fused);
+        TestUtils.assertEquals(expected, fused.collect(Primitive64Store.FACTORY));
+
+        // The logical store is first supplied to the receiver
+        fused = MatrixPipelineTest.standardise(start.transpose().transpose(), matching, means, deviations, weights);
+        TestUtils.assertTrue(fused instanceof MatrixPipeline.Fused);
+        TestUtils.assertEquals(expected, fused.collect(Primitive64Store.FACTORY));
+        SparseStore<Double> sparse = SparseStore.R064.make(9, 7);
+        fused.supplyTo(sparse);
+        TestUtils.assertEquals(expected, sparse);
+        TestUtils.assertEquals(expected.transpose(), fused.transpose().collect(Primitive64Store.FACTORY));
+
+        // Generic
+        GenericStore<RationalNumber> genericStart = GenericStore.Q128.copy(start);
+        GenericStore<RationalNumber> genericMatching = GenericStore.Q128.copy(matching);
+        GenericStore<RationalNumber> genericMeans = GenericStore.Q128.copy(means);
+        GenericStore<RationalNumber> genericDeviations = GenericStore.Q128.copy(deviations);
+        GenericStore<RationalNumber> genericWeights = GenericStore.Q128.copy(weights);
+
+        PhysicalStore<RationalNumber> genericExpected = MatrixPipelineTest.standardised(genericStart, genericMatching, genericMeans, genericDeviations,
+                genericWeights);
+        ElementsSupplier<RationalNumber> genericFused = MatrixPipelineTest.standardise(genericStart, genericMatching, genericMeans, genericDeviations,
+                genericWeights);
+        TestUtils.assertEquals(genericExpected, genericFused.collect(GenericStore.Q128));
+        TestUtils.assertEquals(genericExpected, genericFused.onAll(RationalMath.NEGATE).onAll(RationalMath.NEGATE).collect(GenericStore.Q128));
+    }
+
+    @Test
+    public void testFusedInParallel() {
+
+        int threshold = MatrixPipeline.THRESHOLD;
+        try {
+
+            MatrixPipeline.THRESHOLD = 16;
+            MatrixPipeline.PARALLELISM = () -> 4;
+
+            Primitive64Store start = Primitive64Store.FACTORY.makeFilled(50, 40, NORMAL);
+            Primitive64Store matching = Primitive64Store.FACTORY.makeFilled(50, 40, UNIFORM);
+            Primitive64Store means = Primitive64Store.FACTORY.makeFilled(1, 40, NORMAL);
+            Primitive64Store deviations = Primitive64Store.FACTORY.makeFilled(1, 40, UNIFORM);
+            Primitive64Store weights = Primitive64Store.FACTORY.makeFilled(50, 1, UNIFORM);
+
+            PhysicalStore<Double> expected = MatrixPipelineTest.standardised(start, matching, means, deviations, weights);
+
+            TestUtils.assertEquals(expected, MatrixPipelineTest.standardise(start, matching, means, deviations, weights).collect(Primitive64Store.FACTORY));
+
+        } finally {
+            MatrixPipeline.THRESHOLD = threshold;
+            MatrixPipeline.PARALLELISM = Parallelism.CORES;
+        }
+    }
+
     @Test
     public void testOnAll() {
 
@@ -0,0 +1,193 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LDL;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.decomposition.MatrixDecomposition;
+import org.ojalgo.matrix.decomposition.QR;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class OffHeapStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 10);
+
+    private static void doTestSolve(final MatrixDecomposition.Solver<Double> expected, final MatrixDecomposition.Solver<Double> actual,
+            final MatrixStore<Double> body, final MatrixStore<Double> rhs) {
+
+        TestUtils.assertTrue(expected.compute(body));
+        TestUtils.assertTrue(actual.compute(body));
+
+        TestUtils.assertEquals(expected.getSolution(rhs), actual.getSolution(rhs), ACCURACY);
+    }
+
+    @TempDir
+    public File tempDir;
+
+    @Test
+    public void testClose() {
+
+        OffHeapStore store = OffHeapStore.FACTORY.make(10, 10);
+        store.set(5, 5, 1.0);
+        TestUtils.assertEquals(1.0, store.doubleValue(5, 5));
+
+        store.close();
+        store.close(); // Closing twice should be harmless
+
+        Assertions.assertThrows(IllegalStateException.class, () -> store.doubleValue(5, 5));
+        Assertions.assertThrows(IllegalStateException.class, () -> store.set(5, 5, 2.0));
+        Assertions.assertThrows(IllegalStateException.class, () -> store.fillAll(3.0));
+    }
+
+    @Test
+    public void testDecompositions() {
+
+        int dim = 70;
+
+        Primitive64Store spd = Primitive64Store.FACTORY.makeSPD(dim);
+        Primitive64Store general = Primitive64Store.FACTORY.makeFilled(dim, dim, new Normal());
+        Primitive64Store tall = Primitive64Store.FACTORY.makeFilled(dim + 20, dim, new Normal());
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 3, new Normal());
+        Primitive64Store tallRHS = Primitive64Store.FACTORY.makeFilled(dim + 20, 3, new Normal());
+
+        OffHeapStoreTest.doTestSolve(LU.R064.make(general), LU.newR064(OffHeapStore.FACTORY).make(general), general, rhs);
+        OffHeapStoreTest.doTestSolve(Cholesky.R064.make(spd), Cholesky.newR064(OffHeapStore.FACTORY).make(spd), spd, rhs);
+        OffHeapStoreTest.doTestSolve(LDL.R064.make(spd), LDL.newR064(OffHeapStore.FACTORY).make(spd), spd, rhs);
+        OffHeapStoreTest.doTestSolve(QR.R064.make(tall), QR.newR064(OffHeapStore.FACTORY).make(tall), tall, tallRHS);
+
+        LU<Double> offHeapLU = LU.newR064(OffHeapStore.FACTORY).make(general);
+        offHeapLU.decompose(general);
+        TestUtils.assertEquals(general, offHeapLU.reconstruct(), ACCURACY);
+    }
+
+    @Test
+    public void testEigenvalue() {
+
+        int dim = 40;
+
+        Primitive64Store symmetric = Primitive64Store.FACTORY.makeSPD(dim);
+        OffHeapStore offHeap = OffHeapStore.FACTORY.copy(symmetric);
+
+        Householder.Primitive64 householder = new Householder.Primitive64(dim);
+        Primitive64Store column = Primitive64Store.FACTORY.makeFilled(dim, 1, new Normal());
+        column.generateApplyAndCopyHouseholderColumn(1, 0, householder);
+
+        symmetric.transformSymmetric(householder);
+        offHeap.transformSymmetric(householder);
+
+        TestUtils.assertEquals(symmetric.triangular(false, false), offHeap.triangular(false, false), ACCURACY);
+
+        long limit = OffHeapStore.HEAP_COPY_LIMIT;
+        try {
+            OffHeapStore.HEAP_COPY_LIMIT = dim * dim - 1;
+            Assertions.assertThrows(UnsupportedOperationException.class,
+                    () -> offHeap.tred2(ArrayR064.make(dim), ArrayR064.make(dim), false));
+        } finally {
+            OffHeapStore.HEAP_COPY_LIMIT = limit;
+        }
+    }
+
+    @Test
+    public void testMappedFile() {
+
+        File file = new File(tempDir, "Mapped");
+
+        Primitive64Store expected = Primitive64Store.FACTORY.makeFilled(50, 40, new Normal());
+
+        OffHeapStore mapped = OffHeapStore.map(file, 50, 40);
+        TestUtils.assertEquals(Primitive64Store.FACTORY.make(50, 40), mapped);
+        mapped.fillMatching(expected);
+        mapped.close();
+
+        // Reopen, the elements should still be there
+        OffHeapStore reopened = OffHeapStore.map(file, 50, 40);
+        TestUtils.assertEquals(expected, reopened);
+
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(50, 3, new Normal());
+        MatrixStore<Double> product = reopened.transpose().multiply(rhs);
+        TestUtils.assertEquals(expected.transpose().multiply(rhs), product, ACCURACY);
+    }
+
+    @Test
+    public void testMappedWorkspace() {
+
+        int dim = 70;
+
+        PhysicalStore.Factory<Double, OffHeapStore> workspace = OffHeapStore.newMapped(tempDir);
+
+        Primitive64Store spd = Primitive64Store.FACTORY.makeSPD(dim);
+        Primitive64Store general = Primitive64Store.FACTORY.makeFilled(dim, dim, new Normal());
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 3, new Normal());
+
+        OffHeapStoreTest.doTestSolve(LU.R064.make(general), LU.newR064(workspace).make(general), general, rhs);
+        OffHeapStoreTest.doTestSolve(Cholesky.R064.make(spd), Cholesky.newR064(workspace).make(spd), spd, rhs);
+        OffHeapStoreTest.doTestSolve(QR.R064.make(general), QR.newR064(workspace).make(general), general, rhs);
+
+        // Closing a store deletes its temporary file
+        int nbFiles = tempDir.listFiles().length;
+        OffHeapStore store = workspace.make(dim, dim);
+        TestUtils.assertEquals(nbFiles + 1, tempDir.listFiles().length);
+        store.close();
+        TestUtils.assertEquals(nbFiles, tempDir.listFiles().length);
+    }
+
+    @Test
+    public void testMultiply() {
+
+        int[] dims = { 1, 7, 65, 130 };
+
+        for (int m : dims) {
+            for (int n : dims) {
+
+                Primitive64Store left = Primitive64Store.FACTORY.makeFilled(m, 50, new Normal());
+                Primitive64Store right = Primitive64Store.FACTORY.makeFilled(50, n, new Normal());
+
+                MatrixStore<Double> expected = left.multiply(right);
+
+                OffHeapStore offHeapLeft = OffHeapStore.FACTORY.copy(left);
+                OffHeapStore offHeapRight = OffHeapStore.FACTORY.copy(right);
+
+                TestUtils.assertEquals(expected, offHeapLeft.multiply(offHeapRight), ACCURACY);
+                TestUtils.assertEquals(expected, offHeapLeft.multiply(right), ACCURACY);
+
+                OffHeapStore product = OffHeapStore.FACTORY.make(m, n);
+                product.fillByMultiplying(left, offHeapRight);
+                TestUtils.assertEquals(expected, product, ACCURACY);
+
+                offHeapLeft.close();
+                offHeapRight.close();
+                product.close();
+            }
+        }
+    }
+
+}
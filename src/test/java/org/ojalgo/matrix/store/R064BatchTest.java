@@ -0,0 +1,215 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.decomposition.QR;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class R064BatchTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10);
+    private static final Normal NORMAL = Normal.standard();
+
+    private static Primitive64Store copy(final R064Batch batch, final int matrix) {
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(batch.countRows(), batch.countColumns());
+        batch.supplyTo(matrix, retVal);
+        return retVal;
+    }
+
+    private static R064Batch random(final int count, final int rows, final int columns) {
+        R064Batch retVal = R064Batch.make(count, rows, columns);
+        for (int m = 0; m < count; m++) {
+            retVal.fill(m, Primitive64Store.FACTORY.makeFilled(rows, columns, NORMAL));
+        }
+        return retVal;
+    }
+
+    private static R064Batch spd(final int count, final int dim) {
+        R064Batch retVal = R064Batch.make(count, dim, dim);
+        for (int m = 0; m < count; m++) {
+            retVal.fill(m, Primitive64Store.FACTORY.makeSPD(dim));
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testCholesky() {
+        for (int dim = 1; dim <= 7; dim++) {
+
+            R064Batch batch = R064BatchTest.spd(10, dim);
+            R064Batch rhs = R064BatchTest.random(10, dim, 2);
+
+            Primitive64Store[] bodies = new Primitive64Store[10];
+            Primitive64Store[] rhss = new Primitive64Store[10];
+            for (int m = 0; m < 10; m++) {
+                bodies[m] = R064BatchTest.copy(batch, m);
+                rhss[m] = R064BatchTest.copy(rhs, m);
+            }
+
+            boolean[] spd = batch.cholesky();
+            batch.solveCholesky(rhs);
+
+            for (int m = 0; m < 10; m++) {
+                TestUtils.assertTrue(spd[m]);
+                Cholesky<Double> expected = Cholesky.R064.make(bodies[m]);
+                expected.decompose(bodies[m]);
+                TestUtils.assertEquals(expected.getL(), R064BatchTest.copy(batch, m).triangular(false, false), ACCURACY);
+                TestUtils.assertEquals(expected.getSolution(rhss[m]), R064BatchTest.copy(rhs, m), ACCURACY);
+            }
+        }
+
+        R064Batch notSPD = R064Batch.make(2, 3, 3);
+        notSPD.fill(0, Primitive64Store.FACTORY.makeSPD(3));
+        notSPD.fill(1, Primitive64Store.FACTORY.makeSPD(3).multiply(-1.0));
+        boolean[] spd = notSPD.cholesky();
+        TestUtils.assertTrue(spd[0]);
+        TestUtils.assertFalse(spd[1]);
+    }
+
+    @Test
+    public void testLU() {
+        for (int dim = 1; dim <= 6; dim++) {
+
+            R064Batch batch = R064BatchTest.random(10, dim, dim);
+            R064Batch rhs = R064BatchTest.random(10, dim, 3);
+            int[] pivots = new int[10 * dim];
+
+            Primitive64Store[] bodies = new Primitive64Store[10];
+            Primitive64Store[] rhss = new Primitive64Store[10];
+            for (int m = 0; m < 10; m++) {
+                bodies[m] = R064BatchTest.copy(batch, m);
+                rhss[m] = R064BatchTest.copy(rhs, m);
+            }
+
+            boolean[] nonsingular = batch.lu(pivots);
+            batch.solveLU(pivots, rhs);
+
+            for (int m = 0; m < 10; m++) {
+                TestUtils.assertTrue(nonsingular[m]);
+                LU<Double> expected = LU.R064.make(bodies[m]);
+                expected.decompose(bodies[m]);
+                TestUtils.assertEquals(expected.getSolution(rhss[m]), R064BatchTest.copy(rhs, m), ACCURACY);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiply() {
+        int[][] shapes = { { 2, 2, 2 }, { 3, 3, 3 }, { 4, 4, 4 }, { 5, 5, 5 }, { 3, 4, 2 }, { 1, 6, 1 } };
+        for (int[] shape : shapes) {
+
+            R064Batch left = R064BatchTest.random(20, shape[0], shape[1]);
+            R064Batch right = R064BatchTest.random(20, shape[1], shape[2]);
+            R064Batch product = R064Batch.make(20, shape[0], shape[2]);
+
+            left.multiply(right, product);
+
+            for (int m = 0; m < 20; m++) {
+                MatrixStore<Double> expected = R064BatchTest.copy(left, m).multiply(R064BatchTest.copy(right, m));
+                TestUtils.assertEquals(expected, R064BatchTest.copy(product, m), ACCURACY);
+            }
+        }
+    }
+
+    @Test
+    public void testParallel() {
+
+        int threshold = R064Batch.THRESHOLD;
+        try {
+
+            R064Batch.THRESHOLD = 64;
+            R064Batch.PARALLELISM = () -> 4;
+
+            R064Batch body = R064BatchTest.spd(100, 4);
+            R064Batch rhs = R064BatchTest.random(100, 4, 1);
+
+            R064Batch factors = R064Batch.wrap(body.data.clone(), 100, 4, 4);
+            R064Batch solution = R064Batch.wrap(rhs.data.clone(), 100, 4, 1);
+
+            boolean[] spd = factors.cholesky();
+            factors.solveCholesky(solution);
+
+            R064Batch product = R064Batch.make(100, 4, 1);
+            body.multiply(solution, product);
+
+            for (int m = 0; m < 100; m++) {
+                TestUtils.assertTrue(spd[m]);
+                TestUtils.assertEquals(R064BatchTest.copy(rhs, m), R064BatchTest.copy(product, m), ACCURACY);
+            }
+
+        } finally {
+            R064Batch.THRESHOLD = threshold;
+            R064Batch.PARALLELISM = Parallelism.CORES;
+        }
+    }
+
+    @Test
+    public void testQR() {
+        int[][] shapes = { { 3, 3 }, { 5, 3 }, { 8, 4 }, { 4, 1 } };
+        for (int[] shape : shapes) {
+
+            R064Batch batch = R064BatchTest.random(10, shape[0], shape[1]);
+            R064Batch rhs = R064BatchTest.random(10, shape[0], 2);
+            double[] tau = new double[10 * shape[1]];
+
+            Primitive64Store[] bodies = new Primitive64Store[10];
+            Primitive64Store[] rhss = new Primitive64Store[10];
+            for (int m = 0; m < 10; m++) {
+                bodies[m] = R064BatchTest.copy(batch, m);
+                rhss[m] = R064BatchTest.copy(rhs, m);
+            }
+
+            boolean[] fullRank = batch.qr(tau);
+            batch.solveQR(tau, rhs);
+
+            for (int m = 0; m < 10; m++) {
+                TestUtils.assertTrue(fullRank[m]);
+                QR<Double> expected = QR.R064.make(bodies[m]);
+                expected.decompose(bodies[m]);
+                TestUtils.assertEquals(expected.getSolution(rhss[m]), R064BatchTest.copy(rhs, m).limits(shape[1], 2), ACCURACY);
+            }
+        }
+    }
+
+    /**
+     * count * rows * columns must not silently overflow
+     */
+    @Test
+    public void testSize() {
+
+        assertThrows(IllegalArgumentException.class, () -> R064Batch.make(100_000, 100, 1_000));
+        // 2^16 * 2^8 * 2^8 = 2^32 wraps around to 0 as an int
+        assertThrows(IllegalArgumentException.class, () -> R064Batch.wrap(new double[0], 65_536, 256, 256));
+        assertThrows(IllegalArgumentException.class, () -> R064Batch.make(-1, 2, 2));
+
+        TestUtils.assertEquals(0, R064Batch.make(0, 3, 3).data.length);
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class R064StridedTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+    private static final Uniform UNIFORM = new Uniform(-1, 2);
+
+    @Test
+    public void testBlocksAndTranspose() {
+
+        Primitive64Store base = Primitive64Store.FACTORY.makeFilled(9, 7, UNIFORM);
+
+        TestUtils.assertEquals(base.logical().offsets(2, 3).limits(4, 3).get(), R064Strided.of(base).block(2, 3, 4, 3));
+        TestUtils.assertEquals(base.logical().offsets(2, 3).limits(4, 3).transpose().get(), R064Strided.of(base).block(2, 3, 4, 3).transpose());
+        TestUtils.assertEquals(base.logical().row(5).get(), R064Strided.of(base).row(5));
+        TestUtils.assertEquals(base.logical().column(6).get(), R064Strided.of(base).column(6));
+        TestUtils.assertEquals(base.logical().transpose().get(), base.strided().transpose());
+        TestUtils.assertEquals(base.logical().transpose().offsets(1, 1).get(), base.regionByTransposing().regionByOffsets(1, 1));
+
+        TestUtils.assertEquals(base.logical().limits(5, 4).get(), base.limits(5, 4));
+        TestUtils.assertEquals(base.logical().offsets(5, 4).get(), base.offsets(5, 4));
+    }
+
+    @Test
+    public void testExchange() {
+
+        Primitive64Store base = Primitive64Store.FACTORY.makeFilled(6, 5, UNIFORM);
+        Primitive64Store expected = base.copy();
+
+        expected.exchangeRows(2, 4);
+        base.regionByOffsets(1, 0).exchangeRows(1, 3);
+
+        expected.exchangeColumns(1, 3);
+        base.regionByTransposing().exchangeRows(1, 3);
+
+        TestUtils.assertEquals(expected, base);
+    }
+
+    @Test
+    public void testMultiply() {
+
+        for (int dim : new int[] { 3, 40 }) {
+
+            Primitive64Store left = Primitive64Store.FACTORY.makeFilled(dim + 5, dim + 4, UNIFORM);
+            Primitive64Store right = Primitive64Store.FACTORY.makeFilled(dim + 3, dim + 6, UNIFORM);
+
+            R064Strided leftView = R064Strided.of(left).block(1, 2, dim, dim + 1);
+            R064Strided rightView = R064Strided.of(right).block(2, 3, dim + 1, dim - 1);
+
+            Primitive64Store expected = Primitive64Store.FACTORY.make(dim, dim - 1);
+            expected.fillByMultiplying(leftView.copy(), rightView.copy());
+
+            Primitive64Store actual = Primitive64Store.FACTORY.make(dim, dim - 1);
+            actual.fillByMultiplying(leftView, rightView);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+            // Transposed (not column-contiguous) left
+
+            R064Strided leftTransposed = R064Strided.of(left).block(2, 1, dim + 1, dim).transpose();
+
+            expected.fillByMultiplying(leftTransposed.copy(), rightView.copy());
+            actual.fillByMultiplying(leftTransposed, rightView);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+            // Into a region of a larger matrix, accumulating
+
+            Primitive64Store target = Primitive64Store.FACTORY.makeFilled(dim + 2, dim + 2, UNIFORM);
+            Primitive64Store reference = target.copy();
+
+            target.strided().regionByOffsets(2, 3).addProduct(-1.0, leftView, rightView);
+            expected.fillByMultiplying(leftView.copy(), rightView.copy());
+
+            TestUtils.assertEquals(reference.logical().offsets(2, 3).get().subtract(expected), target.offsets(2, 3), ACCURACY);
+            TestUtils.assertEquals(reference.logical().limits(2, -1).get(), target.limits(2, -1));
+        }
+    }
+
+    /**
+     * The existing Primitive64Store methods are unaffected – limits/offsets are still read-only logical stores.
+     * Only {@link Primitive64Store#strided()} gives a view that writes through.
+     */
+    @Test
+    public void testPrimitive64StoreUnchanged() {
+
+        Primitive64Store base = Primitive64Store.FACTORY.makeFilled(6, 5, UNIFORM);
+
+        TestUtils.assertTrue(base.limits(3, 2) instanceof LimitStore);
+        TestUtils.assertTrue(base.offsets(1, 2) instanceof OffsetStore);
+        TestUtils.assertFalse(base.regionByLimits(3, 2) instanceof R064Strided);
+        TestUtils.assertFalse(base.regionByOffsets(1, 2) instanceof R064Strided);
+        TestUtils.assertFalse(base.regionByTransposing() instanceof R064Strided);
+    }
+
+    @Test
+    public void testSharesData() {
+
+        Primitive64Store base = Primitive64Store.FACTORY.make(5, 5);
+
+        R064Strided view = base.strided().regionByOffsets(1, 2);
+        view.set(0, 0, 1.0);
+        view.transpose().set(1, 2, 2.0);
+        view.row(3).add(0, 2, 3.0);
+
+        TestUtils.assertEquals(1.0, base.doubleValue(1, 2));
+        TestUtils.assertEquals(2.0, base.doubleValue(3, 3));
+        TestUtils.assertEquals(3.0, base.doubleValue(4, 4));
+        TestUtils.assertEquals(6.0, base.aggregateAll(org.ojalgo.function.aggregator.Aggregator.SUM).doubleValue());
+    }
+
+}
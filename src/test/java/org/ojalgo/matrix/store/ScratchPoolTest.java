@@ -0,0 +1,139 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.QR;
+import org.ojalgo.random.Normal;
+
+/**
+ * The allocation free "into" variants, and the {@link ScratchPool} to get the destinations from.
+ */
+public class ScratchPoolTest extends MatrixStoreTests {
+
+    private static final Normal NORMAL = Normal.standard();
+
+    @Test
+    public void testInto() {
+
+        ScratchPool<Double, Primitive64Store> pool = ScratchPool.of(Primitive64Store.FACTORY);
+
+        Primitive64Store mtrxA = Primitive64Store.FACTORY.makeFilled(6, 4, NORMAL);
+        Primitive64Store mtrxB = Primitive64Store.FACTORY.makeFilled(6, 4, NORMAL);
+        Primitive64Store mtrxC = Primitive64Store.FACTORY.makeFilled(4, 3, NORMAL);
+
+        Primitive64Store target = pool.get(0, mtrxA);
+
+        mtrxA.add(mtrxB, target);
+        TestUtils.assertEquals(mtrxA.add(mtrxB), target);
+
+        mtrxA.subtract(mtrxB, target);
+        TestUtils.assertEquals(mtrxA.subtract(mtrxB), target);
+
+        mtrxA.multiply(3.0, target);
+        TestUtils.assertEquals(mtrxA.multiply(3.0), target);
+
+        mtrxA.transpose().transpose().negate(target);
+        TestUtils.assertEquals(mtrxA.negate(), target);
+
+        Primitive64Store transposed = pool.get(1, 4, 6);
+        mtrxA.transpose(transposed);
+        TestUtils.assertEquals(mtrxA.transpose(), transposed);
+        mtrxA.transpose().transpose(target);
+        TestUtils.assertEquals(mtrxA, target);
+
+        Primitive64Store product = pool.get(2, 6, 3);
+        mtrxA.multiply(mtrxC, product);
+        TestUtils.assertEquals(mtrxA.multiply(mtrxC), product);
+
+        // Into a region of a larger store
+        Primitive64Store larger = pool.get(3, 7, 5);
+        larger.reset();
+        mtrxA.add(mtrxB, larger.regionByOffsets(1, 1));
+        TestUtils.assertEquals(mtrxA.add(mtrxB), larger.offsets(1, 1));
+        TestUtils.assertEquals(0.0, larger.aggregateRow(0, Aggregator.LARGEST).doubleValue());
+    }
+
+    @Test
+    public void testReuse() {
+
+        ScratchPool<Double, Primitive64Store> pool = ScratchPool.of(Primitive64Store.FACTORY);
+
+        Primitive64Store first = pool.get(0, 3, 2);
+        TestUtils.assertEquals(3, first.countRows());
+        TestUtils.assertEquals(2, first.countColumns());
+
+        TestUtils.assertTrue(first == pool.get(0, 3, 2));
+        TestUtils.assertTrue(first != pool.get(1, 3, 2));
+        TestUtils.assertTrue(pool.get(20, 3, 2) == pool.get(20, 3, 2));
+
+        Primitive64Store other = pool.get(0, 2, 3);
+        TestUtils.assertTrue(first != other);
+        TestUtils.assertTrue(other == pool.get(0, 2, 3));
+
+        Primitive64Store[] fromOtherThread = new Primitive64Store[1];
+        Thread thread = new Thread(() -> fromOtherThread[0] = pool.get(0, 2, 3));
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException cause) {
+            throw new RuntimeException(cause);
+        }
+        TestUtils.assertTrue(other != fromOtherThread[0]);
+
+        pool.release();
+        TestUtils.assertTrue(other != pool.get(0, 2, 3));
+    }
+
+    @Test
+    public void testSolveInto() {
+
+        ScratchPool<Double, Primitive64Store> pool = ScratchPool.of(Primitive64Store.FACTORY);
+
+        Primitive64Store body = Primitive64Store.FACTORY.makeSPD(5);
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(5, 2, NORMAL);
+
+        Cholesky<Double> cholesky = Cholesky.R064.make(body);
+        cholesky.decompose(body);
+        MatrixStore<Double> expected = cholesky.getSolution(rhs);
+
+        Primitive64Store solution = pool.get(0, rhs);
+        cholesky.ftran(rhs, solution);
+        TestUtils.assertEquals(expected, solution);
+
+        // Least squares solution of a tall system - the solution is the top rows of the rhs shaped destination
+        Primitive64Store tall = Primitive64Store.FACTORY.makeFilled(7, 5, NORMAL);
+        Primitive64Store tallRHS = Primitive64Store.FACTORY.makeFilled(7, 2, NORMAL);
+
+        QR<Double> qr = QR.R064.make(tall);
+        qr.decompose(tall);
+        expected = qr.getSolution(tallRHS);
+
+        solution = pool.get(1, tallRHS);
+        qr.ftran(tallRHS, solution);
+        TestUtils.assertEquals(expected, solution.limits(5, 2));
+    }
+
+}
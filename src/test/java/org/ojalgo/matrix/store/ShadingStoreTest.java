@@ -0,0 +1,139 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The structure (first/limit in rows and columns) reported by the shading stores – alone and nested – should
+ * be exactly their band, and never exclude a nonzero element.
+ */
+public class ShadingStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    /**
+     * @param store The store to check
+     * @param lower The number of sub-diagonals
+     * @param upper The number of super-diagonals
+     */
+    static void assertBand(final MatrixStore<Double> store, final int lower, final int upper) {
+
+        int nbRows = store.getRowDim();
+        int nbCols = store.getColDim();
+
+        for (int j = 0; j < nbCols; j++) {
+            TestUtils.assertEquals(Math.max(0, j - upper), store.firstInColumn(j));
+            TestUtils.assertEquals(Math.min(nbRows, j + lower + 1), store.limitOfColumn(j));
+        }
+        for (int i = 0; i < nbRows; i++) {
+            TestUtils.assertEquals(Math.max(0, i - lower), store.firstInRow(i));
+            TestUtils.assertEquals(Math.min(nbCols, i + upper + 1), store.limitOfRow(i));
+        }
+
+        for (int j = 0; j < nbCols; j++) {
+            for (int i = 0; i < nbRows; i++) {
+                boolean inside = i >= store.firstInColumn(j) && i < store.limitOfColumn(j);
+                if (!inside) {
+                    TestUtils.assertEquals(0.0, store.doubleValue(i, j));
+                }
+                TestUtils.assertEquals(inside, j >= store.firstInRow(i) && j < store.limitOfRow(i));
+            }
+        }
+    }
+
+    private static Primitive64Store newDense(final int nbRows, final int nbCols) {
+        // No zeros
+        return Primitive64Store.FACTORY.makeFilled(nbRows, nbCols, new Uniform(1.0, 1.0));
+    }
+
+    @Test
+    public void testHessenberg() {
+
+        Primitive64Store square = ShadingStoreTest.newDense(9, 9);
+
+        ShadingStoreTest.assertBand(square.hessenberg(true), 1, 8);
+        ShadingStoreTest.assertBand(square.hessenberg(false), 8, 1);
+    }
+
+    /**
+     * MultiplyRight used to ignore the column limits of the right factor – the products should be unaffected
+     * by that, but now only the nonzero parts are visited.
+     */
+    @Test
+    public void testMultiplyRight() {
+
+        Primitive64Store square = ShadingStoreTest.newDense(9, 9);
+        Primitive64Store left = ShadingStoreTest.newDense(1, 9);
+
+        for (MatrixStore<Double> right : new MatrixStore[] { square.triangular(true, false), square.tridiagonal(), square.bidiagonal(false),
+                square.diagonal() }) {
+
+            Primitive64Store expected = Primitive64Store.FACTORY.make(1, 9);
+            expected.fillByMultiplying(left, Primitive64Store.FACTORY.copy(right));
+
+            Primitive64Store actual = Primitive64Store.FACTORY.make(1, 9);
+            actual.fillByMultiplying(left, right);
+
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+        }
+    }
+
+    @Test
+    public void testNested() {
+
+        Primitive64Store square = ShadingStoreTest.newDense(9, 9);
+
+        ShadingStoreTest.assertBand(square.tridiagonal(), 1, 1);
+        ShadingStoreTest.assertBand(square.bidiagonal(true), 0, 1);
+        ShadingStoreTest.assertBand(square.bidiagonal(false), 1, 0);
+        ShadingStoreTest.assertBand(square.diagonal(), 0, 0);
+
+        ShadingStoreTest.assertBand(square.tridiagonal().triangular(true, false), 0, 1);
+        ShadingStoreTest.assertBand(square.hessenberg(true).hessenberg(false), 1, 1);
+    }
+
+    @Test
+    public void testTriangular() {
+
+        Primitive64Store square = ShadingStoreTest.newDense(9, 9);
+        Primitive64Store tall = ShadingStoreTest.newDense(9, 6);
+        Primitive64Store wide = ShadingStoreTest.newDense(6, 9);
+
+        for (Primitive64Store base : new Primitive64Store[] { square, tall, wide }) {
+            ShadingStoreTest.assertBand(base.triangular(true, false), 0, 9);
+            ShadingStoreTest.assertBand(base.triangular(false, false), 9, 0);
+            ShadingStoreTest.assertBand(base.triangular(true, true), 0, 9);
+            ShadingStoreTest.assertBand(base.triangular(false, true), 9, 0);
+        }
+
+        // Unit diagonal on top of a structured base – the diagonal is there even if the base doesn't have it
+
+        ShadingStoreTest.assertBand(square.triangular(false, false).triangular(true, true), 0, 0);
+        ShadingStoreTest.assertBand(square.triangular(true, false).triangular(false, true), 0, 0);
+        ShadingStoreTest.assertBand(square.tridiagonal().triangular(false, true), 1, 0);
+    }
+
+}
@@ -36,6 +36,12 @@ import org.ojalgo.optimisation.linear.LinearSolver.GeneralBuilder;
 
 public class RevisedSimplexSolverTest extends OptimisationLinearTests {
 
+    /**
+     * The revised variants are tested with both representations of the basis – the default product form
+     * inverse, and the sparse LU.
+     */
+    private static final LinearSolver.Configuration SPARSE_LU = new LinearSolver.Configuration().sparseLU(true);
+
     static void assertEquals(final Result expected, final Result actual) {
 
         TestUtils.assertEquals(expected.getState(), actual.getState());
@@ -66,6 +72,9 @@ public class RevisedSimplexSolverTest extends OptimisationLinearTests {
 
         DualSimplexSolver revisedSolver = RevisedStore.build(simplified).newDualSimplexSolver(options);
         RevisedSimplexSolverTest.doTestOneVariant(model, expected, revisedSolver);
+
+        DualSimplexSolver sparseLUSolver = SimplexStore.build(simplified, structure -> new RevisedStore(structure, SPARSE_LU)).newDualSimplexSolver(options);
+        RevisedSimplexSolverTest.doTestOneVariant(model, expected, sparseLUSolver);
     }
 
     static void doTestDualVariants(final LinearSolver.GeneralBuilder builder, final Result expected, final int... basis) {
@@ -81,6 +90,10 @@ public class RevisedSimplexSolverTest extends OptimisationLinearTests {
 
         DualSimplexSolver revisedSolver = RevisedStore.build(builder, basis).newDualSimplexSolver(options, basis);
         RevisedSimplexSolverTest.doTestOneVariant(expected, revisedSolver);
+
+        DualSimplexSolver sparseLUSolver = SimplexStore.build(builder, structure -> new RevisedStore(structure, SPARSE_LU), basis).newDualSimplexSolver(options,
+                basis);
+        RevisedSimplexSolverTest.doTestOneVariant(expected, sparseLUSolver);
     }
 
     static void doTestOneVariant(final ExpressionsBasedModel model, final Result expected, final SimplexSolver solver) {
@@ -129,6 +142,9 @@ public class RevisedSimplexSolverTest extends OptimisationLinearTests {
 
         PhasedSimplexSolver revisedSolver = RevisedStore.build(simplified).newPhasedSimplexSolver(options);
         RevisedSimplexSolverTest.doTestOneVariant(model, expected, revisedSolver);
+
+        PhasedSimplexSolver sparseLUSolver = SimplexStore.build(simplified, structure -> new RevisedStore(structure, SPARSE_LU)).newPhasedSimplexSolver(options);
+        RevisedSimplexSolverTest.doTestOneVariant(model, expected, sparseLUSolver);
     }
 
     static void doTestPhasedVariants(final LinearSolver.GeneralBuilder builder, final Result expected) {
@@ -161,6 +177,9 @@ public class RevisedSimplexSolverTest extends OptimisationLinearTests {
 
         PrimalSimplexSolver revisedSolver = RevisedStore.build(simplified).newPrimalSimplexSolver(options);
         RevisedSimplexSolverTest.doTestOneVariant(model, expected, revisedSolver);
+
+        PrimalSimplexSolver sparseLUSolver = SimplexStore.build(simplified, structure -> new RevisedStore(structure, SPARSE_LU)).newPrimalSimplexSolver(options);
+        RevisedSimplexSolverTest.doTestOneVariant(model, expected, sparseLUSolver);
     }
 
     static void doTestPrimalVariants(final LinearSolver.GeneralBuilder builder, final Result expected, final int... basis) {
@@ -176,6 +195,10 @@ public class RevisedSimplexSolverTest extends OptimisationLinearTests {
 
         PrimalSimplexSolver revisedSolver = RevisedStore.build(builder, basis).newPrimalSimplexSolver(options, basis);
         RevisedSimplexSolverTest.doTestOneVariant(expected, revisedSolver);
+
+        PrimalSimplexSolver sparseLUSolver = SimplexStore.build(builder, structure -> new RevisedStore(structure, SPARSE_LU), basis)
+                .newPrimalSimplexSolver(options, basis);
+        RevisedSimplexSolverTest.doTestOneVariant(expected, sparseLUSolver);
     }
 
     /**
@@ -0,0 +1,170 @@
+/*
+ * Copyright 1997-2023 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.array.SparseArray;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class SparseLUTest extends OptimisationLinearTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10, 10);
+
+    static SparseArray<Double> newColumn(final int dim, final int index) {
+
+        SparseArray<Double> retVal = SparseArray.factory(ArrayR064.FACTORY).make(dim);
+
+        retVal.set(index, 2.0 + Normal.standard().doubleValue());
+        for (int e = 0; e < 3; e++) {
+            retVal.set(Uniform.randomInteger(dim), Normal.standard().doubleValue());
+        }
+
+        return retVal;
+    }
+
+    static void assertSameTransformations(final SparseStore<Double> basis, final SparseLU factors) {
+
+        int dim = Math.toIntExact(basis.countRows());
+
+        LU<Double> reference = LU.R064.make(basis);
+        TestUtils.assertTrue(reference.decompose(basis));
+
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(dim, 2, Normal.standard());
+        Primitive64Store expected = Primitive64Store.FACTORY.make(dim, 2);
+        Primitive64Store actual = Primitive64Store.FACTORY.make(dim, 2);
+
+        reference.ftran(rhs, expected);
+        factors.ftran(rhs, actual);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        reference.btran(rhs, expected);
+        factors.btran(rhs, actual);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+    }
+
+    static void setColumn(final SparseStore<Double> basis, final int col, final SparseArray<Double> values) {
+        for (int i = 0; i < basis.countRows(); i++) {
+            basis.set(i, col, ZERO);
+        }
+        values.nonzeros().forEach(nz -> basis.set(nz.index(), col, nz.doubleValue()));
+    }
+
+    /**
+     * Same example as in {@link ProductFormInverseTest}
+     */
+    @Test
+    public void testLecture6Example() {
+
+        SparseStore<Double> basis = SparseStore.R064.make(3, 3);
+        basis.set(0, 0, ONE);
+        basis.set(1, 1, ONE);
+        basis.set(2, 2, ONE);
+
+        SparseLU factors = new SparseLU(3, RELATIVELY_SMALL);
+        factors.reset(basis);
+        SparseLUTest.assertSameTransformations(basis, factors);
+
+        SparseArray<Double> arr0 = SparseArray.factory(ArrayR064.FACTORY).make(3);
+        arr0.set(0, 8);
+        arr0.set(1, 4);
+        arr0.set(2, 2);
+        SparseLUTest.setColumn(basis, 2, arr0);
+        factors.update(basis, 2, arr0);
+        SparseLUTest.assertSameTransformations(basis, factors);
+
+        SparseArray<Double> arr2 = SparseArray.factory(ArrayR064.FACTORY).make(3);
+        arr2.set(0, 1);
+        arr2.set(1, 1.5);
+        arr2.set(2, 0.5);
+        SparseLUTest.setColumn(basis, 1, arr2);
+        factors.update(basis, 1, arr2);
+        SparseLUTest.assertSameTransformations(basis, factors);
+    }
+
+    /**
+     * A sequence of column replacements – with Forrest-Tomlin updates, and some refactorisations (triggered by
+     * the update limit).
+     */
+    @Test
+    public void testUpdates() {
+
+        int dim = 200;
+        int limit = SparseLU.UPDATES;
+
+        try {
+
+            SparseLU.UPDATES = 7;
+
+            SparseStore<Double> basis = SparseStore.R064.make(dim, dim);
+            for (int j = 0; j < dim; j++) {
+                SparseLUTest.setColumn(basis, j, SparseLUTest.newColumn(dim, j));
+            }
+
+            SparseLU factors = new SparseLU(dim, RELATIVELY_SMALL);
+            factors.reset(basis);
+            SparseLUTest.assertSameTransformations(basis, factors);
+
+            for (int u = 0; u < 20; u++) {
+
+                int col = Uniform.randomInteger(dim);
+                SparseArray<Double> values = SparseLUTest.newColumn(dim, col);
+
+                SparseLUTest.setColumn(basis, col, values);
+                factors.update(basis, col, values);
+
+                SparseLUTest.assertSameTransformations(basis, factors);
+            }
+
+        } finally {
+            SparseLU.UPDATES = limit;
+        }
+    }
+
+    @Test
+    public void testSingular() {
+
+        SparseStore<Double> basis = SparseStore.R064.make(4, 4);
+        basis.set(0, 0, ONE);
+        basis.set(1, 1, ONE);
+        basis.set(2, 1, ONE);
+        basis.set(3, 3, ONE);
+
+        SparseLU factors = new SparseLU(4, RELATIVELY_SMALL);
+        factors.reset(basis);
+
+        // Not factorised – the transformations do nothing (just like ProductFormInverse)
+        Primitive64Store rhs = Primitive64Store.FACTORY.makeFilled(4, 1, Normal.standard());
+        Primitive64Store actual = Primitive64Store.FACTORY.make(4, 1);
+        factors.ftran(rhs, actual);
+        TestUtils.assertEquals(rhs, actual);
+    }
+
+}